@@ -87,6 +87,11 @@ public class Aeron implements AutoCloseable
         commandBuffer = ctx.toDriverBuffer();
         conductor = new ClientConductor(ctx, this);
 
+        if (ctx.clientCommandBuffer())
+        {
+            conductor.addClientCommandBuffer();
+        }
+
         if (ctx.useConductorAgentInvoker())
         {
             conductorInvoker = new AgentInvoker(ctx.errorHandler(), null, conductor);
@@ -511,6 +516,18 @@ public class Aeron implements AutoCloseable
          */
         public static final boolean PRE_TOUCH_MAPPED_MEMORY_DEFAULT = false;
 
+        /**
+         * Should the client ask the Media Driver for a command buffer of its own rather than share the to-driver
+         * buffer in the CnC file with all other clients. The client falls back to the shared buffer if the driver
+         * does not support it.
+         */
+        public static final String CLIENT_COMMAND_BUFFER_PROP_NAME = "aeron.client.command.buffer";
+
+        /**
+         * Default for if the client should ask the Media Driver for a command buffer of its own.
+         */
+        public static final boolean CLIENT_COMMAND_BUFFER_DEFAULT = false;
+
         /**
          * The Default handler for Aeron runtime exceptions.
          * When a {@link DriverTimeoutException} is encountered, this handler will exit the program.
@@ -576,6 +593,23 @@ public class Aeron implements AutoCloseable
 
             return PRE_TOUCH_MAPPED_MEMORY_DEFAULT;
         }
+
+        /**
+         * Should the client ask the Media Driver for a command buffer of its own.
+         *
+         * @return true if the client should ask for a command buffer of its own, otherwise false.
+         * @see #CLIENT_COMMAND_BUFFER_PROP_NAME
+         */
+        public static boolean clientCommandBuffer()
+        {
+            final String value = System.getProperty(CLIENT_COMMAND_BUFFER_PROP_NAME);
+            if (null != value)
+            {
+                return Boolean.parseBoolean(value);
+            }
+
+            return CLIENT_COMMAND_BUFFER_DEFAULT;
+        }
     }
 
     /**
@@ -596,6 +630,7 @@ public class Aeron implements AutoCloseable
         private long clientId;
         private boolean useConductorAgentInvoker = false;
         private boolean preTouchMappedMemory = Configuration.preTouchMappedMemory();
+        private boolean clientCommandBuffer = Configuration.clientCommandBuffer();
         private AgentInvoker driverAgentInvoker;
         private Lock clientLock;
         private EpochClock epochClock;
@@ -779,6 +814,32 @@ public class Aeron implements AutoCloseable
             return preTouchMappedMemory;
         }
 
+        /**
+         * Should the client ask the Media Driver for a command buffer of its own to avoid contention with other
+         * clients on the shared to-driver buffer.
+         *
+         * @param clientCommandBuffer true if the client should ask for a command buffer of its own otherwise false.
+         * @return this for a fluent API.
+         * @see Configuration#CLIENT_COMMAND_BUFFER_PROP_NAME
+         */
+        public Context clientCommandBuffer(final boolean clientCommandBuffer)
+        {
+            this.clientCommandBuffer = clientCommandBuffer;
+            return this;
+        }
+
+        /**
+         * Should the client ask the Media Driver for a command buffer of its own to avoid contention with other
+         * clients on the shared to-driver buffer.
+         *
+         * @return true if the client should ask for a command buffer of its own otherwise false.
+         * @see Configuration#CLIENT_COMMAND_BUFFER_PROP_NAME
+         */
+        public boolean clientCommandBuffer()
+        {
+            return clientCommandBuffer;
+        }
+
         /**
          * Set the {@link AgentInvoker} for the Media Driver to be used while awaiting a synchronous response.
          * <p>
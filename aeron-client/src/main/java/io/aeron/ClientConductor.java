@@ -19,16 +19,19 @@ import io.aeron.exceptions.*;
 import io.aeron.status.ChannelEndpointStatus;
 import io.aeron.status.HeartbeatTimestamp;
 import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
 import org.agrona.ManagedResource;
 import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.*;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 import org.agrona.concurrent.status.CountersReader;
 import org.agrona.concurrent.status.UnsafeBufferPosition;
 
+import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.locks.Lock;
 
@@ -82,6 +85,7 @@ class ClientConductor implements Agent, DriverEventsListener
     private final UnsafeBuffer counterValuesBuffer;
     private final CountersReader countersReader;
     private AtomicCounter heartbeatTimestamp;
+    private MappedByteBuffer clientCommandByteBuffer;
 
     ClientConductor(final Aeron.Context ctx, final Aeron aeron)
     {
@@ -173,6 +177,7 @@ class ClientConductor implements Agent, DriverEventsListener
                 }
 
                 driverProxy.clientClose();
+                IoUtil.unmap(clientCommandByteBuffer);
                 ctx.close();
             }
         }
@@ -450,6 +455,36 @@ class ClientConductor implements Agent, DriverEventsListener
         }
     }
 
+    void addClientCommandBuffer()
+    {
+        clientLock.lock();
+        try
+        {
+            ensureActive();
+            ensureNotReentrant();
+
+            if (!ctx.clientCommandBufferDir().isDirectory())
+            {
+                // driver does not give command buffers to clients, or predates them and would not reply to the command
+                return;
+            }
+
+            awaitResponse(driverProxy.addClientCommandBuffer());
+
+            clientCommandByteBuffer = IoUtil.mapExistingFile(
+                ctx.clientCommandBufferFile(driverProxy.clientId()), "client command buffer");
+            driverProxy.clientCommandBuffer(new ManyToOneRingBuffer(new UnsafeBuffer(clientCommandByteBuffer)));
+        }
+        catch (final RegistrationException ignore)
+        {
+            // driver does not give command buffers to clients so carry on with the shared to-driver buffer
+        }
+        finally
+        {
+            clientLock.unlock();
+        }
+    }
+
     ConcurrentPublication addPublication(final String channel, final int streamId)
     {
         clientLock.lock();
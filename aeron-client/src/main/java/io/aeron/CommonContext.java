@@ -113,6 +113,11 @@ public class CommonContext implements Cloneable
      */
     public static final String AERON_DIR_PROP_DEFAULT;
 
+    /**
+     * Directory within the Aeron directory for the command buffers the Media Driver gives to clients of their own.
+     */
+    public static final String CLIENT_COMMAND_BUFFER_DIR = "clients";
+
     /**
      * Media type used for IPC shared memory from {@link Publication} to {@link Subscription} channels.
      */
@@ -265,7 +270,7 @@ public class CommonContext implements Cloneable
 
     /**
      * Parameter name for Subscription URI param to indicate the congestion control algorithm to be used.
-     * Options include {@code static} and {@code cubic}.
+     * Options include {@code static}, {@code cubic}, and {@code bbr}.
      */
     public static final String CONGESTION_CONTROL_PARAM_NAME = "cc";
 
@@ -280,6 +285,50 @@ public class CommonContext implements Cloneable
      */
     public static final String RECEIVER_TAG_PARAM_NAME = "rtag";
 
+    /**
+     * Parameter name for Publication or Subscription URI param to pin the channel to a given Sender or Receiver
+     * shard when the media driver is running in the sharded threading mode. The value must be a non-negative integer
+     * and is taken modulo the number of shards.
+     */
+    public static final String SHARD_PARAM_NAME = "shard";
+
+    /**
+     * Parameter name for Publication URI param to indicate the weight of a network publication in the Sender. The
+     * weight is the number of MTU length sends the publication may make per duty cycle of the Sender, so a
+     * publication with a greater weight gets a greater share of the Sender ahead of other publications.
+     */
+    public static final String WEIGHT_PARAM_NAME = "weight";
+
+    /**
+     * Parameter name for Publication URI param to enable forward error correction on a network publication. The value
+     * is the number of data datagrams covered by each XOR parity frame, so a receiver can rebuild any single datagram
+     * lost from a group without waiting on a NAK and retransmit. Datagrams are limited so the parity frame still fits
+     * in the MTU, which reduces the MTU available for data by the length of the parity header.
+     */
+    public static final String FEC_PARAM_NAME = "fec";
+
+    /**
+     * Parameter name for Publication URI param to pace a network publication to a rate in bytes per second, with an
+     * optional k, m, or g suffix, so the Sender does not send a backlog in line rate bursts which overrun switch
+     * buffers and the socket receive buffers of receivers.
+     */
+    public static final String RATE_PARAM_NAME = "rate";
+
+    /**
+     * Parameter name for Publication URI param to set the length in bytes, with an optional k, m, or g suffix, which
+     * a paced network publication may send back to back after being idle. Defaults to the MTU length and must be at
+     * least the MTU length.
+     */
+    public static final String BURST_PARAM_NAME = "burst";
+
+    /**
+     * Parameter name for Publication and Subscription URI param to trace the one-way latency of frames on a network
+     * stream. The Sender stamps frames of a traced publication as they are sent, and the Receiver stamps frames for a
+     * traced subscription as they are received, so the publisher to sender, wire, and receiver to poll latencies can
+     * be counted. Frames of a traced publication must be offered with {@link LatencyTrace#RESERVED_VALUE_SUPPLIER}.
+     */
+    public static final String LATENCY_TRACE_PARAM_NAME = "latency-trace";
+
     /**
      * Using an integer because there is no support for boolean. 1 is concluded, 0 is not concluded.
      */
@@ -489,6 +538,28 @@ public class CommonContext implements Cloneable
         return cncFile;
     }
 
+    /**
+     * Get the directory for the command buffers the Media Driver gives to clients. The Media Driver only creates it
+     * when command buffers are enabled so clients can check for it before asking for one.
+     *
+     * @return the directory for the command buffers of clients.
+     */
+    public File clientCommandBufferDir()
+    {
+        return new File(aeronDirectory, CLIENT_COMMAND_BUFFER_DIR);
+    }
+
+    /**
+     * Get the file for the command buffer of a client which the Media Driver gives to it for its own use.
+     *
+     * @param clientId of the client.
+     * @return the file for the command buffer of the client.
+     */
+    public File clientCommandBufferFile(final long clientId)
+    {
+        return new File(clientCommandBufferDir(), clientId + ".cmd");
+    }
+
     /**
      * Set the driver timeout in milliseconds
      *
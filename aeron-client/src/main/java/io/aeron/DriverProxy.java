@@ -23,16 +23,27 @@ import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
 
 import static io.aeron.command.ControlProtocolEvents.*;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.CORRELATION_COUNTER_OFFSET;
 
 /**
  * Separates the concern of communicating with the client conductor away from the rest of the client.
  * <p>
- * Writes commands into the client conductor buffer.
+ * Writes commands into the client conductor buffer, or into a command buffer of the client's own if the driver has
+ * given it one. Correlation ids are taken from the client conductor buffer so they are unique across clients, one at a
+ * time when commands go to the client conductor buffer or a block at a time when the client has its own command
+ * buffer so clients do not contend on the shared counter for each command.
  * <p>
  * <b>Note:</b> this class is not thread safe and is expecting to be called within {@link Aeron.Context#clientLock()}.
  */
 public class DriverProxy
 {
+    /**
+     * Number of correlation ids reserved at a time by a client with its own command buffer.
+     */
+    public static final int CORRELATION_ID_BLOCK_LENGTH = 1024;
+
+    private long nextCorrelationId;
+    private long correlationIdLimit;
     private final MutableDirectBuffer buffer = new ExpandableArrayBuffer(1024);
     private final PublicationMessageFlyweight publicationMessage = new PublicationMessageFlyweight();
     private final SubscriptionMessageFlyweight subscriptionMessage = new SubscriptionMessageFlyweight();
@@ -42,10 +53,12 @@ public class DriverProxy
     private final CounterMessageFlyweight counterMessage = new CounterMessageFlyweight();
     private final TerminateDriverFlyweight terminateDriver = new TerminateDriverFlyweight();
     private final RingBuffer toDriverCommandBuffer;
+    private RingBuffer commandBuffer;
 
     public DriverProxy(final RingBuffer toDriverCommandBuffer, final long clientId)
     {
         this.toDriverCommandBuffer = toDriverCommandBuffer;
+        this.commandBuffer = toDriverCommandBuffer;
 
         publicationMessage.wrap(buffer, 0);
         subscriptionMessage.wrap(buffer, 0);
@@ -68,16 +81,34 @@ public class DriverProxy
         return correlatedMessage.clientId();
     }
 
+    public void clientCommandBuffer(final RingBuffer commandBuffer)
+    {
+        this.commandBuffer = commandBuffer;
+    }
+
+    public long addClientCommandBuffer()
+    {
+        final long correlationId = nextCorrelationId();
+        correlatedMessage.correlationId(correlationId);
+
+        if (!toDriverCommandBuffer.write(ADD_CLIENT_COMMAND_BUFFER, buffer, 0, CorrelatedMessageFlyweight.LENGTH))
+        {
+            throw new AeronException("could not write add client command buffer command");
+        }
+
+        return correlationId;
+    }
+
     public long addPublication(final String channel, final int streamId)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         publicationMessage.correlationId(correlationId);
         publicationMessage
             .streamId(streamId)
             .channel(channel);
 
-        if (!toDriverCommandBuffer.write(ADD_PUBLICATION, buffer, 0, publicationMessage.length()))
+        if (!commandBuffer.write(ADD_PUBLICATION, buffer, 0, publicationMessage.length()))
         {
             throw new AeronException("could not write add publication command");
         }
@@ -87,14 +118,14 @@ public class DriverProxy
 
     public long addExclusivePublication(final String channel, final int streamId)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         publicationMessage.correlationId(correlationId);
         publicationMessage
             .streamId(streamId)
             .channel(channel);
 
-        if (!toDriverCommandBuffer.write(ADD_EXCLUSIVE_PUBLICATION, buffer, 0, publicationMessage.length()))
+        if (!commandBuffer.write(ADD_EXCLUSIVE_PUBLICATION, buffer, 0, publicationMessage.length()))
         {
             throw new AeronException("could not write add exclusive publication command");
         }
@@ -104,13 +135,13 @@ public class DriverProxy
 
     public long removePublication(final long registrationId)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         removeMessage
             .registrationId(registrationId)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(REMOVE_PUBLICATION, buffer, 0, RemoveMessageFlyweight.length()))
+        if (!commandBuffer.write(REMOVE_PUBLICATION, buffer, 0, RemoveMessageFlyweight.length()))
         {
             throw new AeronException("could not write remove publication command");
         }
@@ -121,7 +152,7 @@ public class DriverProxy
     public long addSubscription(final String channel, final int streamId)
     {
         final long registrationId = Aeron.NULL_VALUE;
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         subscriptionMessage.correlationId(correlationId);
         subscriptionMessage
@@ -129,7 +160,7 @@ public class DriverProxy
             .streamId(streamId)
             .channel(channel);
 
-        if (!toDriverCommandBuffer.write(ADD_SUBSCRIPTION, buffer, 0, subscriptionMessage.length()))
+        if (!commandBuffer.write(ADD_SUBSCRIPTION, buffer, 0, subscriptionMessage.length()))
         {
             throw new AeronException("could not write add subscription command");
         }
@@ -139,13 +170,13 @@ public class DriverProxy
 
     public long removeSubscription(final long registrationId)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         removeMessage
             .registrationId(registrationId)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(REMOVE_SUBSCRIPTION, buffer, 0, RemoveMessageFlyweight.length()))
+        if (!commandBuffer.write(REMOVE_SUBSCRIPTION, buffer, 0, RemoveMessageFlyweight.length()))
         {
             throw new AeronException("could not write remove subscription message");
         }
@@ -156,19 +187,19 @@ public class DriverProxy
     public void sendClientKeepalive()
     {
         correlatedMessage.correlationId(0);
-        toDriverCommandBuffer.write(CLIENT_KEEPALIVE, buffer, 0, CorrelatedMessageFlyweight.LENGTH);
+        commandBuffer.write(CLIENT_KEEPALIVE, buffer, 0, CorrelatedMessageFlyweight.LENGTH);
     }
 
     public long addDestination(final long registrationId, final String endpointChannel)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         destinationMessage
             .registrationCorrelationId(registrationId)
             .channel(endpointChannel)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(ADD_DESTINATION, buffer, 0, destinationMessage.length()))
+        if (!commandBuffer.write(ADD_DESTINATION, buffer, 0, destinationMessage.length()))
         {
             throw new AeronException("could not write destination command");
         }
@@ -178,14 +209,14 @@ public class DriverProxy
 
     public long removeDestination(final long registrationId, final String endpointChannel)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         destinationMessage
             .registrationCorrelationId(registrationId)
             .channel(endpointChannel)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(REMOVE_DESTINATION, buffer, 0, destinationMessage.length()))
+        if (!commandBuffer.write(REMOVE_DESTINATION, buffer, 0, destinationMessage.length()))
         {
             throw new AeronException("could not write destination command");
         }
@@ -195,14 +226,14 @@ public class DriverProxy
 
     public long addRcvDestination(final long registrationId, final String endpointChannel)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         destinationMessage
             .registrationCorrelationId(registrationId)
             .channel(endpointChannel)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(ADD_RCV_DESTINATION, buffer, 0, destinationMessage.length()))
+        if (!commandBuffer.write(ADD_RCV_DESTINATION, buffer, 0, destinationMessage.length()))
         {
             throw new AeronException("could not write rcv destination command");
         }
@@ -212,14 +243,14 @@ public class DriverProxy
 
     public long removeRcvDestination(final long registrationId, final String endpointChannel)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         destinationMessage
             .registrationCorrelationId(registrationId)
             .channel(endpointChannel)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(REMOVE_RCV_DESTINATION, buffer, 0, destinationMessage.length()))
+        if (!commandBuffer.write(REMOVE_RCV_DESTINATION, buffer, 0, destinationMessage.length()))
         {
             throw new AeronException("could not write rcv destination command");
         }
@@ -236,7 +267,7 @@ public class DriverProxy
         final int labelOffset,
         final int labelLength)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         counterMessage
             .typeId(typeId)
@@ -244,7 +275,7 @@ public class DriverProxy
             .labelBuffer(labelBuffer, labelOffset, labelLength)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(ADD_COUNTER, buffer, 0, counterMessage.length()))
+        if (!commandBuffer.write(ADD_COUNTER, buffer, 0, counterMessage.length()))
         {
             throw new AeronException("could not write add counter command");
         }
@@ -254,7 +285,7 @@ public class DriverProxy
 
     public long addCounter(final int typeId, final String label)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         counterMessage
             .typeId(typeId)
@@ -262,7 +293,7 @@ public class DriverProxy
             .label(label)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(ADD_COUNTER, buffer, 0, counterMessage.length()))
+        if (!commandBuffer.write(ADD_COUNTER, buffer, 0, counterMessage.length()))
         {
             throw new AeronException("could not write add counter command");
         }
@@ -272,13 +303,13 @@ public class DriverProxy
 
     public long removeCounter(final long registrationId)
     {
-        final long correlationId = toDriverCommandBuffer.nextCorrelationId();
+        final long correlationId = nextCorrelationId();
 
         removeMessage
             .registrationId(registrationId)
             .correlationId(correlationId);
 
-        if (!toDriverCommandBuffer.write(REMOVE_COUNTER, buffer, 0, RemoveMessageFlyweight.length()))
+        if (!commandBuffer.write(REMOVE_COUNTER, buffer, 0, RemoveMessageFlyweight.length()))
         {
             throw new AeronException("could not write remove counter command");
         }
@@ -289,7 +320,7 @@ public class DriverProxy
     public void clientClose()
     {
         correlatedMessage.correlationId(Aeron.NULL_VALUE);
-        toDriverCommandBuffer.write(CLIENT_CLOSE, buffer, 0, CorrelatedMessageFlyweight.LENGTH);
+        commandBuffer.write(CLIENT_CLOSE, buffer, 0, CorrelatedMessageFlyweight.LENGTH);
     }
 
     public boolean terminateDriver(final DirectBuffer tokenBuffer, final int tokenOffset, final int tokenLength)
@@ -300,4 +331,21 @@ public class DriverProxy
 
         return toDriverCommandBuffer.write(TERMINATE_DRIVER, buffer, 0, terminateDriver.length());
     }
+
+    private long nextCorrelationId()
+    {
+        if (commandBuffer == toDriverCommandBuffer)
+        {
+            return toDriverCommandBuffer.nextCorrelationId();
+        }
+
+        if (nextCorrelationId == correlationIdLimit)
+        {
+            nextCorrelationId = toDriverCommandBuffer.buffer().getAndAddLong(
+                toDriverCommandBuffer.capacity() + CORRELATION_COUNTER_OFFSET, CORRELATION_ID_BLOCK_LENGTH);
+            correlationIdLimit = nextCorrelationId + CORRELATION_ID_BLOCK_LENGTH;
+        }
+
+        return nextCorrelationId++;
+    }
 }
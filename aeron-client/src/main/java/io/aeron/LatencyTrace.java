@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.status.LatencyHistogram;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.util.Iterator;
+
+import static io.aeron.protocol.DataHeaderFlyweight.LATENCY_TRACE_RECEIVE_FLAG;
+
+/**
+ * Support for tracing the one-way latency of frames on a stream with the
+ * {@link CommonContext#LATENCY_TRACE_PARAM_NAME} param.
+ * <p>
+ * The reserved value of each frame carries the trace as it passes through each stage:
+ * <ol>
+ * <li>The publisher offers with {@link #RESERVED_VALUE_SUPPLIER} so the frame holds the time it was offered.</li>
+ * <li>The Sender replaces it with the publisher to sender latency and the time it was sent on the epoch clock.</li>
+ * <li>The Receiver counts the publisher to sender and wire latencies then replaces it with the time it was
+ * received.</li>
+ * <li>The subscriber counts the receiver to poll latency with a {@link ReceiverToPollHandler}.</li>
+ * </ol>
+ * The reserved value is therefore not available to the application on a traced stream. The publisher and Sender, and
+ * the Receiver and subscriber, must share a host as the latency between them is taken on {@link System#nanoTime()}.
+ * The wire latency is taken on {@link #epochNanoTime()} so needs the clocks of the hosts to be synchronised.
+ */
+public final class LatencyTrace
+{
+    /**
+     * Type id of a subscriber receiver to poll latency bucket counter.
+     */
+    public static final int RECEIVER_TO_POLL_TYPE_ID = 24;
+
+    /**
+     * Human readable name for the receiver to poll latency bucket counters.
+     */
+    public static final String RECEIVER_TO_POLL_NAME = "sub-lat-rcv-poll";
+
+    /**
+     * Supplies the time a frame is offered for the Sender to take the publisher to sender latency.
+     */
+    public static final ReservedValueSupplier RESERVED_VALUE_SUPPLIER =
+        (termBuffer, termOffset, frameLength) -> System.nanoTime();
+
+    private LatencyTrace()
+    {
+    }
+
+    /**
+     * Time in nanoseconds since the epoch with the resolution of {@link System#nanoTime()}. It is anchored to
+     * {@link System#currentTimeMillis()} on first use so is only as accurate as the wall clock at that millisecond.
+     *
+     * @return time in nanoseconds since the epoch.
+     */
+    public static long epochNanoTime()
+    {
+        return EpochNanoTimeBase.EPOCH_NS_AT_BASE + (System.nanoTime() - EpochNanoTimeBase.NANO_TIME_AT_BASE);
+    }
+
+    /**
+     * Has a frame been stamped with the time it was received by the Receiver of a traced subscription.
+     *
+     * @param header of the frame.
+     * @return true if the reserved value holds the time the frame was received.
+     */
+    public static boolean isReceiveStamped(final Header header)
+    {
+        return 0 != (header.flags() & LATENCY_TRACE_RECEIVE_FLAG);
+    }
+
+    /**
+     * Add the counters of a histogram for the receiver to poll latency of an image of a traced subscription.
+     * <p>
+     * The counters are added, and closed with {@link LatencyHistogram#close()}, by the client conductor so this must
+     * not be called from a client callback such as an {@link AvailableImageHandler} or {@link UnavailableImageHandler}
+     * as they can not reenter the client. {@link ReceiverToPollHandler} adds and closes the histograms from the thread
+     * which polls the subscription.
+     *
+     * @param aeron client to add the counters.
+     * @param image for which the latency is counted.
+     * @return the histogram which should be closed, outside client callbacks, once the image is closed.
+     */
+    public static LatencyHistogram addReceiverToPollHistogram(final Aeron aeron, final Image image)
+    {
+        final Subscription subscription = image.subscription();
+        final AtomicCounter[] buckets = new AtomicCounter[LatencyHistogram.BUCKET_COUNT];
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = aeron.addCounter(
+                RECEIVER_TO_POLL_TYPE_ID,
+                RECEIVER_TO_POLL_NAME + " " + LatencyHistogram.bucketName(i) + ": " +
+                image.sessionId() + " " + subscription.streamId() + " " + subscription.channel());
+        }
+
+        return new LatencyHistogram(buckets);
+    }
+
+    /**
+     * Wrap a {@link FragmentHandler} so the receiver to poll latency of each received frame is recorded before it is
+     * handled.
+     * <p>
+     * The lifecycle of the histogram is left to the caller, see {@link ReceiverToPollHandler} for a handler which
+     * manages a histogram for each image.
+     *
+     * @param histogram to record the latency.
+     * @param delegate  to handle the fragments.
+     * @return a handler which records the latency and then delegates.
+     */
+    public static FragmentHandler receiverToPollHandler(
+        final LatencyHistogram histogram, final FragmentHandler delegate)
+    {
+        return (buffer, offset, length, header) ->
+        {
+            if (isReceiveStamped(header))
+            {
+                final long latencyNs = System.nanoTime() - header.reservedValue();
+                if (latencyNs >= 0)
+                {
+                    histogram.record(latencyNs);
+                }
+            }
+
+            delegate.onFragment(buffer, offset, length, header);
+        };
+    }
+
+    /**
+     * {@link FragmentHandler} which records the receiver to poll latency of frames into a histogram for each image of
+     * a traced subscription before delegating.
+     * <p>
+     * The histogram for an image is added when the first stamped frame is polled from it and closed by
+     * {@link #closeHistogramsOfClosedImages()} once the image is closed, both on the thread which polls the
+     * subscription so the client is never called from one of its own callbacks. The handler is not threadsafe so
+     * should only be used by that thread.
+     */
+    public static final class ReceiverToPollHandler implements FragmentHandler, AutoCloseable
+    {
+        private final Aeron aeron;
+        private final FragmentHandler delegate;
+        private final Long2ObjectHashMap<ImageHistogram> histogramByImageIdMap = new Long2ObjectHashMap<>();
+
+        /**
+         * Construct a handler which adds histograms with a client and delegates to a handler.
+         *
+         * @param aeron    client to add the counters of the histograms.
+         * @param delegate to handle the fragments.
+         */
+        public ReceiverToPollHandler(final Aeron aeron, final FragmentHandler delegate)
+        {
+            this.aeron = aeron;
+            this.delegate = delegate;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            if (isReceiveStamped(header) && header.context() instanceof Image)
+            {
+                final long latencyNs = System.nanoTime() - header.reservedValue();
+                if (latencyNs >= 0)
+                {
+                    addedHistogram((Image)header.context()).record(latencyNs);
+                }
+            }
+
+            delegate.onFragment(buffer, offset, length, header);
+        }
+
+        /**
+         * Close the histograms of images which have been closed. Should be called periodically from the duty cycle
+         * which polls the subscription.
+         *
+         * @return the number of histograms closed.
+         */
+        public int closeHistogramsOfClosedImages()
+        {
+            int closedCount = 0;
+            final Iterator<ImageHistogram> iterator = histogramByImageIdMap.values().iterator();
+
+            while (iterator.hasNext())
+            {
+                final ImageHistogram imageHistogram = iterator.next();
+                if (imageHistogram.image.isClosed())
+                {
+                    iterator.remove();
+                    imageHistogram.histogram.close();
+                    closedCount++;
+                }
+            }
+
+            return closedCount;
+        }
+
+        /**
+         * Histogram for an image if one has been added.
+         *
+         * @param imageCorrelationId of the image for which the latency is counted.
+         * @return the histogram for the image or null if no stamped frame has been polled from it.
+         */
+        public LatencyHistogram histogram(final long imageCorrelationId)
+        {
+            final ImageHistogram imageHistogram = histogramByImageIdMap.get(imageCorrelationId);
+
+            return null == imageHistogram ? null : imageHistogram.histogram;
+        }
+
+        /**
+         * Close the histograms of all images. Must not be called from a client callback.
+         */
+        public void close()
+        {
+            for (final ImageHistogram imageHistogram : histogramByImageIdMap.values())
+            {
+                imageHistogram.histogram.close();
+            }
+
+            histogramByImageIdMap.clear();
+        }
+
+        private LatencyHistogram addedHistogram(final Image image)
+        {
+            ImageHistogram imageHistogram = histogramByImageIdMap.get(image.correlationId());
+            if (null == imageHistogram)
+            {
+                imageHistogram = new ImageHistogram(image, addReceiverToPollHistogram(aeron, image));
+                histogramByImageIdMap.put(image.correlationId(), imageHistogram);
+            }
+
+            return imageHistogram.histogram;
+        }
+
+        static final class ImageHistogram
+        {
+            final Image image;
+            final LatencyHistogram histogram;
+
+            ImageHistogram(final Image image, final LatencyHistogram histogram)
+            {
+                this.image = image;
+                this.histogram = histogram;
+            }
+        }
+    }
+
+    static final class EpochNanoTimeBase
+    {
+        static final long EPOCH_NS_AT_BASE;
+        static final long NANO_TIME_AT_BASE;
+
+        static
+        {
+            final long initialMs = System.currentTimeMillis();
+            long epochMs;
+            long nanoTime;
+
+            do
+            {
+                nanoTime = System.nanoTime();
+                epochMs = System.currentTimeMillis();
+            }
+            while (epochMs == initialMs);
+
+            EPOCH_NS_AT_BASE = epochMs * 1_000_000L;
+            NANO_TIME_AT_BASE = nanoTime;
+        }
+    }
+}
@@ -92,6 +92,11 @@ public class ControlProtocolEvents
      */
     public static final int TERMINATE_DRIVER = 0x0E;
 
+    /**
+     * Add a command buffer for the exclusive use of a client.
+     */
+    public static final int ADD_CLIENT_COMMAND_BUFFER = 0x0F;
+
     // Media Driver to Clients
 
     /**
@@ -61,6 +61,18 @@ public class DataHeaderFlyweight extends HeaderFlyweight
      */
     public static final short BEGIN_END_AND_EOS_FLAGS = BEGIN_FLAG | END_FLAG | EOS_FLAG;
 
+    /**
+     * (T) - Flag set by the Sender on a data frame of a latency traced publication once the reserved value has been
+     * stamped with the time the frame was sent.
+     */
+    public static final short LATENCY_TRACE_SEND_FLAG = 0x10;
+
+    /**
+     * (R) - Flag set by the Receiver on a data frame of a latency traced subscription once the reserved value has been
+     * stamped with the time the frame was received.
+     */
+    public static final short LATENCY_TRACE_RECEIVE_FLAG = 0x08;
+
     public static final long DEFAULT_RESERVE_VALUE = 0L;
 
     public static final int TERM_OFFSET_FIELD_OFFSET = 8;
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.protocol;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Flyweight for a FEC Parity Frame which carries the XOR of a group of data datagrams sent within a term.
+ * <p>
+ * A receiver missing exactly one datagram of the group can rebuild it by XOR of the parity payload with the
+ * datagrams of the group it already has. Each entry gives the term offset and length of a datagram in the group and
+ * the parity payload is as long as the longest datagram. An entry with a length of 0 is unused, which is the case for
+ * the tail of a partial group sent when the publication goes idle.
+ * <pre>
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                        Frame Length                           |
+ *  +---------------------------------------------------------------+
+ *  |  Version    |     Flags     |          Type (=0x08)           |
+ *  +-------------+---------------+---------------------------------+
+ *  |                          Session ID                           |
+ *  +---------------------------------------------------------------+
+ *  |                           Stream ID                           |
+ *  +---------------------------------------------------------------+
+ *  |                            Term ID                            |
+ *  +---------------------------------------------------------------+
+ *  |                          Group Size                           |
+ *  +---------------------------------------------------------------+
+ *  |                          Term Offset                          |
+ *  +---------------------------------------------------------------+
+ *  |                            Length                             |
+ *  +---------------------------------------------------------------+
+ *  |                 Further Term Offset and Length               ...
+ * ...                                                              |
+ *  +---------------------------------------------------------------+
+ *  |                        Parity Payload                        ...
+ * ...                                                              |
+ *  +---------------------------------------------------------------+
+ * </pre>
+ */
+public class FecParityFlyweight extends HeaderFlyweight
+{
+    /**
+     * Length of the FEC parity header before the list of entries.
+     */
+    public static final int HEADER_LENGTH = 24;
+
+    /**
+     * Length of each entry in the list.
+     */
+    public static final int ENTRY_LENGTH = 8;
+
+    /**
+     * Minimum number of datagrams protected by a parity frame.
+     */
+    public static final int MIN_GROUP_SIZE = 2;
+
+    /**
+     * Maximum number of datagrams protected by a parity frame.
+     */
+    public static final int MAX_GROUP_SIZE = 16;
+
+    private static final int SESSION_ID_FIELD_OFFSET = 8;
+    private static final int STREAM_ID_FIELD_OFFSET = 12;
+    private static final int TERM_ID_FIELD_OFFSET = 16;
+    private static final int GROUP_SIZE_FIELD_OFFSET = 20;
+    private static final int ENTRY_TERM_OFFSET_FIELD_OFFSET = 0;
+    private static final int ENTRY_LENGTH_FIELD_OFFSET = 4;
+
+    public FecParityFlyweight()
+    {
+    }
+
+    public FecParityFlyweight(final ByteBuffer buffer)
+    {
+        super(buffer);
+    }
+
+    public FecParityFlyweight(final UnsafeBuffer buffer)
+    {
+        super(buffer);
+    }
+
+    /**
+     * Offset in the frame at which the parity payload begins for a given group size.
+     *
+     * @param groupSize of datagrams protected by the frame.
+     * @return offset in the frame at which the parity payload begins.
+     */
+    public static int payloadOffset(final int groupSize)
+    {
+        return HEADER_LENGTH + (groupSize * ENTRY_LENGTH);
+    }
+
+    /**
+     * Length of a frame protecting a given number of datagrams with a parity payload.
+     *
+     * @param groupSize     of datagrams protected by the frame.
+     * @param payloadLength of the parity payload which is the length of the longest datagram.
+     * @return length of a frame protecting a given number of datagrams.
+     */
+    public static int computeFrameLength(final int groupSize, final int payloadLength)
+    {
+        return payloadOffset(groupSize) + payloadLength;
+    }
+
+    /**
+     * return session id field
+     *
+     * @return session id field
+     */
+    public int sessionId()
+    {
+        return getInt(SESSION_ID_FIELD_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * set session id field
+     *
+     * @param sessionId field value
+     * @return flyweight
+     */
+    public FecParityFlyweight sessionId(final int sessionId)
+    {
+        putInt(SESSION_ID_FIELD_OFFSET, sessionId, LITTLE_ENDIAN);
+
+        return this;
+    }
+
+    /**
+     * return stream id field
+     *
+     * @return stream id field
+     */
+    public int streamId()
+    {
+        return getInt(STREAM_ID_FIELD_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * set stream id field
+     *
+     * @param streamId field value
+     * @return flyweight
+     */
+    public FecParityFlyweight streamId(final int streamId)
+    {
+        putInt(STREAM_ID_FIELD_OFFSET, streamId, LITTLE_ENDIAN);
+
+        return this;
+    }
+
+    /**
+     * return term id field
+     *
+     * @return term id field
+     */
+    public int termId()
+    {
+        return getInt(TERM_ID_FIELD_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * set term id field
+     *
+     * @param termId field value
+     * @return flyweight
+     */
+    public FecParityFlyweight termId(final int termId)
+    {
+        putInt(TERM_ID_FIELD_OFFSET, termId, LITTLE_ENDIAN);
+
+        return this;
+    }
+
+    /**
+     * return group size field
+     *
+     * @return group size field
+     */
+    public int groupSize()
+    {
+        return getInt(GROUP_SIZE_FIELD_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * set group size field
+     *
+     * @param groupSize field value
+     * @return flyweight
+     */
+    public FecParityFlyweight groupSize(final int groupSize)
+    {
+        putInt(GROUP_SIZE_FIELD_OFFSET, groupSize, LITTLE_ENDIAN);
+
+        return this;
+    }
+
+    /**
+     * return term offset field for a datagram in the group
+     *
+     * @param index of the datagram in the group
+     * @return term offset field for a datagram in the group
+     */
+    public int termOffset(final int index)
+    {
+        return getInt(entryOffset(index) + ENTRY_TERM_OFFSET_FIELD_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * return length field for a datagram in the group
+     *
+     * @param index of the datagram in the group
+     * @return length field for a datagram in the group
+     */
+    public int length(final int index)
+    {
+        return getInt(entryOffset(index) + ENTRY_LENGTH_FIELD_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * set the term offset and length fields for a datagram in the group
+     *
+     * @param index      of the datagram in the group
+     * @param termOffset field value
+     * @param length     field value
+     * @return flyweight
+     */
+    public FecParityFlyweight entry(final int index, final int termOffset, final int length)
+    {
+        final int offset = entryOffset(index);
+        putInt(offset + ENTRY_TERM_OFFSET_FIELD_OFFSET, termOffset, LITTLE_ENDIAN);
+        putInt(offset + ENTRY_LENGTH_FIELD_OFFSET, length, LITTLE_ENDIAN);
+
+        return this;
+    }
+
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder()
+            .append("FEC_PARITY{frame-length=").append(frameLength())
+            .append(" version=").append(version())
+            .append(" flags=").append(flagsToChars(flags()))
+            .append(" type=").append(headerType())
+            .append(" session-id=").append(sessionId())
+            .append(" stream-id=").append(streamId())
+            .append(" term-id=").append(termId())
+            .append(" group=[");
+
+        for (int i = 0, size = groupSize(); i < size; i++)
+        {
+            sb.append(i > 0 ? ", " : "").append(termOffset(i)).append(':').append(length(i));
+        }
+
+        return sb.append("]}").toString();
+    }
+
+    private static int entryOffset(final int index)
+    {
+        return HEADER_LENGTH + (index * ENTRY_LENGTH);
+    }
+}
@@ -73,6 +73,16 @@ public class HeaderFlyweight extends UnsafeBuffer
      */
     public static final int HDR_TYPE_RTTM = 0x06;
 
+    /**
+     * header type NAK with a list of ranges
+     */
+    public static final int HDR_TYPE_NAK_RANGES = 0x07;
+
+    /**
+     * header type FEC parity over a group of data frames
+     */
+    public static final int HDR_TYPE_FEC_PARITY = 0x08;
+
     /**
      * header type EXT
      */
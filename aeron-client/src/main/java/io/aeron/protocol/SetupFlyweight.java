@@ -34,6 +34,11 @@ public class SetupFlyweight extends HeaderFlyweight
      */
     public static final int HEADER_LENGTH = 40;
 
+    /**
+     * Flag set by a source which accepts {@link NakRangesFlyweight} frames for retransmit requests.
+     */
+    public static final short NAK_RANGES_FLAG = 0x80;
+
     private static final int TERM_OFFSET_FIELD_OFFSET = 8;
     private static final int SESSION_ID_FIELD_OFFSET = 12;
     private static final int STREAM_ID_FIELD_OFFSET = 16;
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.status;
+
+import org.agrona.concurrent.status.AtomicCounter;
+
+/**
+ * Histogram of latencies held in a counter per bucket so it can be read from outside the process with the other
+ * counters of a stream.
+ * <p>
+ * Buckets grow in powers of 4 microseconds so the first bucket counts latencies below 1us, the second below 4us, and
+ * so on up to the last bucket which counts latencies of {@code 4^(BUCKET_COUNT - 2)}us or more.
+ * <p>
+ * <b>Note:</b> Recording is threadsafe but the buckets are read independently so are not a consistent snapshot.
+ */
+public class LatencyHistogram implements AutoCloseable
+{
+    /**
+     * Number of buckets, and so counters, in a histogram.
+     */
+    public static final int BUCKET_COUNT = 10;
+
+    private final AtomicCounter[] buckets;
+
+    /**
+     * Wrap the counters for the buckets of a histogram.
+     *
+     * @param buckets counters of length {@link #BUCKET_COUNT} ordered from the lowest latency bucket.
+     */
+    public LatencyHistogram(final AtomicCounter[] buckets)
+    {
+        if (BUCKET_COUNT != buckets.length)
+        {
+            throw new IllegalArgumentException("buckets.length=" + buckets.length + " must be " + BUCKET_COUNT);
+        }
+
+        this.buckets = buckets;
+    }
+
+    /**
+     * Index of the bucket which counts a latency.
+     *
+     * @param latencyNs to be counted.
+     * @return index of the bucket which counts the latency.
+     */
+    public static int bucketIndex(final long latencyNs)
+    {
+        final long latencyUs = latencyNs / 1000;
+        if (latencyUs <= 0)
+        {
+            return 0;
+        }
+
+        return Math.min(BUCKET_COUNT - 1, 1 + ((63 - Long.numberOfLeadingZeros(latencyUs)) >> 1));
+    }
+
+    /**
+     * Name of a bucket to be added to the label of its counter.
+     *
+     * @param index of the bucket.
+     * @return name of the bucket.
+     */
+    public static String bucketName(final int index)
+    {
+        if (index < BUCKET_COUNT - 1)
+        {
+            return "<" + (1L << (2 * index)) + "us";
+        }
+
+        return ">=" + (1L << (2 * (index - 1))) + "us";
+    }
+
+    /**
+     * Record a latency by incrementing the counter of its bucket.
+     *
+     * @param latencyNs to be recorded.
+     */
+    public void record(final long latencyNs)
+    {
+        buckets[bucketIndex(latencyNs)].incrementOrdered();
+    }
+
+    /**
+     * Counter for a bucket.
+     *
+     * @param index of the bucket.
+     * @return the counter for the bucket.
+     */
+    public AtomicCounter bucket(final int index)
+    {
+        return buckets[index];
+    }
+
+    /**
+     * Close the counters of the buckets. Counters added by a client are closed by the client conductor so this must
+     * not be called from a client callback such as an {@link io.aeron.UnavailableImageHandler}.
+     */
+    public void close()
+    {
+        for (final AtomicCounter bucket : buckets)
+        {
+            bucket.close();
+        }
+    }
+}
@@ -26,9 +26,15 @@ import org.agrona.ErrorHandler;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.broadcast.CopyBroadcastReceiver;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.function.ToIntFunction;
@@ -96,6 +102,9 @@ public class ClientConductorTest
 
     private final ErrorHandler mockClientErrorHandler = spy(new PrintError());
 
+    @TempDir
+    File aeronDir;
+
     private ClientConductor conductor;
     private final DriverProxy driverProxy = mock(DriverProxy.class);
     private final AvailableImageHandler mockAvailableImageHandler = mock(AvailableImageHandler.class);
@@ -126,6 +135,7 @@ public class ClientConductorTest
             .interServiceTimeoutNs(TimeUnit.MILLISECONDS.toNanos(INTER_SERVICE_TIMEOUT_MS));
 
         ctx.countersValuesBuffer(counterValuesBuffer);
+        ctx.aeronDirectoryName(aeronDir.getPath()).concludeAeronDirectory();
 
         when(mockClientLock.tryLock()).thenReturn(TRUE);
 
@@ -186,6 +196,37 @@ public class ClientConductorTest
         when(logBuffersSession2.termLength()).thenReturn(TERM_BUFFER_LENGTH);
     }
 
+    @Test
+    public void shouldNotAskForCommandBufferWhenDriverDoesNotProvideThem()
+    {
+        conductor.addClientCommandBuffer();
+
+        verify(driverProxy, never()).addClientCommandBuffer();
+        verify(driverProxy, never()).clientCommandBuffer(any());
+    }
+
+    @Test
+    public void shouldUseCommandBufferGivenByDriver() throws IOException
+    {
+        final File commandBufferFile = new File(new File(aeronDir, CommonContext.CLIENT_COMMAND_BUFFER_DIR), "0.cmd");
+        assertTrue(commandBufferFile.getParentFile().mkdir());
+        try (RandomAccessFile file = new RandomAccessFile(commandBufferFile, "rw"))
+        {
+            file.setLength(1024 + RingBufferDescriptor.TRAILER_LENGTH);
+        }
+
+        when(driverProxy.addClientCommandBuffer()).thenReturn(CLOSE_CORRELATION_ID);
+        whenReceiveBroadcastOnMessage(
+            ControlProtocolEvents.ON_OPERATION_SUCCESS,
+            operationSuccessBuffer,
+            (buffer) -> OperationSucceededFlyweight.LENGTH);
+
+        conductor.addClientCommandBuffer();
+
+        verify(driverProxy).addClientCommandBuffer();
+        verify(driverProxy).clientCommandBuffer(any(RingBuffer.class));
+    }
+
     // --------------------------------
     // Publication related interactions
     // --------------------------------
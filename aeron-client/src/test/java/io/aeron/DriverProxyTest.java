@@ -96,6 +96,24 @@ public class DriverProxyTest
         );
     }
 
+    @Test
+    public void shouldReserveCorrelationIdsInBlocksWhenUsingClientCommandBuffer()
+    {
+        final RingBuffer clientCommandBuffer = new ManyToOneRingBuffer(
+            new UnsafeBuffer(ByteBuffer.allocateDirect(TRAILER_LENGTH + 1024)));
+
+        final long firstSharedId = conductor.addPublication(CHANNEL, STREAM_ID);
+        conductor.clientCommandBuffer(clientCommandBuffer);
+
+        final long firstClientId = conductor.removePublication(CORRELATION_ID);
+        final long secondClientId = conductor.removePublication(CORRELATION_ID);
+
+        assertEquals(firstSharedId + 1, firstClientId);
+        assertEquals(firstClientId + 1, secondClientId);
+        assertEquals(firstClientId + DriverProxy.CORRELATION_ID_BLOCK_LENGTH, conductorBuffer.nextCorrelationId());
+        assertEquals(2, clientCommandBuffer.read((msgTypeId, buffer, index, length) -> {}));
+    }
+
     private void assertReadsOneMessage(final MessageHandler handler)
     {
         final int messageCount = conductorBuffer.read(handler);
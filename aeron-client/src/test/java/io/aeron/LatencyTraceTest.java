@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.status.LatencyHistogram;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static io.aeron.protocol.DataHeaderFlyweight.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LatencyTraceTest
+{
+    private static final long IMAGE_CORRELATION_ID = 42;
+    private static final int SESSION_ID = 7;
+    private static final int STREAM_ID = 1001;
+    private static final byte RECEIVED_FLAGS =
+        (byte)(BEGIN_AND_END_FLAGS | LATENCY_TRACE_SEND_FLAG | LATENCY_TRACE_RECEIVE_FLAG);
+
+    private final UnsafeBuffer frameBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(HEADER_LENGTH));
+    private final Aeron aeron = mock(Aeron.class);
+    private final Subscription subscription = mock(Subscription.class);
+    private final Image image = mock(Image.class);
+    private final Counter counter = mock(Counter.class);
+    private final FragmentHandler delegate = mock(FragmentHandler.class);
+    private final Header header = new Header(0, 16, image);
+    private final LatencyTrace.ReceiverToPollHandler handler = new LatencyTrace.ReceiverToPollHandler(aeron, delegate);
+
+    @BeforeEach
+    public void before()
+    {
+        when(subscription.streamId()).thenReturn(STREAM_ID);
+        when(subscription.channel()).thenReturn("aeron:udp?endpoint=localhost:40123|latency-trace=true");
+        when(image.subscription()).thenReturn(subscription);
+        when(image.sessionId()).thenReturn(SESSION_ID);
+        when(image.correlationId()).thenReturn(IMAGE_CORRELATION_ID);
+        when(aeron.addCounter(anyInt(), anyString())).thenReturn(counter);
+
+        header.buffer(frameBuffer);
+        header.offset(0);
+    }
+
+    @Test
+    public void shouldAddHistogramOnFirstStampedFrameOfImage()
+    {
+        stampFrame(RECEIVED_FLAGS);
+        handler.onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+        handler.onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+
+        verify(aeron, times(LatencyHistogram.BUCKET_COUNT))
+            .addCounter(eq(LatencyTrace.RECEIVER_TO_POLL_TYPE_ID), anyString());
+        verify(counter, times(2)).incrementOrdered();
+        verify(delegate, times(2)).onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+        assertNotNull(handler.histogram(IMAGE_CORRELATION_ID));
+    }
+
+    @Test
+    public void shouldNotAddHistogramForFramesNotStampedOnReceipt()
+    {
+        stampFrame((byte)(BEGIN_AND_END_FLAGS | LATENCY_TRACE_SEND_FLAG));
+        handler.onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+
+        verifyNoInteractions(aeron);
+        verify(delegate).onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+        assertNull(handler.histogram(IMAGE_CORRELATION_ID));
+    }
+
+    @Test
+    public void shouldCloseHistogramOnlyOnceImageIsClosed()
+    {
+        stampFrame(RECEIVED_FLAGS);
+        handler.onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+
+        assertEquals(0, handler.closeHistogramsOfClosedImages());
+        verify(counter, never()).close();
+
+        when(image.isClosed()).thenReturn(true);
+
+        assertEquals(1, handler.closeHistogramsOfClosedImages());
+        verify(counter, times(LatencyHistogram.BUCKET_COUNT)).close();
+        assertNull(handler.histogram(IMAGE_CORRELATION_ID));
+        assertEquals(0, handler.closeHistogramsOfClosedImages());
+    }
+
+    @Test
+    public void shouldCloseAllHistogramsOnClose()
+    {
+        stampFrame(RECEIVED_FLAGS);
+        handler.onFragment(frameBuffer, HEADER_LENGTH, 0, header);
+
+        handler.close();
+
+        verify(counter, times(LatencyHistogram.BUCKET_COUNT)).close();
+        assertNull(handler.histogram(IMAGE_CORRELATION_ID));
+    }
+
+    private void stampFrame(final byte flags)
+    {
+        frameBuffer.putInt(FRAME_LENGTH_FIELD_OFFSET, HEADER_LENGTH, LITTLE_ENDIAN);
+        frameBuffer.putShort(TYPE_FIELD_OFFSET, (short)HDR_TYPE_DATA, LITTLE_ENDIAN);
+        frameBuffer.putByte(FLAGS_FIELD_OFFSET, flags);
+        frameBuffer.putLong(RESERVED_VALUE_OFFSET, System.nanoTime(), LITTLE_ENDIAN);
+    }
+}
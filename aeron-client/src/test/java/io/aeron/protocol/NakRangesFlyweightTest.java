@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.protocol;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NakRangesFlyweightTest
+{
+    private static final int SESSION_ID = 0xBEEF;
+    private static final int STREAM_ID = 1001;
+    private static final int TERM_ID = 7;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(
+        new byte[NakRangesFlyweight.computeFrameLength(NakRangesFlyweight.MAX_RANGE_COUNT)]);
+    private final NakRangesFlyweight encoder = new NakRangesFlyweight(buffer);
+    private final NakRangesFlyweight decoder = new NakRangesFlyweight(buffer);
+
+    @Test
+    public void shouldComputeFrameLengthFromRangeCount()
+    {
+        assertEquals(NakRangesFlyweight.HEADER_LENGTH, NakRangesFlyweight.computeFrameLength(0));
+        assertEquals(
+            NakRangesFlyweight.HEADER_LENGTH + 3 * NakRangesFlyweight.RANGE_LENGTH,
+            NakRangesFlyweight.computeFrameLength(3));
+    }
+
+    @Test
+    public void shouldRoundTripHeaderAndRanges()
+    {
+        final int rangeCount = 3;
+
+        encoder
+            .sessionId(SESSION_ID)
+            .streamId(STREAM_ID)
+            .termId(TERM_ID)
+            .rangeCount(rangeCount)
+            .range(0, 0, 1408)
+            .range(1, 4096, 64)
+            .range(2, 65536 - 32, 32)
+            .headerType(HeaderFlyweight.HDR_TYPE_NAK_RANGES)
+            .frameLength(NakRangesFlyweight.computeFrameLength(rangeCount));
+
+        assertEquals(NakRangesFlyweight.computeFrameLength(rangeCount), decoder.frameLength());
+        assertEquals(HeaderFlyweight.HDR_TYPE_NAK_RANGES, decoder.headerType());
+        assertEquals(SESSION_ID, decoder.sessionId());
+        assertEquals(STREAM_ID, decoder.streamId());
+        assertEquals(TERM_ID, decoder.termId());
+        assertEquals(rangeCount, decoder.rangeCount());
+
+        assertEquals(0, decoder.termOffset(0));
+        assertEquals(1408, decoder.length(0));
+        assertEquals(4096, decoder.termOffset(1));
+        assertEquals(64, decoder.length(1));
+        assertEquals(65536 - 32, decoder.termOffset(2));
+        assertEquals(32, decoder.length(2));
+    }
+
+    @Test
+    public void shouldFitMaxRangeCountInFrame()
+    {
+        final int lastIndex = NakRangesFlyweight.MAX_RANGE_COUNT - 1;
+
+        encoder.rangeCount(NakRangesFlyweight.MAX_RANGE_COUNT).range(lastIndex, 1024, 512);
+
+        assertEquals(NakRangesFlyweight.MAX_RANGE_COUNT, decoder.rangeCount());
+        assertEquals(1024, decoder.termOffset(lastIndex));
+        assertEquals(512, decoder.length(lastIndex));
+    }
+
+    @Test
+    public void shouldNotReadOrWriteRangeBeyondEndOfBuffer()
+    {
+        final int index = NakRangesFlyweight.MAX_RANGE_COUNT;
+
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.termOffset(index));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.length(index));
+        assertThrows(IndexOutOfBoundsException.class, () -> encoder.range(index, 0, 32));
+    }
+
+    @Test
+    public void shouldListRangesInToString()
+    {
+        encoder
+            .sessionId(SESSION_ID)
+            .streamId(STREAM_ID)
+            .termId(TERM_ID)
+            .rangeCount(2)
+            .range(0, 0, 64)
+            .range(1, 128, 32);
+
+        assertTrue(decoder.toString().endsWith("term-id=7 ranges=[0:64, 128:32]}"));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.aeron.driver;
 
+import org.agrona.DeadlineTimerWheel;
 import org.agrona.concurrent.status.AtomicCounter;
 
 import java.util.concurrent.TimeUnit;
@@ -22,14 +23,16 @@ import java.util.concurrent.TimeUnit;
 /**
  * Aeron client library tracker.
  */
-public class AeronClient implements DriverManagedResource
+public class AeronClient implements DriverManagedResource, DeadlineHandler
 {
     private final long clientId;
     private final long clientLivenessTimeoutMs;
     private final AtomicCounter clientTimeouts;
     private final AtomicCounter heartbeatTimestamp;
+    private long timerId = DeadlineTimerWheel.NULL_DEADLINE;
     private boolean reachedEndOfLife = false;
     private boolean closedByCommand = false;
+    private ClientCommandBuffer commandBuffer;
 
     public AeronClient(
         final long clientId,
@@ -52,6 +55,12 @@ public class AeronClient implements DriverManagedResource
         {
             heartbeatTimestamp.close();
         }
+
+        if (null != commandBuffer)
+        {
+            commandBuffer.close();
+            commandBuffer = null;
+        }
     }
 
     public long clientId()
@@ -64,6 +73,11 @@ public class AeronClient implements DriverManagedResource
         heartbeatTimestamp.setOrdered(nowMs);
     }
 
+    public long livenessDeadlineMs()
+    {
+        return heartbeatTimestamp.get() + clientLivenessTimeoutMs;
+    }
+
     public boolean hasTimedOut()
     {
         return reachedEndOfLife;
@@ -88,6 +102,31 @@ public class AeronClient implements DriverManagedResource
         return reachedEndOfLife;
     }
 
+    public void onDeadline(final long nowNs, final long nowMs, final DriverConductor conductor)
+    {
+        conductor.onClientDeadline(this, nowNs, nowMs);
+    }
+
+    long timerId()
+    {
+        return timerId;
+    }
+
+    void timerId(final long timerId)
+    {
+        this.timerId = timerId;
+    }
+
+    ClientCommandBuffer commandBuffer()
+    {
+        return commandBuffer;
+    }
+
+    void commandBuffer(final ClientCommandBuffer commandBuffer)
+    {
+        this.commandBuffer = commandBuffer;
+    }
+
     void onClosedByCommand()
     {
         closedByCommand = true;
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.ChannelUri;
+import io.aeron.driver.media.UdpChannel;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least recently used cache of parsed channels, keyed by the URI string supplied by clients, so channels which
+ * are added repeatedly are not re-parsed and their hostnames re-resolved on each command.
+ * <p>
+ * Channels with no distinguishing characteristic are given a unique canonical form each time they are parsed and so
+ * are never cached. Entries must be invalidated for hostnames to be resolved again.
+ * <p>
+ * <b>Note:</b> Not thread safe and is only used on the {@link DriverConductor} thread.
+ */
+final class ChannelCache
+{
+    private final int maxSize;
+    private final AtomicCounter hits;
+    private final AtomicCounter misses;
+    private final LruMap<UdpChannel> udpChannelByUriMap;
+    private final LruMap<ChannelUri> channelUriByUriMap;
+
+    /**
+     * Construct a cache which holds up to max size channels of each type.
+     *
+     * @param maxSize of each type of channel held, with 0 disabling the cache.
+     * @param hits    counter incremented when a channel is found in the cache.
+     * @param misses  counter incremented when a channel must be parsed.
+     */
+    ChannelCache(final int maxSize, final AtomicCounter hits, final AtomicCounter misses)
+    {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        udpChannelByUriMap = new LruMap<>(maxSize);
+        channelUriByUriMap = new LruMap<>(maxSize);
+    }
+
+    /**
+     * Get the parsed {@link UdpChannel} for a URI, parsing and resolving it if not in the cache.
+     *
+     * @param channel URI to be parsed.
+     * @return the parsed {@link UdpChannel}.
+     */
+    UdpChannel udpChannel(final String channel)
+    {
+        if (0 == maxSize)
+        {
+            return UdpChannel.parse(channel);
+        }
+
+        UdpChannel udpChannel = udpChannelByUriMap.get(channel);
+        if (null != udpChannel)
+        {
+            hits.increment();
+            return udpChannel;
+        }
+
+        misses.increment();
+        udpChannel = UdpChannel.parse(channel);
+        if (!udpChannel.hasNoDistinguishingCharacteristic())
+        {
+            udpChannelByUriMap.put(channel, udpChannel);
+        }
+
+        return udpChannel;
+    }
+
+    /**
+     * Get the parsed {@link ChannelUri} for a URI, parsing it if not in the cache. The result is shared and must not
+     * be modified.
+     *
+     * @param channel URI to be parsed.
+     * @return the parsed {@link ChannelUri}.
+     */
+    ChannelUri channelUri(final String channel)
+    {
+        if (0 == maxSize)
+        {
+            return ChannelUri.parse(channel);
+        }
+
+        ChannelUri channelUri = channelUriByUriMap.get(channel);
+        if (null != channelUri)
+        {
+            hits.increment();
+            return channelUri;
+        }
+
+        misses.increment();
+        channelUri = ChannelUri.parse(channel);
+        channelUriByUriMap.put(channel, channelUri);
+
+        return channelUri;
+    }
+
+    /**
+     * Remove all channels from the cache so they are parsed and resolved again on next use.
+     */
+    void invalidateAll()
+    {
+        udpChannelByUriMap.clear();
+        channelUriByUriMap.clear();
+    }
+
+    /**
+     * Total number of parsed channels held in the cache.
+     *
+     * @return total number of parsed channels held in the cache.
+     */
+    int size()
+    {
+        return udpChannelByUriMap.size() + channelUriByUriMap.size();
+    }
+
+    static final class LruMap<V> extends LinkedHashMap<String, V>
+    {
+        private static final long serialVersionUID = -3412095263785064713L;
+
+        private final int maxSize;
+
+        LruMap(final int maxSize)
+        {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        protected boolean removeEldestEntry(final Map.Entry<String, V> eldest)
+        {
+            return size() > maxSize;
+        }
+    }
+}
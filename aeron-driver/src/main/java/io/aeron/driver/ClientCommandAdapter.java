@@ -30,7 +30,8 @@ import static io.aeron.ErrorCode.GENERIC_ERROR;
 import static io.aeron.command.ControlProtocolEvents.*;
 
 /**
- * Receives commands from Aeron clients and dispatches them to the {@link DriverConductor} for processing.
+ * Receives commands from Aeron clients and dispatches them to the {@link DriverConductor} for processing. Commands
+ * are read from the to-driver buffer in the CnC file here and from the command buffers of clients by the conductor.
  */
 class ClientCommandAdapter implements MessageHandler
 {
@@ -243,6 +244,16 @@ class ClientCommandAdapter implements MessageHandler
                     break;
                 }
 
+                case ADD_CLIENT_COMMAND_BUFFER:
+                {
+                    correlatedMsgFlyweight.wrap(buffer, index);
+                    correlatedMsgFlyweight.validateLength(msgTypeId, length);
+
+                    correlationId = correlatedMsgFlyweight.correlationId();
+                    conductor.onAddClientCommandBuffer(correlatedMsgFlyweight.clientId(), correlationId);
+                    break;
+                }
+
                 case TERMINATE_DRIVER:
                 {
                     terminateDriverFlyweight.wrap(buffer, index);
@@ -266,17 +277,32 @@ class ClientCommandAdapter implements MessageHandler
                 }
             }
         }
-        catch (final ControlProtocolException ex)
+        catch (final Exception ex)
+        {
+            onCommandError(correlationId, ex);
+        }
+    }
+
+    /**
+     * Report a command which has failed to the client which sent it and record the error. Used for commands which
+     * complete after the message has been consumed, such as those awaiting the allocation of a log buffer.
+     *
+     * @param correlationId of the failed command.
+     * @param ex            reason for the failure.
+     */
+    void onCommandError(final long correlationId, final Exception ex)
+    {
+        if (ex instanceof ControlProtocolException)
         {
-            clientProxy.onError(correlationId, ex.errorCode(), ex.getMessage());
-            recordError(ex);
+            clientProxy.onError(correlationId, ((ControlProtocolException)ex).errorCode(), ex.getMessage());
         }
-        catch (final Exception ex)
+        else
         {
             final String errorMessage = ex.getClass().getSimpleName() + " : " + ex.getMessage();
             clientProxy.onError(correlationId, GENERIC_ERROR, errorMessage);
-            recordError(ex);
         }
+
+        recordError(ex);
     }
 
     public void addPublication(final long correlationId, final boolean isExclusive)
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.Aeron;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Command buffer given to an Aeron client for its own use so it does not contend with other clients on the to-driver
+ * buffer in the CnC file, and so the {@link DriverConductor} can drain clients fairly.
+ * <p>
+ * The max time commands wait in the buffer is tracked by noting the producer position and time when commands are
+ * first seen pending and measuring how long it takes for the consumer position to reach it.
+ */
+final class ClientCommandBuffer implements AutoCloseable
+{
+    private long pendingPosition = Aeron.NULL_VALUE;
+    private long timeOfPendingNs;
+    private final long clientId;
+    private final File file;
+    private final MappedByteBuffer mappedByteBuffer;
+    private final RingBuffer ringBuffer;
+    private final AtomicCounter maxLatency;
+
+    /**
+     * Map the command buffer for a client, adopting an existing file of the same length if one exists.
+     *
+     * @param clientId   of the client.
+     * @param file       for the command buffer.
+     * @param capacity   of the command buffer not including the ring buffer trailer.
+     * @param maxLatency for the max time in nanoseconds commands wait in the buffer.
+     */
+    ClientCommandBuffer(final long clientId, final File file, final int capacity, final AtomicCounter maxLatency)
+    {
+        this.clientId = clientId;
+        this.file = file;
+        this.maxLatency = maxLatency;
+
+        final int length = capacity + RingBufferDescriptor.TRAILER_LENGTH;
+        if (file.length() == length)
+        {
+            mappedByteBuffer = IoUtil.mapExistingFile(file, "client command buffer");
+        }
+        else
+        {
+            IoUtil.ensureDirectoryExists(file.getParentFile(), "client command buffers");
+            IoUtil.delete(file, true);
+            mappedByteBuffer = IoUtil.mapNewFile(file, length);
+        }
+
+        ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(mappedByteBuffer));
+    }
+
+    long clientId()
+    {
+        return clientId;
+    }
+
+    /**
+     * Read pending commands up to a limit.
+     *
+     * @param handler to which commands are dispatched.
+     * @param limit   on the number of commands read.
+     * @param nowNs   current time.
+     * @return the number of commands read.
+     */
+    int receive(final MessageHandler handler, final int limit, final long nowNs)
+    {
+        if (Aeron.NULL_VALUE == pendingPosition)
+        {
+            final long producerPosition = ringBuffer.producerPosition();
+            if (producerPosition == ringBuffer.consumerPosition())
+            {
+                return 0;
+            }
+
+            pendingPosition = producerPosition;
+            timeOfPendingNs = nowNs;
+        }
+
+        final int commandsRead = ringBuffer.read(handler, limit);
+
+        if (ringBuffer.consumerPosition() >= pendingPosition)
+        {
+            maxLatency.proposeMaxOrdered(nowNs - timeOfPendingNs);
+            pendingPosition = Aeron.NULL_VALUE;
+        }
+
+        return commandsRead;
+    }
+
+    public void close()
+    {
+        maxLatency.close();
+        IoUtil.unmap(mappedByteBuffer);
+        IoUtil.delete(file, true);
+    }
+}
@@ -23,11 +23,14 @@ import io.aeron.exceptions.AeronException;
 import io.aeron.exceptions.ConfigurationException;
 import io.aeron.driver.media.ReceiveChannelEndpoint;
 import io.aeron.driver.media.SendChannelEndpoint;
+import io.aeron.driver.media.UdpChannel;
 import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.NakRangesFlyweight;
 import org.agrona.BitUtil;
 import org.agrona.LangUtil;
 import org.agrona.collections.ArrayUtil;
+import org.agrona.collections.Hashing;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.broadcast.BroadcastBufferDescriptor;
 import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
@@ -76,6 +79,15 @@ public class Configuration
      */
     public static final String DIR_DELETE_ON_SHUTDOWN_PROP_NAME = "aeron.dir.delete.on.shutdown";
 
+    /**
+     * Should driver attempt to adopt the CnC file of a previous driver in {@link CommonContext#AERON_DIR_PROP_NAME}
+     * on start, if it is no longer active and has a matching layout, so clients which are still live need not
+     * reconnect. Clients need a driver timeout greater than the time taken to restart the driver. Clients are only
+     * adopted if the previous driver had no publications, subscriptions, images, or client counters, as these are not
+     * rebuilt, otherwise clients close and reconnect.
+     */
+    public static final String DIR_WARM_RESTART_PROP_NAME = "aeron.dir.warm.restart";
+
     /**
      * Should high resolution timer be used on Windows.
      */
@@ -196,6 +208,27 @@ public class Configuration
      */
     public static final int LOSS_REPORT_BUFFER_LENGTH_DEFAULT = 1024 * 1024;
 
+    /**
+     * Property name for the number of one second buckets of loss kept for each stream in the loss histogram which
+     * accompanies the loss report. 0 disables the loss histogram.
+     */
+    public static final String LOSS_HISTOGRAM_BUCKET_COUNT_PROP_NAME = "aeron.loss.histogram.bucket.count";
+
+    /**
+     * Default number of buckets of loss kept for each stream in the loss histogram which is disabled.
+     */
+    public static final int LOSS_HISTOGRAM_BUCKET_COUNT_DEFAULT = 0;
+
+    /**
+     * Property name for length of the memory mapped buffer for the loss histogram.
+     */
+    public static final String LOSS_HISTOGRAM_BUFFER_LENGTH_PROP_NAME = "aeron.loss.histogram.buffer.length";
+
+    /**
+     * Default buffer length for the loss histogram buffer.
+     */
+    public static final int LOSS_HISTOGRAM_BUFFER_LENGTH_DEFAULT = 4 * 1024 * 1024;
+
     /**
      * Property name for length of the initial window which must be sufficient for Bandwidth Delay Produce (BDP).
      */
@@ -456,6 +489,44 @@ public class Configuration
      */
     public static final String THREADING_MODE_PROP_NAME = "aeron.threading.mode";
 
+    /**
+     * Property name for the number of {@link Receiver} shards when using {@link ThreadingMode#SHARDED}.
+     */
+    public static final String RECEIVER_SHARD_COUNT_PROP_NAME = "aeron.receiver.shard.count";
+
+    /**
+     * Default number of {@link Receiver} shards when using {@link ThreadingMode#SHARDED}.
+     */
+    public static final int RECEIVER_SHARD_COUNT_DEFAULT = 2;
+
+    /**
+     * Property name for the number of {@link Sender} shards when using {@link ThreadingMode#SHARDED}.
+     */
+    public static final String SENDER_SHARD_COUNT_PROP_NAME = "aeron.sender.shard.count";
+
+    /**
+     * Default number of {@link Sender} shards when using {@link ThreadingMode#SHARDED}.
+     */
+    public static final int SENDER_SHARD_COUNT_DEFAULT = 2;
+
+    /**
+     * Property name for the {@link io.aeron.driver.media.DataTransportPoller} to busy poll all receive transports
+     * directly rather than use a selector when the number of transports is large.
+     */
+    public static final String RECEIVER_BUSY_POLL_PROP_NAME = "aeron.receiver.busy.poll";
+
+    /**
+     * Property name for the maximum number of duty cycles a receive transport which has been idle will be skipped
+     * for when busy polling. Idle transports back off exponentially up to this value and are polled every duty cycle
+     * again as soon as they receive.
+     */
+    public static final String RECEIVER_BUSY_POLL_MAX_SKIP_PROP_NAME = "aeron.receiver.busy.poll.max.skip";
+
+    /**
+     * Default maximum number of duty cycles an idle receive transport will be skipped for when busy polling.
+     */
+    public static final int RECEIVER_BUSY_POLL_MAX_SKIP_DEFAULT = 64;
+
     /**
      * Interval in between checks for timers and timeouts.
      */
@@ -497,6 +568,11 @@ public class Configuration
      */
     public static final String CONGESTION_CONTROL_STRATEGY_SUPPLIER_PROP_NAME = "aeron.CongestionControl.supplier";
 
+    /**
+     * Property name for {@link StatusMessagePolicySupplier} to be employed for receivers.
+     */
+    public static final String STATUS_MESSAGE_POLICY_SUPPLIER_PROP_NAME = "aeron.StatusMessagePolicy.supplier";
+
     /**
      * Property name for low end of the publication reserved session-id range which will not be automatically assigned.
      */
@@ -574,6 +650,25 @@ public class Configuration
      */
     public static final long NAK_UNICAST_DELAY_DEFAULT_NS = TimeUnit.MILLISECONDS.toNanos(60);
 
+    /**
+     * Property name for the max number of gaps in a term which are tracked and NAKed together for an image. Sources
+     * which advertise {@link io.aeron.protocol.SetupFlyweight#NAK_RANGES_FLAG} receive all gaps in a single
+     * {@link NakRangesFlyweight} frame, otherwise a NAK is sent per gap.
+     */
+    public static final String NAK_MAX_GAPS_PROP_NAME = "aeron.nak.max.gaps";
+
+    /**
+     * Default max number of gaps in a term which are tracked and NAKed together for an image.
+     */
+    public static final int NAK_MAX_GAPS_DEFAULT = 8;
+
+    /**
+     * Property name for tracking which frames of an image have arrived in a fill bitmap, so the rebuild position and
+     * gaps are found with word scans rather than a walk of the frames in the term. It costs one bit per
+     * {@link io.aeron.logbuffer.FrameDescriptor#FRAME_ALIGNMENT} of each term, so is off by default.
+     */
+    public static final String RECEIVER_GAP_BITMAP_PROP_NAME = "aeron.rcv.gap.bitmap";
+
     /**
      * Property for setting how long to delay before sending a retransmit following a NAK.
      */
@@ -618,11 +713,83 @@ public class Configuration
      */
     public static final long UNTETHERED_RESTING_TIMEOUT_DEFAULT_NS = TimeUnit.SECONDS.toNanos(10);
 
+    /**
+     * Property name for the max number of active retransmissions per connected stream. NAKs which overlap or are
+     * adjacent to an active retransmission are merged into it rather than taking another slot.
+     */
+    public static final String MAX_RETRANSMITS_PROP_NAME = "aeron.retransmit.max.active";
+
     /**
      * Default max number of active retransmissions per connected stream.
      */
     public static final int MAX_RETRANSMITS_DEFAULT = 16;
 
+    /**
+     * Property name for the max number of released log buffers of a given term length and sparse setting which are
+     * kept mapped and zeroed for reuse by new publications and images rather than being deleted. 0 disables pooling.
+     * <p>
+     * Pooling requires {@link #ASYNC_LOG_ALLOCATION_PROP_NAME} so released logs are zeroed off the conductor thread.
+     */
+    public static final String LOG_POOL_MAX_SIZE_PROP_NAME = "aeron.log.pool.max.size";
+
+    /**
+     * Default max number of released log buffers of a given term length kept for reuse.
+     */
+    public static final int LOG_POOL_MAX_SIZE_DEFAULT = 0;
+
+    /**
+     * Property name for the number of log buffers of {@link #TERM_BUFFER_LENGTH_PROP_NAME} length which are created
+     * and pre-touched in the pool at startup.
+     */
+    public static final String LOG_POOL_PREALLOCATE_COUNT_PROP_NAME = "aeron.log.pool.preallocate.count";
+
+    /**
+     * Default number of log buffers preallocated in the pool at startup.
+     */
+    public static final int LOG_POOL_PREALLOCATE_COUNT_DEFAULT = 0;
+
+    /**
+     * Property name for how long a released log buffer is held before it is zeroed and made available for reuse from
+     * the pool. It must be longer than the {@code aeron.client.resource.linger.duration} of clients so no client still
+     * has the log mapped when it is reused.
+     */
+    public static final String LOG_POOL_RECYCLE_DELAY_PROP_NAME = "aeron.log.pool.recycle.delay";
+
+    /**
+     * Default delay before a released log buffer is made available for reuse from the pool.
+     */
+    public static final long LOG_POOL_RECYCLE_DELAY_DEFAULT_NS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Property name for creating log buffers on a dedicated agent so the conductor can continue processing commands
+     * while files are created and mapped. Only applies when the conductor has its own thread, i.e. not
+     * {@link ThreadingMode#SHARED} or {@link ThreadingMode#INVOKER}.
+     */
+    public static final String ASYNC_LOG_ALLOCATION_PROP_NAME = "aeron.log.allocation.async";
+
+    /**
+     * Property name for the max number of parsed channels, of each of UDP and other media, kept by the driver so
+     * channels which are added repeatedly are not re-parsed and re-resolved. 0 disables the cache.
+     */
+    public static final String CHANNEL_CACHE_MAX_SIZE_PROP_NAME = "aeron.channel.cache.max.size";
+
+    /**
+     * Default max number of parsed channels kept by the driver.
+     */
+    public static final int CHANNEL_CACHE_MAX_SIZE_DEFAULT = 0;
+
+    /**
+     * Property name for the interval at which the kernel UDP drop counters for receive sockets are sampled from
+     * {@code /proc} on a dedicated agent. Only applies on Linux when the conductor has its own thread, i.e. not
+     * {@link ThreadingMode#SHARED} or {@link ThreadingMode#INVOKER}. 0 disables sampling.
+     */
+    public static final String SOCKET_DROP_SAMPLE_INTERVAL_PROP_NAME = "aeron.socket.drop.sample.interval";
+
+    /**
+     * Default interval at which the kernel UDP drop counters are sampled which is disabled.
+     */
+    public static final long SOCKET_DROP_SAMPLE_INTERVAL_DEFAULT_NS = 0;
+
     /**
      * Property name for the class used to validate if a driver should terminate based on token.
      */
@@ -664,6 +831,31 @@ public class Configuration
     private static final String MIN_FLOW_CONTROL_TIMEOUT_OLD_PROP_NAME =
         "aeron.MinMulticastFlowControl.receiverTimeout";
 
+    /**
+     * Property name for how far in bytes a receiver may lag the sender position before it is evicted from min and
+     * tagged multicast flow control so it no longer holds back the other receivers. Can be overridden per channel
+     * with the {@code l:} argument of the {@code fc} param, e.g. {@code fc=min,l:64k}.
+     */
+    public static final String FLOW_CONTROL_RECEIVER_LAG_WINDOW_PROP_NAME = "aeron.flow.control.receiver.lag.window";
+
+    /**
+     * Default receiver lag window for eviction from flow control with 0 disabling eviction.
+     */
+    public static final long FLOW_CONTROL_RECEIVER_LAG_WINDOW_DEFAULT = 0;
+
+    /**
+     * Property name for the capacity in bytes of the command buffer given to a client which asks for one of its own
+     * so it does not contend with other clients on the to-driver buffer in the CnC file. The capacity must be a power
+     * of 2 and does not include the ring buffer trailer.
+     */
+    public static final String CLIENT_COMMAND_BUFFER_LENGTH_PROP_NAME = "aeron.client.command.buffer.length";
+
+    /**
+     * Default capacity of a client command buffer with 0 disabling command buffers for clients so all commands are
+     * read from the to-driver buffer in the CnC file.
+     */
+    public static final int CLIENT_COMMAND_BUFFER_LENGTH_DEFAULT = 0;
+
     public static boolean printConfigurationOnStart()
     {
         return "true".equalsIgnoreCase(getProperty(PRINT_CONFIGURATION_ON_START_PROP_NAME, "false"));
@@ -689,6 +881,66 @@ public class Configuration
         return "true".equalsIgnoreCase(getProperty(DIR_DELETE_ON_SHUTDOWN_PROP_NAME, "false"));
     }
 
+    public static boolean dirWarmRestart()
+    {
+        return "true".equalsIgnoreCase(getProperty(DIR_WARM_RESTART_PROP_NAME, "false"));
+    }
+
+    public static boolean receiverBusyPoll()
+    {
+        return "true".equalsIgnoreCase(getProperty(RECEIVER_BUSY_POLL_PROP_NAME, "false"));
+    }
+
+    public static int receiverBusyPollMaxSkip()
+    {
+        return getInteger(RECEIVER_BUSY_POLL_MAX_SKIP_PROP_NAME, RECEIVER_BUSY_POLL_MAX_SKIP_DEFAULT);
+    }
+
+    public static int nakMaxGaps()
+    {
+        return getInteger(NAK_MAX_GAPS_PROP_NAME, NAK_MAX_GAPS_DEFAULT);
+    }
+
+    public static boolean receiverGapBitmap()
+    {
+        return "true".equalsIgnoreCase(getProperty(RECEIVER_GAP_BITMAP_PROP_NAME, "false"));
+    }
+
+    public static int maxRetransmits()
+    {
+        return getInteger(MAX_RETRANSMITS_PROP_NAME, MAX_RETRANSMITS_DEFAULT);
+    }
+
+    public static int logPoolMaxSize()
+    {
+        return getInteger(LOG_POOL_MAX_SIZE_PROP_NAME, LOG_POOL_MAX_SIZE_DEFAULT);
+    }
+
+    public static int logPoolPreallocateCount()
+    {
+        return getInteger(LOG_POOL_PREALLOCATE_COUNT_PROP_NAME, LOG_POOL_PREALLOCATE_COUNT_DEFAULT);
+    }
+
+    public static long logPoolRecycleDelayNs()
+    {
+        return getDurationInNanos(LOG_POOL_RECYCLE_DELAY_PROP_NAME, LOG_POOL_RECYCLE_DELAY_DEFAULT_NS);
+    }
+
+    public static boolean asyncLogAllocation()
+    {
+        return "true".equalsIgnoreCase(getProperty(ASYNC_LOG_ALLOCATION_PROP_NAME, "false"));
+    }
+
+    public static int channelCacheMaxSize()
+    {
+        return getInteger(CHANNEL_CACHE_MAX_SIZE_PROP_NAME, CHANNEL_CACHE_MAX_SIZE_DEFAULT);
+    }
+
+    public static long socketDropSampleIntervalNs()
+    {
+        return getDurationInNanos(SOCKET_DROP_SAMPLE_INTERVAL_PROP_NAME, SOCKET_DROP_SAMPLE_INTERVAL_DEFAULT_NS);
+    }
+
     public static boolean termBufferSparseFile()
     {
         return "true".equalsIgnoreCase(getProperty(TERM_BUFFER_SPARSE_FILE_PROP_NAME, "false"));
@@ -825,6 +1077,28 @@ public class Configuration
             getDurationInNanos(MIN_FLOW_CONTROL_TIMEOUT_OLD_PROP_NAME, TimeUnit.SECONDS.toNanos(2)));
     }
 
+    /**
+     * How far in bytes a receiver may lag the sender position before it is evicted from flow control.
+     *
+     * @return how far in bytes a receiver may lag the sender position before it is evicted from flow control.
+     * @see #FLOW_CONTROL_RECEIVER_LAG_WINDOW_PROP_NAME
+     */
+    public static long flowControlReceiverLagWindow()
+    {
+        return getSizeAsLong(FLOW_CONTROL_RECEIVER_LAG_WINDOW_PROP_NAME, FLOW_CONTROL_RECEIVER_LAG_WINDOW_DEFAULT);
+    }
+
+    /**
+     * Capacity in bytes of the command buffer given to a client which asks for one of its own.
+     *
+     * @return capacity in bytes of the command buffer given to a client which asks for one of its own.
+     * @see #CLIENT_COMMAND_BUFFER_LENGTH_PROP_NAME
+     */
+    public static int clientCommandBufferLength()
+    {
+        return getSizeAsInt(CLIENT_COMMAND_BUFFER_LENGTH_PROP_NAME, CLIENT_COMMAND_BUFFER_LENGTH_DEFAULT);
+    }
+
     /**
      * How far ahead a producer can get from a consumer position.
      *
@@ -989,6 +1263,16 @@ public class Configuration
         return getInteger(SEND_TO_STATUS_POLL_RATIO_PROP_NAME, SEND_TO_STATUS_POLL_RATIO_DEFAULT);
     }
 
+    public static int receiverShardCount()
+    {
+        return getInteger(RECEIVER_SHARD_COUNT_PROP_NAME, RECEIVER_SHARD_COUNT_DEFAULT);
+    }
+
+    public static int senderShardCount()
+    {
+        return getInteger(SENDER_SHARD_COUNT_PROP_NAME, SENDER_SHARD_COUNT_DEFAULT);
+    }
+
     public static long counterFreeToReuseTimeoutNs()
     {
         return getDurationInNanos(COUNTER_FREE_TO_REUSE_TIMEOUT_PROP_NAME, DEFAULT_COUNTER_FREE_TO_REUSE_TIMEOUT_NS);
@@ -1034,6 +1318,16 @@ public class Configuration
         return getSizeAsInt(LOSS_REPORT_BUFFER_LENGTH_PROP_NAME, LOSS_REPORT_BUFFER_LENGTH_DEFAULT);
     }
 
+    public static int lossHistogramBucketCount()
+    {
+        return getInteger(LOSS_HISTOGRAM_BUCKET_COUNT_PROP_NAME, LOSS_HISTOGRAM_BUCKET_COUNT_DEFAULT);
+    }
+
+    public static int lossHistogramBufferLength()
+    {
+        return getSizeAsInt(LOSS_HISTOGRAM_BUFFER_LENGTH_PROP_NAME, LOSS_HISTOGRAM_BUFFER_LENGTH_DEFAULT);
+    }
+
     public static ThreadingMode threadingMode()
     {
         final String propertyValue = getProperty(THREADING_MODE_PROP_NAME);
@@ -1190,6 +1484,53 @@ public class Configuration
         return supplier;
     }
 
+    /**
+     * Get the supplier of {@link StatusMessagePolicy} implementations which can be used for receivers.
+     *
+     * @return the {@link StatusMessagePolicySupplier}
+     */
+    public static StatusMessagePolicySupplier statusMessagePolicySupplier()
+    {
+        StatusMessagePolicySupplier supplier = null;
+        try
+        {
+            final String className = getProperty(STATUS_MESSAGE_POLICY_SUPPLIER_PROP_NAME);
+            if (null == className)
+            {
+                return new DefaultStatusMessagePolicySupplier();
+            }
+
+            supplier = (StatusMessagePolicySupplier)Class.forName(className).getConstructor().newInstance();
+        }
+        catch (final Exception ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        return supplier;
+    }
+
+    /**
+     * Validate that a flow control receiver lag window is not smaller than the window of a receiver, otherwise a
+     * receiver which is keeping up within its window could be evicted.
+     *
+     * @param receiverLagWindow   to be validated, 0 if receivers are not evicted.
+     * @param termLength          of the publication.
+     * @param initialWindowLength of receivers.
+     * @throws ConfigurationException if the lag window is smaller than the receiver window.
+     */
+    public static void validateReceiverLagWindow(
+        final long receiverLagWindow, final int termLength, final int initialWindowLength)
+    {
+        final int receiverWindowLength = Math.min(termLength >> 1, initialWindowLength);
+        if (receiverLagWindow > 0 && receiverLagWindow < receiverWindowLength)
+        {
+            throw new ConfigurationException(
+                "fc receiver lag window must be >= receiver window length: lagWindow=" + receiverLagWindow +
+                " receiverWindowLength=" + receiverWindowLength);
+        }
+    }
+
     /**
      * Validate that the initial window length is greater than MTU.
      *
@@ -1225,6 +1566,149 @@ public class Configuration
         }
     }
 
+    /**
+     * Validate that the max number of gaps NAKed together can be carried in a single
+     * {@link NakRangesFlyweight} frame.
+     *
+     * @param nakMaxGaps to be validated.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateNakMaxGaps(final int nakMaxGaps)
+    {
+        if (nakMaxGaps < 1 || nakMaxGaps > NakRangesFlyweight.MAX_RANGE_COUNT)
+        {
+            throw new ConfigurationException(
+                "nakMaxGaps must be >= 1 and <= NakRangesFlyweight.MAX_RANGE_COUNT: " + nakMaxGaps);
+        }
+    }
+
+    /**
+     * Validate that the log buffer pool limits are consistent and released logs can be zeroed off the conductor thread.
+     *
+     * @param logPoolMaxSize          max number of log buffers kept for reuse per term length.
+     * @param logPoolPreallocateCount number of log buffers preallocated in the pool.
+     * @param logPoolRecycleDelayNs   before a released log buffer is made available for reuse.
+     * @param hasLogAllocator         true if log buffers are allocated on a dedicated agent.
+     * @throws ConfigurationException if the values are not valid.
+     */
+    public static void validateLogPool(
+        final int logPoolMaxSize,
+        final int logPoolPreallocateCount,
+        final long logPoolRecycleDelayNs,
+        final boolean hasLogAllocator)
+    {
+        if (logPoolMaxSize < 0)
+        {
+            throw new ConfigurationException("logPoolMaxSize must be >= 0: " + logPoolMaxSize);
+        }
+
+        if (logPoolMaxSize > 0 && !hasLogAllocator)
+        {
+            throw new ConfigurationException(
+                "logPoolMaxSize > 0 requires " + ASYNC_LOG_ALLOCATION_PROP_NAME +
+                "=true and a threading mode where the conductor has its own thread");
+        }
+
+        if (logPoolRecycleDelayNs < 0)
+        {
+            throw new ConfigurationException("logPoolRecycleDelayNs must be >= 0: " + logPoolRecycleDelayNs);
+        }
+
+        if (logPoolPreallocateCount < 0 || logPoolPreallocateCount > logPoolMaxSize)
+        {
+            throw new ConfigurationException(
+                "logPoolPreallocateCount must be >= 0 and <= logPoolMaxSize=" + logPoolMaxSize + ": " +
+                logPoolPreallocateCount);
+        }
+    }
+
+    /**
+     * Validate that the channel cache max size is not negative.
+     *
+     * @param channelCacheMaxSize max number of parsed channels kept by the driver.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateChannelCacheMaxSize(final int channelCacheMaxSize)
+    {
+        if (channelCacheMaxSize < 0)
+        {
+            throw new ConfigurationException("channelCacheMaxSize must be >= 0: " + channelCacheMaxSize);
+        }
+    }
+
+    /**
+     * Validate that the number of buckets in the loss histogram is not negative.
+     *
+     * @param lossHistogramBucketCount of one second buckets kept for each stream, or 0 to disable the histogram.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateLossHistogramBucketCount(final int lossHistogramBucketCount)
+    {
+        if (lossHistogramBucketCount < 0)
+        {
+            throw new ConfigurationException("lossHistogramBucketCount must be >= 0: " + lossHistogramBucketCount);
+        }
+    }
+
+    /**
+     * Validate that the flow control receiver lag window is not negative.
+     *
+     * @param flowControlReceiverLagWindow in bytes before a receiver is evicted from flow control.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateFlowControlReceiverLagWindow(final long flowControlReceiverLagWindow)
+    {
+        if (flowControlReceiverLagWindow < 0)
+        {
+            throw new ConfigurationException(
+                "flowControlReceiverLagWindow must be >= 0: " + flowControlReceiverLagWindow);
+        }
+    }
+
+    /**
+     * Validate that the client command buffer length is 0 or a power of 2.
+     *
+     * @param clientCommandBufferLength capacity in bytes of the command buffer given to a client.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateClientCommandBufferLength(final int clientCommandBufferLength)
+    {
+        if (0 != clientCommandBufferLength && !BitUtil.isPowerOfTwo(clientCommandBufferLength))
+        {
+            throw new ConfigurationException(
+                "clientCommandBufferLength must be 0 or a power of 2: " + clientCommandBufferLength);
+        }
+    }
+
+    /**
+     * Validate that the maximum number of duty cycles an idle transport is skipped for when busy polling is not
+     * negative.
+     *
+     * @param receiverBusyPollMaxSkip maximum number of duty cycles an idle receive transport will be skipped.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateReceiverBusyPollMaxSkip(final int receiverBusyPollMaxSkip)
+    {
+        if (receiverBusyPollMaxSkip < 0)
+        {
+            throw new ConfigurationException("receiverBusyPollMaxSkip must be >= 0: " + receiverBusyPollMaxSkip);
+        }
+    }
+
+    /**
+     * Validate that at least one retransmission can be active per connected stream.
+     *
+     * @param maxRetransmits number of active retransmits per network publication.
+     * @throws ConfigurationException if the value is not valid.
+     */
+    public static void validateMaxRetransmits(final int maxRetransmits)
+    {
+        if (maxRetransmits < 1)
+        {
+            throw new ConfigurationException("maxRetransmits must be >= 1: " + maxRetransmits);
+        }
+    }
+
     /**
      * Validate the publication linger timeout is an appropriate value.
      *
@@ -1410,6 +1894,55 @@ public class Configuration
         }
     }
 
+    /**
+     * The shard of a {@link Sender} or {@link Receiver} which will service a channel. The shard can be pinned with
+     * the {@link io.aeron.CommonContext#SHARD_PARAM_NAME} URI param, otherwise it is a stable hash of the canonical
+     * form of the channel.
+     *
+     * @param udpChannel to be assigned a shard.
+     * @param shardCount of agents to choose from.
+     * @return the index of the shard which will service the channel.
+     * @throws ConfigurationException if the {@link io.aeron.CommonContext#SHARD_PARAM_NAME} param is not a
+     *                                non-negative integer.
+     */
+    public static int shardIndex(final UdpChannel udpChannel, final int shardCount)
+    {
+        final String shardStr = udpChannel.channelUri().get(CommonContext.SHARD_PARAM_NAME);
+        final int shard = null != shardStr ? parseShard(shardStr) : Aeron.NULL_VALUE;
+
+        if (1 == shardCount)
+        {
+            return 0;
+        }
+
+        if (Aeron.NULL_VALUE != shard)
+        {
+            return shard % shardCount;
+        }
+
+        return (Hashing.hash(udpChannel.canonicalForm().hashCode()) & Integer.MAX_VALUE) % shardCount;
+    }
+
+    private static int parseShard(final String shardStr)
+    {
+        final int shard;
+        try
+        {
+            shard = Integer.parseInt(shardStr);
+        }
+        catch (final NumberFormatException ex)
+        {
+            throw new ConfigurationException(CommonContext.SHARD_PARAM_NAME + "=" + shardStr + " is not an integer");
+        }
+
+        if (shard < 0)
+        {
+            throw new ConfigurationException(CommonContext.SHARD_PARAM_NAME + "=" + shard + " must be >= 0");
+        }
+
+        return shard;
+    }
+
     /**
      * Create a source identity for a given source address.
      *
@@ -18,10 +18,12 @@ package io.aeron.driver;
 import io.aeron.driver.exceptions.UnknownSubscriptionException;
 import io.aeron.driver.media.ReceiveChannelEndpoint;
 import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.FecParityFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.SetupFlyweight;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.collections.IntHashSet;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.net.InetSocketAddress;
@@ -31,6 +33,10 @@ import static io.aeron.driver.DataPacketDispatcher.SessionState.*;
 /**
  * Handling of dispatching data packets to {@link PublicationImage}s streams.
  * <p>
+ * Session interest is held in a single open addressing table keyed by stream id and session id packed into a long so
+ * each packet costs one lookup, and the last session found is remembered so a stream of packets for the same image,
+ * the common case of one image per endpoint, avoids the table altogether.
+ * <p>
  * All methods should be called from the {@link Receiver} thread.
  */
 public class DataPacketDispatcher
@@ -48,6 +54,7 @@ public class DataPacketDispatcher
     {
         SessionState state;
         PublicationImage image;
+        boolean isNakRangesSupported;
 
         SessionInterest(final SessionState state)
         {
@@ -58,7 +65,6 @@ public class DataPacketDispatcher
     static class StreamInterest
     {
         boolean isAllSessions;
-        final Int2ObjectHashMap<SessionInterest> sessionInterestByIdMap = new Int2ObjectHashMap<>();
         final IntHashSet subscribedSessionIds = new IntHashSet();
 
         StreamInterest(final boolean isAllSessions)
@@ -67,7 +73,10 @@ public class DataPacketDispatcher
         }
     }
 
+    private long lastSessionKey;
+    private SessionInterest lastSessionInterest;
     private final Int2ObjectHashMap<StreamInterest> streamInterestByIdMap = new Int2ObjectHashMap<>();
+    private final Long2ObjectHashMap<SessionInterest> sessionInterestByKeyMap = new Long2ObjectHashMap<>();
     private final DriverConductorProxy conductorProxy;
     private final Receiver receiver;
 
@@ -89,17 +98,20 @@ public class DataPacketDispatcher
         {
             streamInterest.isAllSessions = true;
 
-            final Int2ObjectHashMap<SessionInterest>.ValueIterator iterator =
-                streamInterest.sessionInterestByIdMap.values().iterator();
+            final Long2ObjectHashMap<SessionInterest>.EntryIterator iterator =
+                sessionInterestByKeyMap.entrySet().iterator();
 
             while (iterator.hasNext())
             {
-                final SessionInterest sessionInterest = iterator.next();
-                if (NO_INTEREST == sessionInterest.state)
+                iterator.next();
+
+                if (streamId == streamId(iterator.getLongKey()) && NO_INTEREST == iterator.getValue().state)
                 {
                     iterator.remove();
                 }
             }
+
+            lastSessionInterest = null;
         }
     }
 
@@ -114,10 +126,11 @@ public class DataPacketDispatcher
 
         streamInterest.subscribedSessionIds.add(sessionId);
 
-        final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(sessionId);
+        final long sessionKey = sessionKey(streamId, sessionId);
+        final SessionInterest sessionInterest = sessionInterestByKeyMap.get(sessionKey);
         if (null != sessionInterest && NO_INTEREST == sessionInterest.state)
         {
-            streamInterest.sessionInterestByIdMap.remove(sessionId);
+            removeSessionInterest(sessionKey);
         }
     }
 
@@ -129,15 +142,16 @@ public class DataPacketDispatcher
             throw new UnknownSubscriptionException("no subscription for stream " + streamId);
         }
 
-        final Int2ObjectHashMap<SessionInterest>.EntryIterator iterator =
-            streamInterest.sessionInterestByIdMap.entrySet().iterator();
+        final Long2ObjectHashMap<SessionInterest>.EntryIterator iterator =
+            sessionInterestByKeyMap.entrySet().iterator();
 
         while (iterator.hasNext())
         {
             iterator.next();
 
-            final int sessionId = iterator.getIntKey();
-            if (!streamInterest.subscribedSessionIds.contains(sessionId))
+            final long sessionKey = iterator.getLongKey();
+            if (streamId == streamId(sessionKey) &&
+                !streamInterest.subscribedSessionIds.contains(sessionId(sessionKey)))
             {
                 final SessionInterest sessionInterest = iterator.getValue();
                 if (null != sessionInterest.image)
@@ -149,6 +163,7 @@ public class DataPacketDispatcher
             }
         }
 
+        lastSessionInterest = null;
         streamInterest.isAllSessions = false;
 
         if (streamInterest.subscribedSessionIds.isEmpty())
@@ -167,7 +182,7 @@ public class DataPacketDispatcher
 
         if (!streamInterest.isAllSessions)
         {
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.remove(sessionId);
+            final SessionInterest sessionInterest = removeSessionInterest(sessionKey(streamId, sessionId));
             if (null != sessionInterest && null != sessionInterest.image)
             {
                 sessionInterest.image.ifActiveGoInactive();
@@ -179,18 +194,24 @@ public class DataPacketDispatcher
         if (!streamInterest.isAllSessions && streamInterest.subscribedSessionIds.isEmpty())
         {
             streamInterestByIdMap.remove(streamId);
+            removeSessionInterests(streamId);
         }
     }
 
     public void addPublicationImage(final PublicationImage image)
     {
-        final StreamInterest streamInterest = streamInterestByIdMap.get(image.streamId());
-        SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(image.sessionId());
+        if (!streamInterestByIdMap.containsKey(image.streamId()))
+        {
+            return;
+        }
+
+        final long sessionKey = sessionKey(image.streamId(), image.sessionId());
+        SessionInterest sessionInterest = sessionInterestByKeyMap.get(sessionKey);
 
         if (null == sessionInterest)
         {
             sessionInterest = new SessionInterest(ACTIVE);
-            streamInterest.sessionInterestByIdMap.put(image.sessionId(), sessionInterest);
+            sessionInterestByKeyMap.put(sessionKey, sessionInterest);
         }
         else
         {
@@ -198,22 +219,21 @@ public class DataPacketDispatcher
         }
 
         sessionInterest.image = image;
+        image.nakRangesSupported(sessionInterest.isNakRangesSupported);
         image.activate();
     }
 
     public void removePublicationImage(final PublicationImage image)
     {
-        final StreamInterest streamInterest = streamInterestByIdMap.get(image.streamId());
-        if (null != streamInterest)
+        final SessionInterest sessionInterest = sessionInterestByKeyMap.get(
+            sessionKey(image.streamId(), image.sessionId()));
+
+        if (null != sessionInterest && null != sessionInterest.image)
         {
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(image.sessionId());
-            if (null != sessionInterest && null != sessionInterest.image)
+            if (sessionInterest.image.correlationId() == image.correlationId())
             {
-                if (sessionInterest.image.correlationId() == image.correlationId())
-                {
-                    sessionInterest.state = ON_COOL_DOWN;
-                    sessionInterest.image = null;
-                }
+                sessionInterest.state = ON_COOL_DOWN;
+                sessionInterest.image = null;
             }
         }
 
@@ -222,27 +242,21 @@ public class DataPacketDispatcher
 
     public void removePendingSetup(final int sessionId, final int streamId)
     {
-        final StreamInterest streamInterest = streamInterestByIdMap.get(streamId);
-        if (null != streamInterest)
+        final long sessionKey = sessionKey(streamId, sessionId);
+        final SessionInterest sessionInterest = sessionInterestByKeyMap.get(sessionKey);
+        if (null != sessionInterest && PENDING_SETUP_FRAME == sessionInterest.state)
         {
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(sessionId);
-            if (null != sessionInterest && PENDING_SETUP_FRAME == sessionInterest.state)
-            {
-                streamInterest.sessionInterestByIdMap.remove(sessionId);
-            }
+            removeSessionInterest(sessionKey);
         }
     }
 
     public void removeCoolDown(final int sessionId, final int streamId)
     {
-        final StreamInterest streamInterest = streamInterestByIdMap.get(streamId);
-        if (null != streamInterest)
+        final long sessionKey = sessionKey(streamId, sessionId);
+        final SessionInterest sessionInterest = sessionInterestByKeyMap.get(sessionKey);
+        if (null != sessionInterest && ON_COOL_DOWN == sessionInterest.state)
         {
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(sessionId);
-            if (null != sessionInterest && ON_COOL_DOWN == sessionInterest.state)
-            {
-                streamInterest.sessionInterestByIdMap.remove(sessionId);
-            }
+            removeSessionInterest(sessionKey);
         }
     }
 
@@ -255,31 +269,31 @@ public class DataPacketDispatcher
         final int transportIndex)
     {
         final int streamId = header.streamId();
-        final StreamInterest streamInterest = streamInterestByIdMap.get(streamId);
+        final int sessionId = header.sessionId();
+        final long sessionKey = sessionKey(streamId, sessionId);
+        final SessionInterest sessionInterest = sessionInterest(sessionKey);
 
-        if (null != streamInterest)
+        if (null != sessionInterest)
         {
-            final int sessionId = header.sessionId();
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(sessionId);
-
-            if (null != sessionInterest)
+            if (null != sessionInterest.image)
             {
-                if (null != sessionInterest.image)
-                {
-                    return sessionInterest.image.insertPacket(
-                        header.termId(), header.termOffset(), buffer, length, transportIndex, srcAddress);
-                }
+                return sessionInterest.image.insertPacket(
+                    header.termId(), header.termOffset(), buffer, length, transportIndex, srcAddress);
             }
-            else if (!DataHeaderFlyweight.isEndOfStream(buffer))
+        }
+        else if (!DataHeaderFlyweight.isEndOfStream(buffer))
+        {
+            final StreamInterest streamInterest = streamInterestByIdMap.get(streamId);
+            if (null != streamInterest)
             {
                 if (streamInterest.isAllSessions || streamInterest.subscribedSessionIds.contains(sessionId))
                 {
-                    streamInterest.sessionInterestByIdMap.put(sessionId, new SessionInterest(PENDING_SETUP_FRAME));
+                    sessionInterestByKeyMap.put(sessionKey, new SessionInterest(PENDING_SETUP_FRAME));
                     elicitSetupMessageFromSource(channelEndpoint, transportIndex, srcAddress, streamId, sessionId);
                 }
                 else
                 {
-                    streamInterest.sessionInterestByIdMap.put(sessionId, new SessionInterest(NO_INTEREST));
+                    sessionInterestByKeyMap.put(sessionKey, new SessionInterest(NO_INTEREST));
                 }
             }
         }
@@ -299,10 +313,14 @@ public class DataPacketDispatcher
         if (null != streamInterest)
         {
             final int sessionId = header.sessionId();
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(sessionId);
+            final long sessionKey = sessionKey(streamId, sessionId);
+            final SessionInterest sessionInterest = sessionInterest(sessionKey);
+            final boolean isNakRangesSupported = (header.flags() & SetupFlyweight.NAK_RANGES_FLAG) != 0;
 
             if (null != sessionInterest)
             {
+                sessionInterest.isNakRangesSupported = isNakRangesSupported;
+
                 if (null == sessionInterest.image && PENDING_SETUP_FRAME == sessionInterest.state)
                 {
                     sessionInterest.state = INIT_IN_PROGRESS;
@@ -322,12 +340,15 @@ public class DataPacketDispatcher
                 }
                 else if (null != sessionInterest.image)
                 {
+                    sessionInterest.image.nakRangesSupported(isNakRangesSupported);
                     sessionInterest.image.addDestinationConnectionIfUnknown(transportIndex, srcAddress);
                 }
             }
             else if (streamInterest.isAllSessions || streamInterest.subscribedSessionIds.contains(sessionId))
             {
-                streamInterest.sessionInterestByIdMap.put(sessionId, new SessionInterest(INIT_IN_PROGRESS));
+                final SessionInterest newSessionInterest = new SessionInterest(INIT_IN_PROGRESS);
+                newSessionInterest.isNakRangesSupported = isNakRangesSupported;
+                sessionInterestByKeyMap.put(sessionKey, newSessionInterest);
                 createPublicationImage(
                     channelEndpoint,
                     transportIndex,
@@ -343,7 +364,7 @@ public class DataPacketDispatcher
             }
             else
             {
-                streamInterest.sessionInterestByIdMap.put(sessionId, new SessionInterest(NO_INTEREST));
+                sessionInterestByKeyMap.put(sessionKey, new SessionInterest(NO_INTEREST));
             }
         }
     }
@@ -355,36 +376,101 @@ public class DataPacketDispatcher
         final int transportIndex)
     {
         final int streamId = header.streamId();
-        final StreamInterest streamInterest = streamInterestByIdMap.get(streamId);
+        final int sessionId = header.sessionId();
+        final SessionInterest sessionInterest = sessionInterest(sessionKey(streamId, sessionId));
 
-        if (null != streamInterest)
+        if (null != sessionInterest && null != sessionInterest.image)
         {
-            final int sessionId = header.sessionId();
-            final SessionInterest sessionInterest = streamInterest.sessionInterestByIdMap.get(sessionId);
-
-            if (null != sessionInterest && null != sessionInterest.image)
+            if (RttMeasurementFlyweight.REPLY_FLAG == (header.flags() & RttMeasurementFlyweight.REPLY_FLAG))
             {
-                if (RttMeasurementFlyweight.REPLY_FLAG == (header.flags() & RttMeasurementFlyweight.REPLY_FLAG))
-                {
-                    final InetSocketAddress controlAddress = channelEndpoint.isMulticast(transportIndex) ?
-                        channelEndpoint.udpChannel(transportIndex).remoteControl() : srcAddress;
+                final InetSocketAddress controlAddress = channelEndpoint.isMulticast(transportIndex) ?
+                    channelEndpoint.udpChannel(transportIndex).remoteControl() : srcAddress;
 
-                    channelEndpoint.sendRttMeasurement(
-                        transportIndex, controlAddress, sessionId, streamId, header.echoTimestampNs(), 0, false);
-                }
-                else
-                {
-                    sessionInterest.image.onRttMeasurement(header, transportIndex, srcAddress);
-                }
+                channelEndpoint.sendRttMeasurement(
+                    transportIndex, controlAddress, sessionId, streamId, header.echoTimestampNs(), 0, false);
+            }
+            else
+            {
+                sessionInterest.image.onRttMeasurement(header, transportIndex, srcAddress);
             }
         }
     }
 
+    public void onFecParityMessage(
+        final FecParityFlyweight header,
+        final UnsafeBuffer buffer,
+        final int length,
+        final InetSocketAddress srcAddress,
+        final int transportIndex)
+    {
+        final SessionInterest sessionInterest = sessionInterest(sessionKey(header.streamId(), header.sessionId()));
+
+        if (null != sessionInterest && null != sessionInterest.image)
+        {
+            sessionInterest.image.onFecParityFrame(header, buffer, length, transportIndex, srcAddress);
+        }
+    }
+
     public boolean shouldElicitSetupMessage()
     {
         return !streamInterestByIdMap.isEmpty();
     }
 
+    static long sessionKey(final int streamId, final int sessionId)
+    {
+        return ((long)streamId << 32) | (sessionId & 0xFFFF_FFFFL);
+    }
+
+    static int streamId(final long sessionKey)
+    {
+        return (int)(sessionKey >>> 32);
+    }
+
+    static int sessionId(final long sessionKey)
+    {
+        return (int)sessionKey;
+    }
+
+    private SessionInterest sessionInterest(final long sessionKey)
+    {
+        SessionInterest sessionInterest = lastSessionInterest;
+        if (null == sessionInterest || sessionKey != lastSessionKey)
+        {
+            sessionInterest = sessionInterestByKeyMap.get(sessionKey);
+            if (null != sessionInterest)
+            {
+                lastSessionKey = sessionKey;
+                lastSessionInterest = sessionInterest;
+            }
+        }
+
+        return sessionInterest;
+    }
+
+    private SessionInterest removeSessionInterest(final long sessionKey)
+    {
+        if (sessionKey == lastSessionKey)
+        {
+            lastSessionInterest = null;
+        }
+
+        return sessionInterestByKeyMap.remove(sessionKey);
+    }
+
+    private void removeSessionInterests(final int streamId)
+    {
+        final Long2ObjectHashMap<SessionInterest>.KeyIterator iterator = sessionInterestByKeyMap.keySet().iterator();
+        while (iterator.hasNext())
+        {
+            if (streamId == streamId(iterator.nextLong()))
+            {
+                iterator.remove();
+            }
+        }
+
+        lastSessionInterest = null;
+    }
+
     private void elicitSetupMessageFromSource(
         final ReceiveChannelEndpoint channelEndpoint,
         final int transportIndex,
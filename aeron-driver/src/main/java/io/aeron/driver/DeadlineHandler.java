@@ -0,0 +1,33 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+/**
+ * Handler for a deadline scheduled on the {@link DriverConductor} timer wheel with
+ * {@link DriverConductor#scheduleDeadline(long, DeadlineHandler)}.
+ */
+interface DeadlineHandler
+{
+    /**
+     * Called on the conductor thread when a deadline scheduled for this handler has expired. The timer is consumed so
+     * a handler with further deadlines must schedule them again.
+     *
+     * @param nowNs     current time in nanoseconds.
+     * @param nowMs     current time in milliseconds since epoch.
+     * @param conductor which scheduled the deadline.
+     */
+    void onDeadline(long nowNs, long nowMs, DriverConductor conductor);
+}
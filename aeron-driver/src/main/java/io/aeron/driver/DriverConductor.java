@@ -15,6 +15,7 @@
  */
 package io.aeron.driver;
 
+import io.aeron.Aeron;
 import io.aeron.ChannelUri;
 import io.aeron.CommonContext;
 import io.aeron.CommonContext.InferableBoolean;
@@ -29,8 +30,11 @@ import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.protocol.DataHeaderFlyweight;
 import io.aeron.status.ChannelEndpointStatus;
 import org.agrona.BitUtil;
+import org.agrona.DeadlineTimerWheel;
 import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.collections.Object2ObjectHashMap;
 import org.agrona.collections.ObjectHashSet;
 import org.agrona.concurrent.*;
@@ -40,9 +44,12 @@ import org.agrona.concurrent.status.CountersManager;
 import org.agrona.concurrent.status.Position;
 import org.agrona.concurrent.status.UnsafeBufferPosition;
 
+import java.io.File;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static io.aeron.CommonContext.IPC_MEDIA;
 import static io.aeron.CommonContext.InferableBoolean.FORCE_TRUE;
@@ -60,6 +67,8 @@ import static org.agrona.collections.ArrayListUtil.fastUnorderedRemove;
 public class DriverConductor implements Agent
 {
     private static final long CLOCK_UPDATE_DURATION_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int TIMER_TICKS_PER_WHEEL = 256;
+    private static final int TIMER_TICKS_PER_INTERVAL_SHIFT = 4;
 
     private int nextSessionId = BitUtil.generateRandomisedId();
 
@@ -70,6 +79,7 @@ public class DriverConductor implements Agent
     private long lastConsumerCommandPosition;
     private long timeOfLastTimerCheckNs;
     private long clockUpdateDeadlineNs;
+    private boolean isLinkCheckRequired;
 
     private final Context ctx;
     private final LogFactory logFactory;
@@ -86,11 +96,33 @@ public class DriverConductor implements Agent
     private final ArrayList<NetworkPublication> networkPublications = new ArrayList<>();
     private final ArrayList<IpcPublication> ipcPublications = new ArrayList<>();
     private final ArrayList<PublicationImage> publicationImages = new ArrayList<>();
-    private final ArrayList<PublicationLink> publicationLinks = new ArrayList<>();
-    private final ArrayList<SubscriptionLink> subscriptionLinks = new ArrayList<>();
-    private final ArrayList<CounterLink> counterLinks = new ArrayList<>();
-    private final ArrayList<AeronClient> clients = new ArrayList<>();
+    private final Long2ObjectHashMap<NetworkPublication> networkPublicationByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<IpcPublication> ipcPublicationByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<PublicationLink> publicationLinkByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<SubscriptionLink> subscriptionLinkByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<CounterLink> counterLinkByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<AeronClient> clientByIdMap = new Long2ObjectHashMap<>();
+    private final StreamResourceIndex<NetworkPublication> networkPublicationIndex = new StreamResourceIndex<>();
+    private final StreamResourceIndex<NetworkPublication> sharedNetworkPublicationIndex = new StreamResourceIndex<>();
+    private final StreamResourceIndex<IpcPublication> ipcPublicationIndex = new StreamResourceIndex<>();
+    private final StreamResourceIndex<IpcPublication> sharedIpcPublicationIndex = new StreamResourceIndex<>();
+    private final StreamResourceIndex<PublicationImage> publicationImageIndex = new StreamResourceIndex<>();
+    private final StreamResourceIndex<SubscriptionLink> subscriptionLinkIndex = new StreamResourceIndex<>();
+    private final Consumer<NetworkPublication> networkPublicationRemover = this::removeFromIndexes;
+    private final Consumer<IpcPublication> ipcPublicationRemover = this::removeFromIndexes;
+    private final Consumer<PublicationImage> publicationImageRemover = this::removeFromIndexes;
+    private final Consumer<SubscriptionLink> subscriptionLinkRemover = this::removeFromIndexes;
+    private final Long2ObjectHashMap<DeadlineHandler> deadlineHandlerByTimerIdMap = new Long2ObjectHashMap<>();
+    private final DeadlineTimerWheel.TimerHandler timerHandler = this::onTimerExpiry;
+    private final DeadlineTimerWheel timerWheel;
+    private final AtomicCounter maxTimerSweepTime;
     private final ObjectHashSet<SessionKey> activeSessionSet = new ObjectHashSet<>();
+    private final ArrayList<PendingPublication> pendingPublications = new ArrayList<>();
+    private final ArrayList<ClientCommandBuffer> clientCommandBuffers = new ArrayList<>();
+    private int clientCommandBufferIndex = 0;
+    private final LogAllocator logAllocator;
+    private final ReceiveSocketDropMonitor socketDropMonitor;
+    private final ChannelCache channelCache;
     private final EpochClock epochClock;
     private final NanoClock nanoClock;
     private final CachedEpochClock cachedEpochClock;
@@ -110,6 +142,8 @@ public class DriverConductor implements Agent
         receiverProxy = ctx.receiverProxy();
         senderProxy = ctx.senderProxy();
         logFactory = ctx.logFactory();
+        logAllocator = ctx.logAllocator();
+        socketDropMonitor = ctx.socketDropMonitor();
         epochClock = ctx.epochClock();
         nanoClock = ctx.nanoClock();
         cachedEpochClock = ctx.cachedEpochClock();
@@ -128,11 +162,27 @@ public class DriverConductor implements Agent
             this);
 
         final long nowNs = nanoClock.nanoTime();
+        timerWheel = new DeadlineTimerWheel(
+            TimeUnit.NANOSECONDS,
+            nowNs,
+            Math.max(1, Long.highestOneBit(timerIntervalNs) >> TIMER_TICKS_PER_INTERVAL_SHIFT),
+            TIMER_TICKS_PER_WHEEL);
+        maxTimerSweepTime = ctx.systemCounters().get(CONDUCTOR_MAX_TIMER_SWEEP_TIME);
+        channelCache = new ChannelCache(
+            ctx.channelCacheMaxSize(),
+            ctx.systemCounters().get(CHANNEL_CACHE_HITS),
+            ctx.systemCounters().get(CHANNEL_CACHE_MISSES));
+
         cachedNanoClock.update(nowNs);
         cachedEpochClock.update(epochClock.time());
         timeOfLastTimerCheckNs = nowNs;
         timeOfLastToDriverPositionChangeNs = nowNs;
         lastConsumerCommandPosition = toDriverCommands.consumerPosition();
+
+        if (null != ctx.warmRestart())
+        {
+            adoptClients(ctx.warmRestart());
+        }
     }
 
     public void onClose()
@@ -140,6 +190,7 @@ public class DriverConductor implements Agent
         publicationImages.forEach(PublicationImage::free);
         networkPublications.forEach(NetworkPublication::free);
         ipcPublications.forEach(IpcPublication::free);
+        driverCmdQueue.drain(DriverConductor::closeCommand);
 
         ctx.close();
     }
@@ -155,9 +206,11 @@ public class DriverConductor implements Agent
 
         final long nowNs = nanoClock.nanoTime();
         updateClocks(nowNs);
+        workCount += pollTimers(nowNs);
         workCount += processTimers(nowNs);
 
         workCount += clientCommandAdapter.receive();
+        workCount += receiveClientCommands(nowNs);
         workCount += driverCmdQueue.drain(Runnable::run, Configuration.COMMAND_DRAIN_LIMIT);
 
         final ArrayList<PublicationImage> publicationImages = this.publicationImages;
@@ -212,92 +265,96 @@ public class DriverConductor implements Agent
         final long joinPosition = computePosition(
             activeTermId, initialTermOffset, LogBufferDescriptor.positionBitsToShift(termBufferLength), initialTermId);
 
+        if (null != logAllocator)
+        {
+            final SubscriptionLink subscription = findOldestSubscription(sessionId, streamId, channelEndpoint);
+            if (null != subscription)
+            {
+                final long registrationId = toDriverCommands.nextCorrelationId();
+                logAllocator.allocate(
+                    registrationId,
+                    termBufferLength,
+                    subscription.isSparse(),
+                    true,
+                    (allocation) ->
+                    {
+                        final RawLog rawLog = allocation.rawLog();
+                        if (null == rawLog)
+                        {
+                            ctx.systemCounters().get(ERRORS).increment();
+                            ctx.errorHandler().onError(allocation.exception());
+                            return;
+                        }
+
+                        final ArrayList<SubscriberPosition> subscriberPositions = createSubscriberPositions(
+                            sessionId, streamId, channelEndpoint, joinPosition);
+
+                        if (subscriberPositions.isEmpty())
+                        {
+                            rawLog.close();
+                            return;
+                        }
+
+                        try
+                        {
+                            newPublicationImage(
+                                registrationId,
+                                sessionId,
+                                streamId,
+                                initialTermId,
+                                activeTermId,
+                                initialTermOffset,
+                                senderMtuLength,
+                                transportIndex,
+                                controlAddress,
+                                sourceAddress,
+                                channelEndpoint,
+                                subscriberPositions,
+                                rawLog);
+                        }
+                        catch (final RuntimeException ex)
+                        {
+                            rawLog.close();
+                            ctx.systemCounters().get(ERRORS).increment();
+                            ctx.errorHandler().onError(ex);
+                        }
+                    });
+            }
+
+            return;
+        }
+
         final ArrayList<SubscriberPosition> subscriberPositions = createSubscriberPositions(
             sessionId, streamId, channelEndpoint, joinPosition);
 
         if (subscriberPositions.size() > 0)
         {
-            final UdpChannel udpChannel = channelEndpoint.udpChannel();
-            final String channel = udpChannel.originalUriString();
             final long registrationId = toDriverCommands.nextCorrelationId();
-            final RawLog rawLog = newPublicationImageLog(
-                sessionId,
-                streamId,
-                initialTermId,
-                termBufferLength,
-                isOldestSubscriptionSparse(subscriberPositions),
-                senderMtuLength,
-                registrationId);
-
-            final CongestionControl congestionControl = ctx.congestionControlSupplier().newInstance(
-                registrationId,
-                udpChannel,
-                streamId,
-                sessionId,
-                termBufferLength,
-                senderMtuLength,
-                controlAddress,
-                sourceAddress,
-                cachedNanoClock,
-                ctx,
-                countersManager);
-
-            final InferableBoolean groupSubscription = subscriberPositions.get(0).subscription().group();
-            final boolean treatAsMulticast = groupSubscription == INFER ?
-                udpChannel.isMulticast() : groupSubscription == FORCE_TRUE;
+            final RawLog rawLog = logFactory.newImage(
+                registrationId, termBufferLength, isOldestSubscriptionSparse(subscriberPositions));
 
-            final FeedbackDelayGenerator feedbackDelayGenerator = treatAsMulticast ?
-                ctx.multicastFeedbackDelayGenerator() : ctx.unicastFeedbackDelayGenerator();
-
-            final PublicationImage image = new PublicationImage(
+            newPublicationImage(
                 registrationId,
-                ctx.imageLivenessTimeoutNs(),
-                ctx.untetheredWindowLimitTimeoutNs(),
-                ctx.untetheredRestingTimeoutNs(),
-                channelEndpoint,
-                transportIndex,
-                controlAddress,
                 sessionId,
                 streamId,
                 initialTermId,
                 activeTermId,
                 initialTermOffset,
-                rawLog,
-                feedbackDelayGenerator,
-                subscriberPositions,
-                ReceiverHwm.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
-                ReceiverPos.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
-                nanoClock,
-                cachedNanoClock,
-                cachedEpochClock,
-                ctx.systemCounters(),
+                senderMtuLength,
+                transportIndex,
+                controlAddress,
                 sourceAddress,
-                congestionControl,
-                ctx.lossReport(),
-                ctx.errorHandler());
-
-            publicationImages.add(image);
-            receiverProxy.newPublicationImage(channelEndpoint, image);
-
-            final String sourceIdentity = Configuration.sourceIdentity(sourceAddress);
-            for (int i = 0, size = subscriberPositions.size(); i < size; i++)
-            {
-                final SubscriberPosition position = subscriberPositions.get(i);
-
-                position.addLink(image);
-
-                clientProxy.onAvailableImage(
-                    registrationId,
-                    streamId,
-                    sessionId,
-                    position.subscription().registrationId(),
-                    position.positionCounterId(),
-                    rawLog.fileName(),
-                    sourceIdentity);
-            }
+                channelEndpoint,
+                subscriberPositions,
+                rawLog);
         }
     }
 
+    void onInvalidateChannelCache()
+    {
+        channelCache.invalidateAll();
+    }
+
     void onChannelEndpointError(final long statusIndicatorId, final Exception ex)
     {
         final String errorMessage = ex.getClass().getSimpleName() + " : " + ex.getMessage();
@@ -322,21 +379,13 @@ public class DriverConductor implements Agent
 
     IpcPublication getSharedIpcPublication(final long streamId)
     {
-        return findSharedIpcPublication(ipcPublications, streamId);
+        return findSharedIpcPublication(
+            sharedIpcPublicationIndex.streamResources(IPC_MEDIA, (int)streamId), streamId);
     }
 
     IpcPublication getIpcPublication(final long registrationId)
     {
-        for (int i = 0, size = ipcPublications.size(); i < size; i++)
-        {
-            final IpcPublication publication = ipcPublications.get(i);
-            if (publication.registrationId() == registrationId)
-            {
-                return publication;
-            }
-        }
-
-        return null;
+        return ipcPublicationByIdMap.get(registrationId);
     }
 
     NetworkPublication findNetworkPublicationByTag(final long tag)
@@ -376,7 +425,7 @@ public class DriverConductor implements Agent
         final long clientId,
         final boolean isExclusive)
     {
-        final UdpChannel udpChannel = UdpChannel.parse(channel);
+        final UdpChannel udpChannel = channelCache.udpChannel(channel);
         final ChannelUri channelUri = udpChannel.channelUri();
         final PublicationParams params = getPublicationParams(ctx, channelUri, this, isExclusive, false);
         validateMtuForMaxMessage(params);
@@ -386,39 +435,73 @@ public class DriverConductor implements Agent
         NetworkPublication publication = null;
         if (!isExclusive)
         {
-            publication = findPublication(networkPublications, streamId, channelEndpoint);
+            publication = findPublication(
+                sharedNetworkPublicationIndex.streamResources(udpChannel.canonicalForm(), streamId),
+                streamId,
+                channelEndpoint);
+
+            if (null == publication && deferIfPending(
+                correlationId,
+                streamId,
+                channelEndpoint,
+                () -> onAddNetworkPublication(channel, streamId, correlationId, clientId, false)))
+            {
+                return;
+            }
         }
 
         if (null == publication)
         {
+            final String canonicalForm = udpChannel.canonicalForm();
             if (params.hasSessionId)
             {
-                checkForSessionClash(params.sessionId, streamId, udpChannel.canonicalForm());
+                checkForSessionClash(params.sessionId, streamId, canonicalForm);
+            }
+
+            final int sessionId = params.hasSessionId ?
+                params.sessionId : nextAvailableSessionId(streamId, canonicalForm);
+            final int initialTermId = params.hasPosition ? params.initialTermId : BitUtil.generateRandomisedId();
+
+            if (null != logAllocator)
+            {
+                allocateNetworkPublicationLog(
+                    correlationId,
+                    clientId,
+                    streamId,
+                    sessionId,
+                    initialTermId,
+                    channel,
+                    udpChannel,
+                    channelEndpoint,
+                    params,
+                    isExclusive);
+                return;
             }
 
             publication = newNetworkPublication(
-                correlationId, streamId, channel, udpChannel, channelEndpoint, params, isExclusive);
+                correlationId,
+                streamId,
+                sessionId,
+                initialTermId,
+                channel,
+                udpChannel,
+                channelEndpoint,
+                params,
+                isExclusive,
+                logFactory.newPublication(correlationId, params.termLength, params.isSparse));
         }
         else
         {
             confirmMatch(channelUri, params, publication.rawLog(), publication.sessionId());
+            confirmWeightMatch(channelUri, params, publication.weight());
         }
 
-        publicationLinks.add(new PublicationLink(correlationId, getOrAddClient(clientId), publication));
-
-        clientProxy.onPublicationReady(
-            correlationId,
-            publication.registrationId(),
-            streamId,
-            publication.sessionId(),
-            publication.rawLog().fileName(),
-            publication.publisherLimitId(),
-            channelEndpoint.statusIndicatorCounterId(),
-            isExclusive);
+        linkNetworkPublication(correlationId, clientId, publication, isExclusive);
     }
 
     void cleanupSpies(final NetworkPublication publication)
     {
+        final ArrayList<SubscriptionLink> subscriptionLinks = matchingSubscriptionLinks(publication);
         for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
         {
             final SubscriptionLink link = subscriptionLinks.get(i);
@@ -426,7 +509,7 @@ public class DriverConductor implements Agent
             {
                 clientProxy.onUnavailableImage(
                     publication.registrationId(), link.registrationId(), publication.streamId(), publication.channel());
-                subscriptionLinks.get(i).unlink(publication);
+                link.unlink(publication);
             }
         }
     }
@@ -458,7 +541,11 @@ public class DriverConductor implements Agent
         activeSessionSet.remove(new SessionKey(publication.sessionId(), publication.streamId(), channel));
         senderProxy.removeNetworkPublication(publication);
 
-        final SendChannelEndpoint channelEndpoint = publication.channelEndpoint();
+        closeSendChannelEndpointIfUnused(publication.channelEndpoint());
+    }
+
+    private void closeSendChannelEndpointIfUnused(final SendChannelEndpoint channelEndpoint)
+    {
         if (channelEndpoint.shouldBeClosed())
         {
             channelEndpoint.closeStatusIndicator();
@@ -488,12 +575,7 @@ public class DriverConductor implements Agent
                 }
             }
 
-            if (channelEndpoint.shouldBeClosed())
-            {
-                channelEndpoint.closeStatusIndicator();
-                receiveChannelEndpointByChannelMap.remove(channelEndpoint.udpChannel().canonicalForm());
-                receiverProxy.closeReceiveChannelEndpoint(channelEndpoint);
-            }
+            closeReceiveChannelEndpointIfUnused(channelEndpoint);
         }
     }
 
@@ -501,6 +583,8 @@ public class DriverConductor implements Agent
     {
         boolean rejoin = true;
 
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            image.channelEndpoint(), image.streamId(), image.sessionId());
         for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
         {
             final SubscriptionLink link = subscriptionLinks.get(i);
@@ -520,6 +604,8 @@ public class DriverConductor implements Agent
 
     void transitionToLinger(final IpcPublication publication)
     {
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            IPC_MEDIA, publication.streamId(), publication.sessionId());
         for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
         {
             final SubscriptionLink link = subscriptionLinks.get(i);
@@ -536,6 +622,8 @@ public class DriverConductor implements Agent
 
     void cleanupImage(final PublicationImage image)
     {
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            image.channelEndpoint(), image.streamId(), image.sessionId());
         for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
         {
             subscriptionLinks.get(i).unlink(image);
@@ -546,6 +634,8 @@ public class DriverConductor implements Agent
     {
         activeSessionSet.remove(new SessionKey(publication.sessionId(), publication.streamId(), IPC_MEDIA));
 
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            IPC_MEDIA, publication.streamId(), publication.sessionId());
         for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
         {
             subscriptionLinks.get(i).unlink(publication);
@@ -564,8 +654,137 @@ public class DriverConductor implements Agent
         final long clientId,
         final boolean isExclusive)
     {
-        final IpcPublication ipcPublication = getOrAddIpcPublication(correlationId, streamId, channel, isExclusive);
-        publicationLinks.add(new PublicationLink(correlationId, getOrAddClient(clientId), ipcPublication));
+        IpcPublication publication = null;
+        final ChannelUri channelUri = channelCache.channelUri(channel);
+        final PublicationParams params = getPublicationParams(ctx, channelUri, this, isExclusive, true);
+
+        if (!isExclusive)
+        {
+            publication = findSharedIpcPublication(
+                sharedIpcPublicationIndex.streamResources(IPC_MEDIA, streamId), streamId);
+
+            if (null == publication && deferIfPending(
+                correlationId,
+                streamId,
+                null,
+                () -> onAddIpcPublication(channel, streamId, correlationId, clientId, false)))
+            {
+                return;
+            }
+        }
+
+        if (null == publication)
+        {
+            if (params.hasSessionId)
+            {
+                checkForSessionClash(params.sessionId, streamId, IPC_MEDIA);
+            }
+
+            validateMtuForMaxMessage(params);
+
+            final int sessionId = params.hasSessionId ? params.sessionId : nextAvailableSessionId(streamId, IPC_MEDIA);
+            final int initialTermId = params.hasPosition ? params.initialTermId : BitUtil.generateRandomisedId();
+
+            if (null != logAllocator)
+            {
+                allocateIpcPublicationLog(
+                    correlationId, clientId, streamId, sessionId, initialTermId, channel, params, isExclusive);
+                return;
+            }
+
+            publication = addIpcPublication(
+                correlationId,
+                streamId,
+                sessionId,
+                initialTermId,
+                channel,
+                isExclusive,
+                params,
+                logFactory.newPublication(correlationId, params.termLength, params.isSparse));
+        }
+        else
+        {
+            confirmMatch(channelUri, params, publication.rawLog(), publication.sessionId());
+        }
+
+        linkIpcPublication(correlationId, clientId, publication, channel, isExclusive);
+    }
+
+    private void allocateIpcPublicationLog(
+        final long correlationId,
+        final long clientId,
+        final int streamId,
+        final int sessionId,
+        final int initialTermId,
+        final String channel,
+        final PublicationParams params,
+        final boolean isExclusive)
+    {
+        final SessionKey sessionKey = new SessionKey(sessionId, streamId, IPC_MEDIA);
+        final PendingPublication pendingPublication = new PendingPublication(streamId, null, isExclusive);
+
+        activeSessionSet.add(sessionKey);
+        pendingPublications.add(pendingPublication);
+
+        logAllocator.allocate(
+            correlationId,
+            params.termLength,
+            params.isSparse,
+            false,
+            (allocation) ->
+            {
+                pendingPublications.remove(pendingPublication);
+
+                final RawLog rawLog = allocation.rawLog();
+                if (null == rawLog)
+                {
+                    activeSessionSet.remove(sessionKey);
+                    clientCommandAdapter.onCommandError(correlationId, allocation.exception());
+                }
+                else
+                {
+                    runCommand(
+                        correlationId,
+                        () ->
+                        {
+                            final IpcPublication publication;
+                            try
+                            {
+                                publication = addIpcPublication(
+                                    correlationId,
+                                    streamId,
+                                    sessionId,
+                                    initialTermId,
+                                    channel,
+                                    isExclusive,
+                                    params,
+                                    rawLog);
+                            }
+                            catch (final RuntimeException ex)
+                            {
+                                rawLog.close();
+                                activeSessionSet.remove(sessionKey);
+                                throw ex;
+                            }
+
+                            linkIpcPublication(correlationId, clientId, publication, channel, isExclusive);
+                        });
+                }
+
+                pendingPublication.runDeferredCommands();
+            });
+    }
+
+    private void linkIpcPublication(
+        final long correlationId,
+        final long clientId,
+        final IpcPublication ipcPublication,
+        final String channel,
+        final boolean isExclusive)
+    {
+        final int streamId = ipcPublication.streamId();
+        publicationLinkByIdMap.put(
+            correlationId, new PublicationLink(correlationId, getOrAddClient(clientId), ipcPublication));
 
         final ArrayList<SubscriberPosition> subscriberPositions = linkIpcSubscriptions(ipcPublication);
 
@@ -594,21 +813,39 @@ public class DriverConductor implements Agent
         }
     }
 
-    void onRemovePublication(final long registrationId, final long correlationId)
+    private boolean deferIfPending(
+        final long correlationId, final int streamId, final SendChannelEndpoint channelEndpoint, final Runnable command)
     {
-        PublicationLink publicationLink = null;
-        final ArrayList<PublicationLink> publicationLinks = this.publicationLinks;
-        for (int i = 0, size = publicationLinks.size(); i < size; i++)
+        for (int i = 0, size = pendingPublications.size(); i < size; i++)
         {
-            final PublicationLink publication = publicationLinks.get(i);
-            if (registrationId == publication.registrationId())
+            final PendingPublication pendingPublication = pendingPublications.get(i);
+            if (streamId == pendingPublication.streamId &&
+                channelEndpoint == pendingPublication.channelEndpoint &&
+                !pendingPublication.isExclusive)
             {
-                publicationLink = publication;
-                fastUnorderedRemove(publicationLinks, i);
-                break;
+                pendingPublication.deferredCommands.add(() -> runCommand(correlationId, command));
+                return true;
             }
         }
 
+        return false;
+    }
+
+    private void runCommand(final long correlationId, final Runnable command)
+    {
+        try
+        {
+            command.run();
+        }
+        catch (final Exception ex)
+        {
+            clientCommandAdapter.onCommandError(correlationId, ex);
+        }
+    }
+
+    void onRemovePublication(final long registrationId, final long correlationId)
+    {
+        final PublicationLink publicationLink = publicationLinkByIdMap.remove(registrationId);
         if (null == publicationLink)
         {
             throw new ControlProtocolException(UNKNOWN_PUBLICATION, "unknown publication: " + registrationId);
@@ -620,27 +857,16 @@ public class DriverConductor implements Agent
 
     void onAddSendDestination(final long registrationId, final String destinationChannel, final long correlationId)
     {
-        SendChannelEndpoint sendChannelEndpoint = null;
-
-        for (int i = 0, size = networkPublications.size(); i < size; i++)
-        {
-            final NetworkPublication publication = networkPublications.get(i);
-
-            if (registrationId == publication.registrationId())
-            {
-                sendChannelEndpoint = publication.channelEndpoint();
-                break;
-            }
-        }
-
-        if (null == sendChannelEndpoint)
+        final NetworkPublication publication = networkPublicationByIdMap.get(registrationId);
+        if (null == publication)
         {
             throw new ControlProtocolException(UNKNOWN_PUBLICATION, "unknown publication: " + registrationId);
         }
 
+        final SendChannelEndpoint sendChannelEndpoint = publication.channelEndpoint();
         sendChannelEndpoint.validateAllowsManualControl();
 
-        final ChannelUri channelUri = ChannelUri.parse(destinationChannel);
+        final ChannelUri channelUri = channelCache.channelUri(destinationChannel);
         final InetSocketAddress dstAddress = UdpChannel.destinationAddress(channelUri);
         senderProxy.addDestination(sendChannelEndpoint, dstAddress);
         clientProxy.operationSucceeded(correlationId);
@@ -648,27 +874,16 @@ public class DriverConductor implements Agent
 
     void onRemoveSendDestination(final long registrationId, final String destinationChannel, final long correlationId)
     {
-        SendChannelEndpoint sendChannelEndpoint = null;
-
-        for (int i = 0, size = networkPublications.size(); i < size; i++)
-        {
-            final NetworkPublication publication = networkPublications.get(i);
-
-            if (registrationId == publication.registrationId())
-            {
-                sendChannelEndpoint = publication.channelEndpoint();
-                break;
-            }
-        }
-
-        if (null == sendChannelEndpoint)
+        final NetworkPublication publication = networkPublicationByIdMap.get(registrationId);
+        if (null == publication)
         {
             throw new ControlProtocolException(UNKNOWN_PUBLICATION, "unknown publication: " + registrationId);
         }
 
+        final SendChannelEndpoint sendChannelEndpoint = publication.channelEndpoint();
         sendChannelEndpoint.validateAllowsManualControl();
 
-        final ChannelUri channelUri = ChannelUri.parse(destinationChannel);
+        final ChannelUri channelUri = channelCache.channelUri(destinationChannel);
         final InetSocketAddress dstAddress = UdpChannel.destinationAddress(channelUri);
         senderProxy.removeDestination(sendChannelEndpoint, dstAddress);
         clientProxy.operationSucceeded(correlationId);
@@ -677,7 +892,7 @@ public class DriverConductor implements Agent
     void onAddNetworkSubscription(
         final String channel, final int streamId, final long registrationId, final long clientId)
     {
-        final UdpChannel udpChannel = UdpChannel.parse(channel);
+        final UdpChannel udpChannel = channelCache.udpChannel(channel);
         final SubscriptionParams params = SubscriptionParams.getSubscriptionParams(udpChannel.channelUri(), ctx);
 
         checkForClashingSubscription(params, udpChannel, streamId);
@@ -702,7 +917,7 @@ public class DriverConductor implements Agent
         final SubscriptionLink subscription = new NetworkSubscriptionLink(
             registrationId, channelEndpoint, streamId, channel, client, params, ctx.errorHandler());
 
-        subscriptionLinks.add(subscription);
+        addSubscriptionLink(subscription);
         clientProxy.onSubscriptionReady(registrationId, channelEndpoint.statusIndicatorCounterId());
 
         linkMatchingImages(subscription);
@@ -710,13 +925,17 @@ public class DriverConductor implements Agent
 
     void onAddIpcSubscription(final String channel, final int streamId, final long registrationId, final long clientId)
     {
-        final SubscriptionParams params = SubscriptionParams.getSubscriptionParams(ChannelUri.parse(channel), ctx);
+        final SubscriptionParams params = SubscriptionParams.getSubscriptionParams(
+            channelCache.channelUri(channel), ctx);
         final IpcSubscriptionLink subscriptionLink = new IpcSubscriptionLink(
             registrationId, streamId, channel, getOrAddClient(clientId), params, ctx.errorHandler());
         final ArrayList<SubscriberPosition> subscriberPositions = new ArrayList<>();
 
-        subscriptionLinks.add(subscriptionLink);
+        addSubscriptionLink(subscriptionLink);
 
+        final ArrayList<IpcPublication> ipcPublications = params.hasSessionId ?
+            ipcPublicationIndex.sessionResources(IPC_MEDIA, streamId, params.sessionId) :
+            ipcPublicationIndex.streamResources(IPC_MEDIA, streamId);
         for (int i = 0, size = ipcPublications.size(); i < size; i++)
         {
             final IpcPublication publication = ipcPublications.get(i);
@@ -747,15 +966,19 @@ public class DriverConductor implements Agent
 
     void onAddSpySubscription(final String channel, final int streamId, final long registrationId, final long clientId)
     {
-        final UdpChannel udpChannel = UdpChannel.parse(channel);
+        final UdpChannel udpChannel = channelCache.udpChannel(channel);
         final AeronClient client = getOrAddClient(clientId);
         final SubscriptionParams params = SubscriptionParams.getSubscriptionParams(udpChannel.channelUri(), ctx);
         final ArrayList<SubscriberPosition> subscriberPositions = new ArrayList<>();
         final SpySubscriptionLink subscriptionLink = new SpySubscriptionLink(
             registrationId, udpChannel, streamId, client, params, ctx.errorHandler());
 
-        subscriptionLinks.add(subscriptionLink);
+        addSubscriptionLink(subscriptionLink);
 
+        final String canonicalForm = udpChannel.canonicalForm();
+        final ArrayList<NetworkPublication> networkPublications = params.hasSessionId ?
+            networkPublicationIndex.sessionResources(canonicalForm, streamId, params.sessionId) :
+            networkPublicationIndex.streamResources(canonicalForm, streamId);
         for (int i = 0, size = networkPublications.size(); i < size; i++)
         {
             final NetworkPublication publication = networkPublications.get(i);
@@ -786,12 +1009,14 @@ public class DriverConductor implements Agent
 
     void onRemoveSubscription(final long registrationId, final long correlationId)
     {
-        final SubscriptionLink subscription = removeSubscriptionLink(subscriptionLinks, registrationId);
+        final SubscriptionLink subscription = subscriptionLinkByIdMap.remove(registrationId);
         if (null == subscription)
         {
             throw new ControlProtocolException(UNKNOWN_SUBSCRIPTION, "unknown subscription: " + registrationId);
         }
 
+        removeFromIndexes(subscription);
+
         subscription.close();
         final ReceiveChannelEndpoint channelEndpoint = subscription.channelEndpoint();
 
@@ -813,12 +1038,7 @@ public class DriverConductor implements Agent
                 }
             }
 
-            if (channelEndpoint.shouldBeClosed())
-            {
-                channelEndpoint.closeStatusIndicator();
-                receiveChannelEndpointByChannelMap.remove(channelEndpoint.udpChannel().canonicalForm());
-                receiverProxy.closeReceiveChannelEndpoint(channelEndpoint);
-            }
+            closeReceiveChannelEndpointIfUnused(channelEndpoint);
         }
 
         clientProxy.operationSucceeded(correlationId);
@@ -826,7 +1046,7 @@ public class DriverConductor implements Agent
 
     void onClientKeepalive(final long clientId)
     {
-        final AeronClient client = findClient(clients, clientId);
+        final AeronClient client = clientByIdMap.get(clientId);
         if (null != client)
         {
             client.timeOfLastKeepaliveMs(cachedEpochClock.time());
@@ -848,25 +1068,13 @@ public class DriverConductor implements Agent
         final AtomicCounter counter = countersManager.newCounter(
             typeId, keyBuffer, keyOffset, keyLength, labelBuffer, labelOffset, labelLength);
 
-        counterLinks.add(new CounterLink(counter, correlationId, client));
+        counterLinkByIdMap.put(correlationId, new CounterLink(counter, correlationId, client));
         clientProxy.onCounterReady(correlationId, counter.id());
     }
 
     void onRemoveCounter(final long registrationId, final long correlationId)
     {
-        CounterLink counterLink = null;
-        final ArrayList<CounterLink> counterLinks = this.counterLinks;
-        for (int i = 0, size = counterLinks.size(); i < size; i++)
-        {
-            final CounterLink link = counterLinks.get(i);
-            if (registrationId == link.registrationId())
-            {
-                counterLink = link;
-                fastUnorderedRemove(counterLinks, i);
-                break;
-            }
-        }
-
+        final CounterLink counterLink = counterLinkByIdMap.remove(registrationId);
         if (null == counterLink)
         {
             throw new ControlProtocolException(UNKNOWN_COUNTER, "unknown counter: " + registrationId);
@@ -877,29 +1085,39 @@ public class DriverConductor implements Agent
         counterLink.close();
     }
 
+    void onAddClientCommandBuffer(final long clientId, final long correlationId)
+    {
+        final int capacity = ctx.clientCommandBufferLength();
+        if (0 == capacity)
+        {
+            throw new ControlProtocolException(NOT_SUPPORTED, "client command buffers are not enabled");
+        }
+
+        final AeronClient client = getOrAddClient(clientId);
+        if (null == client.commandBuffer())
+        {
+            addClientCommandBuffer(client, capacity);
+        }
+
+        clientProxy.operationSucceeded(correlationId);
+    }
+
     void onClientClose(final long clientId)
     {
-        final AeronClient client = findClient(clients, clientId);
+        final AeronClient client = clientByIdMap.get(clientId);
         if (null != client)
         {
             client.onClosedByCommand();
+            cancelClientTimer(client);
+            scheduleClientTimer(client, cachedNanoClock.nanoTime(), cachedEpochClock.time());
         }
     }
 
     void onAddRcvDestination(final long registrationId, final String destinationChannel, final long correlationId)
     {
-        ReceiveChannelEndpoint receiveChannelEndpoint = null;
-
-        for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
-        {
-            final SubscriptionLink subscriptionLink = subscriptionLinks.get(i);
-
-            if (registrationId == subscriptionLink.registrationId())
-            {
-                receiveChannelEndpoint = subscriptionLink.channelEndpoint();
-                break;
-            }
-        }
+        final SubscriptionLink subscriptionLink = subscriptionLinkByIdMap.get(registrationId);
+        final ReceiveChannelEndpoint receiveChannelEndpoint =
+            null == subscriptionLink ? null : subscriptionLink.channelEndpoint();
 
         if (null == receiveChannelEndpoint)
         {
@@ -908,7 +1126,7 @@ public class DriverConductor implements Agent
 
         receiveChannelEndpoint.validateAllowsDestinationControl();
 
-        final UdpChannel udpChannel = UdpChannel.parse(destinationChannel);
+        final UdpChannel udpChannel = channelCache.udpChannel(destinationChannel);
         final ReceiveDestinationTransport transport = new ReceiveDestinationTransport(udpChannel, ctx);
 
         receiverProxy.addDestination(receiveChannelEndpoint, transport);
@@ -917,18 +1135,9 @@ public class DriverConductor implements Agent
 
     void onRemoveRcvDestination(final long registrationId, final String destinationChannel, final long correlationId)
     {
-        ReceiveChannelEndpoint receiveChannelEndpoint = null;
-
-        for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
-        {
-            final SubscriptionLink subscriptionLink = subscriptionLinks.get(i);
-
-            if (registrationId == subscriptionLink.registrationId())
-            {
-                receiveChannelEndpoint = subscriptionLink.channelEndpoint();
-                break;
-            }
-        }
+        final SubscriptionLink subscriptionLink = subscriptionLinkByIdMap.get(registrationId);
+        final ReceiveChannelEndpoint receiveChannelEndpoint =
+            null == subscriptionLink ? null : subscriptionLink.channelEndpoint();
 
         if (null == receiveChannelEndpoint)
         {
@@ -937,7 +1146,7 @@ public class DriverConductor implements Agent
 
         receiveChannelEndpoint.validateAllowsDestinationControl();
 
-        receiverProxy.removeDestination(receiveChannelEndpoint, UdpChannel.parse(destinationChannel));
+        receiverProxy.removeDestination(receiveChannelEndpoint, channelCache.udpChannel(destinationChannel));
         clientProxy.operationSucceeded(correlationId);
     }
 
@@ -954,49 +1163,167 @@ public class DriverConductor implements Agent
         final long nowMs = cachedEpochClock.time();
         toDriverCommands.consumerHeartbeatTime(nowMs);
 
-        checkManagedResources(clients, nowNs, nowMs);
-        checkManagedResources(publicationLinks, nowNs, nowMs);
-        checkManagedResources(networkPublications, nowNs, nowMs);
-        checkManagedResources(subscriptionLinks, nowNs, nowMs);
-        checkManagedResources(publicationImages, nowNs, nowMs);
-        checkManagedResources(ipcPublications, nowNs, nowMs);
-        checkManagedResources(counterLinks, nowNs, nowMs);
+        if (isLinkCheckRequired)
+        {
+            isLinkCheckRequired = false;
+            checkManagedResources(publicationLinkByIdMap, null, nowNs, nowMs);
+            checkManagedResources(subscriptionLinkByIdMap, subscriptionLinkRemover, nowNs, nowMs);
+            checkManagedResources(counterLinkByIdMap, null, nowNs, nowMs);
+        }
     }
 
-    private void checkForBlockedToDriverCommands(final long nowNs)
+    private int pollTimers(final long nowNs)
     {
-        final long consumerPosition = toDriverCommands.consumerPosition();
+        final DeadlineTimerWheel timerWheel = this.timerWheel;
+        int workCount = 0;
 
-        if (consumerPosition == lastConsumerCommandPosition)
+        do
         {
-            if (toDriverCommands.producerPosition() > consumerPosition &&
-                ((timeOfLastToDriverPositionChangeNs + clientLivenessTimeoutNs) - nowNs < 0))
-            {
-                if (toDriverCommands.unblock())
-                {
-                    ctx.systemCounters().get(UNBLOCKED_COMMANDS).incrementOrdered();
-                }
-            }
+            workCount += timerWheel.poll(nowNs, timerHandler, Integer.MAX_VALUE);
         }
-        else
+        while (timerWheel.currentTickTime() < nowNs);
+
+        return workCount;
+    }
+
+    private boolean onTimerExpiry(final TimeUnit timeUnit, final long nowNs, final long timerId)
+    {
+        final DeadlineHandler handler = deadlineHandlerByTimerIdMap.remove(timerId);
+        if (null != handler)
         {
-            timeOfLastToDriverPositionChangeNs = nowNs;
-            lastConsumerCommandPosition = consumerPosition;
+            handler.onDeadline(nowNs, cachedEpochClock.time(), this);
         }
+
+        return true;
     }
 
-    private ArrayList<SubscriberPosition> createSubscriberPositions(
-        final int sessionId, final int streamId, final ReceiveChannelEndpoint channelEndpoint, final long joinPosition)
+    /**
+     * Schedule a deadline on the conductor timer wheel so a resource is only visited when it has expired.
+     *
+     * @param deadlineNs at which the handler should be called.
+     * @param handler    to be called once the deadline has expired.
+     * @return id of the timer which can be used to cancel the deadline.
+     */
+    long scheduleDeadline(final long deadlineNs, final DeadlineHandler handler)
     {
-        final ArrayList<SubscriberPosition> subscriberPositions = new ArrayList<>();
+        final long timerId = timerWheel.scheduleTimer(deadlineNs);
+        deadlineHandlerByTimerIdMap.put(timerId, handler);
 
-        for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
+        return timerId;
+    }
+
+    /**
+     * Cancel a deadline previously scheduled with {@link #scheduleDeadline(long, DeadlineHandler)}.
+     *
+     * @param timerId of the deadline or {@link DeadlineTimerWheel#NULL_DEADLINE} if none is scheduled.
+     */
+    void cancelDeadline(final long timerId)
+    {
+        if (DeadlineTimerWheel.NULL_DEADLINE != timerId && timerWheel.cancelTimer(timerId))
         {
-            final SubscriptionLink subscription = subscriptionLinks.get(i);
-            if (subscription.matches(channelEndpoint, streamId, sessionId))
-            {
-                final Position position = SubscriberPos.allocate(
-                    tempBuffer,
+            deadlineHandlerByTimerIdMap.remove(timerId);
+        }
+    }
+
+    void onNetworkPublicationDeadline(final NetworkPublication publication, final long nowNs, final long nowMs)
+    {
+        publication.onTimeEvent(nowNs, nowMs, this);
+
+        if (!freeAtEndOfLife(networkPublications, networkPublicationRemover, publication))
+        {
+            publication.scheduleDeadline(nowNs + timerIntervalNs, this);
+        }
+    }
+
+    void onIpcPublicationDeadline(final IpcPublication publication, final long nowNs, final long nowMs)
+    {
+        publication.onTimeEvent(nowNs, nowMs, this);
+
+        if (!freeAtEndOfLife(ipcPublications, ipcPublicationRemover, publication))
+        {
+            publication.scheduleDeadline(nowNs + timerIntervalNs, this);
+        }
+    }
+
+    void onPublicationImageDeadline(final PublicationImage image, final long nowNs, final long nowMs)
+    {
+        image.onTimeEvent(nowNs, nowMs, this);
+
+        if (!freeAtEndOfLife(publicationImages, publicationImageRemover, image))
+        {
+            image.scheduleDeadline(nowNs + timerIntervalNs, this);
+        }
+    }
+
+    void onClientDeadline(final AeronClient client, final long nowNs, final long nowMs)
+    {
+        client.onTimeEvent(nowNs, nowMs, this);
+
+        if (client.hasReachedEndOfLife())
+        {
+            clientByIdMap.remove(client.clientId());
+            if (null != client.commandBuffer())
+            {
+                clientCommandBuffers.remove(client.commandBuffer());
+            }
+            client.close();
+            isLinkCheckRequired = true;
+        }
+        else
+        {
+            scheduleClientTimer(client, nowNs, nowMs);
+        }
+    }
+
+    private void scheduleClientTimer(final AeronClient client, final long nowNs, final long nowMs)
+    {
+        final long deadlineMs = client.livenessDeadlineMs() + 1;
+
+        client.timerId(scheduleDeadline(nowNs + TimeUnit.MILLISECONDS.toNanos(deadlineMs - nowMs), client));
+    }
+
+    private void cancelClientTimer(final AeronClient client)
+    {
+        cancelDeadline(client.timerId());
+        client.timerId(DeadlineTimerWheel.NULL_DEADLINE);
+    }
+
+    private void checkForBlockedToDriverCommands(final long nowNs)
+    {
+        final long consumerPosition = toDriverCommands.consumerPosition();
+
+        if (consumerPosition == lastConsumerCommandPosition)
+        {
+            if (toDriverCommands.producerPosition() > consumerPosition &&
+                ((timeOfLastToDriverPositionChangeNs + clientLivenessTimeoutNs) - nowNs < 0))
+            {
+                if (toDriverCommands.unblock())
+                {
+                    ctx.systemCounters().get(UNBLOCKED_COMMANDS).incrementOrdered();
+                }
+            }
+        }
+        else
+        {
+            timeOfLastToDriverPositionChangeNs = nowNs;
+            lastConsumerCommandPosition = consumerPosition;
+        }
+    }
+
+    private ArrayList<SubscriberPosition> createSubscriberPositions(
+        final int sessionId, final int streamId, final ReceiveChannelEndpoint channelEndpoint, final long joinPosition)
+    {
+        final ArrayList<SubscriberPosition> subscriberPositions = new ArrayList<>();
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            channelEndpoint, streamId, sessionId);
+
+        for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
+        {
+            final SubscriptionLink subscription = subscriptionLinks.get(i);
+            if (subscription.matches(channelEndpoint, streamId, sessionId))
+            {
+                final Position position = SubscriberPos.allocate(
+                    tempBuffer,
                     countersManager,
                     subscription.registrationId(),
                     sessionId,
@@ -1012,6 +1339,26 @@ public class DriverConductor implements Agent
         return subscriberPositions;
     }
 
+    private SubscriptionLink findOldestSubscription(
+        final int sessionId, final int streamId, final ReceiveChannelEndpoint channelEndpoint)
+    {
+        SubscriptionLink oldestSubscription = null;
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            channelEndpoint, streamId, sessionId);
+
+        for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
+        {
+            final SubscriptionLink subscription = subscriptionLinks.get(i);
+            if (subscription.matches(channelEndpoint, streamId, sessionId) &&
+                (null == oldestSubscription || subscription.registrationId() < oldestSubscription.registrationId()))
+            {
+                oldestSubscription = subscription;
+            }
+        }
+
+        return oldestSubscription;
+    }
+
     private static NetworkPublication findPublication(
         final ArrayList<NetworkPublication> publications,
         final int streamId,
@@ -1033,18 +1380,109 @@ public class DriverConductor implements Agent
         return null;
     }
 
+    private void allocateNetworkPublicationLog(
+        final long correlationId,
+        final long clientId,
+        final int streamId,
+        final int sessionId,
+        final int initialTermId,
+        final String channel,
+        final UdpChannel udpChannel,
+        final SendChannelEndpoint channelEndpoint,
+        final PublicationParams params,
+        final boolean isExclusive)
+    {
+        final SessionKey sessionKey = new SessionKey(sessionId, streamId, udpChannel.canonicalForm());
+        final PendingPublication pendingPublication = new PendingPublication(streamId, channelEndpoint, isExclusive);
+
+        activeSessionSet.add(sessionKey);
+        channelEndpoint.incRef();
+        pendingPublications.add(pendingPublication);
+
+        logAllocator.allocate(
+            correlationId,
+            params.termLength,
+            params.isSparse,
+            false,
+            (allocation) ->
+            {
+                pendingPublications.remove(pendingPublication);
+                channelEndpoint.decRef();
+
+                final RawLog rawLog = allocation.rawLog();
+                if (null == rawLog)
+                {
+                    activeSessionSet.remove(sessionKey);
+                    closeSendChannelEndpointIfUnused(channelEndpoint);
+                    clientCommandAdapter.onCommandError(correlationId, allocation.exception());
+                }
+                else
+                {
+                    runCommand(
+                        correlationId,
+                        () ->
+                        {
+                            final NetworkPublication publication;
+                            try
+                            {
+                                publication = newNetworkPublication(
+                                    correlationId,
+                                    streamId,
+                                    sessionId,
+                                    initialTermId,
+                                    channel,
+                                    udpChannel,
+                                    channelEndpoint,
+                                    params,
+                                    isExclusive,
+                                    rawLog);
+                            }
+                            catch (final RuntimeException ex)
+                            {
+                                rawLog.close();
+                                activeSessionSet.remove(sessionKey);
+                                closeSendChannelEndpointIfUnused(channelEndpoint);
+                                throw ex;
+                            }
+
+                            linkNetworkPublication(correlationId, clientId, publication, isExclusive);
+                        });
+                }
+
+                pendingPublication.runDeferredCommands();
+            });
+    }
+
+    private void linkNetworkPublication(
+        final long correlationId, final long clientId, final NetworkPublication publication, final boolean isExclusive)
+    {
+        publicationLinkByIdMap.put(
+            correlationId, new PublicationLink(correlationId, getOrAddClient(clientId), publication));
+
+        clientProxy.onPublicationReady(
+            correlationId,
+            publication.registrationId(),
+            publication.streamId(),
+            publication.sessionId(),
+            publication.rawLog().fileName(),
+            publication.publisherLimitId(),
+            publication.channelEndpoint().statusIndicatorCounterId(),
+            isExclusive);
+    }
+
     private NetworkPublication newNetworkPublication(
         final long registrationId,
         final int streamId,
+        final int sessionId,
+        final int initialTermId,
         final String channel,
         final UdpChannel udpChannel,
         final SendChannelEndpoint channelEndpoint,
         final PublicationParams params,
-        final boolean isExclusive)
+        final boolean isExclusive,
+        final RawLog rawLog)
     {
-        final String canonicalForm = udpChannel.canonicalForm();
-        final int sessionId = params.hasSessionId ? params.sessionId : nextAvailableSessionId(streamId, canonicalForm);
-        final int initialTermId = params.hasPosition ? params.initialTermId : BitUtil.generateRandomisedId();
+        initPublicationMetadata(sessionId, streamId, initialTermId, registrationId, params, rawLog);
 
         final UnsafeBufferPosition publisherPosition = PublisherPos.allocate(
             tempBuffer, countersManager, registrationId, sessionId, streamId, channel);
@@ -1068,8 +1506,13 @@ public class DriverConductor implements Agent
         final RetransmitHandler retransmitHandler = new RetransmitHandler(
             cachedNanoClock,
             ctx.systemCounters().get(INVALID_PACKETS),
+            ctx.systemCounters().get(RETRANSMITS_MERGED),
+            ctx.systemCounters().get(RETRANSMITS_DROPPED),
+            ctx.systemCounters().get(RETRANSMITS_IN_FLIGHT),
             ctx.retransmitUnicastDelayGenerator(),
-            ctx.retransmitUnicastLingerGenerator());
+            ctx.retransmitUnicastLingerGenerator(),
+            ctx.maxRetransmits(),
+            channelEndpoint.isSharded());
 
         final FlowControl flowControl = udpChannel.isMulticast() || udpChannel.hasExplicitControl() ?
             ctx.multicastFlowControlSupplier().newInstance(udpChannel, streamId, registrationId) :
@@ -1081,20 +1524,28 @@ public class DriverConductor implements Agent
             params,
             channelEndpoint,
             cachedNanoClock,
-            newNetworkPublicationLog(sessionId, streamId, initialTermId, registrationId, params),
+            rawLog,
             Configuration.producerWindowLength(params.termLength, ctx.publicationTermWindowLength()),
             publisherPosition,
             publisherLimit,
             senderPosition,
             senderLimit,
             SenderBpe.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
+            SenderBytesDeferred.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
+            params.pacingRate > 0 ?
+                SenderPacedTime.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel) :
+                null,
+            Aeron.NULL_VALUE != flowControl.maxReceiverLag() ?
+                SenderReceiverLag.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel) :
+                null,
             sessionId,
             streamId,
             initialTermId,
             ctx.systemCounters(),
             flowControl,
             retransmitHandler,
-            networkPublicationThreadLocals,
+            ThreadingMode.SHARDED == ctx.threadingMode() ?
+                new NetworkPublicationThreadLocals() : networkPublicationThreadLocals,
             ctx.publicationUnblockTimeoutNs(),
             ctx.publicationConnectionTimeoutNs(),
             ctx.untetheredWindowLimitTimeoutNs(),
@@ -1105,39 +1556,15 @@ public class DriverConductor implements Agent
 
         channelEndpoint.incRef();
         networkPublications.add(publication);
+        addToIndexes(publication);
+        publication.scheduleDeadline(cachedNanoClock.nanoTime() + timerIntervalNs, this);
         senderProxy.newNetworkPublication(publication);
-        linkSpies(subscriptionLinks, publication);
-        activeSessionSet.add(new SessionKey(sessionId, streamId, canonicalForm));
+        linkSpies(matchingSubscriptionLinks(publication), publication);
+        activeSessionSet.add(new SessionKey(sessionId, streamId, udpChannel.canonicalForm()));
 
         return publication;
     }
 
-    private RawLog newNetworkPublicationLog(
-        final int sessionId,
-        final int streamId,
-        final int initialTermId,
-        final long registrationId,
-        final PublicationParams params)
-    {
-        final RawLog rawLog = logFactory.newPublication(registrationId, params.termLength, params.isSparse);
-        initPublicationMetadata(sessionId, streamId, initialTermId, registrationId, params, rawLog);
-
-        return rawLog;
-    }
-
-    private RawLog newIpcPublicationLog(
-        final int sessionId,
-        final int streamId,
-        final int initialTermId,
-        final long registrationId,
-        final PublicationParams params)
-    {
-        final RawLog rawLog = logFactory.newPublication(registrationId, params.termLength, params.isSparse);
-        initPublicationMetadata(sessionId, streamId, initialTermId, registrationId, params, rawLog);
-
-        return rawLog;
-    }
-
     private void initPublicationMetadata(
         final int sessionId,
         final int streamId,
@@ -1191,16 +1618,150 @@ public class DriverConductor implements Agent
         }
     }
 
-    private RawLog newPublicationImageLog(
+    private void newPublicationImage(
+        final long registrationId,
         final int sessionId,
         final int streamId,
         final int initialTermId,
-        final int termBufferLength,
-        final boolean isSparse,
+        final int activeTermId,
+        final int initialTermOffset,
         final int senderMtuLength,
-        final long correlationId)
+        final int transportIndex,
+        final InetSocketAddress controlAddress,
+        final InetSocketAddress sourceAddress,
+        final ReceiveChannelEndpoint channelEndpoint,
+        final ArrayList<SubscriberPosition> subscriberPositions,
+        final RawLog rawLog)
+    {
+        final UdpChannel udpChannel = channelEndpoint.udpChannel();
+        final String channel = udpChannel.originalUriString();
+        final int termBufferLength = rawLog.termLength();
+        initPublicationImageMetadata(sessionId, streamId, initialTermId, senderMtuLength, registrationId, rawLog);
+
+        final CongestionControl congestionControl = ctx.congestionControlSupplier().newInstance(
+            registrationId,
+            udpChannel,
+            streamId,
+            sessionId,
+            termBufferLength,
+            senderMtuLength,
+            controlAddress,
+            sourceAddress,
+            cachedNanoClock,
+            ctx,
+            countersManager);
+
+        final StatusMessagePolicy statusMessagePolicy = ctx.statusMessagePolicySupplier().newInstance(
+            registrationId, udpChannel, streamId, sessionId, termBufferLength, senderMtuLength, ctx);
+
+        final InferableBoolean groupSubscription = subscriberPositions.get(0).subscription().group();
+        final boolean treatAsMulticast = groupSubscription == INFER ?
+            udpChannel.isMulticast() : groupSubscription == FORCE_TRUE;
+
+        final FeedbackDelayGenerator feedbackDelayGenerator = treatAsMulticast ?
+            ctx.multicastFeedbackDelayGenerator() : ctx.unicastFeedbackDelayGenerator();
+
+        final PublicationImage image = new PublicationImage(
+            registrationId,
+            ctx.imageLivenessTimeoutNs(),
+            ctx.untetheredWindowLimitTimeoutNs(),
+            ctx.untetheredRestingTimeoutNs(),
+            channelEndpoint,
+            transportIndex,
+            controlAddress,
+            sessionId,
+            streamId,
+            initialTermId,
+            activeTermId,
+            initialTermOffset,
+            rawLog,
+            feedbackDelayGenerator,
+            ctx.nakMaxGaps(),
+            ctx.receiverGapBitmap(),
+            subscriberPositions,
+            ReceiverHwm.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
+            ReceiverPos.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
+            ReceiverSmSent.allocate(tempBuffer, countersManager, registrationId, sessionId, streamId, channel),
+            nanoClock,
+            cachedNanoClock,
+            cachedEpochClock,
+            ctx.systemCounters(),
+            sourceAddress,
+            congestionControl,
+            statusMessagePolicy,
+            newLatencyTracer(registrationId, sessionId, streamId, channel, senderMtuLength, subscriberPositions),
+            ctx.lossReport(),
+            ctx.errorHandler());
+
+        publicationImages.add(image);
+        image.scheduleDeadline(cachedNanoClock.nanoTime() + timerIntervalNs, this);
+        publicationImageIndex.add(channelEndpoint, streamId, sessionId, image);
+        receiverProxy.newPublicationImage(channelEndpoint, image);
+
+        final String sourceIdentity = Configuration.sourceIdentity(sourceAddress);
+        for (int i = 0, size = subscriberPositions.size(); i < size; i++)
+        {
+            final SubscriberPosition position = subscriberPositions.get(i);
+
+            position.addLink(image);
+
+            clientProxy.onAvailableImage(
+                registrationId,
+                streamId,
+                sessionId,
+                position.subscription().registrationId(),
+                position.positionCounterId(),
+                rawLog.fileName(),
+                sourceIdentity);
+        }
+    }
+
+    private LatencyTracer newLatencyTracer(
+        final long registrationId,
+        final int sessionId,
+        final int streamId,
+        final String channel,
+        final int mtuLength,
+        final ArrayList<SubscriberPosition> subscriberPositions)
+    {
+        for (int i = 0, size = subscriberPositions.size(); i < size; i++)
+        {
+            if (subscriberPositions.get(i).subscription().isLatencyTrace())
+            {
+                return new LatencyTracer(
+                    ReceiverLatency.allocate(
+                        tempBuffer,
+                        ReceiverLatency.PUBLISHER_TO_SENDER_NAME,
+                        ReceiverLatency.PUBLISHER_TO_SENDER_TYPE_ID,
+                        countersManager,
+                        registrationId,
+                        sessionId,
+                        streamId,
+                        channel),
+                    ReceiverLatency.allocate(
+                        tempBuffer,
+                        ReceiverLatency.WIRE_NAME,
+                        ReceiverLatency.WIRE_TYPE_ID,
+                        countersManager,
+                        registrationId,
+                        sessionId,
+                        streamId,
+                        channel),
+                    mtuLength);
+            }
+        }
+
+        return null;
+    }
+
+    private void initPublicationImageMetadata(
+        final int sessionId,
+        final int streamId,
+        final int initialTermId,
+        final int senderMtuLength,
+        final long correlationId,
+        final RawLog rawLog)
     {
-        final RawLog rawLog = logFactory.newImage(correlationId, termBufferLength, isSparse);
         final UnsafeBuffer logMetaData = rawLog.metaData();
 
         defaultDataHeader.sessionId(sessionId).streamId(streamId).termId(initialTermId);
@@ -1208,12 +1769,10 @@ public class DriverConductor implements Agent
 
         initialTermId(logMetaData, initialTermId);
         mtuLength(logMetaData, senderMtuLength);
-        termLength(logMetaData, termBufferLength);
+        termLength(logMetaData, rawLog.termLength());
         pageSize(logMetaData, ctx.filePageSize());
         correlationId(logMetaData, correlationId);
         endOfStreamPosition(logMetaData, Long.MAX_VALUE);
-
-        return rawLog;
     }
 
     private SendChannelEndpoint getOrCreateSendChannelEndpoint(final UdpChannel udpChannel)
@@ -1266,7 +1825,9 @@ public class DriverConductor implements Agent
         {
             final boolean isReliable = params.isReliable;
             final boolean isRejoin = params.isRejoin;
-            final ArrayList<SubscriptionLink> existingLinks = subscriptionLinks;
+            final ArrayList<SubscriptionLink> existingLinks = params.hasSessionId ?
+                subscriptionLinkIndex.sessionResources(channelEndpoint, streamId, params.sessionId) :
+                subscriptionLinkIndex.wildcardResources(channelEndpoint, streamId);
 
             for (int i = 0, size = existingLinks.size(); i < size; i++)
             {
@@ -1291,6 +1852,10 @@ public class DriverConductor implements Agent
         final long registrationId = subscription.registrationId();
         final int streamId = subscription.streamId();
         final String channel = subscription.channel();
+        final ReceiveChannelEndpoint channelEndpoint = subscription.channelEndpoint();
+        final ArrayList<PublicationImage> publicationImages = subscription.hasSessionId() ?
+            publicationImageIndex.sessionResources(channelEndpoint, streamId, subscription.sessionId()) :
+            publicationImageIndex.streamResources(channelEndpoint, streamId);
 
         for (int i = 0, size = publicationImages.size(); i < size; i++)
         {
@@ -1320,7 +1885,8 @@ public class DriverConductor implements Agent
 
     private ArrayList<SubscriberPosition> linkIpcSubscriptions(final IpcPublication publication)
     {
-        final ArrayList<SubscriptionLink> subscriptionLinks = this.subscriptionLinks;
+        final ArrayList<SubscriptionLink> subscriptionLinks = subscriptionLinkIndex.matchingResources(
+            IPC_MEDIA, publication.streamId(), publication.sessionId());
         final ArrayList<SubscriberPosition> subscriberPositions = new ArrayList<>();
 
         for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
@@ -1379,17 +1945,42 @@ public class DriverConductor implements Agent
         {
             channelEndpoint = ctx.receiveChannelEndpointSupplier().newInstance(
                 udpChannel,
-                new DataPacketDispatcher(ctx.driverConductorProxy(), receiverProxy.receiver()),
+                new DataPacketDispatcher(
+                    ctx.driverConductorProxy(), receiverProxy.receiver(receiverProxy.shardIndex(udpChannel))),
                 ReceiveChannelStatus.allocate(tempBuffer, countersManager, udpChannel.originalUriString()),
                 ctx);
 
             receiveChannelEndpointByChannelMap.put(udpChannel.canonicalForm(), channelEndpoint);
             receiverProxy.registerReceiveChannelEndpoint(channelEndpoint);
+
+            if (null != socketDropMonitor && !udpChannel.isManualControlMode())
+            {
+                final String channel = udpChannel.originalUriString();
+                socketDropMonitor.add(
+                    channelEndpoint,
+                    ReceiveChannelSocketDrops.allocate(tempBuffer, countersManager, channel),
+                    ReceiveChannelSocketQueued.allocate(tempBuffer, countersManager, channel));
+            }
         }
 
         return channelEndpoint;
     }
 
+    private void closeReceiveChannelEndpointIfUnused(final ReceiveChannelEndpoint channelEndpoint)
+    {
+        if (channelEndpoint.shouldBeClosed())
+        {
+            channelEndpoint.closeStatusIndicator();
+            receiveChannelEndpointByChannelMap.remove(channelEndpoint.udpChannel().canonicalForm());
+            receiverProxy.closeReceiveChannelEndpoint(channelEndpoint);
+
+            if (null != socketDropMonitor)
+            {
+                socketDropMonitor.remove(channelEndpoint);
+            }
+        }
+    }
+
     private ReceiveChannelEndpoint findExistingReceiveChannelEndpoint(final UdpChannel udpChannel)
     {
         if (udpChannel.hasTag())
@@ -1414,7 +2005,7 @@ public class DriverConductor implements Agent
 
     private AeronClient getOrAddClient(final long clientId)
     {
-        AeronClient client = findClient(clients, clientId);
+        AeronClient client = clientByIdMap.get(clientId);
         if (null == client)
         {
             client = new AeronClient(
@@ -1423,52 +2014,119 @@ public class DriverConductor implements Agent
                 cachedEpochClock.time(),
                 ctx.systemCounters().get(SystemCounterDescriptor.CLIENT_TIMEOUTS),
                 ClientHeartbeatTimestamp.allocate(tempBuffer, countersManager, clientId));
-            clients.add(client);
+            clientByIdMap.put(clientId, client);
+            scheduleClientTimer(client, cachedNanoClock.nanoTime(), cachedEpochClock.time());
         }
 
         return client;
     }
 
-    private IpcPublication getOrAddIpcPublication(
-        final long correlationId, final int streamId, final String channel, final boolean isExclusive)
+    private void adoptClients(final WarmRestart warmRestart)
     {
-        IpcPublication publication = null;
-        final ChannelUri channelUri = ChannelUri.parse(channel);
-        final PublicationParams params = getPublicationParams(ctx, channelUri, this, isExclusive, true);
+        final long nowNs = cachedNanoClock.nanoTime();
+        final long nowMs = cachedEpochClock.time();
 
-        if (!isExclusive)
+        for (int i = 0, size = warmRestart.clientCount(); i < size; i++)
         {
-            publication = findSharedIpcPublication(ipcPublications, streamId);
+            final long clientId = warmRestart.clientId(i);
+            final int heartbeatCounterId = warmRestart.clientHeartbeatCounterId(i);
+            final AeronClient client = new AeronClient(
+                clientId,
+                clientLivenessTimeoutNs,
+                nowMs,
+                ctx.systemCounters().get(SystemCounterDescriptor.CLIENT_TIMEOUTS),
+                new AtomicCounter(countersManager.valuesBuffer(), heartbeatCounterId, countersManager));
+            clientByIdMap.put(clientId, client);
+            scheduleClientTimer(client, nowNs, nowMs);
+
+            if (ctx.clientCommandBufferLength() > 0 && ctx.clientCommandBufferFile(clientId).exists())
+            {
+                addClientCommandBuffer(client, ctx.clientCommandBufferLength());
+            }
         }
 
-        if (null == publication)
+        final File commandBufferDir = ctx.clientCommandBufferDir();
+        final File[] commandBufferFiles = commandBufferDir.listFiles();
+        if (null != commandBufferFiles)
         {
-            if (params.hasSessionId)
+            for (final File file : commandBufferFiles)
             {
-                checkForSessionClash(params.sessionId, streamId, IPC_MEDIA);
+                if (!isClientCommandBufferFile(file))
+                {
+                    IoUtil.delete(file, true);
+                }
             }
+        }
+    }
 
-            validateMtuForMaxMessage(params);
-            publication = addIpcPublication(correlationId, streamId, channel, isExclusive, params);
+    private boolean isClientCommandBufferFile(final File file)
+    {
+        for (int i = 0, size = clientCommandBuffers.size(); i < size; i++)
+        {
+            if (ctx.clientCommandBufferFile(clientCommandBuffers.get(i).clientId()).equals(file))
+            {
+                return true;
+            }
         }
-        else
+
+        return false;
+    }
+
+    private void addClientCommandBuffer(final AeronClient client, final int capacity)
+    {
+        final long clientId = client.clientId();
+        final ClientCommandBuffer commandBuffer = new ClientCommandBuffer(
+            clientId,
+            ctx.clientCommandBufferFile(clientId),
+            capacity,
+            ClientCommandMaxLatency.allocate(tempBuffer, countersManager, clientId));
+
+        client.commandBuffer(commandBuffer);
+        clientCommandBuffers.add(commandBuffer);
+    }
+
+    private int receiveClientCommands(final long nowNs)
+    {
+        final ArrayList<ClientCommandBuffer> clientCommandBuffers = this.clientCommandBuffers;
+        final int size = clientCommandBuffers.size();
+        if (0 == size)
         {
-            confirmMatch(channelUri, params, publication.rawLog(), publication.sessionId());
+            return 0;
         }
 
-        return publication;
+        int workCount = 0;
+        int index = clientCommandBufferIndex;
+        if (index >= size)
+        {
+            index = 0;
+        }
+        clientCommandBufferIndex = index + 1;
+
+        for (int i = 0; i < size; i++)
+        {
+            workCount += clientCommandBuffers.get(index).receive(
+                clientCommandAdapter, Configuration.COMMAND_DRAIN_LIMIT, nowNs);
+
+            if (++index == size)
+            {
+                index = 0;
+            }
+        }
+
+        return workCount;
     }
 
     private IpcPublication addIpcPublication(
         final long registrationId,
         final int streamId,
+        final int sessionId,
+        final int initialTermId,
         final String channel,
         final boolean isExclusive,
-        final PublicationParams params)
+        final PublicationParams params,
+        final RawLog rawLog)
     {
-        final int sessionId = params.hasSessionId ? params.sessionId : nextAvailableSessionId(streamId, IPC_MEDIA);
-        final int initialTermId = params.hasPosition ? params.initialTermId : BitUtil.generateRandomisedId();
-        final RawLog rawLog = newIpcPublicationLog(sessionId, streamId, initialTermId, registrationId, params);
+        initPublicationMetadata(sessionId, streamId, initialTermId, registrationId, params, rawLog);
 
         final UnsafeBufferPosition publisherPosition = PublisherPos.allocate(
             tempBuffer, countersManager, registrationId, sessionId, streamId, channel);
@@ -1501,45 +2159,19 @@ public class DriverConductor implements Agent
             ctx.errorHandler());
 
         ipcPublications.add(publication);
+        addToIndexes(publication);
+        publication.scheduleDeadline(cachedNanoClock.nanoTime() + timerIntervalNs, this);
         activeSessionSet.add(new SessionKey(sessionId, streamId, IPC_MEDIA));
 
         return publication;
     }
 
-    private static AeronClient findClient(final ArrayList<AeronClient> clients, final long clientId)
+    private static void closeCommand(final Runnable command)
     {
-        AeronClient aeronClient = null;
-
-        for (int i = 0, size = clients.size(); i < size; i++)
+        if (command instanceof LogAllocator.LogAllocation)
         {
-            final AeronClient client = clients.get(i);
-            if (client.clientId() == clientId)
-            {
-                aeronClient = client;
-                break;
-            }
+            ((LogAllocator.LogAllocation)command).close();
         }
-
-        return aeronClient;
-    }
-
-    private static SubscriptionLink removeSubscriptionLink(
-        final ArrayList<SubscriptionLink> subscriptionLinks, final long registrationId)
-    {
-        SubscriptionLink subscriptionLink = null;
-
-        for (int i = 0, size = subscriptionLinks.size(); i < size; i++)
-        {
-            final SubscriptionLink subscription = subscriptionLinks.get(i);
-            if (subscription.registrationId() == registrationId)
-            {
-                subscriptionLink = subscription;
-                fastUnorderedRemove(subscriptionLinks, i);
-                break;
-            }
-        }
-
-        return subscriptionLink;
     }
 
     private static IpcPublication findSharedIpcPublication(
@@ -1593,12 +2225,33 @@ public class DriverConductor implements Agent
         }
     }
 
+    private <T extends DriverManagedResource> boolean freeAtEndOfLife(
+        final ArrayList<T> list, final Consumer<T> remover, final T resource)
+    {
+        if (resource.hasReachedEndOfLife())
+        {
+            if (resource.free())
+            {
+                fastUnorderedRemove(list, resource);
+                remover.accept(resource);
+                resource.close();
+
+                return true;
+            }
+
+            ctx.systemCounters().get(FREE_FAILS).incrementOrdered();
+        }
+
+        return false;
+    }
+
     private <T extends DriverManagedResource> void checkManagedResources(
-        final ArrayList<T> list, final long nowNs, final long nowMs)
+        final Long2ObjectHashMap<T> resourceByIdMap, final Consumer<T> remover, final long nowNs, final long nowMs)
     {
-        for (int lastIndex = list.size() - 1, i = lastIndex; i >= 0; i--)
+        final Iterator<T> iterator = resourceByIdMap.values().iterator();
+        while (iterator.hasNext())
         {
-            final DriverManagedResource resource = list.get(i);
+            final T resource = iterator.next();
 
             resource.onTimeEvent(nowNs, nowMs, this);
 
@@ -1606,7 +2259,11 @@ public class DriverConductor implements Agent
             {
                 if (resource.free())
                 {
-                    fastUnorderedRemove(list, i, lastIndex--);
+                    iterator.remove();
+                    if (null != remover)
+                    {
+                        remover.accept(resource);
+                    }
                     resource.close();
                 }
                 else
@@ -1617,6 +2274,96 @@ public class DriverConductor implements Agent
         }
     }
 
+    private void addSubscriptionLink(final SubscriptionLink subscriptionLink)
+    {
+        subscriptionLinkByIdMap.put(subscriptionLink.registrationId(), subscriptionLink);
+
+        final Object channelKey = subscriptionLink.streamChannelKey();
+        final int streamId = subscriptionLink.streamId();
+        if (subscriptionLink.hasSessionId())
+        {
+            subscriptionLinkIndex.add(channelKey, streamId, subscriptionLink.sessionId(), subscriptionLink);
+        }
+        else
+        {
+            subscriptionLinkIndex.addWildcard(channelKey, streamId, subscriptionLink);
+        }
+    }
+
+    private void addToIndexes(final NetworkPublication publication)
+    {
+        final String channelKey = publication.channelEndpoint().udpChannel().canonicalForm();
+        final int streamId = publication.streamId();
+        final int sessionId = publication.sessionId();
+
+        networkPublicationByIdMap.put(publication.registrationId(), publication);
+        networkPublicationIndex.add(channelKey, streamId, sessionId, publication);
+        if (!publication.isExclusive())
+        {
+            sharedNetworkPublicationIndex.add(channelKey, streamId, sessionId, publication);
+        }
+    }
+
+    private void addToIndexes(final IpcPublication publication)
+    {
+        final int streamId = publication.streamId();
+        final int sessionId = publication.sessionId();
+
+        ipcPublicationByIdMap.put(publication.registrationId(), publication);
+        ipcPublicationIndex.add(IPC_MEDIA, streamId, sessionId, publication);
+        if (!publication.isExclusive())
+        {
+            sharedIpcPublicationIndex.add(IPC_MEDIA, streamId, sessionId, publication);
+        }
+    }
+
+    private void removeFromIndexes(final NetworkPublication publication)
+    {
+        final String channelKey = publication.channelEndpoint().udpChannel().canonicalForm();
+        final int streamId = publication.streamId();
+        final int sessionId = publication.sessionId();
+
+        networkPublicationByIdMap.remove(publication.registrationId());
+        networkPublicationIndex.remove(channelKey, streamId, sessionId, publication);
+        sharedNetworkPublicationIndex.remove(channelKey, streamId, sessionId, publication);
+    }
+
+    private void removeFromIndexes(final IpcPublication publication)
+    {
+        final int streamId = publication.streamId();
+        final int sessionId = publication.sessionId();
+
+        ipcPublicationByIdMap.remove(publication.registrationId());
+        ipcPublicationIndex.remove(IPC_MEDIA, streamId, sessionId, publication);
+        sharedIpcPublicationIndex.remove(IPC_MEDIA, streamId, sessionId, publication);
+    }
+
+    private void removeFromIndexes(final PublicationImage image)
+    {
+        publicationImageIndex.remove(image.channelEndpoint(), image.streamId(), image.sessionId(), image);
+    }
+
+    private void removeFromIndexes(final SubscriptionLink subscriptionLink)
+    {
+        final Object channelKey = subscriptionLink.streamChannelKey();
+        final int streamId = subscriptionLink.streamId();
+        if (subscriptionLink.hasSessionId())
+        {
+            subscriptionLinkIndex.remove(channelKey, streamId, subscriptionLink.sessionId(), subscriptionLink);
+        }
+        else
+        {
+            subscriptionLinkIndex.removeWildcard(channelKey, streamId, subscriptionLink);
+        }
+    }
+
+    private ArrayList<SubscriptionLink> matchingSubscriptionLinks(final NetworkPublication publication)
+    {
+        final String channelKey = publication.channelEndpoint().udpChannel().canonicalForm();
+
+        return subscriptionLinkIndex.matchingResources(channelKey, publication.streamId(), publication.sessionId());
+    }
+
     private void linkSpies(final ArrayList<SubscriptionLink> links, final NetworkPublication publication)
     {
         for (int i = 0, size = links.size(); i < size; i++)
@@ -1655,6 +2402,7 @@ public class DriverConductor implements Agent
             heartbeatAndCheckTimers(nowNs);
             checkForBlockedToDriverCommands(nowNs);
             timeOfLastTimerCheckNs = nowNs;
+            maxTimerSweepTime.proposeMaxOrdered(nanoClock.nanoTime() - nowNs);
             workCount = 1;
         }
 
@@ -1679,4 +2427,31 @@ public class DriverConductor implements Agent
 
         return isSparse;
     }
+
+    /**
+     * A publication awaiting its log buffer from the {@link LogAllocator}. Commands to add the same shared
+     * publication are deferred until the allocation completes so they are linked to it rather than creating another.
+     */
+    static final class PendingPublication
+    {
+        final int streamId;
+        final SendChannelEndpoint channelEndpoint;
+        final boolean isExclusive;
+        final ArrayList<Runnable> deferredCommands = new ArrayList<>();
+
+        PendingPublication(final int streamId, final SendChannelEndpoint channelEndpoint, final boolean isExclusive)
+        {
+            this.streamId = streamId;
+            this.channelEndpoint = channelEndpoint;
+            this.isExclusive = isExclusive;
+        }
+
+        void runDeferredCommands()
+        {
+            for (int i = 0, size = deferredCommands.size(); i < size; i++)
+            {
+                deferredCommands.get(i).run();
+            }
+        }
+    }
 }
@@ -105,6 +105,14 @@ public class DriverConductorProxy
         }
     }
 
+    /**
+     * Invalidate the cache of parsed channels on the conductor. Always queued as it may be called from any thread.
+     */
+    public void invalidateChannelCache()
+    {
+        offer(driverConductor::onInvalidateChannelCache);
+    }
+
     public boolean notConcurrent()
     {
         return threadingMode == SHARED || threadingMode == INVOKER;
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.protocol.FecParityFlyweight;
+import io.aeron.protocol.HeaderFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Accumulates the XOR parity of a group of datagrams sent by a {@link NetworkPublication} so a parity frame can be
+ * sent after each group for the receiver to rebuild a single lost datagram without a NAK.
+ * <p>
+ * A group never spans terms, a partial group is abandoned when the term changes. A partial group can be sent with
+ * {@link #flush()} once the publication has sent all it has, or has sent nothing for a heartbeat interval while stalled
+ * by flow control or pacing, so the tail of a burst is still protected without cutting groups short mid-stream.
+ */
+final class FecParityEncoder
+{
+    private final int groupSize;
+    private final int payloadOffset;
+    private int groupTermId;
+    private int count = 0;
+    private int payloadLength = 0;
+    private final ByteBuffer parityBuffer;
+    private final UnsafeBuffer parityUnsafeBuffer;
+    private final FecParityFlyweight parityHeader;
+
+    FecParityEncoder(final int sessionId, final int streamId, final int groupSize, final int mtuLength)
+    {
+        this.groupSize = groupSize;
+        this.payloadOffset = FecParityFlyweight.payloadOffset(groupSize);
+
+        parityBuffer = BufferUtil.allocateDirectAligned(
+            FecParityFlyweight.computeFrameLength(groupSize, mtuLength), BitUtil.CACHE_LINE_LENGTH);
+        parityUnsafeBuffer = new UnsafeBuffer(parityBuffer);
+        parityHeader = new FecParityFlyweight(parityUnsafeBuffer);
+
+        parityHeader
+            .version(HeaderFlyweight.CURRENT_VERSION)
+            .headerType(HeaderFlyweight.HDR_TYPE_FEC_PARITY);
+
+        parityHeader
+            .sessionId(sessionId)
+            .streamId(streamId)
+            .groupSize(groupSize);
+    }
+
+    /**
+     * Add a datagram which has been sent to the current group.
+     *
+     * @param termId     of the term the datagram was sent from.
+     * @param termOffset at which the datagram begins in the term.
+     * @param termBuffer containing the datagram.
+     * @param length     of the datagram.
+     * @return true if the group is complete and {@link #parityBuffer()} is ready to send.
+     */
+    boolean onDataSent(final int termId, final int termOffset, final UnsafeBuffer termBuffer, final int length)
+    {
+        if (count > 0 && termId != groupTermId)
+        {
+            count = 0;
+            payloadLength = 0;
+        }
+
+        if (0 == count)
+        {
+            groupTermId = termId;
+            parityHeader.termId(termId);
+        }
+
+        final int xorLength = Math.min(length, payloadLength);
+        xor(parityUnsafeBuffer, payloadOffset, termBuffer, termOffset, xorLength);
+
+        if (length > payloadLength)
+        {
+            parityUnsafeBuffer.putBytes(
+                payloadOffset + xorLength, termBuffer, termOffset + xorLength, length - xorLength);
+            payloadLength = length;
+        }
+
+        parityHeader.entry(count, termOffset, length);
+
+        if (++count == groupSize)
+        {
+            completeGroup();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Complete a partial group by marking the remaining entries as unused.
+     *
+     * @return true if there was a partial group and {@link #parityBuffer()} is ready to send.
+     */
+    boolean flush()
+    {
+        if (0 == count)
+        {
+            return false;
+        }
+
+        for (int i = count; i < groupSize; i++)
+        {
+            parityHeader.entry(i, 0, 0);
+        }
+
+        completeGroup();
+
+        return true;
+    }
+
+    /**
+     * The number of data datagrams covered by each parity frame.
+     *
+     * @return number of data datagrams covered by each parity frame.
+     */
+    int groupSize()
+    {
+        return groupSize;
+    }
+
+    /**
+     * The buffer holding the parity frame for the last completed group.
+     *
+     * @return buffer holding the parity frame for the last completed group.
+     */
+    ByteBuffer parityBuffer()
+    {
+        return parityBuffer;
+    }
+
+    private void completeGroup()
+    {
+        final int frameLength = FecParityFlyweight.computeFrameLength(groupSize, payloadLength);
+        parityHeader.frameLength(frameLength);
+        parityBuffer.limit(frameLength).position(0);
+
+        count = 0;
+        payloadLength = 0;
+    }
+
+    /**
+     * XOR a range of bytes from the source buffer into the destination buffer.
+     *
+     * @param dstBuffer to XOR into.
+     * @param dstOffset at which to begin in the destination buffer.
+     * @param srcBuffer to XOR from.
+     * @param srcOffset at which to begin in the source buffer.
+     * @param length    of the range in bytes.
+     */
+    static void xor(
+        final UnsafeBuffer dstBuffer,
+        final int dstOffset,
+        final UnsafeBuffer srcBuffer,
+        final int srcOffset,
+        final int length)
+    {
+        int i = 0;
+        for (final int limit = length & ~(SIZE_OF_LONG - 1); i < limit; i += SIZE_OF_LONG)
+        {
+            dstBuffer.putLong(dstOffset + i, dstBuffer.getLong(dstOffset + i) ^ srcBuffer.getLong(srcOffset + i));
+        }
+
+        for (; i < length; i++)
+        {
+            final byte value = (byte)(dstBuffer.getByte(dstOffset + i) ^ srcBuffer.getByte(srcOffset + i));
+            dstBuffer.putByte(dstOffset + i, value);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.aeron.driver;
 
+import io.aeron.Aeron;
 import io.aeron.driver.media.UdpChannel;
 import io.aeron.protocol.StatusMessageFlyweight;
 
@@ -79,4 +80,15 @@ public interface FlowControl
     {
         return true;
     }
+
+    /**
+     * How far in bytes the slowest receiver being tracked lags the sender position as of the last call to
+     * {@link #onIdle(long, long, long, boolean)}.
+     *
+     * @return how far the slowest receiver lags the sender or {@link Aeron#NULL_VALUE} if receivers are not tracked.
+     */
+    default long maxReceiverLag()
+    {
+        return Aeron.NULL_VALUE;
+    }
 }
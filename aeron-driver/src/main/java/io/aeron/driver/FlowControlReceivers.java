@@ -0,0 +1,337 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import org.agrona.collections.Long2ObjectHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Receivers tracked by a multicast {@link FlowControl} strategy, indexed so the cost of a Status Message does not grow
+ * linearly with the number of receivers in a group.
+ * <p>
+ * Receivers are found by receiver id in a hash map, ordered by position plus window in a binary min-heap so the
+ * minimum is available in constant time and maintained in logarithmic time, and kept in a list ordered by the time of
+ * their last Status Message so timed out receivers are found at the head without a scan.
+ * <p>
+ * Receivers which lag the sender by more than a window can be evicted so they no longer hold back the minimum. They
+ * remain tracked until they time out and are readmitted if they catch up to within half the window. The last receiver
+ * is never evicted so the group always has a minimum, and should all others time out then an evicted receiver is
+ * readmitted on its next Status Message.
+ * <p>
+ * <b>Note:</b> Updated only on the {@link Sender} thread with only {@link #size()} safe to read from other threads.
+ */
+final class FlowControlReceivers
+{
+    private static final int INITIAL_CAPACITY = 8;
+
+    private volatile int size;
+    private long readmitPosition = Long.MAX_VALUE;
+    private Receiver[] heap = new Receiver[INITIAL_CAPACITY];
+    private Receiver oldest;
+    private Receiver newest;
+    private final Long2ObjectHashMap<Receiver> receiverByIdMap = new Long2ObjectHashMap<>();
+
+    /**
+     * Number of receivers being tracked which have not been evicted.
+     *
+     * @return number of receivers being tracked which have not been evicted.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * The minimum position plus receiver window of the tracked receivers.
+     *
+     * @param senderLimit to return if there are no receivers.
+     * @return minimum position plus receiver window of the tracked receivers or the sender limit if none.
+     */
+    long minPositionPlusWindow(final long senderLimit)
+    {
+        return size > 0 ? heap[0].lastPositionPlusWindow : senderLimit;
+    }
+
+    /**
+     * How far the receiver which is holding back the minimum lags a sender position.
+     *
+     * @param senderPosition to measure the lag from.
+     * @return how far the receiver holding back the minimum lags the sender position or 0 if none.
+     */
+    long maxLag(final long senderPosition)
+    {
+        return size > 0 ? Math.max(0, senderPosition - heap[0].lastPosition) : 0;
+    }
+
+    /**
+     * Update the tracking of a receiver from a Status Message, adding it if not already tracked.
+     *
+     * @param receiverId   which sent the Status Message.
+     * @param position     of consumption reported by the receiver.
+     * @param windowLength of the receiver.
+     * @param timeNs       at which the Status Message was received.
+     */
+    void onStatusMessage(final long receiverId, final long position, final long windowLength, final long timeNs)
+    {
+        Receiver receiver = receiverByIdMap.get(receiverId);
+        if (null == receiver)
+        {
+            receiver = new Receiver(position, position + windowLength, timeNs, receiverId);
+            receiverByIdMap.put(receiverId, receiver);
+            addToHeap(receiver);
+        }
+        else
+        {
+            final long oldPositionPlusWindow = receiver.lastPositionPlusWindow;
+            receiver.lastPosition = Math.max(position, receiver.lastPosition);
+            receiver.lastPositionPlusWindow = position + windowLength;
+            receiver.timeOfLastStatusMessageNs = timeNs;
+
+            if (receiver.isEvicted)
+            {
+                if (receiver.lastPosition >= readmitPosition || 0 == size)
+                {
+                    receiver.isEvicted = false;
+                    addToHeap(receiver);
+                }
+            }
+            else if (receiver.lastPositionPlusWindow < oldPositionPlusWindow)
+            {
+                siftUp(receiver.heapIndex);
+            }
+            else if (receiver.lastPositionPlusWindow > oldPositionPlusWindow)
+            {
+                siftDown(receiver.heapIndex);
+            }
+
+            unlink(receiver);
+        }
+
+        linkAsNewest(receiver);
+    }
+
+    /**
+     * Remove receivers which have not sent a Status Message within the timeout.
+     *
+     * @param timeNs    now.
+     * @param timeoutNs after the last Status Message from a receiver for it to be removed.
+     * @return number of receivers removed.
+     */
+    int removeTimedOut(final long timeNs, final long timeoutNs)
+    {
+        int removed = 0;
+
+        while (null != oldest && (oldest.timeOfLastStatusMessageNs + timeoutNs) - timeNs < 0)
+        {
+            final Receiver receiver = oldest;
+            unlink(receiver);
+            if (!receiver.isEvicted)
+            {
+                removeFromHeap(receiver);
+            }
+            receiverByIdMap.remove(receiver.receiverId);
+            removed++;
+        }
+
+        return removed;
+    }
+
+    /**
+     * Evict receivers which lag the sender position by more than a window so they no longer hold back the minimum.
+     * The last receiver is never evicted.
+     *
+     * @param senderPosition to measure the lag from.
+     * @param lagWindow      which a receiver must lag the sender position by more than to be evicted.
+     * @return number of receivers evicted.
+     */
+    int evictLagging(final long senderPosition, final long lagWindow)
+    {
+        int evicted = 0;
+        readmitPosition = senderPosition - (lagWindow >> 1);
+
+        while (size > 1 && senderPosition - heap[0].lastPosition > lagWindow)
+        {
+            final Receiver receiver = heap[0];
+            removeFromHeap(receiver);
+            receiver.isEvicted = true;
+            evicted++;
+        }
+
+        return evicted;
+    }
+
+    private void addToHeap(final Receiver receiver)
+    {
+        final int index = size;
+        if (index == heap.length)
+        {
+            heap = Arrays.copyOf(heap, index << 1);
+        }
+
+        heap[index] = receiver;
+        receiver.heapIndex = index;
+        size = index + 1;
+        siftUp(index);
+    }
+
+    private void removeFromHeap(final Receiver receiver)
+    {
+        final int index = receiver.heapIndex;
+        final int lastIndex = size - 1;
+        final Receiver last = heap[lastIndex];
+
+        heap[lastIndex] = null;
+        size = lastIndex;
+
+        if (index != lastIndex)
+        {
+            heap[index] = last;
+            last.heapIndex = index;
+
+            if (index > 0 && last.lastPositionPlusWindow < heap[(index - 1) >> 1].lastPositionPlusWindow)
+            {
+                siftUp(index);
+            }
+            else
+            {
+                siftDown(index);
+            }
+        }
+    }
+
+    private void siftUp(final int fromIndex)
+    {
+        final Receiver[] heap = this.heap;
+        final Receiver receiver = heap[fromIndex];
+        int index = fromIndex;
+
+        while (index > 0)
+        {
+            final int parentIndex = (index - 1) >> 1;
+            final Receiver parent = heap[parentIndex];
+            if (parent.lastPositionPlusWindow <= receiver.lastPositionPlusWindow)
+            {
+                break;
+            }
+
+            heap[index] = parent;
+            parent.heapIndex = index;
+            index = parentIndex;
+        }
+
+        heap[index] = receiver;
+        receiver.heapIndex = index;
+    }
+
+    private void siftDown(final int fromIndex)
+    {
+        final Receiver[] heap = this.heap;
+        final int size = this.size;
+        final Receiver receiver = heap[fromIndex];
+        int index = fromIndex;
+
+        while (true)
+        {
+            int childIndex = (index << 1) + 1;
+            if (childIndex >= size)
+            {
+                break;
+            }
+
+            Receiver child = heap[childIndex];
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < size && heap[rightIndex].lastPositionPlusWindow < child.lastPositionPlusWindow)
+            {
+                childIndex = rightIndex;
+                child = heap[rightIndex];
+            }
+
+            if (receiver.lastPositionPlusWindow <= child.lastPositionPlusWindow)
+            {
+                break;
+            }
+
+            heap[index] = child;
+            child.heapIndex = index;
+            index = childIndex;
+        }
+
+        heap[index] = receiver;
+        receiver.heapIndex = index;
+    }
+
+    private void linkAsNewest(final Receiver receiver)
+    {
+        receiver.previous = newest;
+        receiver.next = null;
+
+        if (null == newest)
+        {
+            oldest = receiver;
+        }
+        else
+        {
+            newest.next = receiver;
+        }
+
+        newest = receiver;
+    }
+
+    private void unlink(final Receiver receiver)
+    {
+        if (null == receiver.previous)
+        {
+            oldest = receiver.next;
+        }
+        else
+        {
+            receiver.previous.next = receiver.next;
+        }
+
+        if (null == receiver.next)
+        {
+            newest = receiver.previous;
+        }
+        else
+        {
+            receiver.next.previous = receiver.previous;
+        }
+
+        receiver.previous = null;
+        receiver.next = null;
+    }
+
+    static final class Receiver
+    {
+        long lastPosition;
+        long lastPositionPlusWindow;
+        long timeOfLastStatusMessageNs;
+        int heapIndex;
+        boolean isEvicted;
+        Receiver previous;
+        Receiver next;
+        final long receiverId;
+
+        Receiver(final long lastPosition, final long lastPositionPlusWindow, final long timeNs, final long receiverId)
+        {
+            this.lastPosition = lastPosition;
+            this.lastPositionPlusWindow = lastPositionPlusWindow;
+            this.timeOfLastStatusMessageNs = timeNs;
+            this.receiverId = receiverId;
+        }
+    }
+}
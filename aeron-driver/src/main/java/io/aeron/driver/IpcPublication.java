@@ -21,6 +21,7 @@ import io.aeron.driver.buffer.RawLog;
 import io.aeron.driver.status.SystemCounters;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.logbuffer.LogBufferUnblocker;
+import org.agrona.DeadlineTimerWheel;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.ArrayUtil;
@@ -38,7 +39,7 @@ import static org.agrona.BitUtil.SIZE_OF_LONG;
 /**
  * Encapsulation of a stream used directly between publishers and subscribers for IPC over shared memory.
  */
-public final class IpcPublication implements DriverManagedResource, Subscribable
+public final class IpcPublication implements DriverManagedResource, Subscribable, DeadlineHandler
 {
     enum State
     {
@@ -65,6 +66,8 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
     private long lastConsumerPosition;
     private long timeOfLastConsumerPositionUpdateNs;
     private long cleanPosition;
+    private long timerId = DeadlineTimerWheel.NULL_DEADLINE;
+    private long timerDeadlineNs;
     private int refCount = 0;
     private boolean reachedEndOfLife = false;
     private final boolean isExclusive;
@@ -72,6 +75,7 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
     private final UnsafeBuffer[] termBuffers;
     private final ArrayList<UntetheredSubscription> untetheredSubscriptions = new ArrayList<>();
     private ReadablePosition[] subscriberPositions = EMPTY_POSITIONS;
+    private ReadablePosition slowestSubscriberPosition;
     private final Position publisherPos;
     private final Position publisherLimit;
     private final UnsafeBuffer metaDataBuffer;
@@ -196,6 +200,7 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
     {
         LogBufferDescriptor.isConnected(metaDataBuffer, true);
         subscriberPositions = ArrayUtil.add(subscriberPositions, subscriberPosition);
+        slowestSubscriberPosition = null;
 
         if (!subscriptionLink.isTether())
         {
@@ -208,6 +213,7 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
     {
         consumerPosition = Math.max(consumerPosition, subscriberPosition.getVolatile());
         subscriberPositions = ArrayUtil.remove(subscriberPositions, subscriberPosition);
+        slowestSubscriberPosition = null;
         subscriberPosition.close();
 
         if (!subscriptionLink.isTether())
@@ -234,6 +240,7 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
         {
             case ACTIVE:
             {
+                updateConsumerPosition();
                 checkUntetheredSubscriptions(timeNs, conductor);
                 final long producerPosition = producerPosition();
                 publisherPos.setOrdered(producerPosition);
@@ -246,6 +253,7 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
 
             case INACTIVE:
             {
+                updateConsumerPosition();
                 final long producerPosition = producerPosition();
                 publisherPos.setOrdered(producerPosition);
                 if (isDrained(producerPosition))
@@ -267,6 +275,28 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
         }
     }
 
+    public void onDeadline(final long nowNs, final long nowMs, final DriverConductor conductor)
+    {
+        timerId = DeadlineTimerWheel.NULL_DEADLINE;
+        conductor.onIpcPublicationDeadline(this, nowNs, nowMs);
+    }
+
+    /**
+     * Schedule the next time event on the conductor timer wheel unless one is already due sooner.
+     *
+     * @param deadlineNs at which the next time event is due.
+     * @param conductor  on which to schedule.
+     */
+    void scheduleDeadline(final long deadlineNs, final DriverConductor conductor)
+    {
+        if (DeadlineTimerWheel.NULL_DEADLINE == timerId || deadlineNs - timerDeadlineNs < 0)
+        {
+            conductor.cancelDeadline(timerId);
+            timerDeadlineNs = deadlineNs;
+            timerId = conductor.scheduleDeadline(deadlineNs, this);
+        }
+    }
+
     public boolean hasReachedEndOfLife()
     {
         return reachedEndOfLife;
@@ -291,23 +321,33 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
     int updatePublisherLimit()
     {
         int workCount = 0;
-        long minSubscriberPosition = Long.MAX_VALUE;
-        long maxSubscriberPosition = consumerPosition;
-
-        for (final ReadablePosition subscriberPosition : subscriberPositions)
-        {
-            final long position = subscriberPosition.getVolatile();
-            minSubscriberPosition = Math.min(minSubscriberPosition, position);
-            maxSubscriberPosition = Math.max(maxSubscriberPosition, position);
-        }
+        final ReadablePosition[] subscriberPositions = this.subscriberPositions;
 
         if (subscriberPositions.length > 0)
         {
-            if (maxSubscriberPosition > consumerPosition)
+            final ReadablePosition slowestSubscriberPosition = this.slowestSubscriberPosition;
+            if (null != slowestSubscriberPosition &&
+                slowestSubscriberPosition.getVolatile() + termWindowLength <= tripLimit)
+            {
+                return 0;
+            }
+
+            long minSubscriberPosition = Long.MAX_VALUE;
+            long maxSubscriberPosition = consumerPosition;
+
+            for (final ReadablePosition subscriberPosition : subscriberPositions)
             {
-                consumerPosition = maxSubscriberPosition;
+                final long position = subscriberPosition.getVolatile();
+                if (position < minSubscriberPosition)
+                {
+                    minSubscriberPosition = position;
+                    this.slowestSubscriberPosition = subscriberPosition;
+                }
+                maxSubscriberPosition = Math.max(maxSubscriberPosition, position);
             }
 
+            consumerPosition = maxSubscriberPosition;
+
             final long proposedLimit = minSubscriberPosition + termWindowLength;
             if (proposedLimit > tripLimit)
             {
@@ -330,6 +370,8 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
 
     long joinPosition()
     {
+        updateConsumerPosition();
+
         return consumerPosition;
     }
 
@@ -354,15 +396,9 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
     private void checkUntetheredSubscriptions(final long nowNs, final DriverConductor conductor)
     {
         final ArrayList<UntetheredSubscription> untetheredSubscriptions = this.untetheredSubscriptions;
-        final int untetheredSubscriptionsSize = untetheredSubscriptions.size();
-        if (0 == untetheredSubscriptionsSize)
-        {
-            return;
-        }
-
         final long untetheredWindowLimit = (consumerPosition - termWindowLength) + (termWindowLength >> 3);
 
-        for (int lastIndex = untetheredSubscriptionsSize - 1, i = lastIndex; i >= 0; i--)
+        for (int i = 0, size = untetheredSubscriptions.size(); i < size; i++)
         {
             final UntetheredSubscription untethered = untetheredSubscriptions.get(i);
             switch (untethered.state)
@@ -377,6 +413,11 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
                         conductor.notifyUnavailableImageLink(registrationId, untethered.subscriptionLink);
                         untethered.state = UntetheredSubscription.LINGER;
                         untethered.timeOfLastUpdateNs = nowNs;
+                        scheduleDeadline(nowNs + untetheredWindowLimitTimeoutNs, conductor);
+                    }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs, conductor);
                     }
                     break;
 
@@ -384,8 +425,14 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
                     if ((untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs) - nowNs <= 0)
                     {
                         subscriberPositions = ArrayUtil.remove(subscriberPositions, untethered.position);
+                        slowestSubscriberPosition = null;
                         untethered.state = UntetheredSubscription.RESTING;
                         untethered.timeOfLastUpdateNs = nowNs;
+                        scheduleDeadline(nowNs + untetheredRestingTimeoutNs, conductor);
+                    }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs, conductor);
                     }
                     break;
 
@@ -393,6 +440,7 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
                     if ((untethered.timeOfLastUpdateNs + untetheredRestingTimeoutNs) - nowNs <= 0)
                     {
                         subscriberPositions = ArrayUtil.add(subscriberPositions, untethered.position);
+                        slowestSubscriberPosition = null;
                         conductor.notifyAvailableImageLink(
                             registrationId,
                             sessionId,
@@ -405,11 +453,26 @@ public final class IpcPublication implements DriverManagedResource, Subscribable
                         untethered.state = UntetheredSubscription.ACTIVE;
                         untethered.timeOfLastUpdateNs = nowNs;
                     }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredRestingTimeoutNs, conductor);
+                    }
                     break;
             }
         }
     }
 
+    private void updateConsumerPosition()
+    {
+        long maxSubscriberPosition = consumerPosition;
+        for (final ReadablePosition subscriberPosition : subscriberPositions)
+        {
+            maxSubscriberPosition = Math.max(maxSubscriberPosition, subscriberPosition.getVolatile());
+        }
+
+        consumerPosition = maxSubscriberPosition;
+    }
+
     private boolean isDrained(final long producerPosition)
     {
         for (final ReadablePosition subscriberPosition : subscriberPositions)
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.Aeron;
+import io.aeron.LatencyTrace;
+import io.aeron.protocol.FecParityFlyweight;
+import io.aeron.status.LatencyHistogram;
+import org.agrona.BitUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.Arrays;
+
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Stamps the reserved value of data frames on streams with {@link io.aeron.CommonContext#LATENCY_TRACE_PARAM_NAME}
+ * so one-way latency can be counted as frames pass from the publisher to the subscriber. See {@link LatencyTrace}.
+ * <p>
+ * The Sender replaces the time a frame was offered with the publisher to sender latency in the upper 32 bits and the
+ * lower 32 bits of {@link LatencyTrace#epochNanoTime()} in the lower 32 bits. The Receiver counts both latencies for
+ * the image then replaces them with the time the frame was received for the subscriber.
+ * <p>
+ * FEC parity is computed over frames as sent so the Receiver keeps the reserved values it replaced for a window of
+ * recent positions. The stamps of frames received are then undone when a lost datagram is rebuilt from them.
+ */
+final class LatencyTracer implements AutoCloseable
+{
+    /**
+     * Publisher to sender latency sent when it is not known, such as when a frame was not offered with
+     * {@link LatencyTrace#RESERVED_VALUE_SUPPLIER}.
+     */
+    static final long UNKNOWN_LATENCY = 0xFFFF_FFFFL;
+
+    private static final int POSITION_BITS_TO_SHIFT = Integer.numberOfTrailingZeros(FRAME_ALIGNMENT);
+
+    private final int sentValueMask;
+    private final long[] sentValuePositions;
+    private final long[] sentValues;
+    private final LatencyHistogram publisherToSender;
+    private final LatencyHistogram wire;
+
+    LatencyTracer(final LatencyHistogram publisherToSender, final LatencyHistogram wire, final int mtuLength)
+    {
+        this.publisherToSender = publisherToSender;
+        this.wire = wire;
+
+        final int capacity = BitUtil.findNextPositivePowerOfTwo(
+            (FecParityFlyweight.MAX_GROUP_SIZE * mtuLength) >> POSITION_BITS_TO_SHIFT);
+        sentValueMask = capacity - 1;
+        sentValuePositions = new long[capacity];
+        sentValues = new long[capacity];
+        Arrays.fill(sentValuePositions, Aeron.NULL_VALUE);
+    }
+
+    /**
+     * Stamp the data frames about to be sent by the Sender for a traced publication. Frames which have already been
+     * stamped are left as is.
+     * <p>
+     * This makes the Sender a writer of the log, but only of the reserved value and flags of frames the publisher has
+     * committed and before they are first sent, so retransmits send the same stamped frames. Spies may see a frame
+     * before or after it is stamped.
+     *
+     * @param termBuffer containing the frames.
+     * @param offset     at which the frames begin.
+     * @param length     of the frames.
+     * @param nowNs      of {@link System#nanoTime()}.
+     * @param epochNs    of {@link LatencyTrace#epochNanoTime()}.
+     */
+    static void stampSentFrames(
+        final UnsafeBuffer termBuffer, final int offset, final int length, final long nowNs, final long epochNs)
+    {
+        for (int frameOffset = offset, limit = offset + length; frameOffset < limit; )
+        {
+            final int frameLength = frameLength(termBuffer, frameOffset);
+            if (frameLength <= 0)
+            {
+                break;
+            }
+
+            final byte flags = frameFlags(termBuffer, frameOffset);
+            if (HDR_TYPE_DATA == frameType(termBuffer, frameOffset) && 0 == (flags & LATENCY_TRACE_SEND_FLAG))
+            {
+                final int reservedValueOffset = frameOffset + RESERVED_VALUE_OFFSET;
+                long publisherToSenderNs = nowNs - termBuffer.getLong(reservedValueOffset, LITTLE_ENDIAN);
+                if (publisherToSenderNs < 0 || publisherToSenderNs >= UNKNOWN_LATENCY)
+                {
+                    publisherToSenderNs = UNKNOWN_LATENCY;
+                }
+
+                termBuffer.putLong(
+                    reservedValueOffset, (publisherToSenderNs << 32) | (epochNs & 0xFFFF_FFFFL), LITTLE_ENDIAN);
+                frameFlags(termBuffer, frameOffset, (byte)(flags | LATENCY_TRACE_SEND_FLAG));
+            }
+
+            frameOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+    }
+
+    /**
+     * Count the latencies of the stamped data frames in a packet received for an image and stamp them with the time
+     * received before they are inserted into the log. Wire latencies which are negative due to clock skew between
+     * hosts are not counted.
+     *
+     * @param buffer   containing the packet.
+     * @param length   of the packet.
+     * @param position of the packet in the stream.
+     * @param nowNs    of {@link System#nanoTime()}.
+     * @param epochNs  of {@link LatencyTrace#epochNanoTime()}.
+     */
+    void onFramesReceived(
+        final UnsafeBuffer buffer, final int length, final long position, final long nowNs, final long epochNs)
+    {
+        for (int frameOffset = 0; frameOffset < length; )
+        {
+            final int frameLength = frameLength(buffer, frameOffset);
+            if (frameLength <= 0)
+            {
+                break;
+            }
+
+            final byte flags = frameFlags(buffer, frameOffset);
+            if (HDR_TYPE_DATA == frameType(buffer, frameOffset) && 0 != (flags & LATENCY_TRACE_SEND_FLAG))
+            {
+                final int reservedValueOffset = frameOffset + RESERVED_VALUE_OFFSET;
+                final long reservedValue = buffer.getLong(reservedValueOffset, LITTLE_ENDIAN);
+
+                final long publisherToSenderNs = reservedValue >>> 32;
+                if (UNKNOWN_LATENCY != publisherToSenderNs)
+                {
+                    publisherToSender.record(publisherToSenderNs);
+                }
+
+                final int wireNs = (int)((epochNs & 0xFFFF_FFFFL) - (reservedValue & 0xFFFF_FFFFL));
+                if (wireNs >= 0)
+                {
+                    wire.record(wireNs);
+                }
+
+                final int index = sentValueIndex(position + frameOffset);
+                sentValuePositions[index] = position + frameOffset;
+                sentValues[index] = reservedValue;
+
+                buffer.putLong(reservedValueOffset, nowNs, LITTLE_ENDIAN);
+                frameFlags(buffer, frameOffset, (byte)(flags | LATENCY_TRACE_RECEIVE_FLAG));
+            }
+
+            frameOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+    }
+
+    /**
+     * Undo the stamps of received frames in a range of the log which has been XORed into a buffer to rebuild a lost
+     * datagram from FEC parity, so the buffer holds what XOR of the frames as sent would have given.
+     *
+     * @param buffer            into which the range of the log has been XORed from offset 0.
+     * @param termBuffer        holding the range.
+     * @param termOffset        at which the range begins with a frame.
+     * @param length            of the range.
+     * @param termBeginPosition of the term in the stream.
+     * @return true if the stamps were undone or false if the value sent for a stamped frame is no longer known.
+     */
+    boolean unstampReceivedFrames(
+        final UnsafeBuffer buffer,
+        final UnsafeBuffer termBuffer,
+        final int termOffset,
+        final int length,
+        final long termBeginPosition)
+    {
+        for (int frameOffset = 0; frameOffset < length; )
+        {
+            final int termFrameOffset = termOffset + frameOffset;
+            final int frameLength = frameLength(termBuffer, termFrameOffset);
+            if (frameLength <= 0)
+            {
+                break;
+            }
+
+            final byte flags = frameFlags(termBuffer, termFrameOffset);
+            if (HDR_TYPE_DATA == frameType(termBuffer, termFrameOffset) && 0 != (flags & LATENCY_TRACE_RECEIVE_FLAG))
+            {
+                final long position = termBeginPosition + termFrameOffset;
+                final int index = sentValueIndex(position);
+                if (sentValuePositions[index] != position)
+                {
+                    return false;
+                }
+
+                final long stampDelta =
+                    sentValues[index] ^ termBuffer.getLong(termFrameOffset + RESERVED_VALUE_OFFSET, LITTLE_ENDIAN);
+
+                xorByte(buffer, frameOffset + FLAGS_FIELD_OFFSET, length, (byte)LATENCY_TRACE_RECEIVE_FLAG);
+                for (int i = 0; i < SIZE_OF_LONG; i++)
+                {
+                    xorByte(buffer, frameOffset + RESERVED_VALUE_OFFSET + i, length, (byte)(stampDelta >>> (i << 3)));
+                }
+            }
+
+            frameOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+
+        return true;
+    }
+
+    public void close()
+    {
+        publisherToSender.close();
+        wire.close();
+    }
+
+    private int sentValueIndex(final long position)
+    {
+        return (int)(position >>> POSITION_BITS_TO_SHIFT) & sentValueMask;
+    }
+
+    private static void xorByte(final UnsafeBuffer buffer, final int index, final int limit, final byte value)
+    {
+        if (index < limit)
+        {
+            buffer.putByte(index, (byte)(buffer.getByte(index) ^ value));
+        }
+    }
+}
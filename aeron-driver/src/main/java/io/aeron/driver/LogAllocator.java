@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.buffer.LogFactory;
+import io.aeron.driver.buffer.RawLog;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Agent which creates log buffers off the {@link DriverConductor} thread so a slow file system does not stall command
+ * processing. Requests are queued by the conductor and each completed allocation is handed back to it on the driver
+ * command queue, where its completion handler runs. Released logs are also prepared for reuse on this agent.
+ * <p>
+ * This agent is closed before the conductor so requests still queued are dropped before any log is created, and the
+ * conductor closes the logs of completed allocations which it has not yet taken from the driver command queue. As
+ * both agents update the allocations in flight gauge it is only changed with atomic adds.
+ */
+final class LogAllocator implements Agent
+{
+    static final long IDLE_SLEEP_NS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int REQUEST_QUEUE_CAPACITY = 1024;
+
+    private final LogFactory logFactory;
+    private final NanoClock nanoClock;
+    private final OneToOneConcurrentArrayQueue<LogAllocation> requestQueue =
+        new OneToOneConcurrentArrayQueue<>(REQUEST_QUEUE_CAPACITY);
+    private final ManyToOneConcurrentArrayQueue<Runnable> driverCmdQueue;
+    private final AtomicCounter allocationsInFlight;
+    private final AtomicCounter maxQueuedTime;
+    private final AtomicCounter maxAllocationTime;
+    private final Consumer<LogAllocation> allocationHandler = this::allocate;
+
+    LogAllocator(
+        final LogFactory logFactory,
+        final NanoClock nanoClock,
+        final ManyToOneConcurrentArrayQueue<Runnable> driverCmdQueue,
+        final AtomicCounter allocationsInFlight,
+        final AtomicCounter maxQueuedTime,
+        final AtomicCounter maxAllocationTime)
+    {
+        this.logFactory = logFactory;
+        this.nanoClock = nanoClock;
+        this.driverCmdQueue = driverCmdQueue;
+        this.allocationsInFlight = allocationsInFlight;
+        this.maxQueuedTime = maxQueuedTime;
+        this.maxAllocationTime = maxAllocationTime;
+    }
+
+    public String roleName()
+    {
+        return "driver-log-allocator";
+    }
+
+    public void onClose()
+    {
+        requestQueue.drain((allocation) -> allocationsInFlight.getAndAdd(-1));
+    }
+
+    public int doWork()
+    {
+        return requestQueue.drain(allocationHandler) + logFactory.prepareReleasedLogs(nanoClock.nanoTime());
+    }
+
+    /**
+     * Request a log be allocated. Called from the {@link DriverConductor} thread and the completion handler will be
+     * run on the same thread once the log has been created or creation has failed. If the request queue is full then
+     * the log is allocated and the handler run before returning.
+     *
+     * @param registrationId    of the publication or image the log is for.
+     * @param termLength        of each term in the log.
+     * @param isSparse          if the log file should be sparse.
+     * @param isImage           true if the log is for a publication image otherwise it is for a publication.
+     * @param completionHandler to run on the conductor thread when the allocation is complete.
+     */
+    void allocate(
+        final long registrationId,
+        final int termLength,
+        final boolean isSparse,
+        final boolean isImage,
+        final Consumer<LogAllocation> completionHandler)
+    {
+        final LogAllocation allocation = new LogAllocation(
+            registrationId, termLength, isSparse, isImage, completionHandler, nanoClock.nanoTime());
+
+        allocationsInFlight.getAndAdd(1);
+        if (!requestQueue.offer(allocation))
+        {
+            allocation.allocate(logFactory);
+            allocation.run();
+        }
+    }
+
+    private void allocate(final LogAllocation allocation)
+    {
+        final long startNs = nanoClock.nanoTime();
+        maxQueuedTime.proposeMaxOrdered(startNs - allocation.timeOfRequestNs);
+
+        allocation.allocate(logFactory);
+        maxAllocationTime.proposeMaxOrdered(nanoClock.nanoTime() - startNs);
+
+        while (!driverCmdQueue.offer(allocation))
+        {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * A request for a log to be allocated which is run on the {@link DriverConductor} thread once complete.
+     */
+    final class LogAllocation implements Runnable
+    {
+        private final long registrationId;
+        private final int termLength;
+        private final boolean isSparse;
+        private final boolean isImage;
+        private final long timeOfRequestNs;
+        private final Consumer<LogAllocation> completionHandler;
+        private RawLog rawLog;
+        private Exception exception;
+
+        LogAllocation(
+            final long registrationId,
+            final int termLength,
+            final boolean isSparse,
+            final boolean isImage,
+            final Consumer<LogAllocation> completionHandler,
+            final long timeOfRequestNs)
+        {
+            this.registrationId = registrationId;
+            this.termLength = termLength;
+            this.isSparse = isSparse;
+            this.isImage = isImage;
+            this.completionHandler = completionHandler;
+            this.timeOfRequestNs = timeOfRequestNs;
+        }
+
+        /**
+         * The allocated log or null if allocation failed.
+         *
+         * @return the allocated log or null if allocation failed.
+         */
+        RawLog rawLog()
+        {
+            return rawLog;
+        }
+
+        /**
+         * The reason allocation failed or null if it succeeded.
+         *
+         * @return the reason allocation failed or null if it succeeded.
+         */
+        Exception exception()
+        {
+            return exception;
+        }
+
+        public void run()
+        {
+            allocationsInFlight.getAndAdd(-1);
+            completionHandler.accept(this);
+        }
+
+        /**
+         * Close the allocated log without running the completion handler as the {@link DriverConductor} is closing.
+         */
+        void close()
+        {
+            allocationsInFlight.getAndAdd(-1);
+            if (null != rawLog)
+            {
+                rawLog.close();
+            }
+        }
+
+        private void allocate(final LogFactory logFactory)
+        {
+            try
+            {
+                rawLog = isImage ?
+                    logFactory.newImage(registrationId, termLength, isSparse) :
+                    logFactory.newPublication(registrationId, termLength, isSparse);
+            }
+            catch (final Exception ex)
+            {
+                exception = ex;
+            }
+        }
+    }
+}
@@ -19,38 +19,82 @@ import io.aeron.Aeron;
 import io.aeron.logbuffer.TermGapScanner;
 import org.agrona.concurrent.UnsafeBuffer;
 
-import static io.aeron.logbuffer.TermGapScanner.scanForGap;
+import static io.aeron.logbuffer.LogBufferDescriptor.indexByTermCount;
 
 /**
  * Detecting and handling of gaps in a message stream.
  * <p>
- * Each detector only notifies a single run of a gap in a message stream.
+ * Each detector tracks up to a max number of gaps in the term being rebuilt and notifies them all together, so that
+ * loss of many non-contiguous ranges can be recovered in a single round trip. The feedback delay is timed from when
+ * the first gap changes.
+ * <p>
+ * Gaps are found by walking the frames of the term from the rebuild position, or by scanning a {@link TermFillBitmap}
+ * of the blocks which have been filled when one is maintained for the image.
  */
 public class LossDetector implements TermGapScanner.GapHandler
 {
     private long deadlineNs = Aeron.NULL_VALUE;
 
     private int scannedTermId;
-    private int scannedTermOffset = -1;
-    private int scannedLength;
+    private int scannedGapCount;
+    private final int[] scannedTermOffsets;
+    private final int[] scannedLengths;
 
     private int activeTermId;
-    private int activeTermOffset = -1;
-    private int activeLength;
+    private int activeGapCount;
+    private final int[] activeTermOffsets;
+    private final int[] activeLengths;
 
     private final FeedbackDelayGenerator delayGenerator;
     private final LossHandler lossHandler;
+    private final TermFillBitmap fillBitmap;
 
     /**
-     * Create a loss detector for a channel.
+     * Create a loss detector for a channel which tracks a single gap.
      *
      * @param delayGenerator to use for delay determination
      * @param lossHandler    to call when signalling a gap
      */
     public LossDetector(final FeedbackDelayGenerator delayGenerator, final LossHandler lossHandler)
+    {
+        this(delayGenerator, lossHandler, 1);
+    }
+
+    /**
+     * Create a loss detector for a channel.
+     *
+     * @param delayGenerator to use for delay determination
+     * @param lossHandler    to call when signalling gaps
+     * @param maxGaps        max number of gaps to track in the term being rebuilt
+     */
+    public LossDetector(final FeedbackDelayGenerator delayGenerator, final LossHandler lossHandler, final int maxGaps)
+    {
+        this(delayGenerator, lossHandler, maxGaps, null);
+    }
+
+    /**
+     * Create a loss detector for a channel which finds gaps in a bitmap of the blocks filled in each term.
+     *
+     * @param delayGenerator to use for delay determination
+     * @param lossHandler    to call when signalling gaps
+     * @param maxGaps        max number of gaps to track in the term being rebuilt
+     * @param fillBitmap     of the blocks filled in each term or null to walk the frames in the term.
+     */
+    LossDetector(
+        final FeedbackDelayGenerator delayGenerator,
+        final LossHandler lossHandler,
+        final int maxGaps,
+        final TermFillBitmap fillBitmap)
     {
         this.delayGenerator = delayGenerator;
         this.lossHandler = lossHandler;
+        this.fillBitmap = fillBitmap;
+
+        scannedTermOffsets = new int[maxGaps];
+        scannedLengths = new int[maxGaps];
+        activeTermOffsets = new int[maxGaps];
+        activeLengths = new int[maxGaps];
+        activeTermOffsets[0] = -1;
     }
 
     /**
@@ -87,15 +131,24 @@ public class LossDetector implements TermGapScanner.GapHandler
             final int rebuildTermId = initialTermId + rebuildTermCount;
             final int hwmTermOffset = (int)hwmPosition & termLengthMask;
             final int limitOffset = rebuildTermCount == hwmTermCount ? hwmTermOffset : termLengthMask + 1;
+            final int partitionIndex = indexByTermCount(rebuildTermCount);
 
-            rebuildOffset = scanForGap(termBuffer, rebuildTermId, rebuildOffset, limitOffset, this);
+            scannedGapCount = 0;
+            rebuildOffset = scanForGap(termBuffer, partitionIndex, rebuildTermId, rebuildOffset, limitOffset);
             if (rebuildOffset < limitOffset)
             {
-                if (scannedTermOffset != activeTermOffset || scannedTermId != activeTermId)
+                scanForFurtherGaps(termBuffer, partitionIndex, rebuildTermId, limitOffset);
+
+                if (scannedTermOffsets[0] != activeTermOffsets[0] || scannedTermId != activeTermId)
                 {
-                    activateGap(nowNs);
+                    activateGaps();
+                    activateDeadline(nowNs);
                     lossFound = true;
                 }
+                else if (hasGapsChanged())
+                {
+                    activateGaps();
+                }
 
                 checkTimerExpiry(nowNs);
             }
@@ -106,9 +159,13 @@ public class LossDetector implements TermGapScanner.GapHandler
 
     public void onGap(final int termId, final int offset, final int length)
     {
-        scannedTermId = termId;
-        scannedTermOffset = offset;
-        scannedLength = length;
+        if (scannedGapCount < scannedTermOffsets.length)
+        {
+            scannedTermId = termId;
+            scannedTermOffsets[scannedGapCount] = offset;
+            scannedLengths[scannedGapCount] = length;
+            scannedGapCount++;
+        }
     }
 
     /**
@@ -145,12 +202,68 @@ public class LossDetector implements TermGapScanner.GapHandler
         return (int)(scanOutcome >>> 32);
     }
 
-    private void activateGap(final long nowNs)
+    private int scanForGap(
+        final UnsafeBuffer termBuffer,
+        final int partitionIndex,
+        final int termId,
+        final int termOffset,
+        final int limitOffset)
+    {
+        if (null == fillBitmap)
+        {
+            return TermGapScanner.scanForGap(termBuffer, termId, termOffset, limitOffset, this);
+        }
+
+        return fillBitmap.scanForGap(partitionIndex, termId, termOffset, limitOffset, this);
+    }
+
+    private void scanForFurtherGaps(
+        final UnsafeBuffer termBuffer, final int partitionIndex, final int termId, final int limitOffset)
+    {
+        int gapCount = scannedGapCount;
+        int offset = scannedTermOffsets[0] + scannedLengths[0];
+
+        while (gapCount < scannedTermOffsets.length && offset < limitOffset)
+        {
+            scanForGap(termBuffer, partitionIndex, termId, offset, limitOffset);
+            if (scannedGapCount == gapCount)
+            {
+                break;
+            }
+
+            offset = scannedTermOffsets[gapCount] + scannedLengths[gapCount];
+            gapCount = scannedGapCount;
+        }
+    }
+
+    private boolean hasGapsChanged()
+    {
+        if (scannedGapCount != activeGapCount)
+        {
+            return true;
+        }
+
+        for (int i = 0; i < scannedGapCount; i++)
+        {
+            if (scannedTermOffsets[i] != activeTermOffsets[i] || scannedLengths[i] != activeLengths[i])
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void activateGaps()
     {
         activeTermId = scannedTermId;
-        activeTermOffset = scannedTermOffset;
-        activeLength = scannedLength;
+        activeGapCount = scannedGapCount;
+        System.arraycopy(scannedTermOffsets, 0, activeTermOffsets, 0, scannedGapCount);
+        System.arraycopy(scannedLengths, 0, activeLengths, 0, scannedGapCount);
+    }
 
+    private void activateDeadline(final long nowNs)
+    {
         if (delayGenerator.shouldFeedbackImmediately())
         {
             deadlineNs = nowNs;
@@ -165,7 +278,14 @@ public class LossDetector implements TermGapScanner.GapHandler
     {
         if (deadlineNs - nowNs <= 0)
         {
-            lossHandler.onGapDetected(activeTermId, activeTermOffset, activeLength);
+            if (1 == activeGapCount)
+            {
+                lossHandler.onGapDetected(activeTermId, activeTermOffsets[0], activeLengths[0]);
+            }
+            else
+            {
+                lossHandler.onGapsDetected(activeTermId, activeTermOffsets, activeLengths, activeGapCount);
+            }
             deadlineNs = nowNs + delayGenerator.generateDelay();
         }
     }
@@ -29,4 +29,22 @@ public interface LossHandler
      * @param length     of the gap
      */
     void onGapDetected(int termId, int termOffset, int length);
+
+    /**
+     * Called when multiple gaps in the same term of a message stream have been detected in a single scan.
+     * <p>
+     * The arrays are only valid for the duration of the call.
+     *
+     * @param termId      for the gaps
+     * @param termOffsets for the beginning of each gap
+     * @param lengths     of each gap
+     * @param gapCount    number of valid entries in the arrays
+     */
+    default void onGapsDetected(int termId, int[] termOffsets, int[] lengths, int gapCount)
+    {
+        for (int i = 0; i < gapCount; i++)
+        {
+            onGapDetected(termId, termOffsets[i], lengths[i]);
+        }
+    }
 }
@@ -22,8 +22,10 @@ import io.aeron.driver.buffer.FileStoreLogFactory;
 import io.aeron.driver.buffer.LogFactory;
 import io.aeron.driver.exceptions.ActiveDriverException;
 import io.aeron.driver.media.*;
+import io.aeron.driver.reports.LossHistogram;
 import io.aeron.driver.reports.LossReport;
 import io.aeron.driver.status.SystemCounters;
+import io.aeron.exceptions.ConfigurationException;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import org.agrona.*;
 import org.agrona.concurrent.*;
@@ -39,6 +41,7 @@ import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
@@ -48,6 +51,8 @@ import java.util.function.Consumer;
 
 import static io.aeron.CncFileDescriptor.*;
 import static io.aeron.driver.Configuration.*;
+import static io.aeron.driver.reports.LossHistogram.BUCKET_LENGTH_MS_DEFAULT;
+import static io.aeron.driver.reports.LossReportUtil.mapLossHistogram;
 import static io.aeron.driver.reports.LossReportUtil.mapLossReport;
 import static io.aeron.driver.status.SystemCounterDescriptor.CONTROLLABLE_IDLE_STRATEGY;
 import static io.aeron.driver.status.SystemCounterDescriptor.*;
@@ -77,6 +82,10 @@ public final class MediaDriver implements AutoCloseable
     private final AgentRunner conductorRunner;
     private final AgentRunner receiverRunner;
     private final AgentRunner senderRunner;
+    private final AgentRunner logAllocatorRunner;
+    private final AgentRunner socketDropMonitorRunner;
+    private final AgentRunner[] receiverShardRunners;
+    private final AgentRunner[] senderShardRunners;
     private final AgentInvoker sharedInvoker;
     private final Context ctx;
 
@@ -107,6 +116,7 @@ public final class MediaDriver implements AutoCloseable
      *
      * @param ctx for the media driver parameters
      */
+    @SuppressWarnings("MethodLength")
     private MediaDriver(final Context ctx)
     {
         this.ctx = ctx;
@@ -129,6 +139,54 @@ public final class MediaDriver implements AutoCloseable
         final AtomicCounter errorCounter = ctx.systemCounters().get(ERRORS);
         final ErrorHandler errorHandler = ctx.errorHandler();
 
+        logAllocatorRunner = null == ctx.logAllocator() ? null : new AgentRunner(
+            new SleepingIdleStrategy(LogAllocator.IDLE_SLEEP_NS), errorHandler, errorCounter, ctx.logAllocator());
+        socketDropMonitorRunner = null == ctx.socketDropMonitor() ? null : new AgentRunner(
+            new SleepingIdleStrategy(ReceiveSocketDropMonitor.IDLE_SLEEP_NS),
+            errorHandler,
+            errorCounter,
+            ctx.socketDropMonitor());
+
+        final int receiverShardCount = ctx.receiverShardCommandQueues().length;
+        if (receiverShardCount > 1)
+        {
+            receiverShardRunners = new AgentRunner[receiverShardCount];
+            receiverShardRunners[0] = new AgentRunner(
+                ctx.receiverShardIdleStrategies()[0], errorHandler, errorCounter, receiver);
+
+            for (int i = 1; i < receiverShardCount; i++)
+            {
+                final Receiver shard = new Receiver(ctx, i);
+                ctx.receiverProxy().receiver(i, shard);
+                receiverShardRunners[i] = new AgentRunner(
+                    ctx.receiverShardIdleStrategies()[i], errorHandler, errorCounter, shard);
+            }
+        }
+        else
+        {
+            receiverShardRunners = null;
+        }
+
+        final int senderShardCount = ctx.senderShardCommandQueues().length;
+        if (senderShardCount > 1)
+        {
+            senderShardRunners = new AgentRunner[senderShardCount];
+            senderShardRunners[0] = new AgentRunner(
+                ctx.senderShardIdleStrategies()[0], errorHandler, errorCounter, sender);
+
+            for (int i = 1; i < senderShardCount; i++)
+            {
+                final Sender shard = new Sender(ctx, i);
+                ctx.senderProxy().sender(i, shard);
+                senderShardRunners[i] = new AgentRunner(
+                    ctx.senderShardIdleStrategies()[i], errorHandler, errorCounter, shard);
+            }
+        }
+        else
+        {
+            senderShardRunners = null;
+        }
+
         switch (ctx.threadingMode())
         {
             case INVOKER:
@@ -164,6 +222,17 @@ public final class MediaDriver implements AutoCloseable
                 sharedInvoker = null;
                 break;
 
+            case SHARDED:
+                senderRunner = null == senderShardRunners ?
+                    new AgentRunner(ctx.senderIdleStrategy(), errorHandler, errorCounter, sender) : null;
+                receiverRunner = null == receiverShardRunners ?
+                    new AgentRunner(ctx.receiverIdleStrategy(), errorHandler, errorCounter, receiver) : null;
+                conductorRunner = new AgentRunner(ctx.conductorIdleStrategy(), errorHandler, errorCounter, conductor);
+                sharedNetworkRunner = null;
+                sharedRunner = null;
+                sharedInvoker = null;
+                break;
+
             default:
             case DEDICATED:
                 senderRunner = new AgentRunner(ctx.senderIdleStrategy(), errorHandler, errorCounter, sender);
@@ -265,8 +334,36 @@ public final class MediaDriver implements AutoCloseable
             }
         }
 
+        if (null != receiverShardRunners)
+        {
+            CloseHelper.closeAll(receiverShardRunners);
+        }
+
+        if (null != senderShardRunners)
+        {
+            CloseHelper.closeAll(senderShardRunners);
+        }
+
         CloseHelper.closeAll(
-            sharedRunner, sharedNetworkRunner, receiverRunner, senderRunner, conductorRunner, sharedInvoker);
+            logAllocatorRunner,
+            socketDropMonitorRunner,
+            sharedRunner,
+            sharedNetworkRunner,
+            receiverRunner,
+            senderRunner,
+            conductorRunner,
+            sharedInvoker);
+    }
+
+    /**
+     * Invalidate the cache of parsed channels so hostnames are resolved again the next time each channel is used.
+     * Can be called from any thread as the cache is invalidated on the conductor.
+     *
+     * @see Context#channelCacheMaxSize()
+     */
+    public void invalidateChannelCache()
+    {
+        ctx.driverConductorProxy().invalidateChannelCache();
     }
 
     /**
@@ -296,16 +393,42 @@ public final class MediaDriver implements AutoCloseable
             AgentRunner.startOnThread(conductorRunner, ctx.conductorThreadFactory());
         }
 
+        if (null != logAllocatorRunner)
+        {
+            AgentRunner.startOnThread(logAllocatorRunner, ctx.conductorThreadFactory());
+        }
+
+        if (null != socketDropMonitorRunner)
+        {
+            AgentRunner.startOnThread(socketDropMonitorRunner, ctx.conductorThreadFactory());
+        }
+
         if (null != senderRunner)
         {
             AgentRunner.startOnThread(senderRunner, ctx.senderThreadFactory());
         }
 
+        if (null != senderShardRunners)
+        {
+            for (final AgentRunner runner : senderShardRunners)
+            {
+                AgentRunner.startOnThread(runner, ctx.senderThreadFactory());
+            }
+        }
+
         if (null != receiverRunner)
         {
             AgentRunner.startOnThread(receiverRunner, ctx.receiverThreadFactory());
         }
 
+        if (null != receiverShardRunners)
+        {
+            for (final AgentRunner runner : receiverShardRunners)
+            {
+                AgentRunner.startOnThread(runner, ctx.receiverThreadFactory());
+            }
+        }
+
         if (null != sharedNetworkRunner)
         {
             AgentRunner.startOnThread(sharedNetworkRunner, ctx.sharedNetworkThreadFactory());
@@ -345,6 +468,8 @@ public final class MediaDriver implements AutoCloseable
                     }
 
                     reportExistingErrors(ctx, cncByteBuffer);
+                    ctx.isCncFileAdopted =
+                        ctx.dirWarmRestart() && WarmRestart.isCncFileAdoptable(ctx, cncByteBuffer, logger);
                 }
                 finally
                 {
@@ -352,10 +477,26 @@ public final class MediaDriver implements AutoCloseable
                 }
             }
 
-            ctx.deleteAeronDirectory();
+            if (ctx.isCncFileAdopted)
+            {
+                WarmRestart.deleteAllButCncFile(ctx.aeronDirectory());
+            }
+            else
+            {
+                ctx.deleteAeronDirectory();
+            }
         }
 
         IoUtil.ensureDirectoryExists(ctx.aeronDirectory(), "aeron");
+
+        if (ctx.clientCommandBufferLength() > 0)
+        {
+            IoUtil.ensureDirectoryExists(ctx.clientCommandBufferDir(), "client command buffers");
+        }
+        else
+        {
+            IoUtil.delete(ctx.clientCommandBufferDir(), true);
+        }
     }
 
     private static void reportExistingErrors(final Context ctx, final MappedByteBuffer cncByteBuffer)
@@ -402,12 +543,14 @@ public final class MediaDriver implements AutoCloseable
         private boolean warnIfDirectoryExists = Configuration.warnIfDirExists();
         private boolean dirDeleteOnStart = Configuration.dirDeleteOnStart();
         private boolean dirDeleteOnShutdown = Configuration.dirDeleteOnShutdown();
+        private boolean dirWarmRestart = Configuration.dirWarmRestart();
         private boolean termBufferSparseFile = Configuration.termBufferSparseFile();
         private boolean performStorageChecks = Configuration.performStorageChecks();
         private boolean spiesSimulateConnection = Configuration.spiesSimulateConnection();
         private boolean reliableStream = Configuration.reliableStream();
         private boolean tetherSubscriptions = Configuration.tetherSubscriptions();
         private boolean rejoinStream = Configuration.rejoinStream();
+        private boolean receiverBusyPoll = Configuration.receiverBusyPoll();
 
         private long lowStorageWarningThreshold = Configuration.lowStorageWarningThreshold();
         private long timerIntervalNs = Configuration.timerIntervalNs();
@@ -443,9 +586,25 @@ public final class MediaDriver implements AutoCloseable
         private int publicationReservedSessionIdLow = Configuration.publicationReservedSessionIdLow();
         private int publicationReservedSessionIdHigh = Configuration.publicationReservedSessionIdHigh();
         private int lossReportBufferLength = Configuration.lossReportBufferLength();
+        private int lossHistogramBucketCount = Configuration.lossHistogramBucketCount();
+        private int lossHistogramBufferLength = Configuration.lossHistogramBufferLength();
         private int sendToStatusMessagePollRatio = Configuration.sendToStatusMessagePollRatio();
+        private int receiverShardCount = Configuration.receiverShardCount();
+        private int senderShardCount = Configuration.senderShardCount();
+        private int receiverBusyPollMaxSkip = Configuration.receiverBusyPollMaxSkip();
+        private int maxRetransmits = Configuration.maxRetransmits();
+        private int nakMaxGaps = Configuration.nakMaxGaps();
+        private boolean receiverGapBitmap = Configuration.receiverGapBitmap();
+        private int logPoolMaxSize = Configuration.logPoolMaxSize();
+        private int logPoolPreallocateCount = Configuration.logPoolPreallocateCount();
+        private long logPoolRecycleDelayNs = Configuration.logPoolRecycleDelayNs();
+        private boolean asyncLogAllocation = Configuration.asyncLogAllocation();
+        private int channelCacheMaxSize = Configuration.channelCacheMaxSize();
+        private long socketDropSampleIntervalNs = Configuration.socketDropSampleIntervalNs();
         private long minFlowControlTimeoutNs = Configuration.minFlowControlTimeoutNs();
         private long taggedFlowControlTimeoutNs = Configuration.taggedFlowControlTimeoutNs();
+        private long flowControlReceiverLagWindow = Configuration.flowControlReceiverLagWindow();
+        private int clientCommandBufferLength = Configuration.clientCommandBufferLength();
 
         private Long receiverTag = Configuration.receiverTag();
         private long flowControlGroupReceiverTag = Configuration.flowControlGroupReceiverTag();
@@ -467,6 +626,8 @@ public final class MediaDriver implements AutoCloseable
         private IdleStrategy receiverIdleStrategy;
         private IdleStrategy sharedNetworkIdleStrategy;
         private IdleStrategy sharedIdleStrategy;
+        private IdleStrategy[] receiverShardIdleStrategies;
+        private IdleStrategy[] senderShardIdleStrategies;
         private SendChannelEndpointSupplier sendChannelEndpointSupplier;
         private ReceiveChannelEndpointSupplier receiveChannelEndpointSupplier;
         private ReceiveChannelEndpointThreadLocals receiveChannelEndpointThreadLocals;
@@ -475,6 +636,7 @@ public final class MediaDriver implements AutoCloseable
         private FlowControlSupplier multicastFlowControlSupplier;
         private byte[] applicationSpecificFeedback;
         private CongestionControlSupplier congestionControlSupplier;
+        private StatusMessagePolicySupplier statusMessagePolicySupplier;
         private FeedbackDelayGenerator unicastFeedbackDelayGenerator;
         private FeedbackDelayGenerator multicastFeedbackDelayGenerator;
         private FeedbackDelayGenerator retransmitUnicastDelayGenerator;
@@ -488,13 +650,20 @@ public final class MediaDriver implements AutoCloseable
         private CountersManager countersManager;
         private SystemCounters systemCounters;
         private LossReport lossReport;
+        private LossHistogram lossHistogram;
 
         private LogFactory logFactory;
+        private LogAllocator logAllocator;
+        private ReceiveSocketDropMonitor socketDropMonitor;
         private DataTransportPoller dataTransportPoller;
         private ControlTransportPoller controlTransportPoller;
         private ManyToOneConcurrentArrayQueue<Runnable> driverCommandQueue;
         private OneToOneConcurrentArrayQueue<Runnable> receiverCommandQueue;
         private OneToOneConcurrentArrayQueue<Runnable> senderCommandQueue;
+        private DataTransportPoller[] receiverShardDataTransportPollers;
+        private OneToOneConcurrentArrayQueue<Runnable>[] receiverShardCommandQueues;
+        private ControlTransportPoller[] senderShardControlTransportPollers;
+        private OneToOneConcurrentArrayQueue<Runnable>[] senderShardCommandQueues;
         private ReceiverProxy receiverProxy;
         private SenderProxy senderProxy;
         private DriverConductorProxy driverConductorProxy;
@@ -502,6 +671,9 @@ public final class MediaDriver implements AutoCloseable
         private RingBuffer toDriverCommands;
 
         private MappedByteBuffer lossReportBuffer;
+        private MappedByteBuffer lossHistogramBuffer;
+        private boolean isCncFileAdopted;
+        private WarmRestart warmRestart;
         private MappedByteBuffer cncByteBuffer;
         private UnsafeBuffer cncMetaDataBuffer;
 
@@ -527,11 +699,16 @@ public final class MediaDriver implements AutoCloseable
                 AeronCloseHelper.close(errorHandler, logFactory);
 
                 AeronCloseHelper.close(errorHandler, lossReport);
+                AeronCloseHelper.close(errorHandler, lossHistogram);
 
                 final MappedByteBuffer lossReportBuffer = this.lossReportBuffer;
                 this.lossReportBuffer = null;
                 IoUtil.unmap(lossReportBuffer);
 
+                final MappedByteBuffer lossHistogramBuffer = this.lossHistogramBuffer;
+                this.lossHistogramBuffer = null;
+                IoUtil.unmap(lossHistogramBuffer);
+
                 if (errorHandler instanceof AutoCloseable)
                 {
                     CloseHelper.quietClose((AutoCloseable)errorHandler); // Ignore error to ensure the rest is closed
@@ -562,21 +739,41 @@ public final class MediaDriver implements AutoCloseable
                 validateMtuLength(ipcMtuLength);
                 validatePageSize(filePageSize);
                 validateSessionIdRange(publicationReservedSessionIdLow, publicationReservedSessionIdHigh);
+                validateNakMaxGaps(nakMaxGaps);
+                validateLogPool(
+                    logPoolMaxSize,
+                    logPoolPreallocateCount,
+                    logPoolRecycleDelayNs,
+                    asyncLogAllocation && ThreadingMode.SHARED != threadingMode &&
+                    ThreadingMode.INVOKER != threadingMode);
+                validateChannelCacheMaxSize(channelCacheMaxSize);
+                validateLossHistogramBucketCount(lossHistogramBucketCount);
+                validateFlowControlReceiverLagWindow(flowControlReceiverLagWindow);
+                validateClientCommandBufferLength(clientCommandBufferLength);
+                validateReceiverBusyPollMaxSkip(receiverBusyPollMaxSkip);
+                validateMaxRetransmits(maxRetransmits);
 
                 LogBufferDescriptor.checkTermLength(publicationTermBufferLength);
                 LogBufferDescriptor.checkTermLength(ipcTermBufferLength);
                 validateInitialWindowLength(initialWindowLength, mtuLength);
                 validateUnblockTimeout(publicationUnblockTimeoutNs, clientLivenessTimeoutNs, timerIntervalNs);
 
-                cncByteBuffer = mapNewFile(
-                    cncFile(),
-                    CncFileDescriptor.computeCncFileLength(
-                        conductorBufferLength +
-                            toClientsBufferLength +
-                            Configuration.countersMetadataBufferLength(counterValuesBufferLength) +
-                            counterValuesBufferLength +
-                            errorBufferLength,
-                        filePageSize));
+                if (isCncFileAdopted)
+                {
+                    cncByteBuffer = IoUtil.mapExistingFile(cncFile(), CNC_FILE);
+                }
+                else
+                {
+                    cncByteBuffer = mapNewFile(
+                        cncFile(),
+                        CncFileDescriptor.computeCncFileLength(
+                            conductorBufferLength +
+                                toClientsBufferLength +
+                                Configuration.countersMetadataBufferLength(counterValuesBufferLength) +
+                                counterValuesBufferLength +
+                                errorBufferLength,
+                            filePageSize));
+                }
 
                 cncMetaDataBuffer = CncFileDescriptor.createMetaDataBuffer(cncByteBuffer);
                 CncFileDescriptor.fillMetaData(
@@ -590,6 +787,12 @@ public final class MediaDriver implements AutoCloseable
                     epochClock.time(),
                     SystemUtil.getPid());
 
+                if (isCncFileAdopted)
+                {
+                    final UnsafeBuffer errorLogBuffer = createErrorLogBuffer(cncByteBuffer, cncMetaDataBuffer);
+                    errorLogBuffer.setMemory(0, errorLogBuffer.capacity(), (byte)0);
+                }
+
                 concludeCounters();
                 concludeDependantProperties();
                 concludeIdleStrategies();
@@ -766,6 +969,32 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * Will the driver attempt to adopt the CnC file of a previous driver in {@link #aeronDirectoryName()} on
+         * startup rather than delete the directory.
+         *
+         * @return true when the CnC file of a previous driver will be adopted if possible, otherwise false.
+         * @see Configuration#DIR_WARM_RESTART_PROP_NAME
+         */
+        public boolean dirWarmRestart()
+        {
+            return dirWarmRestart;
+        }
+
+        /**
+         * Should the driver attempt to adopt the CnC file of a previous driver in {@link #aeronDirectoryName()} on
+         * startup rather than delete the directory.
+         *
+         * @param dirWarmRestart Attempt adoption.
+         * @return this for a fluent API.
+         * @see Configuration#DIR_WARM_RESTART_PROP_NAME
+         */
+        public Context dirWarmRestart(final boolean dirWarmRestart)
+        {
+            this.dirWarmRestart = dirWarmRestart;
+            return this;
+        }
+
         /**
          * Should the term buffers be created with sparse files?
          *
@@ -958,6 +1187,56 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * The number of one second buckets of loss kept for each stream in the loss histogram which accompanies the
+         * loss report. 0 disables the loss histogram.
+         *
+         * @return the number of one second buckets of loss kept for each stream in the loss histogram.
+         * @see Configuration#LOSS_HISTOGRAM_BUCKET_COUNT_PROP_NAME
+         */
+        public int lossHistogramBucketCount()
+        {
+            return lossHistogramBucketCount;
+        }
+
+        /**
+         * The number of one second buckets of loss kept for each stream in the loss histogram which accompanies the
+         * loss report. 0 disables the loss histogram.
+         *
+         * @param bucketCount of one second buckets of loss kept for each stream in the loss histogram.
+         * @return this for a fluent API.
+         * @see Configuration#LOSS_HISTOGRAM_BUCKET_COUNT_PROP_NAME
+         */
+        public Context lossHistogramBucketCount(final int bucketCount)
+        {
+            lossHistogramBucketCount = bucketCount;
+            return this;
+        }
+
+        /**
+         * The length in bytes of the loss histogram buffer.
+         *
+         * @return the length in bytes of the loss histogram buffer.
+         * @see Configuration#LOSS_HISTOGRAM_BUFFER_LENGTH_PROP_NAME
+         */
+        public int lossHistogramBufferLength()
+        {
+            return lossHistogramBufferLength;
+        }
+
+        /**
+         * The length in bytes of the loss histogram buffer.
+         *
+         * @param length of the buffer to be used for the loss histogram.
+         * @return this for a fluent API.
+         * @see Configuration#LOSS_HISTOGRAM_BUFFER_LENGTH_PROP_NAME
+         */
+        public Context lossHistogramBufferLength(final int length)
+        {
+            lossHistogramBufferLength = length;
+            return this;
+        }
+
         /**
          * Page size for alignment of all files.
          *
@@ -1178,6 +1457,208 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * The max number of gaps in a term which are tracked and NAKed together for an image.
+         *
+         * @return max number of gaps in a term which are tracked and NAKed together for an image.
+         * @see Configuration#NAK_MAX_GAPS_PROP_NAME
+         */
+        public int nakMaxGaps()
+        {
+            return nakMaxGaps;
+        }
+
+        /**
+         * The max number of gaps in a term which are tracked and NAKed together for an image.
+         *
+         * @param nakMaxGaps in a term which are tracked and NAKed together for an image.
+         * @return this for a fluent API.
+         * @see Configuration#NAK_MAX_GAPS_PROP_NAME
+         */
+        public Context nakMaxGaps(final int nakMaxGaps)
+        {
+            this.nakMaxGaps = nakMaxGaps;
+            return this;
+        }
+
+        /**
+         * Should images track which frames have arrived in a fill bitmap to find the rebuild position and gaps.
+         *
+         * @return true if images track which frames have arrived in a fill bitmap.
+         * @see Configuration#RECEIVER_GAP_BITMAP_PROP_NAME
+         */
+        public boolean receiverGapBitmap()
+        {
+            return receiverGapBitmap;
+        }
+
+        /**
+         * Should images track which frames have arrived in a fill bitmap to find the rebuild position and gaps.
+         *
+         * @param receiverGapBitmap true if images should track which frames have arrived in a fill bitmap.
+         * @return this for a fluent API.
+         * @see Configuration#RECEIVER_GAP_BITMAP_PROP_NAME
+         */
+        public Context receiverGapBitmap(final boolean receiverGapBitmap)
+        {
+            this.receiverGapBitmap = receiverGapBitmap;
+            return this;
+        }
+
+        /**
+         * The max number of released log buffers of a given term length and sparse setting which are kept for reuse.
+         *
+         * @return max number of released log buffers of a given term length which are kept for reuse.
+         * @see Configuration#LOG_POOL_MAX_SIZE_PROP_NAME
+         */
+        public int logPoolMaxSize()
+        {
+            return logPoolMaxSize;
+        }
+
+        /**
+         * The max number of released log buffers of a given term length and sparse setting which are kept for reuse.
+         *
+         * @param logPoolMaxSize of released log buffers of a given term length which are kept for reuse.
+         * @return this for a fluent API.
+         * @see Configuration#LOG_POOL_MAX_SIZE_PROP_NAME
+         */
+        public Context logPoolMaxSize(final int logPoolMaxSize)
+        {
+            this.logPoolMaxSize = logPoolMaxSize;
+            return this;
+        }
+
+        /**
+         * The number of log buffers of {@link #publicationTermBufferLength()} created in the pool at startup.
+         *
+         * @return number of log buffers created in the pool at startup.
+         * @see Configuration#LOG_POOL_PREALLOCATE_COUNT_PROP_NAME
+         */
+        public int logPoolPreallocateCount()
+        {
+            return logPoolPreallocateCount;
+        }
+
+        /**
+         * The number of log buffers of {@link #publicationTermBufferLength()} created in the pool at startup.
+         *
+         * @param logPoolPreallocateCount of log buffers created in the pool at startup.
+         * @return this for a fluent API.
+         * @see Configuration#LOG_POOL_PREALLOCATE_COUNT_PROP_NAME
+         */
+        public Context logPoolPreallocateCount(final int logPoolPreallocateCount)
+        {
+            this.logPoolPreallocateCount = logPoolPreallocateCount;
+            return this;
+        }
+
+        /**
+         * How long a released log buffer is held before it is zeroed and made available for reuse from the pool.
+         *
+         * @return delay in nanoseconds before a released log buffer is made available for reuse.
+         * @see Configuration#LOG_POOL_RECYCLE_DELAY_PROP_NAME
+         */
+        public long logPoolRecycleDelayNs()
+        {
+            return logPoolRecycleDelayNs;
+        }
+
+        /**
+         * How long a released log buffer is held before it is zeroed and made available for reuse from the pool.
+         *
+         * @param logPoolRecycleDelayNs before a released log buffer is made available for reuse.
+         * @return this for a fluent API.
+         * @see Configuration#LOG_POOL_RECYCLE_DELAY_PROP_NAME
+         */
+        public Context logPoolRecycleDelayNs(final long logPoolRecycleDelayNs)
+        {
+            this.logPoolRecycleDelayNs = logPoolRecycleDelayNs;
+            return this;
+        }
+
+        /**
+         * Should log buffers be created on a dedicated agent so the conductor can continue to process commands while
+         * files are created and mapped. Ignored for {@link ThreadingMode#SHARED} and {@link ThreadingMode#INVOKER}.
+         *
+         * @return true if log buffers should be created on a dedicated agent.
+         * @see Configuration#ASYNC_LOG_ALLOCATION_PROP_NAME
+         */
+        public boolean asyncLogAllocation()
+        {
+            return asyncLogAllocation;
+        }
+
+        /**
+         * Should log buffers be created on a dedicated agent so the conductor can continue to process commands while
+         * files are created and mapped. Ignored for {@link ThreadingMode#SHARED} and {@link ThreadingMode#INVOKER}.
+         *
+         * @param asyncLogAllocation true if log buffers should be created on a dedicated agent.
+         * @return this for a fluent API.
+         * @see Configuration#ASYNC_LOG_ALLOCATION_PROP_NAME
+         */
+        public Context asyncLogAllocation(final boolean asyncLogAllocation)
+        {
+            this.asyncLogAllocation = asyncLogAllocation;
+            return this;
+        }
+
+        /**
+         * The max number of parsed channels, of each of UDP and other media, kept so channels which are added
+         * repeatedly are not re-parsed and re-resolved. 0 disables the cache.
+         *
+         * @return max number of parsed channels kept by the driver.
+         * @see Configuration#CHANNEL_CACHE_MAX_SIZE_PROP_NAME
+         * @see MediaDriver#invalidateChannelCache()
+         */
+        public int channelCacheMaxSize()
+        {
+            return channelCacheMaxSize;
+        }
+
+        /**
+         * The max number of parsed channels, of each of UDP and other media, kept so channels which are added
+         * repeatedly are not re-parsed and re-resolved. 0 disables the cache.
+         *
+         * @param channelCacheMaxSize of parsed channels kept by the driver.
+         * @return this for a fluent API.
+         * @see Configuration#CHANNEL_CACHE_MAX_SIZE_PROP_NAME
+         * @see MediaDriver#invalidateChannelCache()
+         */
+        public Context channelCacheMaxSize(final int channelCacheMaxSize)
+        {
+            this.channelCacheMaxSize = channelCacheMaxSize;
+            return this;
+        }
+
+        /**
+         * Interval at which the kernel UDP drop counters for receive sockets are sampled on Linux into the
+         * {@link io.aeron.driver.status.ReceiveChannelSocketDrops} counter of each receive channel endpoint.
+         * 0 disables sampling.
+         *
+         * @return interval at which the kernel UDP drop counters for receive sockets are sampled.
+         * @see Configuration#SOCKET_DROP_SAMPLE_INTERVAL_PROP_NAME
+         */
+        public long socketDropSampleIntervalNs()
+        {
+            return socketDropSampleIntervalNs;
+        }
+
+        /**
+         * Interval at which the kernel UDP drop counters for receive sockets are sampled on Linux into the
+         * {@link io.aeron.driver.status.ReceiveChannelSocketDrops} counter of each receive channel endpoint.
+         * 0 disables sampling.
+         *
+         * @param socketDropSampleIntervalNs at which the kernel UDP drop counters for receive sockets are sampled.
+         * @return this for a fluent API.
+         * @see Configuration#SOCKET_DROP_SAMPLE_INTERVAL_PROP_NAME
+         */
+        public Context socketDropSampleIntervalNs(final long socketDropSampleIntervalNs)
+        {
+            this.socketDropSampleIntervalNs = socketDropSampleIntervalNs;
+            return this;
+        }
+
 
         /**
          * The maximum time to backoff before sending a NAK on multicast.
@@ -1500,6 +1981,80 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * Should the {@link Receiver} busy poll all receive transports directly rather than use a selector when the
+         * number of transports is large.
+         *
+         * @return true if the {@link Receiver} should busy poll all receive transports.
+         * @see Configuration#RECEIVER_BUSY_POLL_PROP_NAME
+         */
+        public boolean receiverBusyPoll()
+        {
+            return receiverBusyPoll;
+        }
+
+        /**
+         * Should the {@link Receiver} busy poll all receive transports directly rather than use a selector when the
+         * number of transports is large.
+         *
+         * @param receiverBusyPoll true if the {@link Receiver} should busy poll all receive transports.
+         * @return this for a fluent API.
+         * @see Configuration#RECEIVER_BUSY_POLL_PROP_NAME
+         */
+        public Context receiverBusyPoll(final boolean receiverBusyPoll)
+        {
+            this.receiverBusyPoll = receiverBusyPoll;
+            return this;
+        }
+
+        /**
+         * Maximum number of duty cycles an idle receive transport will be skipped for when busy polling.
+         *
+         * @return maximum number of duty cycles an idle receive transport will be skipped for when busy polling.
+         * @see Configuration#RECEIVER_BUSY_POLL_MAX_SKIP_PROP_NAME
+         */
+        public int receiverBusyPollMaxSkip()
+        {
+            return receiverBusyPollMaxSkip;
+        }
+
+        /**
+         * Maximum number of duty cycles an idle receive transport will be skipped for when busy polling.
+         *
+         * @param maxSkip number of duty cycles an idle receive transport will be skipped for when busy polling.
+         * @return this for a fluent API.
+         * @see Configuration#RECEIVER_BUSY_POLL_MAX_SKIP_PROP_NAME
+         */
+        public Context receiverBusyPollMaxSkip(final int maxSkip)
+        {
+            this.receiverBusyPollMaxSkip = maxSkip;
+            return this;
+        }
+
+        /**
+         * Maximum number of active retransmits per network publication.
+         *
+         * @return maximum number of active retransmits per network publication.
+         * @see Configuration#MAX_RETRANSMITS_PROP_NAME
+         */
+        public int maxRetransmits()
+        {
+            return maxRetransmits;
+        }
+
+        /**
+         * Maximum number of active retransmits per network publication.
+         *
+         * @param maxRetransmits number of active retransmits per network publication.
+         * @return this for a fluent API.
+         * @see Configuration#MAX_RETRANSMITS_PROP_NAME
+         */
+        public Context maxRetransmits(final int maxRetransmits)
+        {
+            this.maxRetransmits = maxRetransmits;
+            return this;
+        }
+
         /**
          * Default length for a term buffer on a network publication.
          *
@@ -2323,6 +2878,58 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * How far in bytes a receiver may lag the sender position before it is evicted from min and tagged multicast
+         * flow control, with 0 disabling eviction.
+         *
+         * @return how far in bytes a receiver may lag the sender position before it is evicted from flow control.
+         * @see Configuration#FLOW_CONTROL_RECEIVER_LAG_WINDOW_PROP_NAME
+         */
+        public long flowControlReceiverLagWindow()
+        {
+            return flowControlReceiverLagWindow;
+        }
+
+        /**
+         * How far in bytes a receiver may lag the sender position before it is evicted from min and tagged multicast
+         * flow control, with 0 disabling eviction.
+         *
+         * @param lagWindow in bytes before a receiver is evicted from flow control.
+         * @return this for a fluent API.
+         * @see Configuration#FLOW_CONTROL_RECEIVER_LAG_WINDOW_PROP_NAME
+         */
+        public Context flowControlReceiverLagWindow(final long lagWindow)
+        {
+            this.flowControlReceiverLagWindow = lagWindow;
+            return this;
+        }
+
+        /**
+         * Capacity in bytes of the command buffer given to a client which asks for one of its own, with 0 disabling
+         * command buffers for clients.
+         *
+         * @return capacity in bytes of the command buffer given to a client which asks for one of its own.
+         * @see Configuration#CLIENT_COMMAND_BUFFER_LENGTH_PROP_NAME
+         */
+        public int clientCommandBufferLength()
+        {
+            return clientCommandBufferLength;
+        }
+
+        /**
+         * Capacity in bytes of the command buffer given to a client which asks for one of its own, with 0 disabling
+         * command buffers for clients.
+         *
+         * @param length capacity in bytes of the command buffer given to a client which must be a power of 2.
+         * @return this for a fluent API.
+         * @see Configuration#CLIENT_COMMAND_BUFFER_LENGTH_PROP_NAME
+         */
+        public Context clientCommandBufferLength(final int length)
+        {
+            this.clientCommandBufferLength = length;
+            return this;
+        }
+
         /**
          * Application specific feedback used to identify a receiver group when using a
          * {@link TaggedMulticastFlowControl} strategy which is added to Status Messages (SMs)..
@@ -2373,6 +2980,30 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * Supplier of dynamically created {@link StatusMessagePolicy} strategies for individual images.
+         *
+         * @return supplier of dynamically created {@link StatusMessagePolicy} strategies for individual images.
+         * @see Configuration#STATUS_MESSAGE_POLICY_SUPPLIER_PROP_NAME
+         */
+        public StatusMessagePolicySupplier statusMessagePolicySupplier()
+        {
+            return statusMessagePolicySupplier;
+        }
+
+        /**
+         * Supplier of dynamically created {@link StatusMessagePolicy} strategies for individual images.
+         *
+         * @param supplier of dynamically created {@link StatusMessagePolicy} strategies for individual images.
+         * @return this for a fluent API.
+         * @see Configuration#STATUS_MESSAGE_POLICY_SUPPLIER_PROP_NAME
+         */
+        public Context statusMessagePolicySupplier(final StatusMessagePolicySupplier supplier)
+        {
+            this.statusMessagePolicySupplier = supplier;
+            return this;
+        }
+
         /**
          * {@link ErrorHandler} to be used for reporting errors during {@link Agent}s operations.
          *
@@ -2504,6 +3135,28 @@ public final class MediaDriver implements AutoCloseable
             return lossReport;
         }
 
+        /**
+         * {@link WarmRestart} of the CnC file of a previous driver which has been adopted.
+         *
+         * @return {@link WarmRestart} of the CnC file of a previous driver or null if it was not adopted.
+         */
+        WarmRestart warmRestart()
+        {
+            return warmRestart;
+        }
+
+        /**
+         * {@link WarmRestart} of the CnC file of a previous driver which has been adopted.
+         *
+         * @param warmRestart of the CnC file of a previous driver or null if it was not adopted.
+         * @return this for a fluent API.
+         */
+        Context warmRestart(final WarmRestart warmRestart)
+        {
+            this.warmRestart = warmRestart;
+            return this;
+        }
+
         /**
          * Low end of the publication reserved session id range which will not be automatically assigned.
          *
@@ -2724,6 +3377,54 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        /**
+         * Number of {@link Receiver} shards, each with its own thread, when running in {@link ThreadingMode#SHARDED}.
+         *
+         * @return number of {@link Receiver} shards when running in {@link ThreadingMode#SHARDED}.
+         * @see Configuration#RECEIVER_SHARD_COUNT_PROP_NAME
+         */
+        public int receiverShardCount()
+        {
+            return receiverShardCount;
+        }
+
+        /**
+         * Number of {@link Receiver} shards, each with its own thread, when running in {@link ThreadingMode#SHARDED}.
+         *
+         * @param shardCount of {@link Receiver} agents to run.
+         * @return this for fluent API.
+         * @see Configuration#RECEIVER_SHARD_COUNT_PROP_NAME
+         */
+        public Context receiverShardCount(final int shardCount)
+        {
+            this.receiverShardCount = shardCount;
+            return this;
+        }
+
+        /**
+         * Number of {@link Sender} shards, each with its own thread, when running in {@link ThreadingMode#SHARDED}.
+         *
+         * @return number of {@link Sender} shards when running in {@link ThreadingMode#SHARDED}.
+         * @see Configuration#SENDER_SHARD_COUNT_PROP_NAME
+         */
+        public int senderShardCount()
+        {
+            return senderShardCount;
+        }
+
+        /**
+         * Number of {@link Sender} shards, each with its own thread, when running in {@link ThreadingMode#SHARDED}.
+         *
+         * @param shardCount of {@link Sender} agents to run.
+         * @return this for fluent API.
+         * @see Configuration#SENDER_SHARD_COUNT_PROP_NAME
+         */
+        public Context senderShardCount(final int shardCount)
+        {
+            this.senderShardCount = shardCount;
+            return this;
+        }
+
         /**
          * Get the receiver tag (rtag) to be sent in Status Messages from the Receiver.
          *
@@ -2862,11 +3563,63 @@ public final class MediaDriver implements AutoCloseable
             return this;
         }
 
+        LogAllocator logAllocator()
+        {
+            return logAllocator;
+        }
+
+        Context logAllocator(final LogAllocator logAllocator)
+        {
+            this.logAllocator = logAllocator;
+            return this;
+        }
+
+        ReceiveSocketDropMonitor socketDropMonitor()
+        {
+            return socketDropMonitor;
+        }
+
+        Context socketDropMonitor(final ReceiveSocketDropMonitor socketDropMonitor)
+        {
+            this.socketDropMonitor = socketDropMonitor;
+            return this;
+        }
+
         DataTransportPoller dataTransportPoller()
         {
             return dataTransportPoller;
         }
 
+        DataTransportPoller[] receiverShardDataTransportPollers()
+        {
+            return receiverShardDataTransportPollers;
+        }
+
+        OneToOneConcurrentArrayQueue<Runnable>[] receiverShardCommandQueues()
+        {
+            return receiverShardCommandQueues;
+        }
+
+        IdleStrategy[] receiverShardIdleStrategies()
+        {
+            return receiverShardIdleStrategies;
+        }
+
+        ControlTransportPoller[] senderShardControlTransportPollers()
+        {
+            return senderShardControlTransportPollers;
+        }
+
+        OneToOneConcurrentArrayQueue<Runnable>[] senderShardCommandQueues()
+        {
+            return senderShardCommandQueues;
+        }
+
+        IdleStrategy[] senderShardIdleStrategies()
+        {
+            return senderShardIdleStrategies;
+        }
+
         Context dataTransportPoller(final DataTransportPoller transportPoller)
         {
             this.dataTransportPoller = transportPoller;
@@ -2967,7 +3720,8 @@ public final class MediaDriver implements AutoCloseable
 
             if (null == dataTransportPoller)
             {
-                dataTransportPoller = new DataTransportPoller(errorHandler);
+                dataTransportPoller = new DataTransportPoller(
+                    errorHandler, receiverBusyPoll, receiverBusyPollMaxSkip);
             }
 
             if (null == controlTransportPoller)
@@ -3006,6 +3760,11 @@ public final class MediaDriver implements AutoCloseable
                 congestionControlSupplier = Configuration.congestionControlSupplier();
             }
 
+            if (null == statusMessagePolicySupplier)
+            {
+                statusMessagePolicySupplier = Configuration.statusMessagePolicySupplier();
+            }
+
             if (null == driverCommandQueue)
             {
                 driverCommandQueue = new ManyToOneConcurrentArrayQueue<>(CMD_QUEUE_CAPACITY);
@@ -3071,21 +3830,69 @@ public final class MediaDriver implements AutoCloseable
                 errorHandler = new LoggingErrorHandler(errorLog);
             }
 
+            concludeShards();
+
             receiverProxy = new ReceiverProxy(
-                threadingMode, receiverCommandQueue, systemCounters.get(RECEIVER_PROXY_FAILS));
+                threadingMode, receiverShardCommandQueues, systemCounters.get(RECEIVER_PROXY_FAILS));
             senderProxy = new SenderProxy(
-                threadingMode, senderCommandQueue, systemCounters.get(SENDER_PROXY_FAILS));
+                threadingMode, senderShardCommandQueues, systemCounters.get(SENDER_PROXY_FAILS));
             driverConductorProxy = new DriverConductorProxy(
                 threadingMode, driverCommandQueue, systemCounters.get(CONDUCTOR_PROXY_FAILS));
 
             if (null == logFactory)
             {
-                logFactory = new FileStoreLogFactory(
-                    aeronDirectoryName(), filePageSize, performStorageChecks, lowStorageWarningThreshold, errorHandler);
+                final FileStoreLogFactory fileStoreLogFactory = new FileStoreLogFactory(
+                    aeronDirectoryName(),
+                    filePageSize,
+                    performStorageChecks,
+                    lowStorageWarningThreshold,
+                    logPoolMaxSize,
+                    logPoolRecycleDelayNs,
+                    nanoClock,
+                    systemCounters.get(LOG_POOL_HITS),
+                    systemCounters.get(LOG_POOL_MISSES),
+                    errorHandler);
+
+                fileStoreLogFactory.preallocate(
+                    logPoolPreallocateCount, publicationTermBufferLength, termBufferSparseFile);
+                logFactory = fileStoreLogFactory;
+            }
+
+            if (null == logAllocator && asyncLogAllocation &&
+                ThreadingMode.SHARED != threadingMode && ThreadingMode.INVOKER != threadingMode)
+            {
+                logAllocator = new LogAllocator(
+                    logFactory,
+                    nanoClock,
+                    driverCommandQueue,
+                    systemCounters.get(LOG_ALLOCATIONS_IN_FLIGHT),
+                    systemCounters.get(LOG_ALLOCATION_MAX_QUEUED_TIME),
+                    systemCounters.get(LOG_ALLOCATION_MAX_TIME));
+            }
+
+            if (null == socketDropMonitor && socketDropSampleIntervalNs > 0 && SystemUtil.isLinux() &&
+                ThreadingMode.SHARED != threadingMode && ThreadingMode.INVOKER != threadingMode)
+            {
+                socketDropMonitor = new ReceiveSocketDropMonitor(
+                    socketDropSampleIntervalNs,
+                    Paths.get("/proc"),
+                    nanoClock,
+                    errorHandler,
+                    driverCommandQueue,
+                    systemCounters.get(UDP_RCVBUF_ERRORS),
+                    systemCounters.get(UDP_IN_ERRORS));
+            }
+
+            if (lossHistogramBucketCount > 0)
+            {
+                lossHistogramBuffer = mapLossHistogram(
+                    aeronDirectoryName(), align(lossHistogramBufferLength, filePageSize));
+                lossHistogram = new LossHistogram(
+                    new UnsafeBuffer(lossHistogramBuffer), lossHistogramBucketCount, BUCKET_LENGTH_MS_DEFAULT);
             }
 
             lossReportBuffer = mapLossReport(aeronDirectoryName(), align(lossReportBufferLength, filePageSize));
-            lossReport = new LossReport(new UnsafeBuffer(lossReportBuffer));
+            lossReport = new LossReport(new UnsafeBuffer(lossReportBuffer), lossHistogram);
         }
 
         private void concludeCounters()
@@ -3115,6 +3922,11 @@ public final class MediaDriver implements AutoCloseable
                     reuseTimeoutMs = 0;
                 }
 
+                if (isCncFileAdopted)
+                {
+                    warmRestart = new WarmRestart(new CountersReader(countersMetaDataBuffer(), countersValuesBuffer()));
+                }
+
                 if (useConcurrentCountersManager)
                 {
                     countersManager = new ConcurrentCountersManager(
@@ -3131,6 +3943,53 @@ public final class MediaDriver implements AutoCloseable
             {
                 systemCounters = new SystemCounters(countersManager);
             }
+
+            if (null != warmRestart)
+            {
+                warmRestart.adoptCounters(countersManager);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void concludeShards()
+        {
+            final boolean isSharded = ThreadingMode.SHARDED == threadingMode;
+            final int receiverShards = isSharded ? receiverShardCount : 1;
+            if (receiverShards < 1)
+            {
+                throw new ConfigurationException("receiverShardCount must be >= 1: " + receiverShardCount);
+            }
+
+            final int senderShards = isSharded ? senderShardCount : 1;
+            if (senderShards < 1)
+            {
+                throw new ConfigurationException("senderShardCount must be >= 1: " + senderShardCount);
+            }
+
+            receiverShardDataTransportPollers = new DataTransportPoller[receiverShards];
+            receiverShardCommandQueues = new OneToOneConcurrentArrayQueue[receiverShards];
+
+            receiverShardDataTransportPollers[0] = dataTransportPoller;
+            receiverShardCommandQueues[0] = receiverCommandQueue;
+
+            for (int i = 1; i < receiverShards; i++)
+            {
+                receiverShardDataTransportPollers[i] = new DataTransportPoller(
+                    errorHandler, receiverBusyPoll, receiverBusyPollMaxSkip);
+                receiverShardCommandQueues[i] = new OneToOneConcurrentArrayQueue<>(CMD_QUEUE_CAPACITY);
+            }
+
+            senderShardControlTransportPollers = new ControlTransportPoller[senderShards];
+            senderShardCommandQueues = new OneToOneConcurrentArrayQueue[senderShards];
+
+            senderShardControlTransportPollers[0] = controlTransportPoller;
+            senderShardCommandQueues[0] = senderCommandQueue;
+
+            for (int i = 1; i < senderShards; i++)
+            {
+                senderShardControlTransportPollers[i] = new ControlTransportPoller(errorHandler);
+                senderShardCommandQueues[i] = new OneToOneConcurrentArrayQueue<>(CMD_QUEUE_CAPACITY);
+            }
         }
 
         private void concludeIdleStrategies()
@@ -3199,6 +4058,47 @@ public final class MediaDriver implements AutoCloseable
                         receiverIdleStrategy = Configuration.receiverIdleStrategy(indicator);
                     }
                     break;
+
+                case SHARDED:
+                    if (null == conductorThreadFactory)
+                    {
+                        conductorThreadFactory = Thread::new;
+                    }
+                    if (null == senderThreadFactory)
+                    {
+                        senderThreadFactory = Thread::new;
+                    }
+                    if (null == receiverThreadFactory)
+                    {
+                        receiverThreadFactory = Thread::new;
+                    }
+                    if (null == conductorIdleStrategy)
+                    {
+                        conductorIdleStrategy = Configuration.conductorIdleStrategy(indicator);
+                    }
+                    if (null == senderIdleStrategy)
+                    {
+                        senderIdleStrategy = Configuration.senderIdleStrategy(indicator);
+                    }
+                    if (null == receiverIdleStrategy)
+                    {
+                        receiverIdleStrategy = Configuration.receiverIdleStrategy(indicator);
+                    }
+
+                    receiverShardIdleStrategies = new IdleStrategy[receiverShardCommandQueues.length];
+                    receiverShardIdleStrategies[0] = receiverIdleStrategy;
+                    for (int i = 1; i < receiverShardIdleStrategies.length; i++)
+                    {
+                        receiverShardIdleStrategies[i] = Configuration.receiverIdleStrategy(indicator);
+                    }
+
+                    senderShardIdleStrategies = new IdleStrategy[senderShardCommandQueues.length];
+                    senderShardIdleStrategies[0] = senderIdleStrategy;
+                    for (int i = 1; i < senderShardIdleStrategies.length; i++)
+                    {
+                        senderShardIdleStrategies[i] = Configuration.senderIdleStrategy(indicator);
+                    }
+                    break;
             }
         }
 
@@ -3215,6 +4115,7 @@ public final class MediaDriver implements AutoCloseable
                 "\n    warnIfDirectoryExists=" + warnIfDirectoryExists +
                 "\n    dirDeleteOnStart=" + dirDeleteOnStart +
                 "\n    dirDeleteOnShutdown=" + dirDeleteOnShutdown +
+                "\n    dirWarmRestart=" + dirWarmRestart +
                 "\n    termBufferSparseFile=" + termBufferSparseFile +
                 "\n    performStorageChecks=" + performStorageChecks +
                 "\n    spiesSimulateConnection=" + spiesSimulateConnection +
@@ -3256,6 +4157,8 @@ public final class MediaDriver implements AutoCloseable
                 "\n    publicationReservedSessionIdLow=" + publicationReservedSessionIdLow +
                 "\n    publicationReservedSessionIdHigh=" + publicationReservedSessionIdHigh +
                 "\n    lossReportBufferLength=" + lossReportBufferLength +
+                "\n    lossHistogramBucketCount=" + lossHistogramBucketCount +
+                "\n    lossHistogramBufferLength=" + lossHistogramBufferLength +
                 "\n    epochClock=" + epochClock +
                 "\n    nanoClock=" + nanoClock +
                 "\n    cachedEpochClock=" + cachedEpochClock +
@@ -3279,15 +4182,31 @@ public final class MediaDriver implements AutoCloseable
                 "\n    multicastFlowControlSupplier=" + multicastFlowControlSupplier +
                 "\n    minFlowControlTimeoutNs=" + minFlowControlTimeoutNs +
                 "\n    taggedFlowControlTimeoutNs=" + taggedFlowControlTimeoutNs +
+                "\n    flowControlReceiverLagWindow=" + flowControlReceiverLagWindow +
+                "\n    clientCommandBufferLength=" + clientCommandBufferLength +
                 "\n    applicationSpecificFeedback=" + Arrays.toString(applicationSpecificFeedback) +
                 "\n    receiverTag=" + receiverTag +
                 "\n    flowControlGroupReceiverTag=" + flowControlGroupReceiverTag +
                 "\n    flowControlGroupRequiredSize=" + flowControlGroupRequiredSize +
                 "\n    receiverGroupConsideration=" + receiverGroupConsideration +
                 "\n    congestionControlSupplier=" + congestionControlSupplier +
+                "\n    statusMessagePolicySupplier=" + statusMessagePolicySupplier +
                 "\n    terminationValidator=" + terminationValidator +
                 "\n    terminationHook=" + terminationHook +
                 "\n    sendToStatusMessagePollRatio=" + sendToStatusMessagePollRatio +
+                "\n    receiverShardCount=" + receiverShardCount +
+                "\n    senderShardCount=" + senderShardCount +
+                "\n    receiverBusyPoll=" + receiverBusyPoll +
+                "\n    receiverBusyPollMaxSkip=" + receiverBusyPollMaxSkip +
+                "\n    maxRetransmits=" + maxRetransmits +
+                "\n    nakMaxGaps=" + nakMaxGaps +
+                "\n    receiverGapBitmap=" + receiverGapBitmap +
+                "\n    logPoolMaxSize=" + logPoolMaxSize +
+                "\n    logPoolPreallocateCount=" + logPoolPreallocateCount +
+                "\n    logPoolRecycleDelayNs=" + logPoolRecycleDelayNs +
+                "\n    asyncLogAllocation=" + asyncLogAllocation +
+                "\n    channelCacheMaxSize=" + channelCacheMaxSize +
+                "\n    socketDropSampleIntervalNs=" + socketDropSampleIntervalNs +
                 "\n    unicastFeedbackDelayGenerator=" + unicastFeedbackDelayGenerator +
                 "\n    multicastFeedbackDelayGenerator=" + multicastFeedbackDelayGenerator +
                 "\n    retransmitUnicastDelayGenerator=" + retransmitUnicastDelayGenerator +
@@ -3298,6 +4217,7 @@ public final class MediaDriver implements AutoCloseable
                 "\n    countersManager=" + countersManager +
                 "\n    systemCounters=" + systemCounters +
                 "\n    lossReport=" + lossReport +
+                "\n    lossHistogram=" + lossHistogram +
                 "\n    logFactory=" + logFactory +
                 "\n    dataTransportPoller=" + dataTransportPoller +
                 "\n    controlTransportPoller=" + controlTransportPoller +
@@ -3310,6 +4230,7 @@ public final class MediaDriver implements AutoCloseable
                 "\n    clientProxy=" + clientProxy +
                 "\n    toDriverCommands=" + toDriverCommands +
                 "\n    lossReportBuffer=" + lossReportBuffer +
+                "\n    lossHistogramBuffer=" + lossHistogramBuffer +
                 "\n    cncByteBuffer=" + cncByteBuffer +
                 "\n    cncMetaDataBuffer=" + cncMetaDataBuffer +
                 "\n}";
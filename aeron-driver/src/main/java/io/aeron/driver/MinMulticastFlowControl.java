@@ -17,11 +17,14 @@ package io.aeron.driver;
 
 import io.aeron.CommonContext;
 import io.aeron.driver.media.UdpChannel;
+import io.aeron.driver.status.SystemCounters;
 import io.aeron.protocol.StatusMessageFlyweight;
 import org.agrona.SystemUtil;
+import org.agrona.concurrent.status.AtomicCounter;
 
 import java.net.InetSocketAddress;
 
+import static io.aeron.driver.status.SystemCounterDescriptor.FLOW_CONTROL_RECEIVER_EVICTIONS;
 import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
 
 /**
@@ -30,7 +33,11 @@ import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
  * Flow control is set to minimum of tracked receivers.
  * <p>
  * Tracking of receivers is done as long as they continue to send Status Messages. Once SMs stop, the receiver tracking
- * for that receiver will timeout after a given number of nanoseconds.
+ * for that receiver will timeout after a given number of nanoseconds. Receivers are indexed so the cost of a Status
+ * Message is logarithmic in the number of receivers.
+ * <p>
+ * If a receiver lag window is configured then receivers which lag the sender position by more than the window are
+ * evicted so a single slow receiver does not hold back the rest of the group.
  */
 public class MinMulticastFlowControl implements FlowControl
 {
@@ -39,9 +46,12 @@ public class MinMulticastFlowControl implements FlowControl
      */
     public static final String FC_PARAM_VALUE = "min";
 
-    static final Receiver[] EMPTY_RECEIVERS = new Receiver[0];
-    private Receiver[] receivers = EMPTY_RECEIVERS;
+    private final FlowControlReceivers receivers = new FlowControlReceivers();
     private long receiverTimeoutNs;
+    private long receiverLagWindow;
+    private long maxReceiverLag;
+    private boolean isSharded;
+    private AtomicCounter receiverEvictions;
 
     /**
      * {@inheritDoc}
@@ -52,7 +62,9 @@ public class MinMulticastFlowControl implements FlowControl
         final int initialTermId,
         final int termBufferLength)
     {
+        isSharded = ThreadingMode.SHARDED == context.threadingMode();
         receiverTimeoutNs = context.minFlowControlTimeoutNs();
+        receiverLagWindow = context.flowControlReceiverLagWindow();
         final String fcValue = udpChannel.channelUri().get(CommonContext.FLOW_CONTROL_PARAM_NAME);
         if (null != fcValue)
         {
@@ -62,8 +74,19 @@ public class MinMulticastFlowControl implements FlowControl
                 {
                     receiverTimeoutNs = SystemUtil.parseDuration("fc receiver timeout", arg.substring(2));
                 }
+                else if (arg.startsWith("l:"))
+                {
+                    receiverLagWindow = SystemUtil.parseSize("fc receiver lag window", arg.substring(2));
+                }
             }
         }
+
+        Configuration.validateReceiverLagWindow(receiverLagWindow, termBufferLength, context.initialWindowLength());
+
+        if (receiverLagWindow > 0)
+        {
+            receiverEvictions = context.systemCounters().get(FLOW_CONTROL_RECEIVER_EVICTIONS);
+        }
     }
 
     /**
@@ -83,31 +106,9 @@ public class MinMulticastFlowControl implements FlowControl
             positionBitsToShift,
             initialTermId);
 
-        final long windowLength = flyweight.receiverWindowLength();
-        final long receiverId = flyweight.receiverId();
-        long minPosition = Long.MAX_VALUE;
-        boolean isExisting = false;
+        receivers.onStatusMessage(flyweight.receiverId(), position, flyweight.receiverWindowLength(), timeNs);
 
-        for (final Receiver receiver : receivers)
-        {
-            if (receiverId == receiver.receiverId)
-            {
-                receiver.lastPosition = Math.max(position, receiver.lastPosition);
-                receiver.lastPositionPlusWindow = position + windowLength;
-                receiver.timeOfLastStatusMessageNs = timeNs;
-                isExisting = true;
-            }
-
-            minPosition = Math.min(minPosition, receiver.lastPositionPlusWindow);
-        }
-
-        if (!isExisting)
-        {
-            receivers = add(receivers, new Receiver(position, position + windowLength, timeNs, receiverId));
-            minPosition = Math.min(minPosition, position + windowLength);
-        }
-
-        return Math.max(senderLimit, minPosition);
+        return Math.max(senderLimit, receivers.minPositionPlusWindow(senderLimit));
     }
 
     /**
@@ -115,74 +116,32 @@ public class MinMulticastFlowControl implements FlowControl
      */
     public long onIdle(final long timeNs, final long senderLimit, final long senderPosition, final boolean isEos)
     {
-        long minLimitPosition = Long.MAX_VALUE;
-        int removed = 0;
+        receivers.removeTimedOut(timeNs, receiverTimeoutNs);
 
-        for (int lastIndex = receivers.length - 1, i = lastIndex; i >= 0; i--)
+        if (receiverLagWindow > 0)
         {
-            final Receiver receiver = receivers[i];
-            if ((receiver.timeOfLastStatusMessageNs + receiverTimeoutNs) - timeNs < 0)
+            final int evicted = receivers.evictLagging(senderPosition, receiverLagWindow);
+            if (evicted > 0)
             {
-                if (i != lastIndex)
-                {
-                    receivers[i] = receivers[lastIndex--];
-                }
-                removed++;
-            }
-            else
-            {
-                minLimitPosition = Math.min(minLimitPosition, receiver.lastPositionPlusWindow);
+                SystemCounters.add(receiverEvictions, evicted, isSharded);
             }
         }
 
-        if (removed > 0)
-        {
-            receivers = truncateReceivers(receivers, removed);
-        }
+        maxReceiverLag = receivers.maxLag(senderPosition);
 
-        return receivers.length > 0 ? minLimitPosition : senderLimit;
+        return receivers.minPositionPlusWindow(senderLimit);
     }
 
-    static Receiver[] add(final Receiver[] receivers, final Receiver receiver)
-    {
-        final int length = receivers.length;
-        final Receiver[] newElements = new Receiver[length + 1];
-
-        System.arraycopy(receivers, 0, newElements, 0, length);
-        newElements[length] = receiver;
-        return newElements;
-    }
-
-    static Receiver[] truncateReceivers(final Receiver[] receivers, final int removed)
+    /**
+     * {@inheritDoc}
+     */
+    public long maxReceiverLag()
     {
-        final int length = receivers.length;
-        final int newLength = length - removed;
-
-        if (0 == newLength)
-        {
-            return EMPTY_RECEIVERS;
-        }
-        else
-        {
-            final Receiver[] newElements = new Receiver[newLength];
-            System.arraycopy(receivers, 0, newElements, 0, newLength);
-            return newElements;
-        }
+        return maxReceiverLag;
     }
 
-    static class Receiver
+    long receiverLagWindow()
     {
-        long lastPosition;
-        long lastPositionPlusWindow;
-        long timeOfLastStatusMessageNs;
-        final long receiverId;
-
-        Receiver(final long lastPosition, final long lastPositionPlusWindow, final long timeNs, final long receiverId)
-        {
-            this.lastPosition = lastPosition;
-            this.lastPositionPlusWindow = lastPositionPlusWindow;
-            this.timeOfLastStatusMessageNs = timeNs;
-            this.receiverId = receiverId;
-        }
+        return receiverLagWindow;
     }
 }
@@ -17,6 +17,7 @@ package io.aeron.driver;
 
 import io.aeron.AeronCloseHelper;
 import io.aeron.CommonContext;
+import io.aeron.LatencyTrace;
 import io.aeron.driver.buffer.RawLog;
 import io.aeron.driver.media.SendChannelEndpoint;
 import io.aeron.driver.status.SystemCounters;
@@ -26,6 +27,7 @@ import io.aeron.protocol.DataHeaderFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.SetupFlyweight;
 import io.aeron.protocol.StatusMessageFlyweight;
+import org.agrona.DeadlineTimerWheel;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.ArrayUtil;
@@ -77,7 +79,10 @@ class NetworkPublicationSenderFields extends NetworkPublicationPadding2
     protected long timeOfLastSendOrHeartbeatNs;
     protected long timeOfLastSetupNs;
     protected long statusMessageDeadlineNs;
+    protected long timeOfPacingStartNs;
+    protected long bytesDeferredPosition;
     protected boolean trackSenderLimits = false;
+    protected boolean isPaced = false;
     protected boolean shouldSendSetupFrame = true;
 }
 
@@ -92,7 +97,7 @@ class NetworkPublicationPadding3 extends NetworkPublicationSenderFields
  */
 public class NetworkPublication
     extends NetworkPublicationPadding3
-    implements RetransmitSender, DriverManagedResource, Subscribable
+    implements RetransmitSender, DriverManagedResource, Subscribable, DeadlineHandler
 {
     enum State
     {
@@ -111,18 +116,23 @@ public class NetworkPublication
     private final int termBufferLength;
     private final int termLengthMask;
     private final int mtuLength;
+    private final int weight;
     private final int termWindowLength;
     private final int sessionId;
     private final int streamId;
     private final boolean isExclusive;
     private final boolean spiesSimulateConnection;
     private final boolean signalEos;
+    private final boolean isLatencyTrace;
+    private final boolean isSharded;
     private volatile boolean hasReceivers;
     private volatile boolean hasSpies;
     private volatile boolean isConnected;
     private volatile boolean isEndOfStream;
     private volatile boolean hasSenderReleased;
     private State state = State.ACTIVE;
+    private long timerId = DeadlineTimerWheel.NULL_DEADLINE;
+    private long timerDeadlineNs;
 
     private final UnsafeBuffer[] termBuffers;
     private final ByteBuffer[] sendBuffers;
@@ -141,12 +151,17 @@ public class NetworkPublication
     private final FlowControl flowControl;
     private final CachedNanoClock nanoClock;
     private final RetransmitHandler retransmitHandler;
+    private final FecParityEncoder fecParityEncoder;
+    private final PacingTokenBucket pacingTokenBucket;
     private final UnsafeBuffer metaDataBuffer;
     private final RawLog rawLog;
     private final AtomicCounter heartbeatsSent;
     private final AtomicCounter retransmitsSent;
     private final AtomicCounter senderFlowControlLimits;
     private final AtomicCounter senderBpe;
+    private final AtomicCounter senderBytesDeferred;
+    private final AtomicCounter senderPacedTime;
+    private final AtomicCounter senderReceiverLag;
     private final AtomicCounter shortSends;
     private final AtomicCounter unblockedPublications;
 
@@ -162,6 +177,9 @@ public class NetworkPublication
         final Position senderPosition,
         final Position senderLimit,
         final AtomicCounter senderBpe,
+        final AtomicCounter senderBytesDeferred,
+        final AtomicCounter senderPacedTime,
+        final AtomicCounter senderReceiverLag,
         final int sessionId,
         final int streamId,
         final int initialTermId,
@@ -194,12 +212,17 @@ public class NetworkPublication
         this.publisherPos = publisherPos;
         this.publisherLimit = publisherLimit;
         this.mtuLength = params.mtuLength;
+        this.weight = params.weight;
         this.initialTermId = initialTermId;
         this.sessionId = sessionId;
         this.streamId = streamId;
         this.spiesSimulateConnection = spiesSimulateConnection;
         this.isExclusive = isExclusive;
         this.signalEos = params.signalEos;
+        this.isLatencyTrace = params.isLatencyTrace;
+        this.isSharded = channelEndpoint.isSharded();
+        this.fecParityEncoder = params.fecGroupSize > 0 ?
+            new FecParityEncoder(sessionId, streamId, params.fecGroupSize, params.mtuLength) : null;
 
         metaDataBuffer = rawLog.metaData();
         setupBuffer = threadLocals.setupBuffer();
@@ -215,6 +238,9 @@ public class NetworkPublication
         senderFlowControlLimits = systemCounters.get(SENDER_FLOW_CONTROL_LIMITS);
         unblockedPublications = systemCounters.get(UNBLOCKED_PUBLICATIONS);
         this.senderBpe = senderBpe;
+        this.senderBytesDeferred = senderBytesDeferred;
+        this.senderPacedTime = senderPacedTime;
+        this.senderReceiverLag = senderReceiverLag;
 
         termBuffers = rawLog.termBuffers();
         sendBuffers = rawLog.sliceTerms();
@@ -225,6 +251,8 @@ public class NetworkPublication
         termLengthMask = termLength - 1;
 
         final long nowNs = nanoClock.nanoTime();
+        pacingTokenBucket = params.pacingRate > 0 ?
+            new PacingTokenBucket(params.pacingRate, params.pacingBurst, nowNs) : null;
         timeOfLastSendOrHeartbeatNs = nowNs - PUBLICATION_HEARTBEAT_TIMEOUT_NS - 1;
         timeOfLastSetupNs = nowNs - PUBLICATION_SETUP_TIMEOUT_NS - 1;
         statusMessageDeadlineNs = spiesSimulateConnection ? nowNs : (nowNs + connectionTimeoutNs);
@@ -249,6 +277,9 @@ public class NetworkPublication
         AeronCloseHelper.close(errorHandler, senderPosition);
         AeronCloseHelper.close(errorHandler, senderLimit);
         AeronCloseHelper.close(errorHandler, senderBpe);
+        AeronCloseHelper.close(errorHandler, senderBytesDeferred);
+        AeronCloseHelper.close(errorHandler, senderPacedTime);
+        AeronCloseHelper.close(errorHandler, senderReceiverLag);
         AeronCloseHelper.closeAll(errorHandler, spyPositions);
 
         for (int i = 0, size = untetheredSubscriptions.size(); i < size; i++)
@@ -260,6 +291,7 @@ public class NetworkPublication
             }
         }
 
+        retransmitHandler.close();
         AeronCloseHelper.close(errorHandler, rawLog);
     }
 
@@ -278,6 +310,27 @@ public class NetworkPublication
         return mtuLength;
     }
 
+    /**
+     * Number of data datagrams covered by each FEC parity frame.
+     *
+     * @return number of data datagrams covered by each FEC parity frame or 0 if FEC is not enabled.
+     */
+    public int fecGroupSize()
+    {
+        return null != fecParityEncoder ? fecParityEncoder.groupSize() : 0;
+    }
+
+    /**
+     * Number of MTU length sends the publication may make per duty cycle of the {@link Sender}.
+     *
+     * @return number of MTU length sends the publication may make per duty cycle of the {@link Sender}.
+     * @see io.aeron.CommonContext#WEIGHT_PARAM_NAME
+     */
+    public int weight()
+    {
+        return weight;
+    }
+
     public long registrationId()
     {
         return registrationId;
@@ -303,6 +356,11 @@ public class NetworkPublication
 
         if (0 == bytesSent)
         {
+            if (null != fecParityEncoder && isFecGroupIdle(nowNs, senderPosition) && fecParityEncoder.flush())
+            {
+                sendFecParityFrame();
+            }
+
             bytesSent = heartbeatMessageCheck(nowNs, activeTermId, termOffset, signalEos && isEndOfStream);
 
             if (spiesSimulateConnection && hasSpies && !hasReceivers)
@@ -315,6 +373,11 @@ public class NetworkPublication
             {
                 senderLimit.setOrdered(flowControl.onIdle(nowNs, senderLimit.get(), senderPosition, isEndOfStream));
             }
+
+            if (null != senderReceiverLag)
+            {
+                senderReceiverLag.setOrdered(flowControl.maxReceiverLag());
+            }
         }
 
         updateHasReceivers(nowNs);
@@ -377,12 +440,17 @@ public class NetworkPublication
                     break;
                 }
 
+                if (null != pacingTokenBucket)
+                {
+                    pacingTokenBucket.consume(available);
+                }
+
                 bytesSent = available + padding(scanOutcome);
                 remainingBytes -= bytesSent;
             }
             while (remainingBytes > 0);
 
-            retransmitsSent.incrementOrdered();
+            SystemCounters.increment(retransmitsSent, isSharded);
         }
     }
 
@@ -547,30 +615,88 @@ public class NetworkPublication
     private int sendData(final long nowNs, final long senderPosition, final int termOffset)
     {
         int bytesSent = 0;
-        final int availableWindow = (int)(senderLimit.get() - senderPosition);
+        final long senderLimit = this.senderLimit.get();
+        int availableWindow = (int)(senderLimit - senderPosition);
         if (availableWindow > 0)
         {
-            final int scanLimit = Math.min(availableWindow, mtuLength);
-            final int activeIndex = indexByPosition(senderPosition, positionBitsToShift);
+            if (null != pacingTokenBucket && !pacingTokenBucket.tryAcquire(nowNs))
+            {
+                if (!isPaced && producerPosition() > senderPosition)
+                {
+                    isPaced = true;
+                    timeOfPacingStartNs = nowNs;
+                }
+
+                return 0;
+            }
 
-            final long scanOutcome = scanForAvailability(termBuffers[activeIndex], termOffset, scanLimit);
-            final int available = available(scanOutcome);
-            if (available > 0)
+            if (isPaced)
             {
-                final ByteBuffer sendBuffer = sendBuffers[activeIndex];
-                sendBuffer.limit(termOffset + available).position(termOffset);
+                isPaced = false;
+                senderPacedTime.getAndAddOrdered(nowNs - timeOfPacingStartNs);
+            }
 
-                if (available == channelEndpoint.send(sendBuffer))
+            long position = senderPosition;
+            int offset = termOffset;
+            int sendsRemaining = weight;
+
+            do
+            {
+                final int scanLimit = Math.min(availableWindow, mtuLength);
+                final int activeIndex = indexByPosition(position, positionBitsToShift);
+
+                final long scanOutcome = scanForAvailability(termBuffers[activeIndex], offset, scanLimit);
+                final int available = available(scanOutcome);
+                if (available <= 0)
                 {
-                    timeOfLastSendOrHeartbeatNs = nowNs;
-                    trackSenderLimits = true;
+                    break;
+                }
 
-                    bytesSent = available;
-                    this.senderPosition.setOrdered(senderPosition + bytesSent + padding(scanOutcome));
+                if (isLatencyTrace)
+                {
+                    LatencyTracer.stampSentFrames(
+                        termBuffers[activeIndex], offset, available, System.nanoTime(), LatencyTrace.epochNanoTime());
                 }
-                else
+
+                final ByteBuffer sendBuffer = sendBuffers[activeIndex];
+                sendBuffer.limit(offset + available).position(offset);
+
+                if (available != channelEndpoint.send(sendBuffer))
                 {
                     shortSends.increment();
+                    break;
+                }
+
+                if (null != fecParityEncoder)
+                {
+                    sendFecParity(position, offset, termBuffers[activeIndex], available);
+                }
+
+                if (null != pacingTokenBucket)
+                {
+                    pacingTokenBucket.consume(available);
+                }
+
+                timeOfLastSendOrHeartbeatNs = nowNs;
+                trackSenderLimits = true;
+
+                bytesSent += available;
+                position += available + padding(scanOutcome);
+                this.senderPosition.setOrdered(position);
+
+                availableWindow = (int)(senderLimit - position);
+                offset = (int)position & termLengthMask;
+            }
+            while (--sendsRemaining > 0 && availableWindow > 0 && hasPacingTokens());
+
+            if (0 == sendsRemaining && availableWindow > 0)
+            {
+                final long deferredLimit = position + Math.min(producerPosition() - position, availableWindow);
+                final long deferredFrom = Math.max(position, bytesDeferredPosition);
+                if (deferredLimit > deferredFrom)
+                {
+                    senderBytesDeferred.getAndAddOrdered(deferredLimit - deferredFrom);
+                    bytesDeferredPosition = deferredLimit;
                 }
             }
         }
@@ -578,12 +704,43 @@ public class NetworkPublication
         {
             trackSenderLimits = false;
             senderBpe.incrementOrdered();
-            senderFlowControlLimits.incrementOrdered();
+            SystemCounters.increment(senderFlowControlLimits, isSharded);
         }
 
         return bytesSent;
     }
 
+    private boolean isFecGroupIdle(final long nowNs, final long senderPosition)
+    {
+        return senderPosition >= producerPosition() ||
+            (timeOfLastSendOrHeartbeatNs + PUBLICATION_HEARTBEAT_TIMEOUT_NS) - nowNs < 0;
+    }
+
+    private boolean hasPacingTokens()
+    {
+        return null == pacingTokenBucket || pacingTokenBucket.tokens() > 0;
+    }
+
+    private void sendFecParity(
+        final long position, final int termOffset, final UnsafeBuffer termBuffer, final int length)
+    {
+        final int termId = computeTermIdFromPosition(position, positionBitsToShift, initialTermId);
+        if (fecParityEncoder.onDataSent(termId, termOffset, termBuffer, length))
+        {
+            sendFecParityFrame();
+        }
+    }
+
+    private void sendFecParityFrame()
+    {
+        final ByteBuffer parityBuffer = fecParityEncoder.parityBuffer();
+        final int parityLength = parityBuffer.remaining();
+        if (parityLength != channelEndpoint.send(parityBuffer))
+        {
+            shortSends.increment();
+        }
+    }
+
     private void setupMessageCheck(final long nowNs, final int activeTermId, final int termOffset)
     {
         if ((timeOfLastSetupNs + PUBLICATION_SETUP_TIMEOUT_NS) - nowNs < 0)
@@ -636,7 +793,7 @@ public class NetworkPublication
             }
 
             timeOfLastSendOrHeartbeatNs = nowNs;
-            heartbeatsSent.incrementOrdered();
+            SystemCounters.increment(heartbeatsSent, isSharded);
         }
 
         return bytesSent;
@@ -741,16 +898,10 @@ public class NetworkPublication
     private void checkUntetheredSubscriptions(final long nowNs, final DriverConductor conductor)
     {
         final ArrayList<UntetheredSubscription> untetheredSubscriptions = this.untetheredSubscriptions;
-        final int untetheredSubscriptionsSize = untetheredSubscriptions.size();
-        if (0 == untetheredSubscriptionsSize)
-        {
-            return;
-        }
-
         final long senderPosition = this.senderPosition.getVolatile();
         final long untetheredWindowLimit = (senderPosition - termWindowLength) + (termWindowLength >> 3);
 
-        for (int lastIndex = untetheredSubscriptionsSize - 1, i = lastIndex; i >= 0; i--)
+        for (int i = 0, size = untetheredSubscriptions.size(); i < size; i++)
         {
             final UntetheredSubscription untethered = untetheredSubscriptions.get(i);
             switch (untethered.state)
@@ -765,6 +916,11 @@ public class NetworkPublication
                         conductor.notifyUnavailableImageLink(registrationId, untethered.subscriptionLink);
                         untethered.state = UntetheredSubscription.LINGER;
                         untethered.timeOfLastUpdateNs = nowNs;
+                        scheduleDeadline(nowNs + untetheredWindowLimitTimeoutNs, conductor);
+                    }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs, conductor);
                     }
                     break;
 
@@ -774,6 +930,11 @@ public class NetworkPublication
                         spyPositions = ArrayUtil.remove(spyPositions, untethered.position);
                         untethered.state = UntetheredSubscription.RESTING;
                         untethered.timeOfLastUpdateNs = nowNs;
+                        scheduleDeadline(nowNs + untetheredRestingTimeoutNs, conductor);
+                    }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs, conductor);
                     }
                     break;
 
@@ -793,11 +954,37 @@ public class NetworkPublication
                         untethered.state = UntetheredSubscription.ACTIVE;
                         untethered.timeOfLastUpdateNs = nowNs;
                     }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredRestingTimeoutNs, conductor);
+                    }
                     break;
             }
         }
     }
 
+    public void onDeadline(final long nowNs, final long nowMs, final DriverConductor conductor)
+    {
+        timerId = DeadlineTimerWheel.NULL_DEADLINE;
+        conductor.onNetworkPublicationDeadline(this, nowNs, nowMs);
+    }
+
+    /**
+     * Schedule the next time event on the conductor timer wheel unless one is already due sooner.
+     *
+     * @param deadlineNs at which the next time event is due.
+     * @param conductor  on which to schedule.
+     */
+    void scheduleDeadline(final long deadlineNs, final DriverConductor conductor)
+    {
+        if (DeadlineTimerWheel.NULL_DEADLINE == timerId || deadlineNs - timerDeadlineNs < 0)
+        {
+            conductor.cancelDeadline(timerId);
+            timerDeadlineNs = deadlineNs;
+            timerId = conductor.scheduleDeadline(deadlineNs, this);
+        }
+    }
+
     public void onTimeEvent(final long timeNs, final long timeMs, final DriverConductor conductor)
     {
         switch (state)
@@ -842,17 +1029,22 @@ public class NetworkPublication
                 {
                     timeOfLastActivityNs = timeNs;
                     state = State.LINGER;
+                    scheduleDeadline(timeNs + lingerTimeoutNs, conductor);
                 }
                 break;
             }
 
             case LINGER:
-                if ((timeOfLastActivityNs + lingerTimeoutNs) - timeNs < 0)
+                if ((timeOfLastActivityNs + lingerTimeoutNs) - timeNs <= 0)
                 {
                     channelEndpoint.decRef();
                     conductor.cleanupPublication(this);
                     state = State.CLOSING;
                 }
+                else
+                {
+                    scheduleDeadline(timeOfLastActivityNs + lingerTimeoutNs, conductor);
+                }
                 break;
         }
     }
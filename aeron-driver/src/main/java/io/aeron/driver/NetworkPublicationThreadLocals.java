@@ -57,6 +57,7 @@ class NetworkPublicationThreadLocals
 
         setupHeader
             .version(HeaderFlyweight.CURRENT_VERSION)
+            .flags(SetupFlyweight.NAK_RANGES_FLAG)
             .headerType(HeaderFlyweight.HDR_TYPE_SETUP)
             .frameLength(SetupFlyweight.HEADER_LENGTH);
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket driven by a nanosecond clock for pacing the bytes sent by a {@link NetworkPublication}.
+ * <p>
+ * Tokens accrue at the rate up to the burst length. A send is permitted while there are tokens and the bytes sent are
+ * then taken, which can leave the bucket in deficit by less than a datagram so a datagram is never split or starved.
+ */
+final class PacingTokenBucket
+{
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long rateBytesPerSecond;
+    private final long burstLength;
+    private final long fillTimeNs;
+    private long tokens;
+    private long lastRefillNs;
+
+    /**
+     * Construct a full bucket.
+     *
+     * @param rateBytesPerSecond at which tokens accrue.
+     * @param burstLength        in bytes which the bucket can hold.
+     * @param nowNs              current time.
+     */
+    PacingTokenBucket(final long rateBytesPerSecond, final int burstLength, final long nowNs)
+    {
+        this.rateBytesPerSecond = rateBytesPerSecond;
+        this.burstLength = burstLength;
+        this.fillTimeNs = (burstLength * NANOS_PER_SECOND) / rateBytesPerSecond;
+        this.tokens = burstLength;
+        this.lastRefillNs = nowNs;
+    }
+
+    /**
+     * Refill the bucket for the time elapsed and check if a send is permitted.
+     *
+     * @param nowNs current time.
+     * @return true if a send is permitted otherwise false if the sender is paced.
+     */
+    boolean tryAcquire(final long nowNs)
+    {
+        final long elapsedNs = nowNs - lastRefillNs;
+        if (elapsedNs >= fillTimeNs)
+        {
+            tokens = burstLength;
+            lastRefillNs = nowNs;
+        }
+        else if (elapsedNs > 0)
+        {
+            final long accrued = (elapsedNs * rateBytesPerSecond) / NANOS_PER_SECOND;
+            if (accrued > 0)
+            {
+                tokens = Math.min(burstLength, tokens + accrued);
+                lastRefillNs += (accrued * NANOS_PER_SECOND) / rateBytesPerSecond;
+            }
+        }
+
+        return tokens > 0;
+    }
+
+    /**
+     * Take tokens for bytes which have been sent.
+     *
+     * @param bytes which have been sent.
+     */
+    void consume(final int bytes)
+    {
+        tokens -= bytes;
+    }
+
+    /**
+     * Tokens available in bytes, which is negative when in deficit.
+     *
+     * @return tokens available in bytes.
+     */
+    long tokens()
+    {
+        return tokens;
+    }
+}
@@ -17,6 +17,7 @@ package io.aeron.driver;
 
 import io.aeron.Aeron;
 import io.aeron.AeronCloseHelper;
+import io.aeron.LatencyTrace;
 import io.aeron.driver.buffer.RawLog;
 import io.aeron.driver.media.ImageConnection;
 import io.aeron.driver.media.ReceiveChannelEndpoint;
@@ -26,7 +27,11 @@ import io.aeron.driver.status.SystemCounters;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.logbuffer.TermRebuilder;
 import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.FecParityFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.DeadlineTimerWheel;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.ArrayUtil;
@@ -46,6 +51,7 @@ import static io.aeron.driver.LossDetector.rebuildOffset;
 import static io.aeron.driver.PublicationImage.State.ACTIVE;
 import static io.aeron.driver.PublicationImage.State.INIT;
 import static io.aeron.driver.status.SystemCounterDescriptor.*;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
 import static io.aeron.logbuffer.LogBufferDescriptor.*;
 import static io.aeron.logbuffer.TermGapFiller.tryFillGap;
 import static org.agrona.BitUtil.SIZE_OF_LONG;
@@ -75,6 +81,7 @@ class PublicationImagePadding2 extends PublicationImageConductorFields
 class PublicationImageReceiverFields extends PublicationImagePadding2
 {
     protected boolean isEndOfStream = false;
+    protected boolean isNakRangesSupported = false;
     protected long lastPacketTimestampNs;
     protected ImageConnection[] imageConnections = new ImageConnection[1];
 }
@@ -90,7 +97,7 @@ class PublicationImagePadding3 extends PublicationImageReceiverFields
  */
 public class PublicationImage
     extends PublicationImagePadding3
-    implements LossHandler, DriverManagedResource, Subscribable
+    implements LossHandler, DriverManagedResource, Subscribable, DeadlineHandler
 {
     enum State
     {
@@ -111,10 +118,18 @@ public class PublicationImage
     private volatile long beginLossChange = Aeron.NULL_VALUE;
     private volatile long endLossChange = Aeron.NULL_VALUE;
     private int lossTermId;
-    private int lossTermOffset;
-    private int lossLength;
+    private int lossGapCount;
+    private final int[] lossTermOffsets;
+    private final int[] lossLengths;
+    private final int[] pendingLossTermOffsets;
+    private final int[] pendingLossLengths;
+    private int nakTermId;
+    private int nakGapCount = 0;
+    private UnsafeBuffer fecRecoveryBuffer;
 
     private long timeOfLastStateChangeNs;
+    private long timerId = DeadlineTimerWheel.NULL_DEADLINE;
+    private long timerDeadlineNs;
 
     private final long correlationId;
     private final long imageLivenessTimeoutNs;
@@ -126,6 +141,7 @@ public class PublicationImage
     private final int termLengthMask;
     private final int initialTermId;
     private final boolean isReliable;
+    private final boolean isSharded;
 
     private boolean isRebuilding = true;
     private volatile State state = INIT;
@@ -136,16 +152,22 @@ public class PublicationImage
     private final UnsafeBuffer[] termBuffers;
     private final Position hwmPosition;
     private final LossDetector lossDetector;
+    private final TermFillBitmap fillBitmap;
     private final CongestionControl congestionControl;
+    private final StatusMessagePolicy statusMessagePolicy;
+    private final LatencyTracer latencyTracer;
     private final ErrorHandler errorHandler;
     private final Position rebuildPosition;
     private final InetSocketAddress sourceAddress;
     private final AtomicCounter heartbeatsReceived;
     private final AtomicCounter statusMessagesSent;
+    private final AtomicCounter imageStatusMessagesSent;
     private final AtomicCounter nakMessagesSent;
     private final AtomicCounter flowControlUnderRuns;
     private final AtomicCounter flowControlOverRuns;
     private final AtomicCounter lossGapFills;
+    private final AtomicCounter fecRecovered;
+    private final AtomicCounter nakRecovered;
     private final CachedEpochClock cachedEpochClock;
     private final RawLog rawLog;
 
@@ -164,15 +186,20 @@ public class PublicationImage
         final int initialTermOffset,
         final RawLog rawLog,
         final FeedbackDelayGenerator lossFeedbackDelayGenerator,
+        final int lossMaxGaps,
+        final boolean isGapBitmapEnabled,
         final ArrayList<SubscriberPosition> subscriberPositions,
         final Position hwmPosition,
         final Position rebuildPosition,
+        final AtomicCounter imageStatusMessagesSent,
         final NanoClock nanoClock,
         final CachedNanoClock cachedNanoClock,
         final CachedEpochClock cachedEpochClock,
         final SystemCounters systemCounters,
         final InetSocketAddress sourceAddress,
         final CongestionControl congestionControl,
+        final StatusMessagePolicy statusMessagePolicy,
+        final LatencyTracer latencyTracer,
         final LossReport lossReport,
         final ErrorHandler errorHandler)
     {
@@ -189,6 +216,9 @@ public class PublicationImage
         this.sourceAddress = sourceAddress;
         this.initialTermId = initialTermId;
         this.congestionControl = congestionControl;
+        this.statusMessagePolicy = statusMessagePolicy;
+        this.latencyTracer = latencyTracer;
+        this.imageStatusMessagesSent = imageStatusMessagesSent;
         this.errorHandler = errorHandler;
         this.lossReport = lossReport;
 
@@ -202,6 +232,7 @@ public class PublicationImage
 
         this.subscriberPositions = positionArray(subscriberPositions, nowNs);
         this.isReliable = subscriberPositions.get(0).subscription().isReliable();
+        this.isSharded = channelEndpoint.isSharded();
 
         heartbeatsReceived = systemCounters.get(HEARTBEATS_RECEIVED);
         statusMessagesSent = systemCounters.get(STATUS_MESSAGES_SENT);
@@ -209,14 +240,21 @@ public class PublicationImage
         flowControlUnderRuns = systemCounters.get(FLOW_CONTROL_UNDER_RUNS);
         flowControlOverRuns = systemCounters.get(FLOW_CONTROL_OVER_RUNS);
         lossGapFills = systemCounters.get(LOSS_GAP_FILLS);
+        fecRecovered = systemCounters.get(FEC_RECOVERED);
+        nakRecovered = systemCounters.get(NAK_RECOVERED);
 
         imageConnections = ArrayUtil.ensureCapacity(imageConnections, transportIndex + 1);
         imageConnections[transportIndex] = new ImageConnection(nowNs, controlAddress);
 
+        final int termLength = rawLog.termLength();
         termBuffers = rawLog.termBuffers();
-        lossDetector = new LossDetector(lossFeedbackDelayGenerator, this);
+        fillBitmap = isGapBitmapEnabled ? new TermFillBitmap(termLength) : null;
+        lossDetector = new LossDetector(lossFeedbackDelayGenerator, this, lossMaxGaps, fillBitmap);
+        lossTermOffsets = new int[lossMaxGaps];
+        lossLengths = new int[lossMaxGaps];
+        pendingLossTermOffsets = new int[lossMaxGaps];
+        pendingLossLengths = new int[lossMaxGaps];
 
-        final int termLength = rawLog.termLength();
         termLengthMask = termLength - 1;
         positionBitsToShift = LogBufferDescriptor.positionBitsToShift(termLength);
 
@@ -246,6 +284,7 @@ public class PublicationImage
     {
         AeronCloseHelper.close(errorHandler, hwmPosition);
         AeronCloseHelper.close(errorHandler, rebuildPosition);
+        AeronCloseHelper.close(errorHandler, imageStatusMessagesSent);
         AeronCloseHelper.closeAll(errorHandler, subscriberPositions);
 
         for (int i = 0, size = untetheredSubscriptions.size(); i < size; i++)
@@ -258,6 +297,7 @@ public class PublicationImage
         }
 
         AeronCloseHelper.close(errorHandler, congestionControl);
+        AeronCloseHelper.close(errorHandler, latencyTracer);
         AeronCloseHelper.close(errorHandler, rawLog);
     }
 
@@ -352,26 +392,47 @@ public class PublicationImage
         beginLossChange = changeNumber;
 
         lossTermId = termId;
-        lossTermOffset = termOffset;
-        lossLength = length;
+        lossTermOffsets[0] = termOffset;
+        lossLengths[0] = length;
+        lossGapCount = 1;
 
         endLossChange = changeNumber;
 
-        if (null != reportEntry)
+        recordLoss(length);
+    }
+
+    /**
+     * Called from the {@link LossDetector} when multiple gaps are detected by the {@link DriverConductor} thread.
+     * <p>
+     * {@inheritDoc}
+     */
+    public void onGapsDetected(final int termId, final int[] termOffsets, final int[] lengths, final int gapCount)
+    {
+        final long changeNumber = beginLossChange + 1;
+
+        beginLossChange = changeNumber;
+
+        lossTermId = termId;
+        System.arraycopy(termOffsets, 0, lossTermOffsets, 0, gapCount);
+        System.arraycopy(lengths, 0, lossLengths, 0, gapCount);
+        lossGapCount = gapCount;
+
+        endLossChange = changeNumber;
+
+        for (int i = 0; i < gapCount; i++)
         {
-            reportEntry.recordObservation(length, cachedEpochClock.time());
+            recordLoss(lengths[i]);
         }
-        else if (null != lossReport)
-        {
-            final String source = Configuration.sourceIdentity(sourceAddress);
-            final long timeMs = cachedEpochClock.time();
-            reportEntry = lossReport.createEntry(length, timeMs, sessionId, streamId, channel(), source);
+    }
 
-            if (null == reportEntry)
-            {
-                lossReport = null;
-            }
-        }
+    /**
+     * Set from the {@link Receiver} thread when the source advertises it accepts NAKs with a list of ranges.
+     *
+     * @param isNakRangesSupported true if the source accepts NAKs with a list of ranges.
+     */
+    void nakRangesSupported(final boolean isNakRangesSupported)
+    {
+        this.isNakRangesSupported = isNakRangesSupported;
     }
 
     /**
@@ -503,11 +564,15 @@ public class PublicationImage
             lossFound(scanOutcome));
 
         final int windowLength = CongestionControl.receiverWindowLength(ccOutcome);
-        final int threshold = CongestionControl.threshold(windowLength);
 
         if (CongestionControl.shouldForceStatusMessage(ccOutcome) ||
-            ((timeOfLastStatusMessageScheduleNs + statusMessageTimeoutNs) - nowNs < 0) ||
-            (minSubscriberPosition > (nextSmPosition + threshold)))
+            statusMessagePolicy.shouldScheduleStatusMessage(
+                nowNs,
+                minSubscriberPosition,
+                nextSmPosition,
+                timeOfLastStatusMessageScheduleNs,
+                windowLength,
+                statusMessageTimeoutNs))
         {
             cleanBufferTo(minSubscriberPosition - (termLengthMask + 1));
             scheduleStatusMessage(nowNs, minSubscriberPosition, windowLength);
@@ -554,6 +619,124 @@ public class PublicationImage
         final int length,
         final int transportIndex,
         final InetSocketAddress srcAddress)
+    {
+        return insertPacket(termId, termOffset, buffer, length, transportIndex, srcAddress, false);
+    }
+
+    /**
+     * Called from the {@link Receiver} upon receiving a FEC parity frame covering a group of datagrams. If exactly one
+     * datagram of the group is missing then it is rebuilt from the parity and the datagrams which have arrived, and
+     * then inserted as if it had been received.
+     *
+     * @param header         of the parity frame.
+     * @param buffer         containing the parity frame.
+     * @param length         of the parity frame.
+     * @param transportIndex from which the frame came.
+     * @param srcAddress     of the source.
+     */
+    void onFecParityFrame(
+        final FecParityFlyweight header,
+        final UnsafeBuffer buffer,
+        final int length,
+        final int transportIndex,
+        final InetSocketAddress srcAddress)
+    {
+        final int groupSize = header.groupSize();
+        final int payloadOffset = FecParityFlyweight.payloadOffset(groupSize);
+        if (groupSize < FecParityFlyweight.MIN_GROUP_SIZE ||
+            groupSize > FecParityFlyweight.MAX_GROUP_SIZE ||
+            length <= payloadOffset)
+        {
+            return;
+        }
+
+        final int termId = header.termId();
+        final int termLength = termLengthMask + 1;
+        final long termBeginPosition = computePosition(termId, 0, positionBitsToShift, initialTermId);
+        final long rebuildPosition = this.rebuildPosition.get();
+        if (termBeginPosition + header.termOffset(0) < rebuildPosition - (termLength >> 1))
+        {
+            return;
+        }
+
+        final int payloadLength = length - payloadOffset;
+        final UnsafeBuffer termBuffer = termBuffers[indexByTerm(initialTermId, termId)];
+        int missingIndex = -1;
+
+        for (int i = 0; i < groupSize; i++)
+        {
+            final int entryTermOffset = header.termOffset(i);
+            final int entryLength = header.length(i);
+            if (0 == entryLength)
+            {
+                continue;
+            }
+
+            if (entryTermOffset < 0 ||
+                entryLength < DataHeaderFlyweight.HEADER_LENGTH ||
+                entryLength > payloadLength ||
+                entryTermOffset > termLength - entryLength)
+            {
+                return;
+            }
+
+            if (0 == termBuffer.getIntVolatile(entryTermOffset))
+            {
+                if (-1 != missingIndex)
+                {
+                    return;
+                }
+
+                missingIndex = i;
+            }
+            else if (termBuffer.getInt(entryTermOffset + DataHeaderFlyweight.TERM_ID_FIELD_OFFSET) != termId)
+            {
+                return;
+            }
+        }
+
+        if (-1 != missingIndex)
+        {
+            final int missingTermOffset = header.termOffset(missingIndex);
+            final int missingLength = header.length(missingIndex);
+            final UnsafeBuffer recoveryBuffer = fecRecoveryBuffer(missingLength);
+
+            recoveryBuffer.putBytes(0, buffer, payloadOffset, missingLength);
+            for (int i = 0; i < groupSize; i++)
+            {
+                if (i != missingIndex)
+                {
+                    final int entryTermOffset = header.termOffset(i);
+                    final int xorLength = Math.min(header.length(i), missingLength);
+                    FecParityEncoder.xor(recoveryBuffer, 0, termBuffer, entryTermOffset, xorLength);
+
+                    if (null != latencyTracer && !latencyTracer.unstampReceivedFrames(
+                        recoveryBuffer, termBuffer, entryTermOffset, xorLength, termBeginPosition))
+                    {
+                        return;
+                    }
+                }
+            }
+
+            if (recoveryBuffer.getInt(DataHeaderFlyweight.FRAME_LENGTH_FIELD_OFFSET) > 0 &&
+                recoveryBuffer.getInt(DataHeaderFlyweight.TERM_OFFSET_FIELD_OFFSET) == missingTermOffset &&
+                recoveryBuffer.getInt(DataHeaderFlyweight.TERM_ID_FIELD_OFFSET) == termId &&
+                recoveryBuffer.getInt(DataHeaderFlyweight.SESSION_ID_FIELD_OFFSET) == sessionId)
+            {
+                insertPacket(
+                    termId, missingTermOffset, recoveryBuffer, missingLength, transportIndex, srcAddress, true);
+            }
+        }
+    }
+
+    private int insertPacket(
+        final int termId,
+        final int termOffset,
+        final UnsafeBuffer buffer,
+        final int length,
+        final int transportIndex,
+        final InetSocketAddress srcAddress,
+        final boolean isFecRecovery)
     {
         final boolean isHeartbeat = DataHeaderFlyweight.isHeartbeat(buffer, length);
         final long packetPosition = computePosition(termId, termOffset, positionBitsToShift, initialTermId);
@@ -575,12 +758,32 @@ public class PublicationImage
                         isEndOfStream = true;
                     }
 
-                    heartbeatsReceived.incrementOrdered();
+                    SystemCounters.increment(heartbeatsReceived, isSharded);
                 }
                 else
                 {
-                    final UnsafeBuffer termBuffer = termBuffers[indexByPosition(packetPosition, positionBitsToShift)];
+                    final int partitionIndex = indexByPosition(packetPosition, positionBitsToShift);
+                    final UnsafeBuffer termBuffer = termBuffers[partitionIndex];
+                    if (isFecRecovery)
+                    {
+                        SystemCounters.increment(fecRecovered, isSharded);
+                    }
+                    else if (nakGapCount > 0 && termId == nakTermId && isNakRecovery(termBuffer, termOffset))
+                    {
+                        SystemCounters.increment(nakRecovered, isSharded);
+                    }
+
+                    if (null != latencyTracer && 0 == termBuffer.getInt(termOffset))
+                    {
+                        latencyTracer.onFramesReceived(
+                            buffer, length, packetPosition, System.nanoTime(), LatencyTrace.epochNanoTime());
+                    }
+
                     TermRebuilder.insert(termBuffer, termOffset, buffer, length);
+                    if (null != fillBitmap)
+                    {
+                        fillBitmap.fillPacket(partitionIndex, termOffset, buffer, length);
+                    }
                 }
 
                 hwmPosition.proposeMaxOrdered(proposedPosition);
@@ -641,7 +844,8 @@ public class PublicationImage
                     channelEndpoint.sendStatusMessage(
                         imageConnections, sessionId, streamId, termId, termOffset, receiverWindowLength, (byte)0);
 
-                    statusMessagesSent.incrementOrdered();
+                    SystemCounters.increment(statusMessagesSent, isSharded);
+                    imageStatusMessagesSent.incrementOrdered();
 
                     lastSmPosition = smPosition;
                     lastSmWindowLimit = smPosition + receiverWindowLength;
@@ -669,9 +873,11 @@ public class PublicationImage
 
         if (changeNumber != lastLossChangeNumber)
         {
+            nakGapCount = 0;
             final int termId = lossTermId;
-            final int termOffset = lossTermOffset;
-            final int length = lossLength;
+            final int gapCount = lossGapCount;
+            System.arraycopy(lossTermOffsets, 0, pendingLossTermOffsets, 0, gapCount);
+            System.arraycopy(lossLengths, 0, pendingLossLengths, 0, gapCount);
 
             UNSAFE.loadFence();
 
@@ -679,15 +885,26 @@ public class PublicationImage
             {
                 if (isReliable)
                 {
-                    channelEndpoint.sendNakMessage(imageConnections, sessionId, streamId, termId, termOffset, length);
-                    nakMessagesSent.incrementOrdered();
+                    sendNaks(termId, gapCount);
+                    nakTermId = termId;
+                    nakGapCount = gapCount;
                 }
                 else
                 {
-                    final UnsafeBuffer termBuffer = termBuffers[indexByTerm(initialTermId, termId)];
-                    if (tryFillGap(rawLog.metaData(), termBuffer, termId, termOffset, length))
+                    final int partitionIndex = indexByTerm(initialTermId, termId);
+                    final UnsafeBuffer termBuffer = termBuffers[partitionIndex];
+                    for (int i = 0; i < gapCount; i++)
                     {
-                        lossGapFills.incrementOrdered();
+                        final int termOffset = pendingLossTermOffsets[i];
+                        final int length = pendingLossLengths[i];
+                        if (tryFillGap(rawLog.metaData(), termBuffer, termId, termOffset, length))
+                        {
+                            if (null != fillBitmap)
+                            {
+                                fillBitmap.fill(partitionIndex, termOffset, length);
+                            }
+                            SystemCounters.increment(lossGapFills, isSharded);
+                        }
                     }
                 }
 
@@ -739,6 +956,7 @@ public class PublicationImage
         final long rttInNs = nowNs - header.echoTimestampNs() - header.receptionDelta();
 
         congestionControl.onRttMeasurement(nowNs, rttInNs, srcAddress);
+        statusMessagePolicy.onRttMeasurement(nowNs, rttInNs, srcAddress);
     }
 
     /**
@@ -778,19 +996,46 @@ public class PublicationImage
                     state = State.LINGER;
                     timeOfLastStateChangeNs = timeNs;
                     conductor.transitionToLinger(this);
+                    scheduleDeadline(timeNs + imageLivenessTimeoutNs, conductor);
                 }
                 break;
 
             case LINGER:
-                if (hasNoSubscribers() || ((timeOfLastStateChangeNs + imageLivenessTimeoutNs) - timeNs < 0))
+                if (hasNoSubscribers() || (timeOfLastStateChangeNs + imageLivenessTimeoutNs) - timeNs <= 0)
                 {
                     state = State.DONE;
                     conductor.cleanupImage(this);
                 }
+                else
+                {
+                    scheduleDeadline(timeOfLastStateChangeNs + imageLivenessTimeoutNs, conductor);
+                }
                 break;
         }
     }
 
+    public void onDeadline(final long nowNs, final long nowMs, final DriverConductor conductor)
+    {
+        timerId = DeadlineTimerWheel.NULL_DEADLINE;
+        conductor.onPublicationImageDeadline(this, nowNs, nowMs);
+    }
+
+    /**
+     * Schedule the next time event on the conductor timer wheel unless one is already due sooner.
+     *
+     * @param deadlineNs at which the next time event is due.
+     * @param conductor  on which to schedule.
+     */
+    void scheduleDeadline(final long deadlineNs, final DriverConductor conductor)
+    {
+        if (DeadlineTimerWheel.NULL_DEADLINE == timerId || deadlineNs - timerDeadlineNs < 0)
+        {
+            conductor.cancelDeadline(timerId);
+            timerDeadlineNs = deadlineNs;
+            timerId = conductor.scheduleDeadline(deadlineNs, this);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -825,7 +1070,7 @@ public class PublicationImage
 
         if (isFlowControlUnderRun)
         {
-            flowControlUnderRuns.incrementOrdered();
+            SystemCounters.increment(flowControlUnderRuns, isSharded);
         }
 
         return isFlowControlUnderRun;
@@ -837,7 +1082,7 @@ public class PublicationImage
 
         if (isFlowControlOverRun)
         {
-            flowControlOverRuns.incrementOrdered();
+            SystemCounters.increment(flowControlOverRuns, isSharded);
         }
 
         return isFlowControlOverRun;
@@ -849,12 +1094,17 @@ public class PublicationImage
         if (position > cleanPosition)
         {
             final int bytesForCleaning = (int)(position - cleanPosition);
-            final UnsafeBuffer dirtyTerm = termBuffers[indexByPosition(cleanPosition, positionBitsToShift)];
+            final int partitionIndex = indexByPosition(cleanPosition, positionBitsToShift);
+            final UnsafeBuffer dirtyTerm = termBuffers[partitionIndex];
             final int termOffset = (int)cleanPosition & termLengthMask;
             final int length = Math.min(bytesForCleaning, dirtyTerm.capacity() - termOffset);
 
             dirtyTerm.setMemory(termOffset, length - SIZE_OF_LONG, (byte)0);
             dirtyTerm.putLongOrdered(termOffset + (length - SIZE_OF_LONG), 0);
+            if (null != fillBitmap)
+            {
+                fillBitmap.clear(partitionIndex, termOffset, length);
+            }
             this.cleanPosition = cleanPosition + length;
         }
     }
@@ -917,26 +1167,9 @@ public class PublicationImage
     private void checkUntetheredSubscriptions(final long nowNs, final DriverConductor conductor)
     {
         final ArrayList<UntetheredSubscription> untetheredSubscriptions = this.untetheredSubscriptions;
-        final int untetheredSubscriptionsSize = untetheredSubscriptions.size();
-        if (0 == untetheredSubscriptionsSize)
-        {
-            return;
-        }
+        final long untetheredWindowLimit = untetheredWindowLimit();
 
-        long maxConsumerPosition = 0;
-        for (final ReadablePosition subscriberPosition : subscriberPositions)
-        {
-            final long position = subscriberPosition.getVolatile();
-            if (position > maxConsumerPosition)
-            {
-                maxConsumerPosition = position;
-            }
-        }
-
-        final int windowLength = nextSmReceiverWindowLength;
-        final long untetheredWindowLimit = (maxConsumerPosition - windowLength) + (windowLength >> 3);
-
-        for (int lastIndex = untetheredSubscriptionsSize - 1, i = lastIndex; i >= 0; i--)
+        for (int i = 0, size = untetheredSubscriptions.size(); i < size; i++)
         {
             final UntetheredSubscription untethered = untetheredSubscriptions.get(i);
             switch (untethered.state)
@@ -951,6 +1184,11 @@ public class PublicationImage
                         conductor.notifyUnavailableImageLink(correlationId, untethered.subscriptionLink);
                         untethered.state = UntetheredSubscription.LINGER;
                         untethered.timeOfLastUpdateNs = nowNs;
+                        scheduleDeadline(nowNs + untetheredWindowLimitTimeoutNs, conductor);
+                    }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs, conductor);
                     }
                     break;
 
@@ -960,6 +1198,11 @@ public class PublicationImage
                         subscriberPositions = ArrayUtil.remove(subscriberPositions, untethered.position);
                         untethered.state = UntetheredSubscription.RESTING;
                         untethered.timeOfLastUpdateNs = nowNs;
+                        scheduleDeadline(nowNs + untetheredRestingTimeoutNs, conductor);
+                    }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredWindowLimitTimeoutNs, conductor);
                     }
                     break;
 
@@ -978,11 +1221,32 @@ public class PublicationImage
                         untethered.state = UntetheredSubscription.ACTIVE;
                         untethered.timeOfLastUpdateNs = nowNs;
                     }
+                    else
+                    {
+                        scheduleDeadline(untethered.timeOfLastUpdateNs + untetheredRestingTimeoutNs, conductor);
+                    }
                     break;
             }
         }
     }
 
+    private long untetheredWindowLimit()
+    {
+        long maxConsumerPosition = 0;
+        for (final ReadablePosition subscriberPosition : subscriberPositions)
+        {
+            final long position = subscriberPosition.getVolatile();
+            if (position > maxConsumerPosition)
+            {
+                maxConsumerPosition = position;
+            }
+        }
+
+        final int windowLength = nextSmReceiverWindowLength;
+
+        return (maxConsumerPosition - windowLength) + (windowLength >> 3);
+    }
+
     private void updateActiveTransportCount()
     {
         final long nowNs = cachedNanoClock.nanoTime();
@@ -1018,4 +1282,70 @@ public class PublicationImage
 
         return positions;
     }
+
+    private void recordLoss(final int length)
+    {
+        if (null != reportEntry)
+        {
+            reportEntry.recordObservation(length, cachedEpochClock.time());
+        }
+        else if (null != lossReport)
+        {
+            final String source = Configuration.sourceIdentity(sourceAddress);
+            final long timeMs = cachedEpochClock.time();
+            reportEntry = lossReport.createEntry(length, timeMs, sessionId, streamId, channel(), source);
+
+            if (null == reportEntry)
+            {
+                lossReport = null;
+            }
+        }
+    }
+
+    private void sendNaks(final int termId, final int gapCount)
+    {
+        if (gapCount > 1 && isNakRangesSupported)
+        {
+            channelEndpoint.sendNakRangesMessage(
+                imageConnections, sessionId, streamId, termId, pendingLossTermOffsets, pendingLossLengths, gapCount);
+            SystemCounters.increment(nakMessagesSent, isSharded);
+        }
+        else
+        {
+            for (int i = 0; i < gapCount; i++)
+            {
+                channelEndpoint.sendNakMessage(
+                    imageConnections, sessionId, streamId, termId, pendingLossTermOffsets[i], pendingLossLengths[i]);
+                SystemCounters.increment(nakMessagesSent, isSharded);
+            }
+        }
+    }
+
+    private boolean isNakRecovery(final UnsafeBuffer termBuffer, final int termOffset)
+    {
+        if (0 == termBuffer.getInt(termOffset))
+        {
+            for (int i = 0; i < nakGapCount; i++)
+            {
+                final int gapOffset = pendingLossTermOffsets[i];
+                if (termOffset >= gapOffset && termOffset < gapOffset + pendingLossLengths[i])
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private UnsafeBuffer fecRecoveryBuffer(final int length)
+    {
+        if (null == fecRecoveryBuffer || fecRecoveryBuffer.capacity() < length)
+        {
+            fecRecoveryBuffer = new UnsafeBuffer(BufferUtil.allocateDirectAligned(
+                BitUtil.align(length, FRAME_ALIGNMENT), BitUtil.CACHE_LINE_LENGTH));
+        }
+
+        return fecRecoveryBuffer;
+    }
 }
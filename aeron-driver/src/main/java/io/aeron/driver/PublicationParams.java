@@ -19,6 +19,8 @@ import io.aeron.driver.buffer.RawLog;
 import io.aeron.ChannelUri;
 import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.logbuffer.LogBufferDescriptor;
+import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.FecParityFlyweight;
 import org.agrona.SystemUtil;
 
 import static io.aeron.ChannelUri.INVALID_TAG;
@@ -34,11 +36,16 @@ final class PublicationParams
     int termId = 0;
     int termOffset = 0;
     int sessionId = 0;
+    int weight = 1;
+    int fecGroupSize = 0;
+    long pacingRate = 0;
+    int pacingBurst = 0;
     boolean hasPosition = false;
     boolean hasSessionId = false;
     boolean isSessionIdTagged = false;
     boolean isSparse;
     boolean signalEos = true;
+    boolean isLatencyTrace = false;
 
     PublicationParams()
     {
@@ -60,6 +67,10 @@ final class PublicationParams
         params.getLingerTimeoutNs(channelUri);
         params.getSparse(channelUri);
         params.getEos(channelUri);
+        params.getWeight(channelUri);
+        params.getFecGroupSize(channelUri);
+        params.getPacing(channelUri);
+        params.getLatencyTrace(channelUri);
 
         int count = 0;
 
@@ -220,6 +231,16 @@ final class PublicationParams
         }
     }
 
+    static void confirmWeightMatch(
+        final ChannelUri channelUri, final PublicationParams params, final int existingWeight)
+    {
+        if (channelUri.containsKey(WEIGHT_PARAM_NAME) && existingWeight != params.weight)
+        {
+            throw new IllegalStateException("existing publication has different weight: existing=" +
+                existingWeight + " requested=" + params.weight);
+        }
+    }
+
     private void getLingerTimeoutNs(final ChannelUri channelUri)
     {
         final String lingerParam = channelUri.get(LINGER_PARAM_NAME);
@@ -250,6 +271,8 @@ final class PublicationParams
                 sessionId = publication.sessionId();
                 mtuLength = publication.mtuLength();
                 termLength = publication.termBufferLength();
+                fecGroupSize = publication.fecGroupSize();
+                weight = publication.weight();
             }
             else
             {
@@ -278,6 +301,106 @@ final class PublicationParams
         }
     }
 
+    private void getWeight(final ChannelUri channelUri)
+    {
+        final String weightStr = channelUri.get(WEIGHT_PARAM_NAME);
+        if (null != weightStr)
+        {
+            final int weight = parseInt(WEIGHT_PARAM_NAME, weightStr);
+            if (weight < 1)
+            {
+                throw new IllegalArgumentException(WEIGHT_PARAM_NAME + "=" + weight + " must be >= 1");
+            }
+
+            if (isSessionIdTagged && weight != this.weight)
+            {
+                throw new IllegalArgumentException(
+                    WEIGHT_PARAM_NAME + "=" + weight + " does not match session-id tag value");
+            }
+
+            this.weight = weight;
+        }
+    }
+
+    private void getFecGroupSize(final ChannelUri channelUri)
+    {
+        final String fecStr = channelUri.get(FEC_PARAM_NAME);
+        if (null != fecStr)
+        {
+            final int groupSize = parseInt(FEC_PARAM_NAME, fecStr);
+            if (groupSize < FecParityFlyweight.MIN_GROUP_SIZE || groupSize > FecParityFlyweight.MAX_GROUP_SIZE)
+            {
+                throw new IllegalArgumentException(
+                    FEC_PARAM_NAME + "=" + groupSize + " must be in range " + FecParityFlyweight.MIN_GROUP_SIZE +
+                    "-" + FecParityFlyweight.MAX_GROUP_SIZE);
+            }
+
+            if (isSessionIdTagged)
+            {
+                if (groupSize != fecGroupSize)
+                {
+                    throw new IllegalArgumentException(
+                        FEC_PARAM_NAME + "=" + groupSize + " does not match session-id tag value");
+                }
+            }
+            else
+            {
+                final int dataMtuLength =
+                    (mtuLength - FecParityFlyweight.payloadOffset(groupSize)) & ~(FrameDescriptor.FRAME_ALIGNMENT - 1);
+                if (dataMtuLength <= DataHeaderFlyweight.HEADER_LENGTH)
+                {
+                    throw new IllegalArgumentException(
+                        FEC_PARAM_NAME + "=" + groupSize + " leaves no room for data frames with the parity frame in " +
+                        MTU_LENGTH_PARAM_NAME + "=" + mtuLength);
+                }
+
+                this.mtuLength = dataMtuLength;
+                this.fecGroupSize = groupSize;
+            }
+        }
+    }
+
+    private void getPacing(final ChannelUri channelUri)
+    {
+        final String rateStr = channelUri.get(RATE_PARAM_NAME);
+        final String burstStr = channelUri.get(BURST_PARAM_NAME);
+
+        if (null != rateStr)
+        {
+            final long rate = SystemUtil.parseSize(RATE_PARAM_NAME, rateStr);
+            if (rate <= 0)
+            {
+                throw new IllegalArgumentException(RATE_PARAM_NAME + "=" + rate + " must be > 0");
+            }
+
+            int burst = mtuLength;
+            if (null != burstStr)
+            {
+                final long burstLength = SystemUtil.parseSize(BURST_PARAM_NAME, burstStr);
+                if (burstLength < mtuLength || burstLength > Integer.MAX_VALUE)
+                {
+                    throw new IllegalArgumentException(
+                        BURST_PARAM_NAME + "=" + burstLength + " must be in range " + mtuLength + "-" +
+                        Integer.MAX_VALUE);
+                }
+
+                burst = (int)burstLength;
+            }
+
+            this.pacingRate = rate;
+            this.pacingBurst = burst;
+        }
+        else if (null != burstStr)
+        {
+            throw new IllegalArgumentException(BURST_PARAM_NAME + " requires " + RATE_PARAM_NAME + " to be set");
+        }
+    }
+
+    private void getLatencyTrace(final ChannelUri channelUri)
+    {
+        isLatencyTrace = "true".equals(channelUri.get(LATENCY_TRACE_PARAM_NAME));
+    }
+
     private static void validateEntityTag(final long entityTag, final DriverConductor driverConductor)
     {
         if (INVALID_TAG == entityTag)
@@ -308,6 +431,19 @@ final class PublicationParams
             ", isSessionIdTagged=" + isSessionIdTagged +
             ", isSparse=" + isSparse +
             ", signalEos=" + signalEos +
+            ", isLatencyTrace=" + isLatencyTrace +
             '}';
     }
+
+    private static int parseInt(final String paramName, final String value)
+    {
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (final NumberFormatException ex)
+        {
+            throw new IllegalArgumentException(paramName + "=" + value + " must be an integer", ex);
+        }
+    }
 }
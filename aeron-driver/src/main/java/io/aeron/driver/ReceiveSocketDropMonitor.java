@@ -0,0 +1,338 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.Aeron;
+import io.aeron.driver.media.ReceiveChannelEndpoint;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Agent which samples the kernel UDP drop counters on Linux so loss seen by the {@link LossDetector} can be attributed
+ * to the receive socket buffer overflowing rather than loss upstream.
+ * <p>
+ * The drops and bytes queued for each receive socket owned by the driver are read from {@code /proc/net/udp} and
+ * {@code /proc/net/udp6} and matched to a {@link ReceiveChannelEndpoint} by the inode of its own socket, which is
+ * found by following the link for the socket file descriptor in {@code /proc/self/fd}. Other sockets bound to the same
+ * port, such as for other multicast groups or processes, are not counted. Endpoints for multi-destination
+ * subscriptions have no socket of their own so are not sampled. The UDP receive buffer and receive errors for the host
+ * are read from {@code /proc/net/snmp} and counted since start.
+ */
+final class ReceiveSocketDropMonitor implements Agent
+{
+    static final long IDLE_SLEEP_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int COMMAND_QUEUE_CAPACITY = 1024;
+    private static final String SOCKET_LINK_PREFIX = "socket:[";
+    private static final String SNMP_UDP_PREFIX = "Udp:";
+    private static final String SNMP_RCVBUF_ERRORS = "RcvbufErrors";
+    private static final String SNMP_IN_ERRORS = "InErrors";
+    private static final int UDP_QUEUES_INDEX = 4;
+    private static final int UDP_INODE_INDEX = 9;
+    private static final int UDP_DROPS_INDEX = 12;
+
+    private final long sampleIntervalNs;
+    private final Path procDir;
+    private final NanoClock nanoClock;
+    private final ErrorHandler errorHandler;
+    private final ManyToOneConcurrentArrayQueue<Runnable> driverCmdQueue;
+    private final OneToOneConcurrentArrayQueue<Runnable> commandQueue =
+        new OneToOneConcurrentArrayQueue<>(COMMAND_QUEUE_CAPACITY);
+    private final Consumer<Runnable> commandHandler = Runnable::run;
+    private final AtomicCounter udpRcvbufErrors;
+    private final AtomicCounter udpInErrors;
+    private final ArrayList<SocketDrops> socketDropsList = new ArrayList<>();
+    private long rcvbufErrorsAtStart = Aeron.NULL_VALUE;
+    private long inErrorsAtStart = Aeron.NULL_VALUE;
+    private long timeOfNextSampleNs;
+
+    ReceiveSocketDropMonitor(
+        final long sampleIntervalNs,
+        final Path procDir,
+        final NanoClock nanoClock,
+        final ErrorHandler errorHandler,
+        final ManyToOneConcurrentArrayQueue<Runnable> driverCmdQueue,
+        final AtomicCounter udpRcvbufErrors,
+        final AtomicCounter udpInErrors)
+    {
+        this.sampleIntervalNs = sampleIntervalNs;
+        this.procDir = procDir;
+        this.nanoClock = nanoClock;
+        this.errorHandler = errorHandler;
+        this.driverCmdQueue = driverCmdQueue;
+        this.udpRcvbufErrors = udpRcvbufErrors;
+        this.udpInErrors = udpInErrors;
+        this.timeOfNextSampleNs = nanoClock.nanoTime();
+    }
+
+    public String roleName()
+    {
+        return "driver-socket-drop-monitor";
+    }
+
+    public int doWork()
+    {
+        int workCount = commandQueue.drain(commandHandler);
+
+        final long nowNs = nanoClock.nanoTime();
+        if (nowNs - timeOfNextSampleNs >= 0)
+        {
+            timeOfNextSampleNs = nowNs + sampleIntervalNs;
+            sample();
+            workCount++;
+        }
+
+        return workCount;
+    }
+
+    /**
+     * Start sampling the drops of a receive channel endpoint. Called from the {@link DriverConductor} thread.
+     *
+     * @param channelEndpoint to be sampled.
+     * @param drops           counter for the datagrams dropped by the kernel for the endpoint socket.
+     * @param queued          counter for the bytes queued in the endpoint socket receive buffer.
+     */
+    void add(final ReceiveChannelEndpoint channelEndpoint, final AtomicCounter drops, final AtomicCounter queued)
+    {
+        final SocketDrops socketDrops = new SocketDrops(channelEndpoint, drops, queued);
+        offer(commandQueue, () -> socketDropsList.add(socketDrops));
+    }
+
+    /**
+     * Stop sampling the drops of a receive channel endpoint. Called from the {@link DriverConductor} thread and its
+     * counters are closed on the same thread once no longer sampled.
+     *
+     * @param channelEndpoint to no longer be sampled.
+     */
+    void remove(final ReceiveChannelEndpoint channelEndpoint)
+    {
+        offer(commandQueue, () ->
+        {
+            for (int i = socketDropsList.size() - 1; i >= 0; i--)
+            {
+                final SocketDrops socketDrops = socketDropsList.get(i);
+                if (socketDrops.channelEndpoint == channelEndpoint)
+                {
+                    socketDropsList.remove(i);
+                    offer(driverCmdQueue, socketDrops::close);
+                }
+            }
+        });
+    }
+
+    void sample()
+    {
+        try
+        {
+            for (int i = 0, size = socketDropsList.size(); i < size; i++)
+            {
+                final SocketDrops socketDrops = socketDropsList.get(i);
+                if (Aeron.NULL_VALUE == socketDrops.inode)
+                {
+                    socketDrops.inode = socketInode(socketDrops.channelEndpoint.receiveSocketFd());
+                }
+                socketDrops.reset();
+            }
+
+            readUdpSockets(procDir.resolve("net/udp"));
+            readUdpSockets(procDir.resolve("net/udp6"));
+
+            for (int i = 0, size = socketDropsList.size(); i < size; i++)
+            {
+                socketDropsList.get(i).update();
+            }
+
+            readSnmp(procDir.resolve("net/snmp"));
+        }
+        catch (final IOException ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    private long socketInode(final int fd)
+    {
+        if (fd < 0)
+        {
+            return Aeron.NULL_VALUE;
+        }
+
+        try
+        {
+            final String link = Files.readSymbolicLink(procDir.resolve("self/fd").resolve(Integer.toString(fd)))
+                .toString();
+            if (link.startsWith(SOCKET_LINK_PREFIX))
+            {
+                return Long.parseLong(link.substring(SOCKET_LINK_PREFIX.length(), link.length() - 1));
+            }
+        }
+        catch (final IOException ignore)
+        {
+            // socket not yet open or closed since the fd was read
+        }
+
+        return Aeron.NULL_VALUE;
+    }
+
+    private void readUdpSockets(final Path path) throws IOException
+    {
+        if (!Files.exists(path))
+        {
+            return;
+        }
+
+        final List<String> lines = Files.readAllLines(path);
+        for (int i = 1, size = lines.size(); i < size; i++)
+        {
+            final String[] fields = lines.get(i).trim().split("\\s+");
+            if (fields.length <= UDP_DROPS_INDEX)
+            {
+                continue;
+            }
+
+            final long inode = Long.parseLong(fields[UDP_INODE_INDEX]);
+            final String queues = fields[UDP_QUEUES_INDEX];
+            final long queued = Long.parseLong(queues.substring(queues.indexOf(':') + 1), 16);
+            final long drops = Long.parseLong(fields[UDP_DROPS_INDEX]);
+
+            for (int j = 0, count = socketDropsList.size(); j < count; j++)
+            {
+                socketDropsList.get(j).onSocket(inode, drops, queued);
+            }
+        }
+    }
+
+    private void readSnmp(final Path path) throws IOException
+    {
+        if (!Files.exists(path))
+        {
+            return;
+        }
+
+        final List<String> lines = Files.readAllLines(path);
+        for (int i = 0, size = lines.size() - 1; i < size; i++)
+        {
+            final String names = lines.get(i);
+            final String values = lines.get(i + 1);
+            if (names.startsWith(SNMP_UDP_PREFIX) && values.startsWith(SNMP_UDP_PREFIX))
+            {
+                final String[] nameFields = names.trim().split("\\s+");
+                final String[] valueFields = values.trim().split("\\s+");
+
+                for (int j = 1, length = Math.min(nameFields.length, valueFields.length); j < length; j++)
+                {
+                    if (SNMP_RCVBUF_ERRORS.equals(nameFields[j]))
+                    {
+                        final long rcvbufErrors = Long.parseLong(valueFields[j]);
+                        if (Aeron.NULL_VALUE == rcvbufErrorsAtStart)
+                        {
+                            rcvbufErrorsAtStart = rcvbufErrors;
+                        }
+                        udpRcvbufErrors.setOrdered(rcvbufErrors - rcvbufErrorsAtStart);
+                    }
+                    else if (SNMP_IN_ERRORS.equals(nameFields[j]))
+                    {
+                        final long inErrors = Long.parseLong(valueFields[j]);
+                        if (Aeron.NULL_VALUE == inErrorsAtStart)
+                        {
+                            inErrorsAtStart = inErrors;
+                        }
+                        udpInErrors.setOrdered(inErrors - inErrorsAtStart);
+                    }
+                }
+
+                return;
+            }
+        }
+    }
+
+    private static void offer(final OneToOneConcurrentArrayQueue<Runnable> queue, final Runnable command)
+    {
+        while (!queue.offer(command))
+        {
+            Thread.yield();
+        }
+    }
+
+    private static void offer(final ManyToOneConcurrentArrayQueue<Runnable> queue, final Runnable command)
+    {
+        while (!queue.offer(command))
+        {
+            Thread.yield();
+        }
+    }
+
+    static final class SocketDrops
+    {
+        final ReceiveChannelEndpoint channelEndpoint;
+        final AtomicCounter drops;
+        final AtomicCounter queued;
+        long inode = Aeron.NULL_VALUE;
+        long sampleDrops;
+        long sampleQueued;
+        boolean isSampled;
+
+        SocketDrops(final ReceiveChannelEndpoint channelEndpoint, final AtomicCounter drops, final AtomicCounter queued)
+        {
+            this.channelEndpoint = channelEndpoint;
+            this.drops = drops;
+            this.queued = queued;
+        }
+
+        void reset()
+        {
+            sampleDrops = 0;
+            sampleQueued = 0;
+            isSampled = false;
+        }
+
+        void onSocket(final long inode, final long drops, final long queued)
+        {
+            if (Aeron.NULL_VALUE != this.inode && inode == this.inode)
+            {
+                sampleDrops = drops;
+                sampleQueued = queued;
+                isSampled = true;
+            }
+        }
+
+        void update()
+        {
+            if (isSampled)
+            {
+                drops.setOrdered(sampleDrops);
+                queued.setOrdered(sampleQueued);
+            }
+        }
+
+        void close()
+        {
+            drops.close();
+            queued.close();
+        }
+    }
+}
@@ -46,11 +46,39 @@ public class Receiver implements Agent
     private final ArrayList<PublicationImage> publicationImages = new ArrayList<>();
     private final ArrayList<PendingSetupMessageFromSource> pendingSetupMessages = new ArrayList<>();
     private final DriverConductorProxy conductorProxy;
+    private final String roleName;
+    private final boolean isSharded;
 
     public Receiver(final MediaDriver.Context ctx)
     {
-        dataTransportPoller = ctx.dataTransportPoller();
-        commandQueue = ctx.receiverCommandQueue();
+        this(ctx, ctx.dataTransportPoller(), ctx.receiverCommandQueue(), "receiver");
+    }
+
+    /**
+     * Construct a {@link Receiver} to service a shard when running in {@link ThreadingMode#SHARDED}.
+     *
+     * @param ctx        for the driver.
+     * @param shardIndex of the receiver which must be greater than 0 as shard 0 is the default receiver.
+     */
+    Receiver(final MediaDriver.Context ctx, final int shardIndex)
+    {
+        this(
+            ctx,
+            ctx.receiverShardDataTransportPollers()[shardIndex],
+            ctx.receiverShardCommandQueues()[shardIndex],
+            "receiver-" + shardIndex);
+    }
+
+    private Receiver(
+        final MediaDriver.Context ctx,
+        final DataTransportPoller dataTransportPoller,
+        final OneToOneConcurrentArrayQueue<Runnable> commandQueue,
+        final String roleName)
+    {
+        this.dataTransportPoller = dataTransportPoller;
+        this.commandQueue = commandQueue;
+        this.roleName = roleName;
+        isSharded = ThreadingMode.SHARDED == ctx.threadingMode();
         totalBytesReceived = ctx.systemCounters().get(BYTES_RECEIVED);
         nanoClock = ctx.cachedNanoClock();
         conductorProxy = ctx.driverConductorProxy();
@@ -63,14 +91,21 @@ public class Receiver implements Agent
 
     public String roleName()
     {
-        return "receiver";
+        return roleName;
     }
 
     public int doWork()
     {
         int workCount = commandQueue.drain(Runnable::run, Configuration.COMMAND_DRAIN_LIMIT);
         final int bytesReceived = dataTransportPoller.pollTransports();
-        totalBytesReceived.getAndAddOrdered(bytesReceived);
+        if (isSharded)
+        {
+            totalBytesReceived.getAndAdd(bytesReceived);
+        }
+        else
+        {
+            totalBytesReceived.getAndAddOrdered(bytesReceived);
+        }
         final long nowNs = nanoClock.nanoTime();
 
         final ArrayList<PublicationImage> publicationImages = this.publicationImages;
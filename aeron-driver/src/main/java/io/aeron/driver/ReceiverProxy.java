@@ -27,151 +27,224 @@ import static io.aeron.driver.ThreadingMode.SHARED;
 
 /**
  * Proxy for offering into the {@link Receiver} Thread's command queue.
+ * <p>
+ * When running in {@link ThreadingMode#SHARDED} there is a {@link Receiver} and command queue per shard, and
+ * commands are routed to the shard which owns the {@link ReceiveChannelEndpoint}.
  */
 public class ReceiverProxy
 {
     private final ThreadingMode threadingMode;
-    private final Queue<Runnable> commandQueue;
+    private final Queue<Runnable>[] commandQueues;
     private final AtomicCounter failCount;
+    private final Receiver[] receivers;
 
-    private Receiver receiver;
-
+    @SuppressWarnings("unchecked")
     public ReceiverProxy(
         final ThreadingMode threadingMode, final Queue<Runnable> commandQueue, final AtomicCounter failCount)
+    {
+        this(threadingMode, new Queue[]{ commandQueue }, failCount);
+    }
+
+    public ReceiverProxy(
+        final ThreadingMode threadingMode, final Queue<Runnable>[] commandQueues, final AtomicCounter failCount)
     {
         this.threadingMode = threadingMode;
-        this.commandQueue = commandQueue;
+        this.commandQueues = commandQueues;
         this.failCount = failCount;
+        this.receivers = new Receiver[commandQueues.length];
     }
 
     public void receiver(final Receiver receiver)
     {
-        this.receiver = receiver;
+        receivers[0] = receiver;
     }
 
     public Receiver receiver()
     {
-        return receiver;
+        return receivers[0];
+    }
+
+    public void receiver(final int shardIndex, final Receiver receiver)
+    {
+        receivers[shardIndex] = receiver;
+    }
+
+    public Receiver receiver(final int shardIndex)
+    {
+        return receivers[shardIndex];
+    }
+
+    /**
+     * Number of {@link Receiver} shards the commands are distributed over.
+     *
+     * @return number of {@link Receiver} shards the commands are distributed over.
+     */
+    public int shardCount()
+    {
+        return receivers.length;
+    }
+
+    /**
+     * The shard which will service a channel. This is stable for the channel so all subscriptions and images on an
+     * endpoint are serviced by the same {@link Receiver}.
+     *
+     * @param udpChannel to be assigned a shard.
+     * @return the index of the shard which will service the channel.
+     * @see Configuration#shardIndex(UdpChannel, int)
+     */
+    public int shardIndex(final UdpChannel udpChannel)
+    {
+        return Configuration.shardIndex(udpChannel, receivers.length);
     }
 
     public void addSubscription(final ReceiveChannelEndpoint mediaEndpoint, final int streamId)
     {
+        final int shardIndex = shardIndex(mediaEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onAddSubscription(mediaEndpoint, streamId);
         }
         else
         {
-            offer(() -> receiver.onAddSubscription(mediaEndpoint, streamId));
+            offer(shardIndex, () -> receiver.onAddSubscription(mediaEndpoint, streamId));
         }
     }
 
     public void addSubscription(final ReceiveChannelEndpoint mediaEndpoint, final int streamId, final int sessionId)
     {
+        final int shardIndex = shardIndex(mediaEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onAddSubscription(mediaEndpoint, streamId, sessionId);
         }
         else
         {
-            offer(() -> receiver.onAddSubscription(mediaEndpoint, streamId, sessionId));
+            offer(shardIndex, () -> receiver.onAddSubscription(mediaEndpoint, streamId, sessionId));
         }
     }
 
     public void removeSubscription(final ReceiveChannelEndpoint mediaEndpoint, final int streamId)
     {
+        final int shardIndex = shardIndex(mediaEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onRemoveSubscription(mediaEndpoint, streamId);
         }
         else
         {
-            offer(() -> receiver.onRemoveSubscription(mediaEndpoint, streamId));
+            offer(shardIndex, () -> receiver.onRemoveSubscription(mediaEndpoint, streamId));
         }
     }
 
     public void removeSubscription(final ReceiveChannelEndpoint mediaEndpoint, final int streamId, final int sessionId)
     {
+        final int shardIndex = shardIndex(mediaEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onRemoveSubscription(mediaEndpoint, streamId, sessionId);
         }
         else
         {
-            offer(() -> receiver.onRemoveSubscription(mediaEndpoint, streamId, sessionId));
+            offer(shardIndex, () -> receiver.onRemoveSubscription(mediaEndpoint, streamId, sessionId));
         }
     }
 
     public void newPublicationImage(final ReceiveChannelEndpoint channelEndpoint, final PublicationImage image)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onNewPublicationImage(channelEndpoint, image);
         }
         else
         {
-            offer(() -> receiver.onNewPublicationImage(channelEndpoint, image));
+            offer(shardIndex, () -> receiver.onNewPublicationImage(channelEndpoint, image));
         }
     }
 
     public void registerReceiveChannelEndpoint(final ReceiveChannelEndpoint channelEndpoint)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onRegisterReceiveChannelEndpoint(channelEndpoint);
         }
         else
         {
-            offer(() -> receiver.onRegisterReceiveChannelEndpoint(channelEndpoint));
+            offer(shardIndex, () -> receiver.onRegisterReceiveChannelEndpoint(channelEndpoint));
         }
     }
 
     public void closeReceiveChannelEndpoint(final ReceiveChannelEndpoint channelEndpoint)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onCloseReceiveChannelEndpoint(channelEndpoint);
         }
         else
         {
-            offer(() -> receiver.onCloseReceiveChannelEndpoint(channelEndpoint));
+            offer(shardIndex, () -> receiver.onCloseReceiveChannelEndpoint(channelEndpoint));
         }
     }
 
     public void removeCoolDown(final ReceiveChannelEndpoint channelEndpoint, final int sessionId, final int streamId)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onRemoveCoolDown(channelEndpoint, sessionId, streamId);
         }
         else
         {
-            offer(() -> receiver.onRemoveCoolDown(channelEndpoint, sessionId, streamId));
+            offer(shardIndex, () -> receiver.onRemoveCoolDown(channelEndpoint, sessionId, streamId));
         }
     }
 
     public void addDestination(
         final ReceiveChannelEndpoint channelEndpoint, final ReceiveDestinationTransport transport)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onAddDestination(channelEndpoint, transport);
         }
         else
         {
-            offer(() -> receiver.onAddDestination(channelEndpoint, transport));
+            offer(shardIndex, () -> receiver.onAddDestination(channelEndpoint, transport));
         }
     }
 
     public void removeDestination(final ReceiveChannelEndpoint channelEndpoint, final UdpChannel udpChannel)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Receiver receiver = receivers[shardIndex];
+
         if (notConcurrent())
         {
             receiver.onRemoveDestination(channelEndpoint, udpChannel);
         }
         else
         {
-            offer(() -> receiver.onRemoveDestination(channelEndpoint, udpChannel));
+            offer(shardIndex, () -> receiver.onRemoveDestination(channelEndpoint, udpChannel));
         }
     }
 
@@ -180,8 +253,9 @@ public class ReceiverProxy
         return threadingMode == SHARED || threadingMode == INVOKER;
     }
 
-    private void offer(final Runnable cmd)
+    private void offer(final int shardIndex, final Runnable cmd)
     {
+        final Queue<Runnable> commandQueue = commandQueues[shardIndex];
         while (!commandQueue.offer(cmd))
         {
             if (Thread.currentThread().isInterrupted())
@@ -15,55 +15,90 @@
  */
 package io.aeron.driver;
 
+import io.aeron.driver.status.SystemCounters;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.collections.BiInt2ObjectMap;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.NanoClock;
 
-import static io.aeron.driver.Configuration.MAX_RETRANSMITS_DEFAULT;
 import static io.aeron.driver.RetransmitHandler.State.DELAYED;
 import static io.aeron.driver.RetransmitHandler.State.LINGERING;
 
 /**
  * Tracking and handling of retransmit request, NAKs, for senders, and receivers.
  * <p>
- * A max number of retransmits is permitted by {@link Configuration#MAX_RETRANSMITS_DEFAULT}. Additional received NAKs
- * will be ignored if this maximum is reached.
+ * A max number of active retransmits is permitted by {@link Configuration#MAX_RETRANSMITS_PROP_NAME}. NAKs which
+ * overlap or are adjacent to a delayed retransmit are merged into it, and NAKs covered by a lingering retransmit are
+ * suppressed, so that many receivers reporting the same loss only result in a single retransmit. Additional received
+ * NAKs will be dropped if the maximum is reached.
  */
 public class RetransmitHandler
 {
     private final BiInt2ObjectMap<RetransmitAction> activeRetransmitsMap = new BiInt2ObjectMap<>();
-    private final RetransmitAction[] retransmitActionPool = new RetransmitAction[MAX_RETRANSMITS_DEFAULT];
+    private final RetransmitAction[] retransmitActionPool;
     private final NanoClock nanoClock;
     private final FeedbackDelayGenerator delayGenerator;
     private final FeedbackDelayGenerator lingerTimeoutGenerator;
     private final AtomicCounter invalidPackets;
+    private final AtomicCounter retransmitsMerged;
+    private final AtomicCounter retransmitsDropped;
+    private final AtomicCounter retransmitsInFlight;
+    private final boolean isSharded;
 
     /**
      * Create a retransmit handler.
      *
      * @param nanoClock              used to determine time
      * @param invalidPackets         for recording invalid packets
+     * @param retransmitsMerged      for recording NAKs merged into, or suppressed by, an active retransmit
+     * @param retransmitsDropped     for recording NAKs dropped as the max active retransmits has been reached
+     * @param retransmitsInFlight    for tracking the number of active retransmits
      * @param delayGenerator         to use for delay determination
      * @param lingerTimeoutGenerator to use for linger timeout
+     * @param maxRetransmits         max number of active retransmits
+     * @param isSharded              true if the counters may be updated concurrently by several sender agents
      */
     public RetransmitHandler(
         final NanoClock nanoClock,
         final AtomicCounter invalidPackets,
+        final AtomicCounter retransmitsMerged,
+        final AtomicCounter retransmitsDropped,
+        final AtomicCounter retransmitsInFlight,
         final FeedbackDelayGenerator delayGenerator,
-        final FeedbackDelayGenerator lingerTimeoutGenerator)
+        final FeedbackDelayGenerator lingerTimeoutGenerator,
+        final int maxRetransmits,
+        final boolean isSharded)
     {
         this.nanoClock = nanoClock;
         this.invalidPackets = invalidPackets;
+        this.retransmitsMerged = retransmitsMerged;
+        this.retransmitsDropped = retransmitsDropped;
+        this.retransmitsInFlight = retransmitsInFlight;
         this.delayGenerator = delayGenerator;
         this.lingerTimeoutGenerator = lingerTimeoutGenerator;
+        this.isSharded = isSharded;
 
-        for (int i = 0; i < MAX_RETRANSMITS_DEFAULT; i++)
+        retransmitActionPool = new RetransmitAction[maxRetransmits];
+        for (int i = 0; i < maxRetransmits; i++)
         {
             retransmitActionPool[i] = new RetransmitAction();
         }
     }
 
+    /**
+     * Cancel any active retransmits so they are no longer counted as in flight.
+     */
+    public void close()
+    {
+        for (final RetransmitAction action : retransmitActionPool)
+        {
+            if (State.INACTIVE != action.state)
+            {
+                cancel(action);
+            }
+        }
+    }
+
     /**
      * Called on reception of a NAK to start retransmits handling.
      *
@@ -82,18 +117,24 @@ public class RetransmitHandler
     {
         if (!isInvalid(termOffset, termLength))
         {
-            if (null == activeRetransmitsMap.get(termId, termOffset) &&
-                activeRetransmitsMap.size() < MAX_RETRANSMITS_DEFAULT)
+            final int endOffset = termOffset + Math.min(length, termLength - termOffset);
+            final int startOffset = skipLingering(termId, termOffset, endOffset);
+
+            if (startOffset >= endOffset || mergeDelayed(termId, startOffset, endOffset))
+            {
+                SystemCounters.increment(retransmitsMerged, isSharded);
+            }
+            else if (activeRetransmitsMap.size() < retransmitActionPool.length)
             {
                 final RetransmitAction action = assignRetransmitAction();
                 action.termId = termId;
-                action.termOffset = termOffset;
-                action.length = Math.min(length, termLength - termOffset);
+                action.termOffset = startOffset;
+                action.length = endOffset - startOffset;
 
                 final long delay = delayGenerator.generateDelay();
                 if (0 == delay)
                 {
-                    retransmitSender.resend(termId, termOffset, action.length);
+                    retransmitSender.resend(termId, startOffset, action.length);
                     action.linger(lingerTimeoutGenerator.generateDelay(), nanoClock.nanoTime());
                 }
                 else
@@ -101,7 +142,12 @@ public class RetransmitHandler
                     action.delay(delay, nanoClock.nanoTime());
                 }
 
-                activeRetransmitsMap.put(termId, termOffset, action);
+                activeRetransmitsMap.put(termId, startOffset, action);
+                SystemCounters.add(retransmitsInFlight, 1, isSharded);
+            }
+            else
+            {
+                SystemCounters.increment(retransmitsDropped, isSharded);
             }
         }
     }
@@ -120,8 +166,7 @@ public class RetransmitHandler
 
         if (null != action && DELAYED == action.state)
         {
-            activeRetransmitsMap.remove(termId, termOffset);
-            action.cancel();
+            cancel(action);
             // do not go into linger
         }
     }
@@ -145,11 +190,87 @@ public class RetransmitHandler
                 }
                 else if (LINGERING == action.state && (action.expireNs - nowNs < 0))
                 {
-                    action.cancel();
-                    activeRetransmitsMap.remove(action.termId, action.termOffset);
+                    cancel(action);
+                }
+            }
+        }
+    }
+
+    private int skipLingering(final int termId, final int termOffset, final int endOffset)
+    {
+        int startOffset = termOffset;
+        boolean isSkipping = true;
+
+        while (isSkipping && startOffset < endOffset)
+        {
+            isSkipping = false;
+            for (final RetransmitAction action : retransmitActionPool)
+            {
+                if (LINGERING == action.state &&
+                    termId == action.termId &&
+                    action.termOffset <= startOffset &&
+                    startOffset < action.endOffset())
+                {
+                    startOffset = action.endOffset();
+                    isSkipping = true;
+                }
+            }
+        }
+
+        return startOffset;
+    }
+
+    private boolean mergeDelayed(final int termId, final int startOffset, final int endOffset)
+    {
+        RetransmitAction mergedAction = null;
+        int mergedStartOffset = startOffset;
+        int mergedEndOffset = endOffset;
+
+        for (final RetransmitAction action : retransmitActionPool)
+        {
+            if (DELAYED == action.state &&
+                termId == action.termId &&
+                action.termOffset <= mergedEndOffset &&
+                mergedStartOffset <= action.endOffset())
+            {
+                mergedStartOffset = Math.min(mergedStartOffset, action.termOffset);
+                mergedEndOffset = Math.max(mergedEndOffset, action.endOffset());
+
+                if (null == mergedAction)
+                {
+                    mergedAction = action;
+                }
+                else
+                {
+                    mergedAction.expireNs = Math.min(mergedAction.expireNs, action.expireNs);
+                    cancel(action);
+                    SystemCounters.increment(retransmitsMerged, isSharded);
                 }
             }
         }
+
+        if (null != mergedAction)
+        {
+            if (mergedAction.termOffset != mergedStartOffset)
+            {
+                activeRetransmitsMap.remove(termId, mergedAction.termOffset);
+                activeRetransmitsMap.put(termId, mergedStartOffset, mergedAction);
+                mergedAction.termOffset = mergedStartOffset;
+            }
+
+            mergedAction.length = mergedEndOffset - mergedStartOffset;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private void cancel(final RetransmitAction action)
+    {
+        activeRetransmitsMap.remove(action.termId, action.termOffset);
+        action.cancel();
+        SystemCounters.add(retransmitsInFlight, -1, isSharded);
     }
 
     private boolean isInvalid(final int termOffset, final int termLength)
@@ -158,7 +279,7 @@ public class RetransmitHandler
 
         if (isInvalid)
         {
-            invalidPackets.increment();
+            SystemCounters.increment(invalidPackets, isSharded);
         }
 
         return isInvalid;
@@ -192,6 +313,11 @@ public class RetransmitHandler
         int length;
         State state = State.INACTIVE;
 
+        int endOffset()
+        {
+            return termOffset + length;
+        }
+
         void delay(final long delayNs, final long nowNs)
         {
             state = DELAYED;
@@ -17,6 +17,8 @@ package io.aeron.driver;
 
 import io.aeron.driver.media.ControlTransportPoller;
 import io.aeron.driver.media.SendChannelEndpoint;
+import io.aeron.driver.status.ShardDutyCycles;
+import org.agrona.CloseHelper;
 import org.agrona.collections.ArrayUtil;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -60,23 +62,54 @@ public class Sender extends SenderRhsPadding implements Agent
     private final AtomicCounter totalBytesSent;
     private final NanoClock nanoClock;
     private final DriverConductorProxy conductorProxy;
+    private final String roleName;
+    private final boolean isSharded;
+    private final AtomicCounter shardDutyCycles;
 
     private NetworkPublication[] networkPublications = EMPTY_PUBLICATIONS;
 
     public Sender(final MediaDriver.Context ctx)
     {
-        this.controlTransportPoller = ctx.controlTransportPoller();
-        this.commandQueue = ctx.senderCommandQueue();
+        this(ctx, ctx.controlTransportPoller(), ctx.senderCommandQueue(), "sender");
+    }
+
+    /**
+     * Construct a {@link Sender} to service a shard when running in {@link ThreadingMode#SHARDED}.
+     *
+     * @param ctx        for the driver.
+     * @param shardIndex of the sender which must be greater than 0 as shard 0 is the default sender.
+     */
+    Sender(final MediaDriver.Context ctx, final int shardIndex)
+    {
+        this(
+            ctx,
+            ctx.senderShardControlTransportPollers()[shardIndex],
+            ctx.senderShardCommandQueues()[shardIndex],
+            "sender-" + shardIndex);
+    }
+
+    private Sender(
+        final MediaDriver.Context ctx,
+        final ControlTransportPoller controlTransportPoller,
+        final OneToOneConcurrentArrayQueue<Runnable> commandQueue,
+        final String roleName)
+    {
+        this.controlTransportPoller = controlTransportPoller;
+        this.commandQueue = commandQueue;
+        this.roleName = roleName;
         this.totalBytesSent = ctx.systemCounters().get(BYTES_SENT);
         this.nanoClock = ctx.cachedNanoClock();
         this.statusMessageReadTimeoutNs = ctx.statusMessageTimeoutNs() >> 1;
         this.dutyCycleRatio = ctx.sendToStatusMessagePollRatio();
         this.conductorProxy = ctx.driverConductorProxy();
+        this.isSharded = ThreadingMode.SHARDED == ctx.threadingMode();
+        this.shardDutyCycles = isSharded ? ShardDutyCycles.allocate(ctx.countersManager(), roleName) : null;
     }
 
     public void onClose()
     {
         controlTransportPoller.close();
+        CloseHelper.close(shardDutyCycles);
     }
 
     public int doWork()
@@ -94,12 +127,18 @@ public class Sender extends SenderRhsPadding implements Agent
             controlPollDeadlineNs = nowNs + statusMessageReadTimeoutNs;
         }
 
-        return workCount + bytesSent + bytesReceived;
+        final int totalWorkCount = workCount + bytesSent + bytesReceived;
+        if (null != shardDutyCycles && totalWorkCount > 0)
+        {
+            shardDutyCycles.incrementOrdered();
+        }
+
+        return totalWorkCount;
     }
 
     public String roleName()
     {
-        return "sender";
+        return roleName;
     }
 
     public void onRegisterSendChannelEndpoint(final SendChannelEndpoint channelEndpoint)
@@ -159,7 +198,14 @@ public class Sender extends SenderRhsPadding implements Agent
             bytesSent += publications[i].send(nowNs);
         }
 
-        totalBytesSent.getAndAddOrdered(bytesSent);
+        if (isSharded)
+        {
+            totalBytesSent.getAndAdd(bytesSent);
+        }
+        else
+        {
+            totalBytesSent.getAndAddOrdered(bytesSent);
+        }
 
         return bytesSent;
     }
@@ -16,6 +16,7 @@
 package io.aeron.driver;
 
 import io.aeron.driver.media.SendChannelEndpoint;
+import io.aeron.driver.media.UdpChannel;
 import org.agrona.concurrent.status.AtomicCounter;
 
 import java.net.InetSocketAddress;
@@ -26,96 +27,153 @@ import static io.aeron.driver.ThreadingMode.SHARED;
 
 /**
  * Proxy for offering into the Sender Thread's command queue.
+ * <p>
+ * When running in {@link ThreadingMode#SHARDED} there is a {@link Sender} and command queue per shard, and
+ * commands are routed to the shard which owns the {@link SendChannelEndpoint} and its publications.
  */
 public class SenderProxy
 {
     private final ThreadingMode threadingMode;
-    private final Queue<Runnable> commandQueue;
+    private final Queue<Runnable>[] commandQueues;
     private final AtomicCounter failCount;
-    private Sender sender;
+    private final Sender[] senders;
 
+    @SuppressWarnings("unchecked")
     public SenderProxy(
         final ThreadingMode threadingMode, final Queue<Runnable> commandQueue, final AtomicCounter failCount)
+    {
+        this(threadingMode, new Queue[]{ commandQueue }, failCount);
+    }
+
+    public SenderProxy(
+        final ThreadingMode threadingMode, final Queue<Runnable>[] commandQueues, final AtomicCounter failCount)
     {
         this.threadingMode = threadingMode;
-        this.commandQueue = commandQueue;
+        this.commandQueues = commandQueues;
         this.failCount = failCount;
+        this.senders = new Sender[commandQueues.length];
     }
 
     public void sender(final Sender sender)
     {
-        this.sender = sender;
+        senders[0] = sender;
+    }
+
+    public void sender(final int shardIndex, final Sender sender)
+    {
+        senders[shardIndex] = sender;
+    }
+
+    /**
+     * Number of {@link Sender} shards the commands are distributed over.
+     *
+     * @return number of {@link Sender} shards the commands are distributed over.
+     */
+    public int shardCount()
+    {
+        return senders.length;
+    }
+
+    /**
+     * The shard which will service a channel. This is stable for the channel so all publications on an
+     * endpoint are serviced by the same {@link Sender}.
+     *
+     * @param udpChannel to be assigned a shard.
+     * @return the index of the shard which will service the channel.
+     * @see Configuration#shardIndex(UdpChannel, int)
+     */
+    public int shardIndex(final UdpChannel udpChannel)
+    {
+        return Configuration.shardIndex(udpChannel, senders.length);
     }
 
     public void registerSendChannelEndpoint(final SendChannelEndpoint channelEndpoint)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Sender sender = senders[shardIndex];
+
         if (notConcurrent())
         {
             sender.onRegisterSendChannelEndpoint(channelEndpoint);
         }
         else
         {
-            offer(() -> sender.onRegisterSendChannelEndpoint(channelEndpoint));
+            offer(shardIndex, () -> sender.onRegisterSendChannelEndpoint(channelEndpoint));
         }
     }
 
     public void closeSendChannelEndpoint(final SendChannelEndpoint channelEndpoint)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Sender sender = senders[shardIndex];
+
         if (notConcurrent())
         {
             sender.onCloseSendChannelEndpoint(channelEndpoint);
         }
         else
         {
-            offer(() -> sender.onCloseSendChannelEndpoint(channelEndpoint));
+            offer(shardIndex, () -> sender.onCloseSendChannelEndpoint(channelEndpoint));
         }
     }
 
     public void removeNetworkPublication(final NetworkPublication publication)
     {
+        final int shardIndex = shardIndex(publication.channelEndpoint().udpChannel());
+        final Sender sender = senders[shardIndex];
+
         if (notConcurrent())
         {
             sender.onRemoveNetworkPublication(publication);
         }
         else
         {
-            offer(() -> sender.onRemoveNetworkPublication(publication));
+            offer(shardIndex, () -> sender.onRemoveNetworkPublication(publication));
         }
     }
 
     public void newNetworkPublication(final NetworkPublication publication)
     {
+        final int shardIndex = shardIndex(publication.channelEndpoint().udpChannel());
+        final Sender sender = senders[shardIndex];
+
         if (notConcurrent())
         {
             sender.onNewNetworkPublication(publication);
         }
         else
         {
-            offer(() -> sender.onNewNetworkPublication(publication));
+            offer(shardIndex, () -> sender.onNewNetworkPublication(publication));
         }
     }
 
     public void addDestination(final SendChannelEndpoint channelEndpoint, final InetSocketAddress address)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Sender sender = senders[shardIndex];
+
         if (notConcurrent())
         {
             sender.onAddDestination(channelEndpoint, address);
         }
         else
         {
-            offer(() -> sender.onAddDestination(channelEndpoint, address));
+            offer(shardIndex, () -> sender.onAddDestination(channelEndpoint, address));
         }
     }
 
     public void removeDestination(final SendChannelEndpoint channelEndpoint, final InetSocketAddress address)
     {
+        final int shardIndex = shardIndex(channelEndpoint.udpChannel());
+        final Sender sender = senders[shardIndex];
+
         if (notConcurrent())
         {
             sender.onRemoveDestination(channelEndpoint, address);
         }
         else
         {
-            offer(() -> sender.onRemoveDestination(channelEndpoint, address));
+            offer(shardIndex, () -> sender.onRemoveDestination(channelEndpoint, address));
         }
     }
 
@@ -124,8 +182,9 @@ public class SenderProxy
         return threadingMode == SHARED || threadingMode == INVOKER;
     }
 
-    private void offer(final Runnable cmd)
+    private void offer(final int shardIndex, final Runnable cmd)
     {
+        final Queue<Runnable> commandQueue = commandQueues[shardIndex];
         while (!commandQueue.offer(cmd))
         {
             if (Thread.currentThread().isInterrupted())
@@ -56,7 +56,7 @@ final class SessionKey
 
     public int hashCode()
     {
-        return 31 * sessionId * streamId * channel.hashCode();
+        return 31 * (31 * sessionId + streamId) + channel.hashCode();
     }
 
     public String toString()
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+/**
+ * Policy which schedules a Status Message when consumption passes the {@link CongestionControl#threshold(int)} of the
+ * window since the last one, or when the status message timeout has passed.
+ */
+public class StaticStatusMessagePolicy implements StatusMessagePolicy
+{
+    /**
+     * {@inheritDoc}
+     */
+    public boolean shouldScheduleStatusMessage(
+        final long nowNs,
+        final long position,
+        final long lastSmPosition,
+        final long timeOfLastSmNs,
+        final int windowLength,
+        final long statusMessageTimeoutNs)
+    {
+        return ((timeOfLastSmNs + statusMessageTimeoutNs) - nowNs < 0) ||
+            (position > (lastSmPosition + CongestionControl.threshold(windowLength)));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Policy for when a {@link PublicationImage} should schedule a Status Message to advertise consumption to the source,
+ * in addition to those forced by the {@link CongestionControl}.
+ * <p>
+ * Sending fewer Status Messages reduces the control traffic a source must process when many images are consuming at
+ * high rates, while sending them sooner opens the window faster for a source waiting on a slow consumer.
+ */
+public interface StatusMessagePolicy
+{
+    /**
+     * Called by the {@link DriverConductor} on each rebuild of the image to determine if a Status Message should be
+     * scheduled.
+     *
+     * @param nowNs                  in nanoseconds.
+     * @param position               consumed by the slowest subscriber which would be advertised.
+     * @param lastSmPosition         advertised by the last Status Message scheduled.
+     * @param timeOfLastSmNs         at which the last Status Message was scheduled.
+     * @param windowLength           of the receiver window which would be advertised.
+     * @param statusMessageTimeoutNs configured for the driver.
+     * @return true if a Status Message should be scheduled.
+     * @see Configuration#STATUS_MESSAGE_TIMEOUT_PROP_NAME
+     */
+    boolean shouldScheduleStatusMessage(
+        long nowNs,
+        long position,
+        long lastSmPosition,
+        long timeOfLastSmNs,
+        int windowLength,
+        long statusMessageTimeoutNs);
+
+    /**
+     * Called by {@link Receiver} on reception of an RTT Measurement, which are only taken when the
+     * {@link CongestionControl} for the image measures RTT.
+     *
+     * @param nowNs      in nanoseconds
+     * @param rttNs      to the Sender in nanoseconds
+     * @param srcAddress of the Sender
+     */
+    default void onRttMeasurement(long nowNs, long rttNs, InetSocketAddress srcAddress)
+    {
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.media.UdpChannel;
+
+/**
+ * Supplier of {@link StatusMessagePolicy} implementations to be used by receivers.
+ */
+@FunctionalInterface
+public interface StatusMessagePolicySupplier
+{
+    /**
+     * Return a new {@link StatusMessagePolicy} instance.
+     *
+     * @param registrationId  for the publication image.
+     * @param udpChannel      for the publication image.
+     * @param streamId        for the publication image.
+     * @param sessionId       for the publication image.
+     * @param termLength      for the publication image.
+     * @param senderMtuLength for the publication image.
+     * @param context         for configuration options applied in the driver.
+     * @return status message policy instance ready for immediate usage.
+     */
+    StatusMessagePolicy newInstance(
+        long registrationId,
+        UdpChannel udpChannel,
+        int streamId,
+        int sessionId,
+        int termLength,
+        int senderMtuLength,
+        MediaDriver.Context context);
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Object2ObjectHashMap;
+
+import java.util.ArrayList;
+
+import static org.agrona.collections.ArrayListUtil.fastUnorderedRemove;
+
+/**
+ * Index of {@link DriverConductor} resources by (channel, stream id, session id) so matching only considers the
+ * resources of the session being matched rather than every resource which shares a stream id.
+ * <p>
+ * The channel is the canonical form of the channel, or for resources on a receive channel endpoint the endpoint
+ * itself as there is one per canonical form. Resources which match any session, such as subscriptions without a
+ * session id, are indexed by channel and stream id alone.
+ * <p>
+ * Lists returned by lookups must not be modified and are only valid until the index is next changed.
+ *
+ * @param <T> type of the resource indexed.
+ */
+final class StreamResourceIndex<T>
+{
+    private static final ArrayList<?> EMPTY_RESOURCES = new ArrayList<>(0);
+
+    private int size = 0;
+    private final StreamKey lookupKey = new StreamKey(null, 0);
+    private final Object2ObjectHashMap<StreamKey, StreamResources<T>> resourcesByStreamMap =
+        new Object2ObjectHashMap<>();
+
+    /**
+     * Add a resource for a given session of a stream.
+     *
+     * @param channel   of the stream.
+     * @param streamId  of the stream.
+     * @param sessionId of the resource.
+     * @param resource  to be added.
+     */
+    void add(final Object channel, final int streamId, final int sessionId, final T resource)
+    {
+        final StreamResources<T> streamResources = getOrAddStreamResources(channel, streamId);
+        ArrayList<T> resources = streamResources.resourcesBySessionIdMap.get(sessionId);
+        if (null == resources)
+        {
+            resources = new ArrayList<>(1);
+            streamResources.resourcesBySessionIdMap.put(sessionId, resources);
+        }
+
+        resources.add(resource);
+        size++;
+    }
+
+    /**
+     * Add a resource which matches any session of a stream.
+     *
+     * @param channel  of the stream.
+     * @param streamId of the stream.
+     * @param resource to be added.
+     */
+    void addWildcard(final Object channel, final int streamId, final T resource)
+    {
+        getOrAddStreamResources(channel, streamId).wildcardResources.add(resource);
+        size++;
+    }
+
+    /**
+     * Remove a resource for a given session of a stream.
+     *
+     * @param channel   of the stream.
+     * @param streamId  of the stream.
+     * @param sessionId of the resource.
+     * @param resource  to be removed.
+     * @return true if the resource was found and removed.
+     */
+    boolean remove(final Object channel, final int streamId, final int sessionId, final T resource)
+    {
+        final StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+        if (null != streamResources)
+        {
+            final ArrayList<T> resources = streamResources.resourcesBySessionIdMap.get(sessionId);
+            if (null != resources && removeResource(resources, resource))
+            {
+                if (resources.isEmpty())
+                {
+                    streamResources.resourcesBySessionIdMap.remove(sessionId);
+                }
+
+                removeIfEmpty(streamResources);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove a resource which matches any session of a stream.
+     *
+     * @param channel  of the stream.
+     * @param streamId of the stream.
+     * @param resource to be removed.
+     * @return true if the resource was found and removed.
+     */
+    boolean removeWildcard(final Object channel, final int streamId, final T resource)
+    {
+        final StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+        if (null != streamResources && removeResource(streamResources.wildcardResources, resource))
+        {
+            removeIfEmpty(streamResources);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Resources for a given session of a stream.
+     *
+     * @param channel   of the stream.
+     * @param streamId  of the stream.
+     * @param sessionId of the resources.
+     * @return resources for the session which may be empty.
+     */
+    ArrayList<T> sessionResources(final Object channel, final int streamId, final int sessionId)
+    {
+        final StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+        if (null != streamResources)
+        {
+            final ArrayList<T> resources = streamResources.resourcesBySessionIdMap.get(sessionId);
+            if (null != resources)
+            {
+                return resources;
+            }
+        }
+
+        return emptyResources();
+    }
+
+    /**
+     * Resources which match any session of a stream.
+     *
+     * @param channel  of the stream.
+     * @param streamId of the stream.
+     * @return resources which match any session which may be empty.
+     */
+    ArrayList<T> wildcardResources(final Object channel, final int streamId)
+    {
+        final StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+
+        return null != streamResources ? streamResources.wildcardResources : emptyResources();
+    }
+
+    /**
+     * Resources for a given session of a stream followed by those which match any session.
+     *
+     * @param channel   of the stream.
+     * @param streamId  of the stream.
+     * @param sessionId of the resources.
+     * @return resources which match the session which may be empty.
+     */
+    ArrayList<T> matchingResources(final Object channel, final int streamId, final int sessionId)
+    {
+        final StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+        if (null == streamResources)
+        {
+            return emptyResources();
+        }
+
+        final ArrayList<T> wildcardResources = streamResources.wildcardResources;
+        final ArrayList<T> sessionResources = streamResources.resourcesBySessionIdMap.get(sessionId);
+        if (null == sessionResources)
+        {
+            return wildcardResources;
+        }
+
+        if (wildcardResources.isEmpty())
+        {
+            return sessionResources;
+        }
+
+        final ArrayList<T> resources = new ArrayList<>(sessionResources.size() + wildcardResources.size());
+        resources.addAll(sessionResources);
+        resources.addAll(wildcardResources);
+
+        return resources;
+    }
+
+    /**
+     * All resources of a stream whatever their session.
+     *
+     * @param channel  of the stream.
+     * @param streamId of the stream.
+     * @return all resources of the stream which may be empty.
+     */
+    ArrayList<T> streamResources(final Object channel, final int streamId)
+    {
+        final StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+        if (null == streamResources)
+        {
+            return emptyResources();
+        }
+
+        final Int2ObjectHashMap<ArrayList<T>> resourcesBySessionIdMap = streamResources.resourcesBySessionIdMap;
+        final ArrayList<T> wildcardResources = streamResources.wildcardResources;
+        if (resourcesBySessionIdMap.isEmpty())
+        {
+            return wildcardResources;
+        }
+
+        if (wildcardResources.isEmpty() && 1 == resourcesBySessionIdMap.size())
+        {
+            return resourcesBySessionIdMap.values().iterator().next();
+        }
+
+        final ArrayList<T> resources = new ArrayList<>(wildcardResources);
+        for (final ArrayList<T> sessionResources : resourcesBySessionIdMap.values())
+        {
+            resources.addAll(sessionResources);
+        }
+
+        return resources;
+    }
+
+    /**
+     * Number of resources in the index.
+     *
+     * @return number of resources in the index.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Number of streams which have at least one resource in the index.
+     *
+     * @return number of streams which have at least one resource in the index.
+     */
+    int streamCount()
+    {
+        return resourcesByStreamMap.size();
+    }
+
+    private StreamResources<T> getOrAddStreamResources(final Object channel, final int streamId)
+    {
+        StreamResources<T> streamResources = resourcesByStreamMap.get(lookupKey.set(channel, streamId));
+        if (null == streamResources)
+        {
+            streamResources = new StreamResources<>();
+            resourcesByStreamMap.put(new StreamKey(channel, streamId), streamResources);
+        }
+
+        return streamResources;
+    }
+
+    private boolean removeResource(final ArrayList<T> resources, final T resource)
+    {
+        for (int i = 0, size = resources.size(); i < size; i++)
+        {
+            if (resource == resources.get(i))
+            {
+                fastUnorderedRemove(resources, i);
+                this.size--;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void removeIfEmpty(final StreamResources<T> streamResources)
+    {
+        if (streamResources.wildcardResources.isEmpty() && streamResources.resourcesBySessionIdMap.isEmpty())
+        {
+            resourcesByStreamMap.remove(lookupKey);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayList<T> emptyResources()
+    {
+        return (ArrayList<T>)EMPTY_RESOURCES;
+    }
+
+    static final class StreamResources<T>
+    {
+        final ArrayList<T> wildcardResources = new ArrayList<>(1);
+        final Int2ObjectHashMap<ArrayList<T>> resourcesBySessionIdMap = new Int2ObjectHashMap<>();
+    }
+
+    static final class StreamKey
+    {
+        private Object channel;
+        private int streamId;
+
+        StreamKey(final Object channel, final int streamId)
+        {
+            this.channel = channel;
+            this.streamId = streamId;
+        }
+
+        StreamKey set(final Object channel, final int streamId)
+        {
+            this.channel = channel;
+            this.streamId = streamId;
+
+            return this;
+        }
+
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+
+            final StreamKey that = (StreamKey)o;
+
+            return streamId == that.streamId && channel.equals(that.channel);
+        }
+
+        public int hashCode()
+        {
+            return 31 * streamId + channel.hashCode();
+        }
+
+        public String toString()
+        {
+            return "StreamKey{" +
+                "channel=" + channel +
+                ", streamId=" + streamId +
+                '}';
+        }
+    }
+}
@@ -90,6 +90,14 @@ public abstract class SubscriptionLink implements DriverManagedResource
         return null;
     }
 
+    /**
+     * Key for the channel of the stream this subscription is for when indexing resources by stream.
+     *
+     * @return key for the channel of the stream this subscription is for.
+     * @see StreamResourceIndex
+     */
+    abstract Object streamChannelKey();
+
     public boolean isReliable()
     {
         return true;
@@ -100,6 +108,11 @@ public abstract class SubscriptionLink implements DriverManagedResource
         return true;
     }
 
+    public boolean isLatencyTrace()
+    {
+        return false;
+    }
+
     public boolean isTether()
     {
         return isTether;
@@ -201,6 +214,7 @@ public abstract class SubscriptionLink implements DriverManagedResource
             ", isSparse=" + isSparse() +
             ", isTether=" + isTether() +
             ", isRejoin=" + isRejoin() +
+            ", isLatencyTrace=" + isLatencyTrace() +
             ", reachedEndOfLife=" + reachedEndOfLife +
             ", group=" + group +
             ", channel='" + channel + '\'' +
@@ -214,6 +228,7 @@ class NetworkSubscriptionLink extends SubscriptionLink
 {
     private final boolean isReliable;
     private final boolean isRejoin;
+    private final boolean isLatencyTrace;
     private final ReceiveChannelEndpoint channelEndpoint;
 
     NetworkSubscriptionLink(
@@ -229,6 +244,7 @@ class NetworkSubscriptionLink extends SubscriptionLink
 
         this.isReliable = params.isReliable;
         this.isRejoin = params.isRejoin;
+        this.isLatencyTrace = params.isLatencyTrace;
         this.channelEndpoint = channelEndpoint;
     }
 
@@ -242,11 +258,21 @@ class NetworkSubscriptionLink extends SubscriptionLink
         return isRejoin;
     }
 
+    public boolean isLatencyTrace()
+    {
+        return isLatencyTrace;
+    }
+
     public ReceiveChannelEndpoint channelEndpoint()
     {
         return channelEndpoint;
     }
 
+    Object streamChannelKey()
+    {
+        return channelEndpoint;
+    }
+
     public boolean matches(final PublicationImage image)
     {
         return image.channelEndpoint() == this.channelEndpoint &&
@@ -286,6 +312,11 @@ class IpcSubscriptionLink extends SubscriptionLink
         super(registrationId, streamId, channelUri, aeronClient, params, errorHandler);
     }
 
+    Object streamChannelKey()
+    {
+        return CommonContext.IPC_MEDIA;
+    }
+
     public boolean matches(final IpcPublication publication)
     {
         return publication.streamId() == streamId && isWildcardOrSessionIdMatch(publication.sessionId());
@@ -309,6 +340,11 @@ class SpySubscriptionLink extends SubscriptionLink
         this.udpChannel = spiedChannel;
     }
 
+    Object streamChannelKey()
+    {
+        return udpChannel.canonicalForm();
+    }
+
     public boolean matches(final NetworkPublication publication)
     {
         return streamId == publication.streamId() &&
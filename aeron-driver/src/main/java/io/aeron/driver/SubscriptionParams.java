@@ -34,6 +34,7 @@ class SubscriptionParams
     boolean isSparse = true;
     boolean isTether = true;
     boolean isRejoin = true;
+    boolean isLatencyTrace = false;
     InferableBoolean group = InferableBoolean.INFER;
 
     static SubscriptionParams getSubscriptionParams(final ChannelUri channelUri, final MediaDriver.Context context)
@@ -109,6 +110,8 @@ class SubscriptionParams
         final String rejoinStr = channelUri.get(REJOIN_PARAM_NAME);
         params.isRejoin = null != rejoinStr ? "true".equals(rejoinStr) : context.rejoinStream();
 
+        params.isLatencyTrace = "true".equals(channelUri.get(LATENCY_TRACE_PARAM_NAME));
+
         return params;
     }
 
@@ -125,6 +128,7 @@ class SubscriptionParams
             ", isSparse=" + isSparse +
             ", isTether=" + isTether +
             ", isRejoin=" + isRejoin +
+            ", isLatencyTrace=" + isLatencyTrace +
             ", group=" + group +
             '}';
     }
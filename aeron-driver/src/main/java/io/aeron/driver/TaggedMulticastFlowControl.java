@@ -17,14 +17,16 @@ package io.aeron.driver;
 
 import io.aeron.CommonContext;
 import io.aeron.driver.media.UdpChannel;
+import io.aeron.driver.status.SystemCounters;
 import io.aeron.protocol.StatusMessageFlyweight;
 import org.agrona.AsciiEncoding;
 import org.agrona.BitUtil;
 import org.agrona.SystemUtil;
+import org.agrona.concurrent.status.AtomicCounter;
 
 import java.net.InetSocketAddress;
 
-import static io.aeron.driver.MinMulticastFlowControl.EMPTY_RECEIVERS;
+import static io.aeron.driver.status.SystemCounterDescriptor.FLOW_CONTROL_RECEIVER_EVICTIONS;
 import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
 import static java.lang.System.getProperty;
 import static org.agrona.BitUtil.SIZE_OF_INT;
@@ -36,7 +38,11 @@ import static org.agrona.BitUtil.SIZE_OF_LONG;
  * Flow control is set to minimum of tracked tagged receivers.
  * <p>
  * Tracking of tagged receivers is done as long as they continue to send Status Messages. Once SMs stop, the receiver
- * tracking for that receiver will timeout after a given number of nanoseconds.
+ * tracking for that receiver will timeout after a given number of nanoseconds. Receivers are indexed so the cost of a
+ * Status Message is logarithmic in the number of receivers.
+ * <p>
+ * If a receiver lag window is configured then tagged receivers which lag the sender position by more than the window
+ * are evicted so a single slow receiver does not hold back the rest of the group.
  */
 public class TaggedMulticastFlowControl implements FlowControl
 {
@@ -58,10 +64,14 @@ public class TaggedMulticastFlowControl implements FlowControl
     public static final String PREFERRED_ASF = getProperty(PREFERRED_ASF_PROP_NAME, PREFERRED_ASF_DEFAULT);
     public static final byte[] PREFERRED_ASF_BYTES = BitUtil.fromHex(PREFERRED_ASF);
 
-    private volatile MinMulticastFlowControl.Receiver[] receivers = EMPTY_RECEIVERS;
+    private final FlowControlReceivers receivers = new FlowControlReceivers();
     private int requiredGroupSize;
     private long receiverTimeoutNs;
     private long receiverTag;
+    private long receiverLagWindow;
+    private long maxReceiverLag;
+    private boolean isSharded;
+    private AtomicCounter receiverEvictions;
 
     /**
      * {@inheritDoc}
@@ -72,9 +82,11 @@ public class TaggedMulticastFlowControl implements FlowControl
         final int initialTermId,
         final int termBufferLength)
     {
+        isSharded = ThreadingMode.SHARDED == context.threadingMode();
         receiverTimeoutNs = context.taggedFlowControlTimeoutNs();
         receiverTag = context.flowControlGroupReceiverTag();
         requiredGroupSize = context.flowControlGroupRequiredSize();
+        receiverLagWindow = context.flowControlReceiverLagWindow();
 
         final String fcValue = udpChannel.channelUri().get(CommonContext.FLOW_CONTROL_PARAM_NAME);
 
@@ -86,6 +98,10 @@ public class TaggedMulticastFlowControl implements FlowControl
                 {
                     receiverTimeoutNs = SystemUtil.parseDuration("fc receiver timeout", arg.substring(2));
                 }
+                else if (arg.startsWith("l:"))
+                {
+                    receiverLagWindow = SystemUtil.parseSize("fc receiver lag window", arg.substring(2));
+                }
                 else if (arg.startsWith("g:"))
                 {
                     final int requiredGroupSizeIndex = arg.indexOf('/');
@@ -105,6 +121,13 @@ public class TaggedMulticastFlowControl implements FlowControl
                 }
             }
         }
+
+        Configuration.validateReceiverLagWindow(receiverLagWindow, termBufferLength, context.initialWindowLength());
+
+        if (receiverLagWindow > 0)
+        {
+            receiverEvictions = context.systemCounters().get(FLOW_CONTROL_RECEIVER_EVICTIONS);
+        }
     }
 
     /**
@@ -125,38 +148,13 @@ public class TaggedMulticastFlowControl implements FlowControl
             initialTermId);
 
         final long windowLength = flyweight.receiverWindowLength();
-        final long receiverId = flyweight.receiverId();
-        final boolean isTagged = isTagged(flyweight);
-        final long lastPositionPlusWindow = position + windowLength;
-        boolean isExisting = false;
-        long minPosition = Long.MAX_VALUE;
-
-        MinMulticastFlowControl.Receiver[] receivers = this.receivers;
 
-        for (final MinMulticastFlowControl.Receiver receiver : receivers)
+        if (isTagged(flyweight))
         {
-            if (isTagged && receiverId == receiver.receiverId)
-            {
-                receiver.lastPosition = Math.max(position, receiver.lastPosition);
-                receiver.lastPositionPlusWindow = lastPositionPlusWindow;
-                receiver.timeOfLastStatusMessageNs = timeNs;
-                isExisting = true;
-            }
-
-            minPosition = Math.min(minPosition, receiver.lastPositionPlusWindow);
+            receivers.onStatusMessage(flyweight.receiverId(), position, windowLength, timeNs);
         }
 
-        if (isTagged && !isExisting)
-        {
-            final MinMulticastFlowControl.Receiver receiver = new MinMulticastFlowControl.Receiver(
-                position, lastPositionPlusWindow, timeNs, receiverId);
-            receivers = MinMulticastFlowControl.add(receivers, receiver);
-            this.receivers = receivers;
-            minPosition = Math.min(minPosition, lastPositionPlusWindow);
-        }
-
-        return receivers.length > 0 ?
-            Math.max(senderLimit, minPosition) : Math.max(senderLimit, lastPositionPlusWindow);
+        return Math.max(senderLimit, receivers.minPositionPlusWindow(position + windowLength));
     }
 
     /**
@@ -164,39 +162,33 @@ public class TaggedMulticastFlowControl implements FlowControl
      */
     public long onIdle(final long timeNs, final long senderLimit, final long senderPosition, final boolean isEos)
     {
-        long minLimitPosition = Long.MAX_VALUE;
-        int removed = 0;
-        MinMulticastFlowControl.Receiver[] receivers = this.receivers;
+        receivers.removeTimedOut(timeNs, receiverTimeoutNs);
 
-        for (int lastIndex = receivers.length - 1, i = lastIndex; i >= 0; i--)
+        if (receiverLagWindow > 0)
         {
-            final MinMulticastFlowControl.Receiver receiver = receivers[i];
-            if ((receiver.timeOfLastStatusMessageNs + receiverTimeoutNs) - timeNs < 0)
+            final int evicted = receivers.evictLagging(senderPosition, receiverLagWindow);
+            if (evicted > 0)
             {
-                if (i != lastIndex)
-                {
-                    receivers[i] = receivers[lastIndex--];
-                }
-                removed++;
-            }
-            else
-            {
-                minLimitPosition = Math.min(minLimitPosition, receiver.lastPositionPlusWindow);
+                SystemCounters.add(receiverEvictions, evicted, isSharded);
             }
         }
 
-        if (removed > 0)
-        {
-            receivers = MinMulticastFlowControl.truncateReceivers(receivers, removed);
-            this.receivers = receivers;
-        }
+        maxReceiverLag = receivers.maxLag(senderPosition);
+
+        return receivers.minPositionPlusWindow(senderLimit);
+    }
 
-        return receivers.length > 0 ? minLimitPosition : senderLimit;
+    /**
+     * {@inheritDoc}
+     */
+    public long maxReceiverLag()
+    {
+        return maxReceiverLag;
     }
 
     public boolean hasRequiredReceivers()
     {
-        return receivers.length >= requiredGroupSize;
+        return receivers.size() >= requiredGroupSize;
     }
 
     private boolean isTagged(final StatusMessageFlyweight statusMessageFlyweight)
@@ -242,4 +234,9 @@ public class TaggedMulticastFlowControl implements FlowControl
     {
         return requiredGroupSize;
     }
+
+    long receiverLagWindow()
+    {
+        return receiverLagWindow;
+    }
 }
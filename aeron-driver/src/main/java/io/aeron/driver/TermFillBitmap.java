@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import io.aeron.logbuffer.TermGapScanner;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.LogBufferDescriptor.PARTITION_COUNT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Bitmap of which {@link io.aeron.logbuffer.FrameDescriptor#FRAME_ALIGNMENT} blocks of each term partition of an
+ * image have been filled with frames, so gaps can be found by scanning a word of 64 blocks at a time rather than
+ * walking the frames of the term.
+ * <p>
+ * Blocks are marked as filled after the frames are written to the term so a volatile read of a filled block
+ * guarantees the frame is visible. Words are updated with a CAS as the {@link Receiver} inserts frames and fills gaps
+ * while the {@link DriverConductor} cleans the terms behind the subscribers.
+ */
+final class TermFillBitmap
+{
+    private static final int BLOCK_BITS_TO_SHIFT = Integer.numberOfTrailingZeros(FRAME_ALIGNMENT);
+    private static final int WORD_BITS_TO_SHIFT = 6;
+    private static final int WORD_MASK = Long.SIZE - 1;
+
+    private final int termLength;
+    private final int wordsPerTerm;
+    private final UnsafeBuffer buffer;
+
+    /**
+     * Create a bitmap for the term partitions of an image.
+     *
+     * @param termLength of the image.
+     */
+    TermFillBitmap(final int termLength)
+    {
+        this.termLength = termLength;
+        wordsPerTerm = Math.max(1, (termLength >> BLOCK_BITS_TO_SHIFT) >> WORD_BITS_TO_SHIFT);
+        buffer = new UnsafeBuffer(BufferUtil.allocateDirectAligned(
+            wordsPerTerm * PARTITION_COUNT * SIZE_OF_LONG, BitUtil.CACHE_LINE_LENGTH));
+    }
+
+    /**
+     * Mark the blocks covered by frames which have been written to a term as filled.
+     *
+     * @param partitionIndex of the term.
+     * @param termOffset     at which the frames begin.
+     * @param length         of the frames which is aligned up to a whole block.
+     */
+    void fill(final int partitionIndex, final int termOffset, final int length)
+    {
+        final int fromBlock = termOffset >> BLOCK_BITS_TO_SHIFT;
+        final int toBlock = (termOffset + BitUtil.align(length, FRAME_ALIGNMENT)) >> BLOCK_BITS_TO_SHIFT;
+
+        update(partitionIndex, fromBlock, toBlock, true);
+    }
+
+    /**
+     * Mark the blocks covered by a packet of frames which has been inserted into a term as filled.
+     * <p>
+     * Each frame covers its aligned frame length rather than the bytes carried in the packet so a padding frame, which
+     * is sent as a header only, marks the whole of the padded range to the end of the term.
+     *
+     * @param partitionIndex of the term.
+     * @param termOffset     at which the packet was inserted.
+     * @param packet         of frames which was inserted.
+     * @param length         of the packet in bytes.
+     */
+    void fillPacket(final int partitionIndex, final int termOffset, final UnsafeBuffer packet, final int length)
+    {
+        int offset = 0;
+        while (offset < length)
+        {
+            final int frameLength = FrameDescriptor.frameLength(packet, offset);
+            if (frameLength <= 0)
+            {
+                break;
+            }
+
+            offset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+
+        fill(partitionIndex, termOffset, Math.min(Math.max(offset, length), termLength - termOffset));
+    }
+
+    /**
+     * Mark the blocks of a range of a term which has been cleaned as unfilled.
+     *
+     * @param partitionIndex of the term.
+     * @param termOffset     at which the range begins.
+     * @param length         of the range.
+     */
+    void clear(final int partitionIndex, final int termOffset, final int length)
+    {
+        final int fromBlock = termOffset >> BLOCK_BITS_TO_SHIFT;
+        final int toBlock = (termOffset + length) >> BLOCK_BITS_TO_SHIFT;
+
+        update(partitionIndex, fromBlock, toBlock, false);
+    }
+
+    /**
+     * Scan for a gap from the termOffset up to a limit offset with the same outcome as
+     * {@link TermGapScanner#scanForGap(UnsafeBuffer, int, int, int, TermGapScanner.GapHandler)}.
+     *
+     * @param partitionIndex of the term to be scanned for a gap.
+     * @param termId         of the term.
+     * @param termOffset     at which to start scanning.
+     * @param limitOffset    at which to stop scanning.
+     * @param handler        to call if a gap is found.
+     * @return offset of last contiguous frame.
+     */
+    int scanForGap(
+        final int partitionIndex,
+        final int termId,
+        final int termOffset,
+        final int limitOffset,
+        final TermGapScanner.GapHandler handler)
+    {
+        final int limitBlock = limitOffset >> BLOCK_BITS_TO_SHIFT;
+        final int gapBeginBlock = nextBlock(partitionIndex, termOffset >> BLOCK_BITS_TO_SHIFT, limitBlock, false);
+        final int gapBeginOffset = Math.min(gapBeginBlock << BLOCK_BITS_TO_SHIFT, limitOffset);
+
+        if (gapBeginOffset < limitOffset)
+        {
+            final int gapEndBlock = nextBlock(partitionIndex, gapBeginBlock + 1, limitBlock, true);
+            final int gapEndOffset = Math.min(gapEndBlock << BLOCK_BITS_TO_SHIFT, limitOffset);
+
+            handler.onGap(termId, gapBeginOffset, gapEndOffset - gapBeginOffset);
+        }
+
+        return gapBeginOffset;
+    }
+
+    private int nextBlock(final int partitionIndex, final int fromBlock, final int limitBlock, final boolean isFilled)
+    {
+        if (fromBlock >= limitBlock)
+        {
+            return limitBlock;
+        }
+
+        final int baseWordIndex = partitionIndex * wordsPerTerm;
+        final long flip = isFilled ? 0 : -1L;
+        int wordIndex = fromBlock >> WORD_BITS_TO_SHIFT;
+        long bits = (buffer.getLongVolatile(wordOffset(baseWordIndex + wordIndex)) ^ flip) & (-1L << fromBlock);
+
+        while (0 == bits)
+        {
+            wordIndex++;
+            if ((wordIndex << WORD_BITS_TO_SHIFT) >= limitBlock)
+            {
+                return limitBlock;
+            }
+
+            bits = buffer.getLongVolatile(wordOffset(baseWordIndex + wordIndex)) ^ flip;
+        }
+
+        return Math.min((wordIndex << WORD_BITS_TO_SHIFT) + Long.numberOfTrailingZeros(bits), limitBlock);
+    }
+
+    private void update(final int partitionIndex, final int fromBlock, final int toBlock, final boolean isFilled)
+    {
+        final int baseWordIndex = partitionIndex * wordsPerTerm;
+        int block = fromBlock;
+
+        while (block < toBlock)
+        {
+            final int wordIndex = block >> WORD_BITS_TO_SHIFT;
+            final int wordEndBlock = Math.min((wordIndex + 1) << WORD_BITS_TO_SHIFT, toBlock);
+            final int bitCount = wordEndBlock - block;
+            final long mask = (bitCount == Long.SIZE ? -1L : (1L << bitCount) - 1) << (block & WORD_MASK);
+            final int offset = wordOffset(baseWordIndex + wordIndex);
+
+            long word;
+            long newWord;
+            do
+            {
+                word = buffer.getLongVolatile(offset);
+                newWord = isFilled ? word | mask : word & ~mask;
+            }
+            while (word != newWord && !buffer.compareAndSetLong(offset, word, newWord));
+
+            block = wordEndBlock;
+        }
+    }
+
+    private static int wordOffset(final int wordIndex)
+    {
+        return wordIndex << 3;
+    }
+}
@@ -43,4 +43,17 @@ public enum ThreadingMode
      * 3 Threads, one dedicated to each of the {@link org.agrona.concurrent.Agent}s.
      */
     DEDICATED,
+
+    /**
+     * As {@link #DEDICATED} but with the network side sharded across multiple {@link Sender} and {@link Receiver}
+     * agents, each on its own thread with its own transport poller and command queue.
+     * <p>
+     * Channel endpoints are assigned to a shard by a stable hash of the channel, or pinned with the
+     * {@link io.aeron.CommonContext#SHARD_PARAM_NAME} URI param, so that all publications or images on a channel
+     * are serviced by the same thread.
+     *
+     * @see Configuration#RECEIVER_SHARD_COUNT_PROP_NAME
+     * @see Configuration#SENDER_SHARD_COUNT_PROP_NAME
+     */
+    SHARDED,
 }
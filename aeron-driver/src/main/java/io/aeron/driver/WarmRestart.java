@@ -0,0 +1,313 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.AeronCloseHelper;
+import io.aeron.CommonContext;
+import io.aeron.driver.status.ClientCommandMaxLatency;
+import io.aeron.driver.status.ClientHeartbeatTimestamp;
+import io.aeron.driver.status.ShardDutyCycles;
+import io.aeron.driver.status.SystemCounterDescriptor;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.agrona.concurrent.status.CountersReader;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import static io.aeron.CncFileDescriptor.*;
+import static io.aeron.driver.status.SystemCounterDescriptor.SYSTEM_COUNTER_TYPE_ID;
+import static io.aeron.status.HeartbeatTimestamp.REGISTRATION_ID_OFFSET;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.concurrent.status.CountersReader.*;
+
+/**
+ * Adoption of the CnC file left by a media driver which is no longer active so clients which are still live do not
+ * need to reconnect when the driver is restarted.
+ * <p>
+ * The to-driver and to-clients buffers are reused in place so commands and broadcasts carry on from their existing
+ * positions. Counters are re-allocated at the same ids and system counters keep their totals.
+ * <p>
+ * Publications, subscriptions, images, and client counters are not rebuilt as the CnC file does not record which client
+ * owns them, so their counters are freed and their log buffers deleted, as happens on a cold start. A client which
+ * owned any of them would be left holding resources which no longer exist, so clients are only adopted if the previous
+ * driver had no such resources. Counters the driver allocates for itself, such as shard duty cycles, or for each
+ * client, such as command latency, are not client resources so they are freed and allocated again by the new driver.
+ * The heartbeat counters of adopted clients are kept so the {@link DriverConductor} tracks the liveness of existing
+ * clients and drains their command buffers if they have them. Otherwise the heartbeat counters are freed too, which
+ * clients detect so they close and reconnect.
+ */
+final class WarmRestart
+{
+    private final ArrayList<CounterRecord> counterRecords = new ArrayList<>();
+    private final LongArrayList clientIds = new LongArrayList();
+    private final IntArrayList clientHeartbeatCounterIds = new IntArrayList();
+
+    /**
+     * Take a snapshot of the counters left by the previous driver before they are re-allocated.
+     *
+     * @param countersReader over the counters of the existing CnC file.
+     */
+    WarmRestart(final CountersReader countersReader)
+    {
+        final DirectBuffer metaDataBuffer = countersReader.metaDataBuffer();
+
+        for (int counterId = 0, maxCounterId = countersReader.maxCounterId(); counterId <= maxCounterId; counterId++)
+        {
+            final int state = countersReader.getCounterState(counterId);
+            if (RECORD_UNUSED == state)
+            {
+                break;
+            }
+
+            final int recordOffset = metaDataOffset(counterId);
+            final byte[] key = new byte[MAX_KEY_LENGTH];
+            metaDataBuffer.getBytes(recordOffset + KEY_OFFSET, key);
+
+            final int labelLength = Math.min(metaDataBuffer.getInt(recordOffset + LABEL_OFFSET), MAX_LABEL_LENGTH);
+            final String label = metaDataBuffer.getStringWithoutLengthAscii(
+                recordOffset + LABEL_OFFSET + SIZE_OF_INT, labelLength);
+
+            counterRecords.add(new CounterRecord(
+                RECORD_ALLOCATED == state,
+                metaDataBuffer.getInt(recordOffset + TYPE_ID_OFFSET),
+                key,
+                label,
+                countersReader.getCounterValue(counterId)));
+        }
+    }
+
+    /**
+     * Can the CnC file of a driver which is no longer active be adopted given the configuration of the new driver?
+     * The layout of the file must match and the system counters must be in the same place so they can be kept.
+     *
+     * @param ctx           for the new driver.
+     * @param cncByteBuffer for the existing CnC file.
+     * @param logger        for the reason the file cannot be adopted.
+     * @return true if the CnC file can be adopted otherwise false.
+     */
+    static boolean isCncFileAdoptable(
+        final MediaDriver.Context ctx, final ByteBuffer cncByteBuffer, final Consumer<String> logger)
+    {
+        if (null == cncByteBuffer)
+        {
+            return false;
+        }
+
+        final UnsafeBuffer cncMetaDataBuffer = createMetaDataBuffer(cncByteBuffer);
+        final int countersValuesBufferLength = ctx.counterValuesBufferLength();
+
+        if (CNC_VERSION != cncMetaDataBuffer.getIntVolatile(cncVersionOffset(0)) ||
+            ctx.conductorBufferLength() != cncMetaDataBuffer.getInt(toDriverBufferLengthOffset(0)) ||
+            ctx.toClientsBufferLength() != cncMetaDataBuffer.getInt(toClientsBufferLengthOffset(0)) ||
+            Configuration.countersMetadataBufferLength(countersValuesBufferLength) !=
+                cncMetaDataBuffer.getInt(countersMetaDataBufferLengthOffset(0)) ||
+            countersValuesBufferLength != cncMetaDataBuffer.getInt(countersValuesBufferLengthOffset(0)) ||
+            ctx.errorBufferLength() != cncMetaDataBuffer.getInt(errorLogBufferLengthOffset(0)))
+        {
+            logger.accept("INFO: CnC file layout does not match configuration, warm restart not possible");
+            return false;
+        }
+
+        final CountersReader countersReader = new CountersReader(
+            createCountersMetaDataBuffer(cncByteBuffer, cncMetaDataBuffer),
+            createCountersValuesBuffer(cncByteBuffer, cncMetaDataBuffer));
+
+        for (final SystemCounterDescriptor descriptor : SystemCounterDescriptor.values())
+        {
+            final int counterId = descriptor.ordinal();
+            final int state = countersReader.getCounterState(counterId);
+            final int recordOffset = metaDataOffset(counterId);
+            final int typeId = countersReader.metaDataBuffer().getInt(recordOffset + TYPE_ID_OFFSET);
+            final int id = countersReader.metaDataBuffer().getInt(recordOffset + KEY_OFFSET);
+
+            if (RECORD_UNUSED == state ||
+                (RECORD_ALLOCATED == state && (SYSTEM_COUNTER_TYPE_ID != typeId || descriptor.id() != id)))
+            {
+                logger.accept("INFO: CnC file system counters do not match, warm restart not possible");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Delete the files of the previous driver from the Aeron directory other than the CnC file and the command buffers
+     * of clients, which are adopted along with the clients or deleted by the {@link DriverConductor}.
+     *
+     * @param aeronDirectory of the driver.
+     */
+    static void deleteAllButCncFile(final File aeronDirectory)
+    {
+        final File[] files = aeronDirectory.listFiles();
+        if (null != files)
+        {
+            for (final File file : files)
+            {
+                final String name = file.getName();
+                if (!CNC_FILE.equals(name) && !CommonContext.CLIENT_COMMAND_BUFFER_DIR.equals(name))
+                {
+                    AeronCloseHelper.delete(file, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-allocate the counters of the previous driver at the same ids after the system counters have been allocated,
+     * restoring the values of system counters and keeping client heartbeats, if no client owned resources, while
+     * freeing the rest.
+     *
+     * @param countersManager for the new driver in which the system counters have already been allocated.
+     */
+    void adoptCounters(final CountersManager countersManager)
+    {
+        final SystemCounterDescriptor[] descriptors = SystemCounterDescriptor.values();
+        final IntArrayList counterIdsToFree = new IntArrayList();
+        final boolean shouldAdoptClients = !hasClientResources(descriptors.length);
+
+        for (int counterId = 0, size = counterRecords.size(); counterId < size; counterId++)
+        {
+            final CounterRecord record = counterRecords.get(counterId);
+
+            if (counterId < descriptors.length)
+            {
+                if (!isInFlightGauge(descriptors[counterId]))
+                {
+                    countersManager.setCounterValue(counterId, record.value);
+                }
+                continue;
+            }
+
+            final int allocatedId = countersManager.allocate(
+                record.label, record.typeId, (keyBuffer) -> keyBuffer.putBytes(0, record.key));
+
+            if (shouldAdoptClients && record.isAllocated && isClientHeartbeat(record))
+            {
+                countersManager.setCounterValue(allocatedId, record.value);
+                clientIds.addLong(new UnsafeBuffer(record.key).getLong(REGISTRATION_ID_OFFSET));
+                clientHeartbeatCounterIds.addInt(allocatedId);
+            }
+            else
+            {
+                counterIdsToFree.addInt(allocatedId);
+            }
+        }
+
+        for (int i = 0, size = counterIdsToFree.size(); i < size; i++)
+        {
+            countersManager.free(counterIdsToFree.getInt(i));
+        }
+
+        counterRecords.clear();
+    }
+
+    /**
+     * Number of clients with heartbeat counters adopted from the previous driver.
+     *
+     * @return number of clients with heartbeat counters adopted from the previous driver.
+     */
+    int clientCount()
+    {
+        return clientIds.size();
+    }
+
+    /**
+     * Id of an adopted client.
+     *
+     * @param index of the adopted client.
+     * @return id of the adopted client.
+     */
+    long clientId(final int index)
+    {
+        return clientIds.getLong(index);
+    }
+
+    /**
+     * Id of the heartbeat counter of an adopted client.
+     *
+     * @param index of the adopted client.
+     * @return id of the heartbeat counter of the adopted client.
+     */
+    int clientHeartbeatCounterId(final int index)
+    {
+        return clientHeartbeatCounterIds.getInt(index);
+    }
+
+    private boolean hasClientResources(final int systemCounterCount)
+    {
+        for (int counterId = systemCounterCount, size = counterRecords.size(); counterId < size; counterId++)
+        {
+            final CounterRecord record = counterRecords.get(counterId);
+            if (record.isAllocated && !isDriverAllocated(record))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isClientHeartbeat(final CounterRecord record)
+    {
+        return ClientHeartbeatTimestamp.CLIENT_HEARTBEAT_TYPE_ID == record.typeId;
+    }
+
+    private static boolean isDriverAllocated(final CounterRecord record)
+    {
+        switch (record.typeId)
+        {
+            case ClientHeartbeatTimestamp.CLIENT_HEARTBEAT_TYPE_ID:
+            case ClientCommandMaxLatency.CLIENT_COMMAND_MAX_LATENCY_TYPE_ID:
+            case ShardDutyCycles.SHARD_DUTY_CYCLES_TYPE_ID:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isInFlightGauge(final SystemCounterDescriptor descriptor)
+    {
+        return SystemCounterDescriptor.RETRANSMITS_IN_FLIGHT == descriptor ||
+            SystemCounterDescriptor.LOG_ALLOCATIONS_IN_FLIGHT == descriptor;
+    }
+
+    static final class CounterRecord
+    {
+        final boolean isAllocated;
+        final int typeId;
+        final byte[] key;
+        final String label;
+        final long value;
+
+        CounterRecord(
+            final boolean isAllocated, final int typeId, final byte[] key, final String label, final long value)
+        {
+            this.isAllocated = isAllocated;
+            this.typeId = typeId;
+            this.key = key;
+            this.label = label;
+            this.value = value;
+        }
+    }
+}
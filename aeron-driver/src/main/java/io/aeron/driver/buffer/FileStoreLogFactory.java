@@ -20,6 +20,9 @@ import io.aeron.exceptions.AeronException;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.LangUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
 
 import java.io.File;
 import java.io.IOException;
@@ -28,18 +31,33 @@ import java.io.UncheckedIOException;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileStore;
 import java.nio.file.Files;
+import java.util.ArrayDeque;
 
 import static io.aeron.logbuffer.LogBufferDescriptor.computeLogLength;
 
 /**
  * Factory for creating {@link RawLog}s in the source publications or publication images directories as appropriate.
+ * <p>
+ * When pooling is enabled freed logs are renamed into the pool directory and kept mapped. Once the recycle delay has
+ * passed, so no client can still have them mapped, {@link #prepareReleasedLogs(long)} zeroes them and adds them to a
+ * pool keyed by term length and sparse setting. They can then be handed out again without the cost of creating,
+ * allocating, and faulting in a new file. Logs waiting out the recycle delay count against the max pool size for their
+ * key so freed logs beyond it are deleted straight away rather than held mapped until the delay has passed.
+ * <p>
+ * Logs may be created on a different thread to the one which frees them so access to the pool is synchronised. Only
+ * the pool bookkeeping is done under the lock, creating, renaming, zeroing, and closing of files is done outside it.
  */
 public class FileStoreLogFactory implements LogFactory
 {
     private static final String PUBLICATIONS = "publications";
     private static final String IMAGES = "images";
+    private static final String POOL = "pool";
 
     private long blankTemplateLength;
+    private long poolFileId = 0;
+    private boolean isClosed = false;
+    private final int logPoolMaxSize;
+    private final long logPoolRecycleDelayNs;
     private final long lowStorageWarningThreshold;
     private final int filePageSize;
     private final boolean checkStorage;
@@ -49,6 +67,12 @@ public class FileStoreLogFactory implements LogFactory
     private final FileStore fileStore;
     private final RandomAccessFile blankFile;
     private final FileChannel blankChannel;
+    private final File poolDir;
+    private final NanoClock nanoClock;
+    private final AtomicCounter logPoolHits;
+    private final AtomicCounter logPoolMisses;
+    private final Long2ObjectHashMap<LogPool> logPoolByKeyMap = new Long2ObjectHashMap<>();
+    private final ArrayDeque<MappedRawLog> releasedLogs = new ArrayDeque<>();
 
     public FileStoreLogFactory(
         final String dataDirectoryName,
@@ -56,8 +80,38 @@ public class FileStoreLogFactory implements LogFactory
         final boolean checkStorage,
         final long lowStorageWarningThreshold,
         final ErrorHandler errorHandler)
+    {
+        this(
+            dataDirectoryName,
+            filePageSize,
+            checkStorage,
+            lowStorageWarningThreshold,
+            0,
+            0,
+            null,
+            null,
+            null,
+            errorHandler);
+    }
+
+    public FileStoreLogFactory(
+        final String dataDirectoryName,
+        final int filePageSize,
+        final boolean checkStorage,
+        final long lowStorageWarningThreshold,
+        final int logPoolMaxSize,
+        final long logPoolRecycleDelayNs,
+        final NanoClock nanoClock,
+        final AtomicCounter logPoolHits,
+        final AtomicCounter logPoolMisses,
+        final ErrorHandler errorHandler)
     {
         this.filePageSize = filePageSize;
+        this.logPoolMaxSize = logPoolMaxSize;
+        this.logPoolRecycleDelayNs = logPoolRecycleDelayNs;
+        this.nanoClock = nanoClock;
+        this.logPoolHits = logPoolHits;
+        this.logPoolMisses = logPoolMisses;
         this.lowStorageWarningThreshold = lowStorageWarningThreshold;
         this.checkStorage = checkStorage;
         this.errorHandler = errorHandler;
@@ -66,9 +120,14 @@ public class FileStoreLogFactory implements LogFactory
 
         publicationsDir = new File(dataDir, PUBLICATIONS);
         imagesDir = new File(dataDir, IMAGES);
+        poolDir = new File(dataDir, POOL);
 
         IoUtil.ensureDirectoryExists(publicationsDir, PUBLICATIONS);
         IoUtil.ensureDirectoryExists(imagesDir, IMAGES);
+        if (logPoolMaxSize > 0)
+        {
+            IoUtil.ensureDirectoryExists(poolDir, POOL);
+        }
 
         try
         {
@@ -84,9 +143,57 @@ public class FileStoreLogFactory implements LogFactory
 
     public void close()
     {
+        final ArrayDeque<MappedRawLog> logsToClose = new ArrayDeque<>();
+        synchronized (this)
+        {
+            isClosed = true;
+            logsToClose.addAll(releasedLogs);
+            releasedLogs.clear();
+
+            for (final LogPool logPool : logPoolByKeyMap.values())
+            {
+                logsToClose.addAll(logPool.logs);
+                logPool.logs.clear();
+                logPool.releasedCount = 0;
+            }
+        }
+
+        MappedRawLog rawLog;
+        while (null != (rawLog = logsToClose.pollFirst()))
+        {
+            rawLog.close();
+        }
+
         AeronCloseHelper.close(errorHandler, blankChannel);
     }
 
+    /**
+     * Create logs in the pool ahead of use so the first publications or images of the given term length do not pay
+     * the cost of creating and pre-touching a new file. Pages are touched even for sparse files so they are faulted
+     * in ahead of use.
+     *
+     * @param count          of logs to add to the pool, limited by the max pool size.
+     * @param termLength     of each term in the logs.
+     * @param useSparseFiles for the log buffers.
+     */
+    public void preallocate(final int count, final int termLength, final boolean useSparseFiles)
+    {
+        for (int i = 0; i < count && hasPoolCapacity(termLength, useSparseFiles); i++)
+        {
+            final MappedRawLog rawLog = newMappedRawLog(nextPoolLocation(), termLength, useSparseFiles);
+            if (useSparseFiles)
+            {
+                rawLog.preTouchPages();
+            }
+
+            if (!addToPool(rawLog))
+            {
+                rawLog.close();
+                break;
+            }
+        }
+    }
+
     /**
      * Create new {@link RawLog} in the publications directory for the supplied triplet.
      *
@@ -95,7 +202,8 @@ public class FileStoreLogFactory implements LogFactory
      * @param useSparseFiles   for the log buffer.
      * @return the newly allocated {@link RawLog}
      */
-    public RawLog newPublication(final long correlationId, final int termBufferLength, final boolean useSparseFiles)
+    public RawLog newPublication(
+        final long correlationId, final int termBufferLength, final boolean useSparseFiles)
     {
         return newInstance(publicationsDir, correlationId, termBufferLength, useSparseFiles);
     }
@@ -108,7 +216,8 @@ public class FileStoreLogFactory implements LogFactory
      * @param useSparseFiles   for the log buffer.
      * @return the newly allocated {@link RawLog}
      */
-    public RawLog newImage(final long correlationId, final int termBufferLength, final boolean useSparseFiles)
+    public RawLog newImage(
+        final long correlationId, final int termBufferLength, final boolean useSparseFiles)
     {
         return newInstance(imagesDir, correlationId, termBufferLength, useSparseFiles);
     }
@@ -118,10 +227,153 @@ public class FileStoreLogFactory implements LogFactory
         final long correlationId,
         final int termLength,
         final boolean useSparseFiles)
+    {
+        final File location = streamLocation(rootDir, correlationId);
+
+        if (logPoolMaxSize > 0)
+        {
+            final MappedRawLog pooledLog = pollPooledLog(termLength, useSparseFiles);
+            if (null != pooledLog)
+            {
+                if (pooledLog.moveTo(location))
+                {
+                    logPoolHits.increment();
+                    return new PooledRawLog(this, pooledLog);
+                }
+
+                pooledLog.close();
+            }
+
+            logPoolMisses.increment();
+            return new PooledRawLog(this, newMappedRawLog(location, termLength, useSparseFiles));
+        }
+
+        return newMappedRawLog(location, termLength, useSparseFiles);
+    }
+
+    /**
+     * Zero logs which were released longer than the recycle delay ago and add them to the pool for reuse.
+     *
+     * @param nowNs current time in nanoseconds.
+     * @return the number of logs prepared for reuse.
+     */
+    public int prepareReleasedLogs(final long nowNs)
+    {
+        int workCount = 0;
+        MappedRawLog rawLog;
+
+        while (null != (rawLog = pollReleasedLog(nowNs - logPoolRecycleDelayNs)))
+        {
+            rawLog.reset();
+            if (!addToPool(rawLog))
+            {
+                rawLog.close();
+            }
+
+            workCount++;
+        }
+
+        return workCount;
+    }
+
+    boolean recycle(final MappedRawLog rawLog)
+    {
+        if (!rawLog.isInactive() && reserveReleasedLog(rawLog))
+        {
+            if (rawLog.moveTo(nextPoolLocation()))
+            {
+                rawLog.timeOfReleaseNs = nanoClock.nanoTime();
+                if (addToReleasedLogs(rawLog))
+                {
+                    return true;
+                }
+            }
+            else
+            {
+                cancelReleasedLog(rawLog);
+            }
+        }
+
+        return rawLog.free();
+    }
+
+    private synchronized boolean hasPoolCapacity(final int termLength, final boolean useSparseFiles)
+    {
+        return !isClosed && logPool(termLength, useSparseFiles).size() < logPoolMaxSize;
+    }
+
+    private synchronized MappedRawLog pollPooledLog(final int termLength, final boolean useSparseFiles)
+    {
+        return logPool(termLength, useSparseFiles).logs.pollFirst();
+    }
+
+    private synchronized boolean reserveReleasedLog(final MappedRawLog rawLog)
+    {
+        final LogPool logPool = logPool(rawLog.termLength(), rawLog.useSparseFiles());
+        if (!isClosed && logPool.size() < logPoolMaxSize)
+        {
+            logPool.releasedCount++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private synchronized void cancelReleasedLog(final MappedRawLog rawLog)
+    {
+        if (!isClosed)
+        {
+            logPool(rawLog.termLength(), rawLog.useSparseFiles()).releasedCount--;
+        }
+    }
+
+    private synchronized boolean addToReleasedLogs(final MappedRawLog rawLog)
+    {
+        if (!isClosed)
+        {
+            releasedLogs.addLast(rawLog);
+            return true;
+        }
+
+        return false;
+    }
+
+    private synchronized MappedRawLog pollReleasedLog(final long releasedBeforeNs)
+    {
+        final MappedRawLog rawLog = releasedLogs.peekFirst();
+        if (null != rawLog && rawLog.timeOfReleaseNs - releasedBeforeNs <= 0)
+        {
+            logPool(rawLog.termLength(), rawLog.useSparseFiles()).releasedCount--;
+            return releasedLogs.pollFirst();
+        }
+
+        return null;
+    }
+
+    private synchronized boolean addToPool(final MappedRawLog rawLog)
+    {
+        final LogPool logPool = logPool(rawLog.termLength(), rawLog.useSparseFiles());
+        if (!isClosed && logPool.size() < logPoolMaxSize)
+        {
+            logPool.logs.addLast(rawLog);
+            return true;
+        }
+
+        return false;
+    }
+
+    private MappedRawLog newMappedRawLog(final File location, final int termLength, final boolean useSparseFiles)
     {
         final long logLength = computeLogLength(termLength, filePageSize);
         checkStorage(logLength);
+        ensureBlankTemplateLength(logLength);
+
+        return new MappedRawLog(
+            location, blankChannel, useSparseFiles, logLength, termLength, filePageSize, errorHandler);
+    }
 
+    private synchronized void ensureBlankTemplateLength(final long logLength)
+    {
         if (logLength > blankTemplateLength)
         {
             try
@@ -135,11 +387,25 @@ public class FileStoreLogFactory implements LogFactory
 
             blankTemplateLength = logLength;
         }
+    }
 
-        final File location = streamLocation(rootDir, correlationId);
+    private LogPool logPool(final int termLength, final boolean useSparseFiles)
+    {
+        final long key = ((long)termLength << 1) | (useSparseFiles ? 1 : 0);
 
-        return new MappedRawLog(
-            location, blankChannel, useSparseFiles, logLength, termLength, filePageSize, errorHandler);
+        LogPool logPool = logPoolByKeyMap.get(key);
+        if (null == logPool)
+        {
+            logPool = new LogPool(logPoolMaxSize);
+            logPoolByKeyMap.put(key, logPool);
+        }
+
+        return logPool;
+    }
+
+    private synchronized File nextPoolLocation()
+    {
+        return new File(poolDir, (poolFileId++) + ".logbuffer");
     }
 
     private void checkStorage(final long logLength)
@@ -184,4 +450,20 @@ public class FileStoreLogFactory implements LogFactory
 
         return new File(rootDir, fileName);
     }
+
+    static final class LogPool
+    {
+        final ArrayDeque<MappedRawLog> logs;
+        int releasedCount;
+
+        LogPool(final int capacity)
+        {
+            logs = new ArrayDeque<>(capacity);
+        }
+
+        int size()
+        {
+            return logs.size() + releasedCount;
+        }
+    }
 }
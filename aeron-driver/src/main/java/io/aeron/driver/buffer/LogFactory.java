@@ -39,4 +39,16 @@ public interface LogFactory extends AutoCloseable
      * @return the newly created {@link RawLog}
      */
     RawLog newImage(long correlationId, int termBufferLength, boolean useSparseFiles);
+
+    /**
+     * Prepare released logs for reuse once no client can still have them mapped. Called from the agent which
+     * allocates logs so the cost is kept off the conductor thread.
+     *
+     * @param nowNs current time in nanoseconds.
+     * @return the number of logs prepared for reuse.
+     */
+    default int prepareReleasedLogs(final long nowNs)
+    {
+        return 0;
+    }
 }
@@ -47,11 +47,14 @@ class MappedRawLog implements RawLog
     private static final FileAttribute<?>[] NO_ATTRIBUTES = new FileAttribute[0];
 
     private final int termLength;
+    private final int filePageSize;
+    private final boolean useSparseFiles;
     private final UnsafeBuffer[] termBuffers = new UnsafeBuffer[PARTITION_COUNT];
     private final UnsafeBuffer logMetaDataBuffer;
     private final ErrorHandler errorHandler;
     private File logFile;
     private MappedByteBuffer[] mappedBuffers;
+    long timeOfReleaseNs;
 
     MappedRawLog(
         final File location,
@@ -63,6 +66,8 @@ class MappedRawLog implements RawLog
         final ErrorHandler errorHandler)
     {
         this.termLength = termLength;
+        this.filePageSize = filePageSize;
+        this.useSparseFiles = useSparseFiles;
         this.errorHandler = errorHandler;
         this.logFile = location;
 
@@ -117,7 +122,7 @@ class MappedRawLog implements RawLog
 
             if (!useSparseFiles)
             {
-                preTouchPages(termBuffers, termLength, filePageSize);
+                preTouchPages();
             }
         }
         catch (final IOException ex)
@@ -131,6 +136,11 @@ class MappedRawLog implements RawLog
         return termLength;
     }
 
+    boolean useSparseFiles()
+    {
+        return useSparseFiles;
+    }
+
     public boolean isInactive()
     {
         return null == mappedBuffers;
@@ -211,6 +221,36 @@ class MappedRawLog implements RawLog
         return logFile.getAbsolutePath();
     }
 
+    /**
+     * Rename the underlying file while keeping it mapped so the log can be recycled under a new name.
+     *
+     * @param location to move the log file to.
+     * @return true if the file was renamed otherwise false.
+     */
+    boolean moveTo(final File location)
+    {
+        if (null != logFile && logFile.renameTo(location))
+        {
+            logFile = location;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Zero the terms and metadata so the log is indistinguishable from a newly created one.
+     */
+    void reset()
+    {
+        for (final UnsafeBuffer termBuffer : termBuffers)
+        {
+            termBuffer.setMemory(0, termLength, (byte)0);
+        }
+
+        logMetaDataBuffer.setMemory(0, LOG_META_DATA_LENGTH, (byte)0);
+    }
+
     private static void allocatePages(final FileChannel blankChannel, final FileChannel logChannel, final long length)
         throws IOException
     {
@@ -222,14 +262,22 @@ class MappedRawLog implements RawLog
         while (remaining > 0);
     }
 
-    private static void preTouchPages(final UnsafeBuffer[] buffers, final int length, final int pageSize)
+    /**
+     * Touch each page of the terms and metadata so they are faulted in and backed by storage before first use.
+     */
+    void preTouchPages()
     {
-        for (final UnsafeBuffer buffer : buffers)
+        for (final UnsafeBuffer buffer : termBuffers)
         {
-            for (long i = 0; i < length; i += pageSize)
+            for (long i = 0; i < termLength; i += filePageSize)
             {
                 buffer.putByte((int)i, (byte)0);
             }
         }
+
+        for (int i = 0, length = logMetaDataBuffer.capacity(); i < length; i += filePageSize)
+        {
+            logMetaDataBuffer.putByte(i, (byte)0);
+        }
     }
 }
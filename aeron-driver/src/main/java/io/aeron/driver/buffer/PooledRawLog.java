@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.buffer;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link RawLog} on loan from the pool of a {@link FileStoreLogFactory} which is returned to the pool rather than
+ * deleted when freed.
+ */
+class PooledRawLog implements RawLog
+{
+    private boolean isFreed = false;
+    private final FileStoreLogFactory logFactory;
+    private final MappedRawLog mappedRawLog;
+
+    PooledRawLog(final FileStoreLogFactory logFactory, final MappedRawLog mappedRawLog)
+    {
+        this.logFactory = logFactory;
+        this.mappedRawLog = mappedRawLog;
+    }
+
+    public int termLength()
+    {
+        return mappedRawLog.termLength();
+    }
+
+    public UnsafeBuffer[] termBuffers()
+    {
+        return mappedRawLog.termBuffers();
+    }
+
+    public UnsafeBuffer metaData()
+    {
+        return mappedRawLog.metaData();
+    }
+
+    public ByteBuffer[] sliceTerms()
+    {
+        return mappedRawLog.sliceTerms();
+    }
+
+    public String fileName()
+    {
+        return mappedRawLog.fileName();
+    }
+
+    public boolean free()
+    {
+        if (!isFreed)
+        {
+            isFreed = logFactory.recycle(mappedRawLog);
+        }
+
+        return isFreed;
+    }
+
+    public boolean isInactive()
+    {
+        return isFreed || mappedRawLog.isInactive();
+    }
+
+    public void close()
+    {
+        if (!free())
+        {
+            mappedRawLog.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import io.aeron.Aeron;
+import io.aeron.driver.StatusMessagePolicy;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Policy which adapts the threshold of consumption after which a Status Message is sent to the consumption rate and
+ * the RTT to the source.
+ * <p>
+ * At high rates the threshold grows towards half the window so fewer Status Messages are sent, but it is held low
+ * enough that the window left when one is sent covers the bytes consumed in an RTT so the source is not stalled. At low
+ * rates the threshold falls towards a sixteenth of the window so space freed by a slow consumer is advertised sooner.
+ * The RTT is only known when the {@link io.aeron.driver.CongestionControl} for the image measures it, until then the
+ * threshold is held to no more than a quarter of the window as with the {@link io.aeron.driver.CongestionControl}
+ * default so the source is not stalled on a long path.
+ */
+public class AdaptiveStatusMessagePolicy implements StatusMessagePolicy
+{
+    private static final double RATE_WEIGHT = 0.25;
+
+    private final long targetIntervalNs;
+    private final long rateSampleIntervalNs;
+    private long timeOfLastRateSampleNs = Aeron.NULL_VALUE;
+    private long lastRateSamplePosition;
+    private double bytesPerNs;
+    private volatile long rttNs = Aeron.NULL_VALUE;
+
+    /**
+     * Create a policy with the intervals from {@link AdaptiveStatusMessagePolicyConfiguration}.
+     */
+    public AdaptiveStatusMessagePolicy()
+    {
+        this(
+            AdaptiveStatusMessagePolicyConfiguration.TARGET_INTERVAL_NS,
+            AdaptiveStatusMessagePolicyConfiguration.RATE_SAMPLE_INTERVAL_NS);
+    }
+
+    /**
+     * Create a policy with explicit intervals.
+     *
+     * @param targetIntervalNs     between Status Messages at a steady consumption rate.
+     * @param rateSampleIntervalNs over which the consumption rate is sampled.
+     */
+    public AdaptiveStatusMessagePolicy(final long targetIntervalNs, final long rateSampleIntervalNs)
+    {
+        this.targetIntervalNs = targetIntervalNs;
+        this.rateSampleIntervalNs = rateSampleIntervalNs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean shouldScheduleStatusMessage(
+        final long nowNs,
+        final long position,
+        final long lastSmPosition,
+        final long timeOfLastSmNs,
+        final int windowLength,
+        final long statusMessageTimeoutNs)
+    {
+        sampleRate(nowNs, position);
+
+        return ((timeOfLastSmNs + statusMessageTimeoutNs) - nowNs < 0) ||
+            (position > (lastSmPosition + threshold(windowLength)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void onRttMeasurement(final long nowNs, final long rttNs, final InetSocketAddress srcAddress)
+    {
+        this.rttNs = rttNs;
+    }
+
+    /**
+     * The threshold of consumption since the last Status Message after which another should be sent.
+     *
+     * @param windowLength of the receiver window.
+     * @return the threshold of consumption after which a Status Message should be sent.
+     */
+    public int threshold(final int windowLength)
+    {
+        final double bytesPerNs = this.bytesPerNs;
+        final long rateThreshold = (long)(bytesPerNs * targetIntervalNs);
+        final long rttNs = this.rttNs;
+        final long rttThreshold = Aeron.NULL_VALUE == rttNs ?
+            windowLength >> 2 : windowLength - (long)(bytesPerNs * rttNs);
+        final long threshold = Math.min(rateThreshold, rttThreshold);
+
+        return (int)Math.max(windowLength >> 4, Math.min(threshold, windowLength >> 1));
+    }
+
+    /**
+     * The smoothed consumption rate in bytes per nanosecond.
+     *
+     * @return the smoothed consumption rate in bytes per nanosecond.
+     */
+    public double bytesPerNs()
+    {
+        return bytesPerNs;
+    }
+
+    private void sampleRate(final long nowNs, final long position)
+    {
+        if (Aeron.NULL_VALUE == timeOfLastRateSampleNs)
+        {
+            timeOfLastRateSampleNs = nowNs;
+            lastRateSamplePosition = position;
+        }
+        else if (nowNs - timeOfLastRateSampleNs >= rateSampleIntervalNs)
+        {
+            final double sample = (double)Math.max(0, position - lastRateSamplePosition) /
+                (nowNs - timeOfLastRateSampleNs);
+
+            bytesPerNs += (sample - bytesPerNs) * RATE_WEIGHT;
+            timeOfLastRateSampleNs = nowNs;
+            lastRateSamplePosition = position;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration options to be applied when {@link AdaptiveStatusMessagePolicy} is loaded.
+ */
+public class AdaptiveStatusMessagePolicyConfiguration
+{
+    /**
+     * Property name for the target interval between Status Messages in nanoseconds at a steady consumption rate. The
+     * threshold of consumption after which a Status Message is sent is the bytes consumed in this interval, bounded to
+     * between a sixteenth and a half of the receiver window.
+     */
+    public static final String TARGET_INTERVAL_NS_PROP_NAME = "aeron.AdaptiveStatusMessagePolicy.targetInterval";
+
+    /**
+     * Default target interval between Status Messages in nanoseconds.
+     */
+    public static final long TARGET_INTERVAL_NS_DEFAULT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Property name for the interval in nanoseconds over which the consumption rate is sampled.
+     */
+    public static final String RATE_SAMPLE_INTERVAL_NS_PROP_NAME =
+        "aeron.AdaptiveStatusMessagePolicy.rateSampleInterval";
+
+    /**
+     * Default interval in nanoseconds over which the consumption rate is sampled.
+     */
+    public static final long RATE_SAMPLE_INTERVAL_NS_DEFAULT = TimeUnit.MICROSECONDS.toNanos(250);
+
+    public static final long TARGET_INTERVAL_NS = Long.getLong(
+        TARGET_INTERVAL_NS_PROP_NAME, TARGET_INTERVAL_NS_DEFAULT);
+    public static final long RATE_SAMPLE_INTERVAL_NS = Long.getLong(
+        RATE_SAMPLE_INTERVAL_NS_PROP_NAME, RATE_SAMPLE_INTERVAL_NS_DEFAULT);
+}
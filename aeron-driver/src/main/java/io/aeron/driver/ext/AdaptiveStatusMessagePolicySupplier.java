@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.StatusMessagePolicy;
+import io.aeron.driver.StatusMessagePolicySupplier;
+import io.aeron.driver.media.UdpChannel;
+
+/**
+ * Supplier of the {@link AdaptiveStatusMessagePolicy} for all images.
+ */
+public class AdaptiveStatusMessagePolicySupplier implements StatusMessagePolicySupplier
+{
+    /**
+     * {@inheritDoc}
+     */
+    public StatusMessagePolicy newInstance(
+        final long registrationId,
+        final UdpChannel udpChannel,
+        final int streamId,
+        final int sessionId,
+        final int termLength,
+        final int senderMtuLength,
+        final MediaDriver.Context context)
+    {
+        return new AdaptiveStatusMessagePolicy();
+    }
+}
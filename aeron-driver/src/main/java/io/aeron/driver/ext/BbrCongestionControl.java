@@ -0,0 +1,377 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import io.aeron.AeronCloseHelper;
+import io.aeron.driver.CongestionControl;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.media.UdpChannel;
+import io.aeron.driver.status.PerImageIndicator;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.driver.CongestionControl.packOutcome;
+
+/**
+ * BBR style model based congestion control manipulation of the receiver window length.
+ * <p>
+ * <a target="_blank" href="https://queue.acm.org/detail.cfm?id=3022184">
+ * https://queue.acm.org/detail.cfm?id=3022184</a>
+ * <p>
+ * The bottleneck bandwidth {@code btlBw} is the max delivery rate of the image over the last 10 rounds, where a round
+ * is one min RTT, and the min RTT {@code minRtt} is the min of RTT measurements to the Sender over a 10 second window.
+ * Loss is not taken as a signal of congestion.
+ * <p>
+ * As the Sender can only have a receiver window of data in flight then the window is sized to
+ * {@code cwnd_gain * pacing_gain * btlBw * minRtt} so the Sender is paced to {@code pacing_gain * btlBw}. The pacing
+ * gain depends on the state:
+ * <ul>
+ * <li>STARTUP: 2/ln2 to double the delivery rate each round until {@code btlBw} stops growing by 25% for 3 rounds.</li>
+ * <li>DRAIN: ln2/2 for a round to drain the queue built in STARTUP.</li>
+ * <li>PROBE_BW: cycles through 1.25, 0.75, then 1 for 6 rounds to probe for more bandwidth.</li>
+ * <li>PROBE_RTT: window held at the minimum when the min RTT has expired so queues drain and it can be measured.</li>
+ * </ul>
+ */
+public class BbrCongestionControl implements CongestionControl
+{
+    /**
+     * URI param value to identify this {@link CongestionControl} strategy.
+     */
+    public static final String CC_PARAM_VALUE = "bbr";
+
+    enum State
+    {
+        STARTUP, DRAIN, PROBE_BW, PROBE_RTT
+    }
+
+    private static final long INITIAL_RTT_NS = BbrCongestionControlConfiguration.INITIAL_RTT_NS;
+    private static final long RTT_MEASUREMENT_INTERVAL_NS =
+        BbrCongestionControlConfiguration.RTT_MEASUREMENT_INTERVAL_NS;
+    private static final long MIN_RTT_WINDOW_NS = BbrCongestionControlConfiguration.MIN_RTT_WINDOW_NS;
+    private static final long PROBE_RTT_DURATION_NS = BbrCongestionControlConfiguration.PROBE_RTT_DURATION_NS;
+
+    private static final long SECOND_IN_NS = TimeUnit.SECONDS.toNanos(1);
+    private static final long RTT_TIMEOUT_NS = SECOND_IN_NS;
+    private static final long MIN_ROUND_NS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private static final double HIGH_GAIN = 2.0 / Math.log(2.0);
+    private static final double DRAIN_GAIN = 1.0 / HIGH_GAIN;
+    private static final double CWND_GAIN = 2.0;
+    private static final double FULL_BW_THRESHOLD = 1.25;
+    private static final int FULL_BW_ROUNDS = 3;
+    private static final int BTL_BW_FILTER_ROUNDS = 10;
+    private static final int MIN_WINDOW_MTUS = 4;
+    private static final int INITIAL_WINDOW_MTUS = 10;
+    private static final double[] PROBE_BW_GAINS = { 1.25, 0.75, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0 };
+
+    private final int minWindow;
+    private final int maxWindow;
+    private final int initialWindow;
+    private final ErrorHandler errorHandler;
+
+    private long lastRttTimestampNs = 0;
+    private boolean isRttMeasurementOutstanding = false;
+    private long rttSampleNs;
+    private volatile long rttSampleCount = 0;
+
+    private State state = State.STARTUP;
+    private long lastRttSampleCount = 0;
+    private long minRttNs = INITIAL_RTT_NS;
+    private long minRttTimestampNs;
+    private long roundStartNs;
+    private long roundStartPosition;
+    private boolean hasRoundStarted = false;
+    private long probeRttDoneNs;
+    private long btlBw = 0;
+    private long fullBw = 0;
+    private int fullBwRounds = 0;
+    private boolean isFullPipe = false;
+    private int cycleIndex;
+    private int btlBwFilterIndex = 0;
+    private final long[] btlBwFilter = new long[BTL_BW_FILTER_ROUNDS];
+    private double pacingGain = HIGH_GAIN;
+    private int window;
+
+    private final AtomicCounter btlBwIndicator;
+    private final AtomicCounter minRttIndicator;
+    private final AtomicCounter pacingGainIndicator;
+    private final AtomicCounter windowIndicator;
+
+    public BbrCongestionControl(
+        final long registrationId,
+        final UdpChannel udpChannel,
+        final int streamId,
+        final int sessionId,
+        final int termLength,
+        final int senderMtuLength,
+        final InetSocketAddress controlAddress,
+        final InetSocketAddress sourceAddress,
+        final NanoClock clock,
+        final MediaDriver.Context context,
+        final CountersManager countersManager)
+    {
+        maxWindow = Math.max(senderMtuLength, Math.min(termLength >> 1, context.initialWindowLength()));
+        minWindow = Math.min(maxWindow, senderMtuLength * MIN_WINDOW_MTUS);
+        initialWindow = Math.min(maxWindow, senderMtuLength * INITIAL_WINDOW_MTUS);
+        window = initialWindow;
+
+        // start the gain cycle at a point other than the drain phase which varies by session
+        cycleIndex = 2 + ((sessionId & Integer.MAX_VALUE) % (PROBE_BW_GAINS.length - 2));
+
+        final String channel = udpChannel.originalUriString();
+        btlBwIndicator = PerImageIndicator.allocate(
+            context.tempBuffer(), "rcv-cc-bbr-btlbw", countersManager, registrationId, sessionId, streamId, channel);
+        minRttIndicator = PerImageIndicator.allocate(
+            context.tempBuffer(), "rcv-cc-bbr-minrtt", countersManager, registrationId, sessionId, streamId, channel);
+        pacingGainIndicator = PerImageIndicator.allocate(
+            context.tempBuffer(), "rcv-cc-bbr-gain-pct", countersManager, registrationId, sessionId, streamId, channel);
+        windowIndicator = PerImageIndicator.allocate(
+            context.tempBuffer(), "rcv-cc-bbr-wnd", countersManager, registrationId, sessionId, streamId, channel);
+
+        final long nowNs = clock.nanoTime();
+        minRttTimestampNs = nowNs;
+
+        btlBwIndicator.setOrdered(0);
+        minRttIndicator.setOrdered(minRttNs);
+        pacingGainIndicator.setOrdered(gainPercent(pacingGain));
+        windowIndicator.setOrdered(window);
+
+        errorHandler = context.errorHandler();
+    }
+
+    public boolean shouldMeasureRtt(final long nowNs)
+    {
+        return (!isRttMeasurementOutstanding && ((lastRttTimestampNs + RTT_MEASUREMENT_INTERVAL_NS) - nowNs < 0)) ||
+            ((lastRttTimestampNs + RTT_TIMEOUT_NS) - nowNs < 0);
+    }
+
+    public void onRttMeasurementSent(final long nowNs)
+    {
+        lastRttTimestampNs = nowNs;
+        isRttMeasurementOutstanding = true;
+    }
+
+    public void onRttMeasurement(final long nowNs, final long rttNs, final InetSocketAddress srcAddress)
+    {
+        isRttMeasurementOutstanding = false;
+        lastRttTimestampNs = nowNs;
+
+        if (rttNs > 0)
+        {
+            rttSampleNs = rttNs;
+            rttSampleCount = rttSampleCount + 1;
+        }
+    }
+
+    public long onTrackRebuild(
+        final long nowNs,
+        final long newConsumptionPosition,
+        final long lastSmPosition,
+        final long hwmPosition,
+        final long startingRebuildPosition,
+        final long endingRebuildPosition,
+        final boolean lossOccurred)
+    {
+        final State initialState = state;
+
+        updateMinRtt(nowNs);
+
+        if (!hasRoundStarted)
+        {
+            hasRoundStarted = true;
+            roundStartNs = nowNs;
+            roundStartPosition = startingRebuildPosition;
+        }
+
+        final long roundDurationNs = nowNs - roundStartNs;
+        if (roundDurationNs >= Math.max(minRttNs, MIN_ROUND_NS))
+        {
+            onRoundEnd(nowNs, roundDurationNs, endingRebuildPosition);
+        }
+
+        if (State.PROBE_RTT == state && nowNs - probeRttDoneNs >= 0)
+        {
+            minRttTimestampNs = nowNs;
+            enterProbeBwOrStartup();
+        }
+
+        updateWindow();
+
+        return packOutcome(window, initialState != state);
+    }
+
+    public int initialWindowLength()
+    {
+        return initialWindow;
+    }
+
+    public void close()
+    {
+        AeronCloseHelper.close(errorHandler, btlBwIndicator);
+        AeronCloseHelper.close(errorHandler, minRttIndicator);
+        AeronCloseHelper.close(errorHandler, pacingGainIndicator);
+        AeronCloseHelper.close(errorHandler, windowIndicator);
+    }
+
+    State state()
+    {
+        return state;
+    }
+
+    long btlBw()
+    {
+        return btlBw;
+    }
+
+    long minRttNs()
+    {
+        return minRttNs;
+    }
+
+    private void updateMinRtt(final long nowNs)
+    {
+        final boolean isMinRttExpired = nowNs - (minRttTimestampNs + MIN_RTT_WINDOW_NS) > 0;
+
+        final long sampleCount = rttSampleCount;
+        if (sampleCount != lastRttSampleCount)
+        {
+            lastRttSampleCount = sampleCount;
+            final long rttNs = rttSampleNs;
+
+            if (rttNs <= minRttNs || isMinRttExpired || 1 == sampleCount)
+            {
+                minRttNs = rttNs;
+                minRttTimestampNs = nowNs;
+                minRttIndicator.setOrdered(rttNs);
+            }
+        }
+
+        if (isMinRttExpired && State.PROBE_RTT != state)
+        {
+            state = State.PROBE_RTT;
+            pacingGain = 1.0;
+            probeRttDoneNs = nowNs + Math.max(PROBE_RTT_DURATION_NS, minRttNs);
+        }
+    }
+
+    private void onRoundEnd(final long nowNs, final long roundDurationNs, final long rebuildPosition)
+    {
+        final long deliveredBytes = rebuildPosition - roundStartPosition;
+        final long deliveryRate = (long)((double)deliveredBytes * SECOND_IN_NS / roundDurationNs);
+
+        btlBwFilterIndex = (btlBwFilterIndex + 1) % BTL_BW_FILTER_ROUNDS;
+        btlBwFilter[btlBwFilterIndex] = deliveryRate;
+
+        long maxBw = 0;
+        for (final long bw : btlBwFilter)
+        {
+            maxBw = Math.max(maxBw, bw);
+        }
+        btlBw = maxBw;
+        btlBwIndicator.setOrdered(btlBw);
+
+        roundStartNs = nowNs;
+        roundStartPosition = rebuildPosition;
+
+        switch (state)
+        {
+            case STARTUP:
+                checkFullPipe();
+                if (isFullPipe)
+                {
+                    state = State.DRAIN;
+                    pacingGain = DRAIN_GAIN;
+                }
+                break;
+
+            case DRAIN:
+                enterProbeBwOrStartup();
+                break;
+
+            case PROBE_BW:
+                cycleIndex = (cycleIndex + 1) % PROBE_BW_GAINS.length;
+                pacingGain = PROBE_BW_GAINS[cycleIndex];
+                break;
+
+            case PROBE_RTT:
+                break;
+        }
+    }
+
+    private void checkFullPipe()
+    {
+        if (btlBw >= fullBw * FULL_BW_THRESHOLD)
+        {
+            fullBw = btlBw;
+            fullBwRounds = 0;
+        }
+        else if (++fullBwRounds >= FULL_BW_ROUNDS)
+        {
+            isFullPipe = true;
+        }
+    }
+
+    private void enterProbeBwOrStartup()
+    {
+        if (isFullPipe)
+        {
+            state = State.PROBE_BW;
+            pacingGain = PROBE_BW_GAINS[cycleIndex];
+        }
+        else
+        {
+            state = State.STARTUP;
+            pacingGain = HIGH_GAIN;
+        }
+    }
+
+    private void updateWindow()
+    {
+        int newWindow;
+        if (State.PROBE_RTT == state)
+        {
+            newWindow = minWindow;
+        }
+        else if (0 == btlBw)
+        {
+            newWindow = window;
+        }
+        else
+        {
+            final double bdp = (double)btlBw * minRttNs / SECOND_IN_NS;
+            newWindow = (int)Math.min(maxWindow, Math.max(minWindow, CWND_GAIN * pacingGain * bdp));
+
+            if (State.STARTUP == state)
+            {
+                newWindow = Math.max(newWindow, window);
+            }
+        }
+
+        window = newWindow;
+        windowIndicator.setOrdered(newWindow);
+        pacingGainIndicator.setOrdered(gainPercent(pacingGain));
+    }
+
+    private static long gainPercent(final double gain)
+    {
+        return Math.round(gain * 100);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration options to be applied when {@link BbrCongestionControl} is loaded.
+ */
+public class BbrCongestionControlConfiguration
+{
+    /**
+     * Property name for initial RTT in nanoseconds used until the first RTT measurement is received.
+     */
+    public static final String INITIAL_RTT_NS_PROP_NAME = "aeron.BbrCongestionControl.initialRtt";
+
+    /**
+     * Default initial RTT in nanoseconds.
+     */
+    public static final long INITIAL_RTT_NS_DEFAULT = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Property name for the interval in nanoseconds between RTT measurements sent to the Sender.
+     */
+    public static final String RTT_MEASUREMENT_INTERVAL_NS_PROP_NAME =
+        "aeron.BbrCongestionControl.rttMeasurementInterval";
+
+    /**
+     * Default interval in nanoseconds between RTT measurements.
+     */
+    public static final long RTT_MEASUREMENT_INTERVAL_NS_DEFAULT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Property name for the time in nanoseconds after which the min RTT estimate expires and the window is drained
+     * to probe for a new min RTT.
+     */
+    public static final String MIN_RTT_WINDOW_NS_PROP_NAME = "aeron.BbrCongestionControl.minRttWindow";
+
+    /**
+     * Default time in nanoseconds after which the min RTT estimate expires.
+     */
+    public static final long MIN_RTT_WINDOW_NS_DEFAULT = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Property name for the time in nanoseconds the window is held at its minimum when probing for min RTT.
+     */
+    public static final String PROBE_RTT_DURATION_NS_PROP_NAME = "aeron.BbrCongestionControl.probeRttDuration";
+
+    /**
+     * Default time in nanoseconds the window is held at its minimum when probing for min RTT.
+     */
+    public static final long PROBE_RTT_DURATION_NS_DEFAULT = TimeUnit.MILLISECONDS.toNanos(200);
+
+    public static final long INITIAL_RTT_NS = Long.getLong(INITIAL_RTT_NS_PROP_NAME, INITIAL_RTT_NS_DEFAULT);
+    public static final long RTT_MEASUREMENT_INTERVAL_NS = Long.getLong(
+        RTT_MEASUREMENT_INTERVAL_NS_PROP_NAME, RTT_MEASUREMENT_INTERVAL_NS_DEFAULT);
+    public static final long MIN_RTT_WINDOW_NS = Long.getLong(MIN_RTT_WINDOW_NS_PROP_NAME, MIN_RTT_WINDOW_NS_DEFAULT);
+    public static final long PROBE_RTT_DURATION_NS = Long.getLong(
+        PROBE_RTT_DURATION_NS_PROP_NAME, PROBE_RTT_DURATION_NS_DEFAULT);
+}
@@ -20,6 +20,7 @@ import io.aeron.driver.media.ReceiveChannelEndpoint;
 import io.aeron.driver.DataPacketDispatcher;
 import io.aeron.driver.media.UdpChannel;
 import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.FecParityFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.SetupFlyweight;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -109,6 +110,19 @@ public class DebugReceiveChannelEndpoint extends ReceiveChannelEndpoint
         }
     }
 
+    public void onFecParityMessage(
+        final FecParityFlyweight header,
+        final UnsafeBuffer buffer,
+        final int length,
+        final InetSocketAddress srcAddress,
+        final int transportIndex)
+    {
+        if (!dataLossGenerator.shouldDropFrame(srcAddress, buffer, length))
+        {
+            super.onFecParityMessage(header, buffer, length, srcAddress, transportIndex);
+        }
+    }
+
     public void onRttMeasurement(
         final RttMeasurementFlyweight header,
         final UnsafeBuffer buffer,
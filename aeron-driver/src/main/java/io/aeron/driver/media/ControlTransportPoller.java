@@ -18,6 +18,7 @@ package io.aeron.driver.media;
 import io.aeron.AeronCloseHelper;
 import io.aeron.driver.Configuration;
 import io.aeron.protocol.NakFlyweight;
+import io.aeron.protocol.NakRangesFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.StatusMessageFlyweight;
 import org.agrona.BufferUtil;
@@ -45,6 +46,7 @@ public class ControlTransportPoller extends UdpTransportPoller
         Configuration.MAX_UDP_PAYLOAD_LENGTH, CACHE_LINE_LENGTH);
     private final UnsafeBuffer unsafeBuffer = new UnsafeBuffer(byteBuffer);
     private final NakFlyweight nakMessage = new NakFlyweight(unsafeBuffer);
+    private final NakRangesFlyweight nakRangesMessage = new NakRangesFlyweight(unsafeBuffer);
     private final StatusMessageFlyweight statusMessage = new StatusMessageFlyweight(unsafeBuffer);
     private final RttMeasurementFlyweight rttMeasurement = new RttMeasurementFlyweight(unsafeBuffer);
     private SendChannelEndpoint[] transports = new SendChannelEndpoint[0];
@@ -150,6 +152,10 @@ public class ControlTransportPoller extends UdpTransportPoller
                 {
                     channelEndpoint.onRttMeasurement(rttMeasurement, unsafeBuffer, bytesReceived, srcAddress);
                 }
+                else if (HDR_TYPE_NAK_RANGES == frameType)
+                {
+                    channelEndpoint.onNakRangesMessage(nakRangesMessage, unsafeBuffer, bytesReceived, srcAddress);
+                }
             }
         }
 
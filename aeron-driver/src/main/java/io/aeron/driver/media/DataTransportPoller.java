@@ -18,6 +18,7 @@ package io.aeron.driver.media;
 import io.aeron.AeronCloseHelper;
 import io.aeron.driver.Configuration;
 import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.FecParityFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.SetupFlyweight;
 import org.agrona.BufferUtil;
@@ -38,20 +39,46 @@ import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
 
 /**
  * Encapsulates the polling of data {@link UdpChannelTransport}s using whatever means provides the lowest latency.
+ * <p>
+ * When busy polling is enabled the selector is never used and every transport is read directly each duty cycle.
+ * Transports which have been idle for a while back off exponentially so that many mostly idle transports do not
+ * cost more than a select.
  */
 public class DataTransportPoller extends UdpTransportPoller
 {
+    /**
+     * Number of consecutive empty reads after which a transport is considered idle when busy polling.
+     */
+    static final int BUSY_POLL_IDLE_THRESHOLD = 1024;
+
+    private final boolean isBusyPoll;
+    private final int busyPollMaxSkip;
     private final ByteBuffer byteBuffer = BufferUtil.allocateDirectAligned(
         Configuration.MAX_UDP_PAYLOAD_LENGTH, CACHE_LINE_LENGTH);
     private final UnsafeBuffer unsafeBuffer = new UnsafeBuffer(byteBuffer);
     private final DataHeaderFlyweight dataMessage = new DataHeaderFlyweight(unsafeBuffer);
     private final SetupFlyweight setupMessage = new SetupFlyweight(unsafeBuffer);
     private final RttMeasurementFlyweight rttMeasurement = new RttMeasurementFlyweight(unsafeBuffer);
+    private final FecParityFlyweight fecParityMessage = new FecParityFlyweight(unsafeBuffer);
     private ChannelAndTransport[] channelAndTransports = new ChannelAndTransport[0];
 
     public DataTransportPoller(final ErrorHandler errorHandler)
+    {
+        this(errorHandler, false, 0);
+    }
+
+    /**
+     * Construct a poller for data transports.
+     *
+     * @param errorHandler    for reporting errors.
+     * @param isBusyPoll      true if transports should be read directly each duty cycle rather than selected.
+     * @param busyPollMaxSkip maximum number of duty cycles an idle transport will be skipped when busy polling.
+     */
+    public DataTransportPoller(final ErrorHandler errorHandler, final boolean isBusyPoll, final int busyPollMaxSkip)
     {
         super(errorHandler);
+        this.isBusyPoll = isBusyPoll;
+        this.busyPollMaxSkip = busyPollMaxSkip;
     }
 
     public void close()
@@ -72,7 +99,14 @@ public class DataTransportPoller extends UdpTransportPoller
         int bytesReceived = 0;
         try
         {
-            if (channelAndTransports.length <= ITERATION_THRESHOLD)
+            if (isBusyPoll)
+            {
+                for (final ChannelAndTransport channelAndTransport : channelAndTransports)
+                {
+                    bytesReceived += busyPoll(channelAndTransport);
+                }
+            }
+            else if (channelAndTransports.length <= ITERATION_THRESHOLD)
             {
                 for (final ChannelAndTransport channelAndTransport : channelAndTransports)
                 {
@@ -150,6 +184,33 @@ public class DataTransportPoller extends UdpTransportPoller
         }
     }
 
+    private int busyPoll(final ChannelAndTransport channelAndTransport)
+    {
+        if (channelAndTransport.skipCount > 0)
+        {
+            channelAndTransport.skipCount--;
+            return 0;
+        }
+
+        final InetSocketAddress srcAddress = channelAndTransport.transport.receive(byteBuffer);
+        if (null == srcAddress)
+        {
+            if (++channelAndTransport.emptyReads > BUSY_POLL_IDLE_THRESHOLD)
+            {
+                final int skipInterval = Math.min(Math.max(1, channelAndTransport.skipInterval << 1), busyPollMaxSkip);
+                channelAndTransport.skipInterval = skipInterval;
+                channelAndTransport.skipCount = skipInterval;
+            }
+
+            return 0;
+        }
+
+        channelAndTransport.emptyReads = 0;
+        channelAndTransport.skipInterval = 0;
+
+        return onFrame(channelAndTransport, srcAddress);
+    }
+
     private int poll(final ChannelAndTransport channelAndTransport)
     {
         int bytesReceived = 0;
@@ -157,30 +218,43 @@ public class DataTransportPoller extends UdpTransportPoller
 
         if (null != srcAddress)
         {
-            final int length = byteBuffer.position();
-            final ReceiveChannelEndpoint channelEndpoint = channelAndTransport.channelEndpoint;
+            bytesReceived = onFrame(channelAndTransport, srcAddress);
+        }
 
-            if (channelEndpoint.isValidFrame(unsafeBuffer, length))
-            {
-                channelEndpoint.receiveHook(unsafeBuffer, length, srcAddress);
-                final int transportIndex = channelAndTransport.transportIndex;
+        return bytesReceived;
+    }
 
-                final int frameType = frameType(unsafeBuffer, 0);
-                if (HDR_TYPE_DATA == frameType || HDR_TYPE_PAD == frameType)
-                {
-                    bytesReceived = channelEndpoint.onDataPacket(
-                        dataMessage, unsafeBuffer, length, srcAddress, transportIndex);
-                }
-                else if (HDR_TYPE_SETUP == frameType)
-                {
-                    channelEndpoint.onSetupMessage(
-                        setupMessage, unsafeBuffer, length, srcAddress, transportIndex);
-                }
-                else if (HDR_TYPE_RTTM == frameType)
-                {
-                    channelEndpoint.onRttMeasurement(
-                        rttMeasurement, unsafeBuffer, length, srcAddress, transportIndex);
-                }
+    private int onFrame(final ChannelAndTransport channelAndTransport, final InetSocketAddress srcAddress)
+    {
+        int bytesReceived = 0;
+        final int length = byteBuffer.position();
+        final ReceiveChannelEndpoint channelEndpoint = channelAndTransport.channelEndpoint;
+
+        if (channelEndpoint.isValidFrame(unsafeBuffer, length))
+        {
+            channelEndpoint.receiveHook(unsafeBuffer, length, srcAddress);
+            final int transportIndex = channelAndTransport.transportIndex;
+
+            final int frameType = frameType(unsafeBuffer, 0);
+            if (HDR_TYPE_DATA == frameType || HDR_TYPE_PAD == frameType)
+            {
+                bytesReceived = channelEndpoint.onDataPacket(
+                    dataMessage, unsafeBuffer, length, srcAddress, transportIndex);
+            }
+            else if (HDR_TYPE_SETUP == frameType)
+            {
+                channelEndpoint.onSetupMessage(
+                    setupMessage, unsafeBuffer, length, srcAddress, transportIndex);
+            }
+            else if (HDR_TYPE_RTTM == frameType)
+            {
+                channelEndpoint.onRttMeasurement(
+                    rttMeasurement, unsafeBuffer, length, srcAddress, transportIndex);
+            }
+            else if (HDR_TYPE_FEC_PARITY == frameType)
+            {
+                channelEndpoint.onFecParityMessage(
+                    fecParityMessage, unsafeBuffer, length, srcAddress, transportIndex);
             }
         }
 
@@ -192,6 +266,9 @@ public class DataTransportPoller extends UdpTransportPoller
         final ReceiveChannelEndpoint channelEndpoint;
         final UdpChannelTransport transport;
         final int transportIndex;
+        int emptyReads;
+        int skipInterval;
+        int skipCount;
 
         ChannelAndTransport(
             final ReceiveChannelEndpoint channelEndpoint, final UdpChannelTransport transport, final int transportIndex)
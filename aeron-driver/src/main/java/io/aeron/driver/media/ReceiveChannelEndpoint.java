@@ -21,6 +21,7 @@ import io.aeron.driver.DataPacketDispatcher;
 import io.aeron.driver.DriverConductorProxy;
 import io.aeron.driver.MediaDriver;
 import io.aeron.driver.PublicationImage;
+import io.aeron.driver.status.SystemCounters;
 import io.aeron.exceptions.AeronException;
 import io.aeron.exceptions.ControlProtocolException;
 import io.aeron.protocol.*;
@@ -55,6 +56,8 @@ public class ReceiveChannelEndpoint extends UdpChannelTransport
     private final StatusMessageFlyweight statusMessageFlyweight;
     private final ByteBuffer nakBuffer;
     private final NakFlyweight nakFlyweight;
+    private final ByteBuffer nakRangesBuffer;
+    private final NakRangesFlyweight nakRangesFlyweight;
     private final ByteBuffer rttMeasurementBuffer;
     private final RttMeasurementFlyweight rttMeasurementFlyweight;
     private final AtomicCounter shortSends;
@@ -81,14 +84,18 @@ public class ReceiveChannelEndpoint extends UdpChannelTransport
         shortSends = context.systemCounters().get(SHORT_SENDS);
         possibleTtlAsymmetry = context.systemCounters().get(POSSIBLE_TTL_ASYMMETRY);
 
-        final ReceiveChannelEndpointThreadLocals threadLocals = context.receiveChannelEndpointThreadLocals();
+        final ReceiveChannelEndpointThreadLocals sharedThreadLocals = context.receiveChannelEndpointThreadLocals();
+        final ReceiveChannelEndpointThreadLocals threadLocals = isSharded ?
+            new ReceiveChannelEndpointThreadLocals(context) : sharedThreadLocals;
         smBuffer = threadLocals.smBuffer();
         statusMessageFlyweight = threadLocals.statusMessageFlyweight();
         nakBuffer = threadLocals.nakBuffer();
         nakFlyweight = threadLocals.nakFlyweight();
+        nakRangesBuffer = threadLocals.nakRangesBuffer();
+        nakRangesFlyweight = threadLocals.nakRangesFlyweight();
         rttMeasurementBuffer = threadLocals.rttMeasurementBuffer();
         rttMeasurementFlyweight = threadLocals.rttMeasurementFlyweight();
-        receiverId = threadLocals.receiverId();
+        receiverId = sharedThreadLocals.receiverId();
 
         final String receiverTagStr = udpChannel.channelUri().get(CommonContext.RECEIVER_TAG_PARAM_NAME);
         receiverTag = null == receiverTagStr ?
@@ -203,7 +210,7 @@ public class ReceiveChannelEndpoint extends UdpChannelTransport
 
     public void possibleTtlAsymmetryEncountered()
     {
-        possibleTtlAsymmetry.incrementOrdered();
+        SystemCounters.increment(possibleTtlAsymmetry, isSharded);
     }
 
     public int incRefToStream(final int streamId)
@@ -402,6 +409,16 @@ public class ReceiveChannelEndpoint extends UdpChannelTransport
         dispatcher.onSetupMessage(this, header, srcAddress, transportIndex);
     }
 
+    public void onFecParityMessage(
+        final FecParityFlyweight header,
+        final UnsafeBuffer buffer,
+        final int length,
+        final InetSocketAddress srcAddress,
+        final int transportIndex)
+    {
+        dispatcher.onFecParityMessage(header, buffer, length, srcAddress, transportIndex);
+    }
+
     public void onRttMeasurement(
         final RttMeasurementFlyweight header,
         final UnsafeBuffer buffer,
@@ -437,6 +454,36 @@ public class ReceiveChannelEndpoint extends UdpChannelTransport
         }
     }
 
+    public void sendNakRangesMessage(
+        final ImageConnection[] controlAddresses,
+        final int sessionId,
+        final int streamId,
+        final int termId,
+        final int[] termOffsets,
+        final int[] lengths,
+        final int rangeCount)
+    {
+        if (!isClosed)
+        {
+            final int frameLength = NakRangesFlyweight.computeFrameLength(rangeCount);
+
+            nakRangesBuffer.clear().limit(frameLength);
+            nakRangesFlyweight
+                .streamId(streamId)
+                .sessionId(sessionId)
+                .termId(termId)
+                .rangeCount(rangeCount)
+                .frameLength(frameLength);
+
+            for (int i = 0; i < rangeCount; i++)
+            {
+                nakRangesFlyweight.range(i, termOffsets[i], lengths[i]);
+            }
+
+            send(nakRangesBuffer, frameLength, controlAddresses);
+        }
+    }
+
     public void sendRttMeasurement(
         final int transportIndex,
         final InetSocketAddress controlAddress,
@@ -18,6 +18,7 @@ package io.aeron.driver.media;
 import io.aeron.driver.MediaDriver;
 import io.aeron.protocol.HeaderFlyweight;
 import io.aeron.protocol.NakFlyweight;
+import io.aeron.protocol.NakRangesFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.StatusMessageFlyweight;
 import org.agrona.BitUtil;
@@ -36,10 +37,15 @@ import static org.agrona.BitUtil.SIZE_OF_LONG;
  */
 public class ReceiveChannelEndpointThreadLocals
 {
+    private static final int NAK_RANGES_MAX_LENGTH =
+        NakRangesFlyweight.computeFrameLength(NakRangesFlyweight.MAX_RANGE_COUNT);
+
     private final ByteBuffer smBuffer;
     private final StatusMessageFlyweight statusMessageFlyweight;
     private final ByteBuffer nakBuffer;
     private final NakFlyweight nakFlyweight;
+    private final ByteBuffer nakRangesBuffer;
+    private final NakRangesFlyweight nakRangesFlyweight;
     private final ByteBuffer rttMeasurementBuffer;
     private final RttMeasurementFlyweight rttMeasurementFlyweight;
     private long nextReceiverId;
@@ -50,7 +56,8 @@ public class ReceiveChannelEndpointThreadLocals
         final int bufferLength =
             BitUtil.align(smLength, CACHE_LINE_LENGTH) +
             BitUtil.align(NakFlyweight.HEADER_LENGTH, CACHE_LINE_LENGTH) +
-            BitUtil.align(RttMeasurementFlyweight.HEADER_LENGTH, CACHE_LINE_LENGTH);
+            BitUtil.align(RttMeasurementFlyweight.HEADER_LENGTH, CACHE_LINE_LENGTH) +
+            BitUtil.align(NAK_RANGES_MAX_LENGTH, CACHE_LINE_LENGTH);
 
         final UUID uuid = UUID.randomUUID();
         nextReceiverId = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
@@ -71,6 +78,12 @@ public class ReceiveChannelEndpointThreadLocals
         rttMeasurementBuffer = byteBuffer.slice();
         rttMeasurementFlyweight = new RttMeasurementFlyweight(rttMeasurementBuffer);
 
+        final int nakRangesOffset = BitUtil.align(
+            rttMeasurementOffset + RttMeasurementFlyweight.HEADER_LENGTH, CACHE_LINE_LENGTH);
+        byteBuffer.limit(nakRangesOffset + NAK_RANGES_MAX_LENGTH).position(nakRangesOffset);
+        nakRangesBuffer = byteBuffer.slice();
+        nakRangesFlyweight = new NakRangesFlyweight(nakRangesBuffer);
+
         statusMessageFlyweight
             .version(HeaderFlyweight.CURRENT_VERSION)
             .headerType(HeaderFlyweight.HDR_TYPE_SM)
@@ -85,6 +98,11 @@ public class ReceiveChannelEndpointThreadLocals
             .version(HeaderFlyweight.CURRENT_VERSION)
             .headerType(HeaderFlyweight.HDR_TYPE_RTTM)
             .frameLength(RttMeasurementFlyweight.HEADER_LENGTH);
+
+        nakRangesFlyweight
+            .version(HeaderFlyweight.CURRENT_VERSION)
+            .headerType(HeaderFlyweight.HDR_TYPE_NAK_RANGES)
+            .frameLength(NakRangesFlyweight.HEADER_LENGTH);
     }
 
     public ByteBuffer smBuffer()
@@ -107,6 +125,16 @@ public class ReceiveChannelEndpointThreadLocals
         return nakFlyweight;
     }
 
+    public ByteBuffer nakRangesBuffer()
+    {
+        return nakRangesBuffer;
+    }
+
+    public NakRangesFlyweight nakRangesFlyweight()
+    {
+        return nakRangesFlyweight;
+    }
+
     public ByteBuffer rttMeasurementBuffer()
     {
         return rttMeasurementBuffer;
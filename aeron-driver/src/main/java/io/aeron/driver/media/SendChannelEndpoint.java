@@ -17,9 +17,11 @@ package io.aeron.driver.media;
 
 import io.aeron.ErrorCode;
 import io.aeron.driver.*;
+import io.aeron.driver.status.SystemCounters;
 import io.aeron.exceptions.ControlProtocolException;
 import io.aeron.status.ChannelEndpointStatus;
 import io.aeron.protocol.NakFlyweight;
+import io.aeron.protocol.NakRangesFlyweight;
 import io.aeron.protocol.RttMeasurementFlyweight;
 import io.aeron.protocol.StatusMessageFlyweight;
 import org.agrona.collections.BiInt2ObjectMap;
@@ -229,7 +231,7 @@ public class SendChannelEndpoint extends UdpChannelTransport
             if (0 == sessionId && 0 == streamId && SEND_SETUP_FLAG == (msg.flags() & SEND_SETUP_FLAG))
             {
                 publicationBySessionAndStreamId.forEach(NetworkPublication::triggerSendSetupFrame);
-                statusMessagesReceived.incrementOrdered();
+                SystemCounters.increment(statusMessagesReceived, isSharded);
             }
         }
 
@@ -244,7 +246,7 @@ public class SendChannelEndpoint extends UdpChannelTransport
                 publication.onStatusMessage(msg, srcAddress);
             }
 
-            statusMessagesReceived.incrementOrdered();
+            SystemCounters.increment(statusMessagesReceived, isSharded);
         }
     }
 
@@ -259,7 +261,35 @@ public class SendChannelEndpoint extends UdpChannelTransport
         if (null != publication)
         {
             publication.onNak(msg.termId(), msg.termOffset(), msg.length());
-            nakMessagesReceived.incrementOrdered();
+            SystemCounters.increment(nakMessagesReceived, isSharded);
+        }
+    }
+
+    public void onNakRangesMessage(
+        final NakRangesFlyweight msg,
+        final UnsafeBuffer buffer,
+        final int length,
+        final InetSocketAddress srcAddress)
+    {
+        final NetworkPublication publication = publicationBySessionAndStreamId.get(msg.sessionId(), msg.streamId());
+        final int rangeCount = msg.rangeCount();
+
+        if (null != publication &&
+            rangeCount > 0 &&
+            rangeCount <= NakRangesFlyweight.MAX_RANGE_COUNT &&
+            length >= NakRangesFlyweight.computeFrameLength(rangeCount))
+        {
+            final int termId = msg.termId();
+            for (int i = 0; i < rangeCount; i++)
+            {
+                final int rangeLength = msg.length(i);
+                if (rangeLength > 0)
+                {
+                    publication.onNak(termId, msg.termOffset(i), rangeLength);
+                }
+            }
+
+            SystemCounters.increment(nakMessagesReceived, isSharded);
         }
     }
 
@@ -49,6 +49,7 @@ public final class UdpChannel
     private final boolean isMulticast;
     private final boolean hasMulticastTtl;
     private final boolean hasTag;
+    private final boolean hasNoDistinguishingCharacteristic;
     private final int multicastTtl;
     private final long tag;
     private final InetSocketAddress remoteData;
@@ -68,6 +69,7 @@ public final class UdpChannel
         hasExplicitControl = context.hasExplicitControl;
         isMulticast = context.isMulticast;
         hasTag = context.hasTagId;
+        hasNoDistinguishingCharacteristic = context.hasNoDistinguishingCharacteristic;
         tag = context.tagId;
         hasMulticastTtl = context.hasMulticastTtl;
         multicastTtl = context.multicastTtl;
@@ -432,6 +434,17 @@ public final class UdpChannel
         return isManualControlMode;
     }
 
+    /**
+     * Does the channel have no endpoint, control, or tag to distinguish it, in which case it is given a unique
+     * canonical form each time it is parsed.
+     *
+     * @return true if the channel has no endpoint, control, or tag to distinguish it.
+     */
+    public boolean hasNoDistinguishingCharacteristic()
+    {
+        return hasNoDistinguishingCharacteristic;
+    }
+
     /**
      * Does the channel have dynamic control mode specified.
      *
@@ -17,6 +17,7 @@ package io.aeron.driver.media;
 
 import io.aeron.AeronCloseHelper;
 import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
 import io.aeron.driver.status.SystemCounterDescriptor;
 import io.aeron.exceptions.AeronException;
 import io.aeron.protocol.HeaderFlyweight;
@@ -28,6 +29,7 @@ import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
 import java.net.PortUnreachableException;
 import java.net.StandardSocketOptions;
@@ -44,10 +46,13 @@ import static java.net.StandardSocketOptions.SO_SNDBUF;
  */
 public abstract class UdpChannelTransport implements AutoCloseable
 {
+    private static final Field DATAGRAM_CHANNEL_FD_FIELD = datagramChannelFdField();
+
     protected final MediaDriver.Context context;
     protected final UdpChannel udpChannel;
     protected final AtomicCounter invalidPackets;
     protected final ErrorHandler errorHandler;
+    protected final boolean isSharded;
     protected UdpTransportPoller transportPoller;
     protected SelectionKey selectionKey;
     protected final InetSocketAddress bindAddress;
@@ -72,6 +77,7 @@ public abstract class UdpChannelTransport implements AutoCloseable
         this.bindAddress = bindAddress;
         this.connectAddress = connectAddress;
         this.invalidPackets = context.systemCounters().get(SystemCounterDescriptor.INVALID_PACKETS);
+        this.isSharded = ThreadingMode.SHARDED == context.threadingMode();
     }
 
     /**
@@ -189,6 +195,17 @@ public abstract class UdpChannelTransport implements AutoCloseable
         return udpChannel;
     }
 
+    /**
+     * Is the transport run by one of several Sender or Receiver agents in {@link ThreadingMode#SHARDED} mode so the
+     * system counters it updates are shared with other agents.
+     *
+     * @return true if the transport is run by a shard of the Sender or Receiver.
+     */
+    public boolean isSharded()
+    {
+        return isSharded;
+    }
+
     /**
      * The {@link DatagramChannel} for this transport channel.
      *
@@ -234,6 +251,31 @@ public abstract class UdpChannelTransport implements AutoCloseable
         }
     }
 
+    /**
+     * Get the file descriptor of the receive socket so it can be matched to the kernel statistics for the socket. Can
+     * be called from a thread other than the one which opened the channel, in which case the channel may not yet be
+     * visible.
+     *
+     * @return the file descriptor of the receive socket or -1 if not open or the JDK does not expose it.
+     */
+    public int receiveSocketFd()
+    {
+        final DatagramChannel receiveDatagramChannel = this.receiveDatagramChannel;
+        if (null == receiveDatagramChannel || null == DATAGRAM_CHANNEL_FD_FIELD || !receiveDatagramChannel.isOpen())
+        {
+            return -1;
+        }
+
+        try
+        {
+            return DATAGRAM_CHANNEL_FD_FIELD.getInt(receiveDatagramChannel);
+        }
+        catch (final IllegalAccessException | IllegalArgumentException ex)
+        {
+            return -1;
+        }
+    }
+
     /**
      * Close transport, canceling any pending read operations and closing channel.
      */
@@ -344,4 +386,19 @@ public abstract class UdpChannelTransport implements AutoCloseable
 
         return address;
     }
+
+    private static Field datagramChannelFdField()
+    {
+        try
+        {
+            final Field field = Class.forName("sun.nio.ch.DatagramChannelImpl").getDeclaredField("fdVal");
+            field.setAccessible(true);
+
+            return field;
+        }
+        catch (final Exception ex)
+        {
+            return null;
+        }
+    }
 }
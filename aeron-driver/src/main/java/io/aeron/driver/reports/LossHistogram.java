@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.reports;
+
+import org.agrona.BitUtil;
+import org.agrona.concurrent.AtomicBuffer;
+
+import static org.agrona.BitUtil.*;
+
+/**
+ * A histogram of loss events over time for each entry in a {@link LossReport} so bursts of loss, such as a pause on
+ * the sending host, can be told apart from a steady rate of loss.
+ * <p>
+ * Each entry is a ring of buckets of a fixed length of time which hold the observation count and bytes lost in that
+ * time. A bucket is reused once the ring wraps so only the most recent bucket count of buckets are kept. The provided
+ * {@link AtomicBuffer} can wrap a memory-mapped file so the histogram can be read out of process.
+ * <p>
+ * <b>Note:</b>This class is NOT threadsafe to be used from multiple logging threads.
+ * <p>
+ * The histogram begins with a header followed by entries in the following format.
+ * <pre>
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                         Bucket Count                          |
+ *  +---------------------------------------------------------------+
+ *  |                      Bucket Length in ms                      |
+ *  +---------------------------------------------------------------+
+ *  |                          Entry Length                         |
+ *  +---------------------------------------------------------------+
+ *  |                 Reserved up to cache line length             ...
+ * ...                                                              |
+ *  +---------------------------------------------------------------+
+ *
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |R|                    Latest Bucket Index                      |
+ *  |                                                               |
+ *  +-+-------------------------------------------------------------+
+ *  |                  Loss Report Entry Offset                     |
+ *  +---------------------------------------------------------------+
+ *  |                           Reserved                            |
+ *  +---------------------------------------------------------------+
+ *  |R|              Bucket Observation Count                       |
+ *  |                                                               |
+ *  +-+-------------------------------------------------------------+
+ *  |R|                Bucket Bytes Lost                            |
+ *  |                                                               |
+ *  +-+-------------------------------------------------------------+
+ *  |                   Repeats to Bucket Count                    ...
+ * ...                                                              |
+ *  +---------------------------------------------------------------+
+ * </pre>
+ * The latest bucket index is the timestamp of the latest observation divided by the bucket length and the bucket for
+ * an index is at the index modulo the bucket count.
+ */
+public class LossHistogram implements AutoCloseable
+{
+    /**
+     * Offset in the header at which the bucket count is stored.
+     */
+    public static final int BUCKET_COUNT_OFFSET = 0;
+
+    /**
+     * Offset in the header at which the length of a bucket in milliseconds is stored.
+     */
+    public static final int BUCKET_LENGTH_MS_OFFSET = BUCKET_COUNT_OFFSET + SIZE_OF_INT;
+
+    /**
+     * Offset in the header at which the length of an entry is stored.
+     */
+    public static final int ENTRY_LENGTH_OFFSET = BUCKET_LENGTH_MS_OFFSET + SIZE_OF_INT;
+
+    /**
+     * Length of the header before the first entry.
+     */
+    public static final int HEADER_LENGTH = CACHE_LINE_LENGTH;
+
+    /**
+     * Offset within an entry at which the index of the latest bucket begins.
+     */
+    public static final int LATEST_BUCKET_INDEX_OFFSET = 0;
+
+    /**
+     * Offset within an entry at which the offset of the {@link LossReport} entry begins.
+     */
+    public static final int REPORT_ENTRY_OFFSET_OFFSET = LATEST_BUCKET_INDEX_OFFSET + SIZE_OF_LONG;
+
+    /**
+     * Offset within an entry at which the buckets begin.
+     */
+    public static final int BUCKETS_OFFSET = REPORT_ENTRY_OFFSET_OFFSET + SIZE_OF_LONG;
+
+    /**
+     * Offset within a bucket at which the observation count begins.
+     */
+    public static final int BUCKET_OBSERVATION_COUNT_OFFSET = 0;
+
+    /**
+     * Offset within a bucket at which the bytes lost begins.
+     */
+    public static final int BUCKET_BYTES_LOST_OFFSET = BUCKET_OBSERVATION_COUNT_OFFSET + SIZE_OF_LONG;
+
+    /**
+     * Length of a bucket within an entry.
+     */
+    public static final int BUCKET_LENGTH = BUCKET_BYTES_LOST_OFFSET + SIZE_OF_LONG;
+
+    /**
+     * Default length of a bucket in milliseconds.
+     */
+    public static final int BUCKET_LENGTH_MS_DEFAULT = 1000;
+
+    private boolean isClosed;
+    private final int bucketCount;
+    private final int bucketLengthMs;
+    private final int entryLength;
+    private int nextEntryOffset = HEADER_LENGTH;
+    private final AtomicBuffer buffer;
+
+    /**
+     * Create a loss histogram which wraps a buffer which is ideally memory mapped so it can be read from another
+     * process.
+     *
+     * @param buffer         to be wrapped.
+     * @param bucketCount    of buckets kept for each entry.
+     * @param bucketLengthMs of time covered by each bucket.
+     */
+    public LossHistogram(final AtomicBuffer buffer, final int bucketCount, final int bucketLengthMs)
+    {
+        if (bucketCount <= 0 || bucketLengthMs <= 0)
+        {
+            throw new IllegalArgumentException(
+                "bucketCount and bucketLengthMs must be positive: " + bucketCount + ", " + bucketLengthMs);
+        }
+
+        buffer.verifyAlignment();
+        this.buffer = buffer;
+        this.bucketCount = bucketCount;
+        this.bucketLengthMs = bucketLengthMs;
+        this.entryLength = entryLength(bucketCount);
+
+        buffer.putInt(BUCKET_LENGTH_MS_OFFSET, bucketLengthMs);
+        buffer.putInt(ENTRY_LENGTH_OFFSET, entryLength);
+        buffer.putIntOrdered(BUCKET_COUNT_OFFSET, bucketCount);
+    }
+
+    /**
+     * Length of an entry for a number of buckets.
+     *
+     * @param bucketCount of buckets kept for each entry.
+     * @return length of an entry aligned to {@link LossReport#ENTRY_ALIGNMENT}.
+     */
+    public static int entryLength(final int bucketCount)
+    {
+        return BitUtil.align(BUCKETS_OFFSET + (bucketCount * BUCKET_LENGTH), LossReport.ENTRY_ALIGNMENT);
+    }
+
+    public void close()
+    {
+        isClosed = true;
+    }
+
+    /**
+     * Has {@link #close()} been invoked.
+     *
+     * @return true of {@link #close()} has been invoked.
+     */
+    public boolean isClosed()
+    {
+        return isClosed;
+    }
+
+    /**
+     * Create a new entry for the loss over time of a {@link LossReport} entry.
+     * <p>
+     * If no space is remaining in the histogram then null is returned.
+     *
+     * @param reportEntryOffset of the {@link LossReport} entry for the stream.
+     * @return a new entry or null if the histogram has insufficient space.
+     */
+    public HistogramEntry createEntry(final int reportEntryOffset)
+    {
+        if (isClosed || entryLength > (buffer.capacity() - nextEntryOffset))
+        {
+            return null;
+        }
+
+        final int offset = nextEntryOffset;
+        nextEntryOffset += entryLength;
+        buffer.putInt(offset + REPORT_ENTRY_OFFSET_OFFSET, reportEntryOffset);
+
+        return new HistogramEntry(this, buffer, offset);
+    }
+
+    /**
+     * Entry for the loss over time on a specific stream. Once an entry has been created it can then be used
+     * repeatably to capture the loss on a stream.
+     */
+    public static class HistogramEntry
+    {
+        private final LossHistogram lossHistogram;
+        private final AtomicBuffer buffer;
+        private final int offset;
+
+        HistogramEntry(final LossHistogram lossHistogram, final AtomicBuffer buffer, final int offset)
+        {
+            this.lossHistogram = lossHistogram;
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        /**
+         * Record a loss observation in the bucket for the time it occurred. Buckets which have been skipped over
+         * since the previous observation are cleared, and an observation older than the oldest bucket is ignored.
+         *
+         * @param bytesLost   in this observation.
+         * @param timestampMs when this observation occurred.
+         */
+        public void recordObservation(final long bytesLost, final long timestampMs)
+        {
+            if (lossHistogram.isClosed())
+            {
+                return;
+            }
+
+            final int bucketCount = lossHistogram.bucketCount;
+            final long bucketIndex = timestampMs / lossHistogram.bucketLengthMs;
+            final long latestBucketIndex = buffer.getLong(offset + LATEST_BUCKET_INDEX_OFFSET);
+
+            if (bucketIndex > latestBucketIndex)
+            {
+                for (long i = Math.max(latestBucketIndex + 1, bucketIndex - bucketCount + 1); i <= bucketIndex; i++)
+                {
+                    final int bucketOffset = bucketOffset(i, bucketCount);
+                    buffer.putLongOrdered(bucketOffset + BUCKET_OBSERVATION_COUNT_OFFSET, 0);
+                    buffer.putLongOrdered(bucketOffset + BUCKET_BYTES_LOST_OFFSET, 0);
+                }
+
+                buffer.putLongOrdered(offset + LATEST_BUCKET_INDEX_OFFSET, bucketIndex);
+            }
+            else if (bucketIndex <= latestBucketIndex - bucketCount)
+            {
+                return;
+            }
+
+            final int bucketOffset = bucketOffset(bucketIndex, bucketCount);
+            buffer.getAndAddLong(bucketOffset + BUCKET_BYTES_LOST_OFFSET, bytesLost);
+            buffer.getAndAddLong(bucketOffset + BUCKET_OBSERVATION_COUNT_OFFSET, 1);
+        }
+
+        private int bucketOffset(final long bucketIndex, final int bucketCount)
+        {
+            return offset + BUCKETS_OFFSET + ((int)(bucketIndex % bucketCount) * BUCKET_LENGTH);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.reports;
+
+import org.agrona.BitUtil;
+import org.agrona.concurrent.AtomicBuffer;
+
+import static io.aeron.driver.reports.LossHistogram.*;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+
+/**
+ * Reader that provides the function to read entries from a {@link LossHistogram} along with the stream of each
+ * entry from the {@link LossReport} it accompanies.
+ */
+public class LossHistogramReader
+{
+    /**
+     * Consumer function to be implemented by caller of the read method.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer
+    {
+        /**
+         * Accept an entry from the histogram. The bucket arrays are reused between entries and are ordered from the
+         * oldest bucket to the latest bucket.
+         *
+         * @param sessionId               for the stream.
+         * @param streamId                for the stream.
+         * @param channel                 for the stream.
+         * @param source                  of the stream.
+         * @param bucketLengthMs          of time covered by each bucket.
+         * @param latestBucketTimestampMs at which the latest bucket begins.
+         * @param observationCounts       of loss in each bucket.
+         * @param bytesLost               in each bucket.
+         */
+        void accept(
+            int sessionId,
+            int streamId,
+            String channel,
+            String source,
+            int bucketLengthMs,
+            long latestBucketTimestampMs,
+            long[] observationCounts,
+            long[] bytesLost);
+    }
+
+    /**
+     * Read a {@link LossHistogram} contained in the buffer. This can be done concurrently though a bucket may be
+     * read as it is being cleared for reuse.
+     *
+     * @param histogramBuffer containing the loss histogram.
+     * @param reportBuffer    containing the loss report the histogram accompanies.
+     * @param entryConsumer   to be called to accept each entry in the histogram.
+     * @return the number of entries read.
+     */
+    public static int read(
+        final AtomicBuffer histogramBuffer, final AtomicBuffer reportBuffer, final EntryConsumer entryConsumer)
+    {
+        final int bucketCount = histogramBuffer.getIntVolatile(BUCKET_COUNT_OFFSET);
+        if (bucketCount <= 0)
+        {
+            return 0;
+        }
+
+        final int bucketLengthMs = histogramBuffer.getInt(BUCKET_LENGTH_MS_OFFSET);
+        final int entryLength = histogramBuffer.getInt(ENTRY_LENGTH_OFFSET);
+        final int capacity = histogramBuffer.capacity();
+        final long[] observationCounts = new long[bucketCount];
+        final long[] bytesLost = new long[bucketCount];
+
+        int entriesRead = 0;
+        int offset = HEADER_LENGTH;
+
+        while (offset + entryLength <= capacity)
+        {
+            final long latestBucketIndex = histogramBuffer.getLongVolatile(offset + LATEST_BUCKET_INDEX_OFFSET);
+            if (latestBucketIndex <= 0)
+            {
+                break;
+            }
+
+            ++entriesRead;
+
+            for (int i = 0; i < bucketCount; i++)
+            {
+                final long bucketIndex = latestBucketIndex - bucketCount + 1 + i;
+                final int bucketOffset =
+                    offset + BUCKETS_OFFSET + ((int)(bucketIndex % bucketCount) * BUCKET_LENGTH);
+
+                observationCounts[i] = histogramBuffer.getLongVolatile(bucketOffset + BUCKET_OBSERVATION_COUNT_OFFSET);
+                bytesLost[i] = histogramBuffer.getLongVolatile(bucketOffset + BUCKET_BYTES_LOST_OFFSET);
+            }
+
+            final int reportOffset = histogramBuffer.getInt(offset + REPORT_ENTRY_OFFSET_OFFSET);
+            final String channel = reportBuffer.getStringAscii(reportOffset + LossReport.CHANNEL_OFFSET);
+            final String source = reportBuffer.getStringAscii(
+                reportOffset + LossReport.CHANNEL_OFFSET + BitUtil.align(SIZE_OF_INT + channel.length(), SIZE_OF_INT));
+
+            entryConsumer.accept(
+                reportBuffer.getInt(reportOffset + LossReport.SESSION_ID_OFFSET),
+                reportBuffer.getInt(reportOffset + LossReport.STREAM_ID_OFFSET),
+                channel,
+                source,
+                bucketLengthMs,
+                latestBucketIndex * bucketLengthMs,
+                observationCounts,
+                bytesLost);
+
+            offset += entryLength;
+        }
+
+        return entriesRead;
+    }
+}
@@ -56,6 +56,7 @@ import static org.agrona.BitUtil.*;
  * ...                                                              |
  *  +---------------------------------------------------------------+
  * </pre>
+ * If a {@link LossHistogram} is provided then each entry also records its loss over time in the histogram.
  */
 public class LossReport implements AutoCloseable
 {
@@ -102,6 +103,7 @@ public class LossReport implements AutoCloseable
     private boolean isClosed;
     private int nextRecordOffset = 0;
     private final AtomicBuffer buffer;
+    private final LossHistogram lossHistogram;
 
     /**
      * Create a loss report which wraps a buffer which is ideally memory mapped so it can
@@ -110,9 +112,22 @@ public class LossReport implements AutoCloseable
      * @param buffer to be wrapped.
      */
     public LossReport(final AtomicBuffer buffer)
+    {
+        this(buffer, null);
+    }
+
+    /**
+     * Create a loss report which wraps a buffer which is ideally memory mapped so it can
+     * be read from another process, and records the loss over time of each entry in a histogram.
+     *
+     * @param buffer        to be wrapped.
+     * @param lossHistogram in which the loss over time of each entry is recorded or null if not required.
+     */
+    public LossReport(final AtomicBuffer buffer, final LossHistogram lossHistogram)
     {
         buffer.verifyAlignment();
         this.buffer = buffer;
+        this.lossHistogram = lossHistogram;
     }
 
     public void close()
@@ -180,7 +195,17 @@ public class LossReport implements AutoCloseable
 
             buffer.putLongOrdered(offset + OBSERVATION_COUNT_OFFSET, 1);
 
-            reportEntry = new ReportEntry(this, buffer, offset);
+            LossHistogram.HistogramEntry histogramEntry = null;
+            if (null != lossHistogram)
+            {
+                histogramEntry = lossHistogram.createEntry(offset);
+                if (null != histogramEntry)
+                {
+                    histogramEntry.recordObservation(initialBytesLost, timestampMs);
+                }
+            }
+
+            reportEntry = new ReportEntry(this, buffer, offset, histogramEntry);
             nextRecordOffset += BitUtil.align(requiredCapacity, ENTRY_ALIGNMENT);
         }
 
@@ -196,12 +221,18 @@ public class LossReport implements AutoCloseable
         private final LossReport lossReport;
         private final AtomicBuffer buffer;
         private final int offset;
+        private final LossHistogram.HistogramEntry histogramEntry;
 
-        ReportEntry(final LossReport lossReport, final AtomicBuffer buffer, final int offset)
+        ReportEntry(
+            final LossReport lossReport,
+            final AtomicBuffer buffer,
+            final int offset,
+            final LossHistogram.HistogramEntry histogramEntry)
         {
             this.lossReport = lossReport;
             this.buffer = buffer;
             this.offset = offset;
+            this.histogramEntry = histogramEntry;
         }
 
         /**
@@ -217,6 +248,11 @@ public class LossReport implements AutoCloseable
                 buffer.putLong(offset + LAST_OBSERVATION_OFFSET, timestampMs);
                 buffer.getAndAddLong(offset + TOTAL_BYTES_LOST_OFFSET, bytesLost);
                 buffer.getAndAddLong(offset + OBSERVATION_COUNT_OFFSET, 1);
+
+                if (null != histogramEntry)
+                {
+                    histogramEntry.recordObservation(bytesLost, timestampMs);
+                }
             }
         }
     }
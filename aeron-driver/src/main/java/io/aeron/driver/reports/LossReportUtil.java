@@ -32,6 +32,11 @@ public class LossReportUtil
      */
     public static final String LOSS_REPORT_FILE_NAME = "loss-report.dat";
 
+    /**
+     * Name of the loss histogram file in the Aeron directory.
+     */
+    public static final String LOSS_HISTOGRAM_FILE_NAME = "loss-histogram.dat";
+
     /**
      * Create a new {@link File} object for the loss report.
      *
@@ -43,6 +48,17 @@ public class LossReportUtil
         return new File(aeronDirectoryName, LOSS_REPORT_FILE_NAME);
     }
 
+    /**
+     * Create a new {@link File} object for the loss histogram.
+     *
+     * @param aeronDirectoryName in which the loss histogram should exist.
+     * @return the new {@link File} for the loss histogram.
+     */
+    public static File histogramFile(final String aeronDirectoryName)
+    {
+        return new File(aeronDirectoryName, LOSS_HISTOGRAM_FILE_NAME);
+    }
+
     /**
      * Map a new loss report in the Aeron directory for a given length.
      *
@@ -65,4 +81,27 @@ public class LossReportUtil
     {
         return mapExistingFile(file(aeronDirectoryName), FileChannel.MapMode.READ_ONLY, "Loss Report");
     }
+
+    /**
+     * Map a new loss histogram in the Aeron directory for a given length.
+     *
+     * @param aeronDirectoryName  in which to create the file.
+     * @param histogramFileLength for the file.
+     * @return the newly mapped buffer for the file.
+     */
+    public static MappedByteBuffer mapLossHistogram(final String aeronDirectoryName, final int histogramFileLength)
+    {
+        return mapNewFile(histogramFile(aeronDirectoryName), histogramFileLength, false);
+    }
+
+    /**
+     * Map an existing loss histogram in the Aeron directory.
+     *
+     * @param aeronDirectoryName containing the file
+     * @return the read only mapped buffer for the file.
+     */
+    public static MappedByteBuffer mapLossHistogramReadOnly(final String aeronDirectoryName)
+    {
+        return mapExistingFile(histogramFile(aeronDirectoryName), FileChannel.MapMode.READ_ONLY, "Loss Histogram");
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.status;
+
+import io.aeron.status.HeartbeatTimestamp;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+/**
+ * Counter for tracking the max time in nanoseconds commands waited in the command buffer of an Aeron client, from the
+ * driver first seeing them pending until they were drained.
+ */
+public class ClientCommandMaxLatency
+{
+    /**
+     * Type id of an Aeron client command max latency counter.
+     */
+    public static final int CLIENT_COMMAND_MAX_LATENCY_TYPE_ID = 18;
+
+    /**
+     * Human readable name for the counter.
+     */
+    public static final String NAME = "client-cmd-max-latency-ns";
+
+    /**
+     * Allocate a new counter keyed by the client id in the same way as a {@link ClientHeartbeatTimestamp}.
+     *
+     * @param tempBuffer      for writing the metadata.
+     * @param countersManager for the counter.
+     * @param clientId        of the client.
+     * @return the allocated counter.
+     */
+    public static AtomicCounter allocate(
+        final MutableDirectBuffer tempBuffer,
+        final CountersManager countersManager,
+        final long clientId)
+    {
+        return HeartbeatTimestamp.allocate(
+            tempBuffer, NAME, CLIENT_COMMAND_MAX_LATENCY_TYPE_ID, countersManager, clientId);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.status;
+
+import io.aeron.status.LatencyHistogram;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+/**
+ * Histograms of the latency of frames received for an image of a subscription with
+ * {@link io.aeron.CommonContext#LATENCY_TRACE_PARAM_NAME}, with a counter for each bucket.
+ */
+public class ReceiverLatency
+{
+    /**
+     * Type id of a receiver publisher to sender latency bucket counter.
+     */
+    public static final int PUBLISHER_TO_SENDER_TYPE_ID = 22;
+
+    /**
+     * Human readable name for the publisher to sender latency bucket counters.
+     */
+    public static final String PUBLISHER_TO_SENDER_NAME = "rcv-lat-pub-snd";
+
+    /**
+     * Type id of a receiver wire latency bucket counter.
+     */
+    public static final int WIRE_TYPE_ID = 23;
+
+    /**
+     * Human readable name for the wire latency bucket counters.
+     */
+    public static final String WIRE_NAME = "rcv-lat-wire";
+
+    public static LatencyHistogram allocate(
+        final MutableDirectBuffer tempBuffer,
+        final String name,
+        final int typeId,
+        final CountersManager countersManager,
+        final long registrationId,
+        final int sessionId,
+        final int streamId,
+        final String channel)
+    {
+        final AtomicCounter[] buckets = new AtomicCounter[LatencyHistogram.BUCKET_COUNT];
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            final int counterId = StreamCounter.allocateCounterId(
+                tempBuffer,
+                name + " " + LatencyHistogram.bucketName(i),
+                typeId,
+                countersManager,
+                registrationId,
+                sessionId,
+                streamId,
+                channel);
+
+            buckets[i] = new AtomicCounter(countersManager.valuesBuffer(), counterId, countersManager);
+        }
+
+        return new LatencyHistogram(buckets);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.status;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+/**
+ * The count of duty cycles in which an agent shard performed work, used to show the balance of load across shards
+ * when running in {@link io.aeron.driver.ThreadingMode#SHARDED}.
+ */
+public class ShardDutyCycles
+{
+    /**
+     * Type id of a shard duty cycles counter.
+     */
+    public static final int SHARD_DUTY_CYCLES_TYPE_ID = 14;
+
+    /**
+     * Human readable name for the counter.
+     */
+    public static final String NAME = "shard-duty-cycles";
+
+    public static AtomicCounter allocate(final CountersManager countersManager, final String roleName)
+    {
+        return countersManager.newCounter(NAME + ": " + roleName, SHARD_DUTY_CYCLES_TYPE_ID);
+    }
+}
@@ -240,6 +240,24 @@ public class StreamCounter
             case SenderBpe.SENDER_BPE_TYPE_ID:
                 return SenderBpe.NAME;
 
+            case SenderBytesDeferred.SENDER_BYTES_DEFERRED_TYPE_ID:
+                return SenderBytesDeferred.NAME;
+
+            case SenderPacedTime.SENDER_PACED_TIME_TYPE_ID:
+                return SenderPacedTime.NAME;
+
+            case SenderReceiverLag.SENDER_RECEIVER_LAG_TYPE_ID:
+                return SenderReceiverLag.NAME;
+
+            case ReceiverSmSent.RECEIVER_SM_SENT_TYPE_ID:
+                return ReceiverSmSent.NAME;
+
+            case ReceiverLatency.PUBLISHER_TO_SENDER_TYPE_ID:
+                return ReceiverLatency.PUBLISHER_TO_SENDER_NAME;
+
+            case ReceiverLatency.WIRE_TYPE_ID:
+                return ReceiverLatency.WIRE_NAME;
+
             default:
                 return "<unknown>";
         }
@@ -47,7 +47,23 @@ public enum SystemCounterDescriptor
     POSSIBLE_TTL_ASYMMETRY(21, "Possible TTL Asymmetry"),
     CONTROLLABLE_IDLE_STRATEGY(22, "ControllableIdleStrategy status"),
     LOSS_GAP_FILLS(23, "Loss gap fills"),
-    CLIENT_TIMEOUTS(24, "Client liveness timeouts");
+    CLIENT_TIMEOUTS(24, "Client liveness timeouts"),
+    RETRANSMITS_MERGED(25, "Retransmits merged with an active retransmit"),
+    RETRANSMITS_DROPPED(26, "Retransmits dropped due to max active retransmits"),
+    RETRANSMITS_IN_FLIGHT(27, "Retransmits in flight"),
+    FEC_RECOVERED(28, "Frames recovered by FEC"),
+    NAK_RECOVERED(29, "Frames recovered by NAK retransmit"),
+    LOG_POOL_HITS(30, "Log buffers reused from pool"),
+    LOG_POOL_MISSES(31, "Log buffers allocated due to pool miss"),
+    CONDUCTOR_MAX_TIMER_SWEEP_TIME(32, "Conductor max time in ns to check resources on a timer interval"),
+    LOG_ALLOCATION_MAX_QUEUED_TIME(33, "Log allocation max time in ns queued before being started"),
+    LOG_ALLOCATION_MAX_TIME(34, "Log allocation max time in ns to create a log buffer"),
+    LOG_ALLOCATIONS_IN_FLIGHT(35, "Log allocations in flight"),
+    CHANNEL_CACHE_HITS(36, "Channels found in the channel cache"),
+    CHANNEL_CACHE_MISSES(37, "Channels parsed due to channel cache miss"),
+    FLOW_CONTROL_RECEIVER_EVICTIONS(38, "Flow control receivers evicted for lagging"),
+    UDP_RCVBUF_ERRORS(39, "UDP receive buffer errors in the kernel since driver start"),
+    UDP_IN_ERRORS(40, "UDP receive errors in the kernel since driver start");
 
     /**
      * All system counters have the same type id, i.e. system counters are the same type. Other types can exist.
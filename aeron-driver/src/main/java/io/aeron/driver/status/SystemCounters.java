@@ -53,6 +53,47 @@ public class SystemCounters implements AutoCloseable
         return counterByDescriptorMap.get(descriptor);
     }
 
+    /**
+     * Increment a system counter which is only updated by several agents at once in the
+     * {@link io.aeron.driver.ThreadingMode#SHARDED} threading mode, so the atomic increment is only paid for when the
+     * counter is shared and other modes keep the cheaper ordered increment of a single writer.
+     *
+     * @param counter  to be incremented.
+     * @param isShared true if the counter may be incremented concurrently by several agents.
+     */
+    public static void increment(final AtomicCounter counter, final boolean isShared)
+    {
+        if (isShared)
+        {
+            counter.increment();
+        }
+        else
+        {
+            counter.incrementOrdered();
+        }
+    }
+
+    /**
+     * Add to a system counter which is only updated by several agents at once in the
+     * {@link io.aeron.driver.ThreadingMode#SHARDED} threading mode, in the same way as
+     * {@link #increment(AtomicCounter, boolean)}.
+     *
+     * @param counter  to be added to.
+     * @param delta    to be added to the counter.
+     * @param isShared true if the counter may be added to concurrently by several agents.
+     */
+    public static void add(final AtomicCounter counter, final long delta, final boolean isShared)
+    {
+        if (isShared)
+        {
+            counter.getAndAdd(delta);
+        }
+        else
+        {
+            counter.getAndAddOrdered(delta);
+        }
+    }
+
     /**
      * Close all the counters.
      */
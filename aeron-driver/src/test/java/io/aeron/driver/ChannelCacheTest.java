@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.media.UdpChannel;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ChannelCacheTest
+{
+    private static final String CHANNEL_4000 = "aeron:udp?endpoint=localhost:4000";
+    private static final String CHANNEL_4001 = "aeron:udp?endpoint=localhost:4001";
+    private static final String CHANNEL_4002 = "aeron:udp?endpoint=localhost:4002";
+    private static final String CHANNEL_MANUAL = "aeron:udp?control-mode=manual";
+
+    private final AtomicCounter hits = mock(AtomicCounter.class);
+    private final AtomicCounter misses = mock(AtomicCounter.class);
+
+    @Test
+    public void shouldReturnCachedChannelOnHit()
+    {
+        final ChannelCache channelCache = new ChannelCache(8, hits, misses);
+
+        final UdpChannel udpChannel = channelCache.udpChannel(CHANNEL_4000);
+        assertSame(udpChannel, channelCache.udpChannel(CHANNEL_4000));
+        assertSame(channelCache.channelUri(CHANNEL_4001), channelCache.channelUri(CHANNEL_4001));
+
+        verify(misses, times(2)).increment();
+        verify(hits, times(2)).increment();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedChannel()
+    {
+        final ChannelCache channelCache = new ChannelCache(2, hits, misses);
+
+        final UdpChannel udpChannel4000 = channelCache.udpChannel(CHANNEL_4000);
+        final UdpChannel udpChannel4001 = channelCache.udpChannel(CHANNEL_4001);
+        channelCache.udpChannel(CHANNEL_4000);
+        channelCache.udpChannel(CHANNEL_4002);
+
+        assertEquals(2, channelCache.size());
+        assertSame(udpChannel4000, channelCache.udpChannel(CHANNEL_4000));
+        assertNotSame(udpChannel4001, channelCache.udpChannel(CHANNEL_4001));
+    }
+
+    @Test
+    public void shouldNotCacheChannelWithUniqueCanonicalForm()
+    {
+        final ChannelCache channelCache = new ChannelCache(8, hits, misses);
+
+        final UdpChannel udpChannel = channelCache.udpChannel(CHANNEL_MANUAL);
+        final UdpChannel nextUdpChannel = channelCache.udpChannel(CHANNEL_MANUAL);
+
+        assertNotEquals(udpChannel.canonicalForm(), nextUdpChannel.canonicalForm());
+        assertEquals(0, channelCache.size());
+    }
+
+    @Test
+    public void shouldParseAgainAfterInvalidation()
+    {
+        final ChannelCache channelCache = new ChannelCache(8, hits, misses);
+
+        final UdpChannel udpChannel = channelCache.udpChannel(CHANNEL_4000);
+        channelCache.invalidateAll();
+
+        assertEquals(0, channelCache.size());
+        assertNotSame(udpChannel, channelCache.udpChannel(CHANNEL_4000));
+        verify(misses, times(2)).increment();
+    }
+
+    @Test
+    public void shouldNotCacheWhenDisabled()
+    {
+        final ChannelCache channelCache = new ChannelCache(0, hits, misses);
+
+        assertNotSame(channelCache.udpChannel(CHANNEL_4000), channelCache.udpChannel(CHANNEL_4000));
+        verifyNoInteractions(hits, misses);
+    }
+}
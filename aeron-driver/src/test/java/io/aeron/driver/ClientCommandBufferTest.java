@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.*;
+
+public class ClientCommandBufferTest
+{
+    private static final int CAPACITY = 4096;
+    private static final int MSG_TYPE_ID = 7;
+    private static final long CLIENT_ID = 3;
+
+    private final AtomicCounter maxLatency = mock(AtomicCounter.class);
+    private final MessageHandler handler = mock(MessageHandler.class);
+    private final UnsafeBuffer msgBuffer = new UnsafeBuffer(new byte[64]);
+
+    @Test
+    public void shouldReadCommandsAndTrackLatencyUntilPendingCommandsAreDrained(final @TempDir Path tempDir)
+    {
+        final File file = new File(new File(tempDir.toFile(), "clients"), CLIENT_ID + ".cmd");
+        final ClientCommandBuffer commandBuffer = new ClientCommandBuffer(CLIENT_ID, file, CAPACITY, maxLatency);
+        final MappedByteBuffer clientMapping = IoUtil.mapExistingFile(file, "test");
+
+        try
+        {
+            final ManyToOneRingBuffer clientRingBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(clientMapping));
+
+            assertEquals(0, commandBuffer.receive(handler, 2, 0));
+            verifyNoInteractions(maxLatency);
+
+            for (int i = 0; i < 3; i++)
+            {
+                clientRingBuffer.write(MSG_TYPE_ID, msgBuffer, 0, msgBuffer.capacity());
+            }
+
+            assertEquals(2, commandBuffer.receive(handler, 2, 100));
+            verifyNoInteractions(maxLatency);
+
+            assertEquals(1, commandBuffer.receive(handler, 2, 250));
+            verify(maxLatency).proposeMaxOrdered(150);
+            verify(handler, times(3)).onMessage(eq(MSG_TYPE_ID), any(), anyInt(), anyInt());
+        }
+        finally
+        {
+            IoUtil.unmap(clientMapping);
+            commandBuffer.close();
+        }
+
+        assertFalse(file.exists());
+    }
+}
@@ -260,4 +260,48 @@ public class DataPacketDispatcherTest
 
         verify(mockImage).insertPacket(ACTIVE_TERM_ID, TERM_OFFSET, mockBuffer, LENGTH, 0, SRC_ADDRESS);
     }
+
+    @Test
+    public void shouldDispatchDataToImageByStreamAndSession()
+    {
+        final int otherStreamId = STREAM_ID + 1;
+        final int otherSessionId = SESSION_ID + 1;
+        final PublicationImage otherSessionImage = mock(PublicationImage.class);
+        final PublicationImage otherStreamImage = mock(PublicationImage.class);
+
+        when(otherSessionImage.sessionId()).thenReturn(otherSessionId);
+        when(otherSessionImage.streamId()).thenReturn(STREAM_ID);
+        when(otherStreamImage.sessionId()).thenReturn(SESSION_ID);
+        when(otherStreamImage.streamId()).thenReturn(otherStreamId);
+
+        dispatcher.addSubscription(STREAM_ID);
+        dispatcher.addSubscription(otherStreamId);
+        dispatcher.addPublicationImage(mockImage);
+        dispatcher.addPublicationImage(otherSessionImage);
+        dispatcher.addPublicationImage(otherStreamImage);
+
+        dispatchDataPacket(STREAM_ID, SESSION_ID);
+        dispatchDataPacket(STREAM_ID, otherSessionId);
+        dispatchDataPacket(otherStreamId, SESSION_ID);
+        dispatchDataPacket(STREAM_ID, SESSION_ID);
+
+        verify(mockImage, times(2)).insertPacket(ACTIVE_TERM_ID, TERM_OFFSET, mockBuffer, LENGTH, 0, SRC_ADDRESS);
+        verify(otherSessionImage).insertPacket(ACTIVE_TERM_ID, TERM_OFFSET, mockBuffer, LENGTH, 0, SRC_ADDRESS);
+        verify(otherStreamImage).insertPacket(ACTIVE_TERM_ID, TERM_OFFSET, mockBuffer, LENGTH, 0, SRC_ADDRESS);
+
+        dispatcher.removeSubscription(otherStreamId);
+        dispatchDataPacket(otherStreamId, SESSION_ID);
+        dispatchDataPacket(STREAM_ID, SESSION_ID);
+
+        verify(otherStreamImage).ifActiveGoInactive();
+        verify(otherStreamImage).insertPacket(anyInt(), anyInt(), any(), anyInt(), anyInt(), any());
+        verify(mockImage, times(3)).insertPacket(ACTIVE_TERM_ID, TERM_OFFSET, mockBuffer, LENGTH, 0, SRC_ADDRESS);
+    }
+
+    private void dispatchDataPacket(final int streamId, final int sessionId)
+    {
+        when(mockHeader.streamId()).thenReturn(streamId);
+        when(mockHeader.sessionId()).thenReturn(sessionId);
+        dispatcher.onDataPacket(mockChannelEndpoint, mockHeader, mockBuffer, LENGTH, SRC_ADDRESS, 0);
+    }
 }
@@ -18,34 +18,46 @@ package io.aeron.driver;
 import io.aeron.CommonContext;
 import io.aeron.DriverProxy;
 import io.aeron.ErrorCode;
+import io.aeron.driver.buffer.LogFactory;
 import io.aeron.driver.buffer.RawLog;
 import io.aeron.driver.buffer.TestLogFactory;
 import io.aeron.driver.exceptions.InvalidChannelException;
 import io.aeron.driver.media.ReceiveChannelEndpoint;
 import io.aeron.driver.media.ReceiveChannelEndpointThreadLocals;
 import io.aeron.driver.media.UdpChannel;
+import io.aeron.driver.status.ClientCommandMaxLatency;
+import io.aeron.driver.status.ClientHeartbeatTimestamp;
+import io.aeron.driver.status.ShardDutyCycles;
 import io.aeron.driver.status.SystemCounters;
+import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.logbuffer.HeaderWriter;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.logbuffer.TermAppender;
+import io.aeron.protocol.FecParityFlyweight;
 import io.aeron.protocol.StatusMessageFlyweight;
 import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.stubbing.Answer;
 
+import java.io.File;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
 import java.util.function.LongConsumer;
@@ -58,6 +70,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -109,6 +122,7 @@ public class DriverConductorTest
     private final NanoClock nanoClock = () -> currentTimeNs;
 
     private CountersManager spyCountersManager;
+    private MediaDriver.Context ctx;
     private DriverProxy driverProxy;
     private DriverConductor driverConductor;
 
@@ -136,7 +150,7 @@ public class DriverConductorTest
         final SystemCounters mockSystemCounters = mock(SystemCounters.class);
         when(mockSystemCounters.get(any())).thenReturn(mockErrorCounter);
 
-        final MediaDriver.Context ctx = new MediaDriver.Context()
+        ctx = new MediaDriver.Context()
             .tempBuffer(new UnsafeBuffer(new byte[METADATA_LENGTH]))
             .timerIntervalNs(DEFAULT_TIMER_INTERVAL_NS)
             .publicationTermBufferLength(TERM_BUFFER_LENGTH)
@@ -155,6 +169,7 @@ public class DriverConductorTest
             .sendChannelEndpointSupplier(Configuration.sendChannelEndpointSupplier())
             .receiveChannelEndpointSupplier(Configuration.receiveChannelEndpointSupplier())
             .congestControlSupplier(Configuration.congestionControlSupplier())
+            .statusMessagePolicySupplier(Configuration.statusMessagePolicySupplier())
             .toDriverCommands(toDriverCommands)
             .clientProxy(mockClientProxy)
             .countersValuesBuffer(counterBuffer)
@@ -440,6 +455,74 @@ public class DriverConductorTest
         assertEquals(mtuLength, argumentCaptor.getValue().mtuLength());
     }
 
+    @Test
+    public void shouldReduceMtuForDataSoFecParityFrameFitsInMtu()
+    {
+        final int mtuLength = 4096;
+        final int groupSize = 4;
+        final String params = "|" + CommonContext.MTU_LENGTH_PARAM_NAME + "=" + mtuLength +
+            "|" + CommonContext.FEC_PARAM_NAME + "=" + groupSize;
+        driverProxy.addPublication(CHANNEL_4000 + params, STREAM_ID_1);
+
+        driverConductor.doWork();
+
+        final ArgumentCaptor<NetworkPublication> argumentCaptor = ArgumentCaptor.forClass(NetworkPublication.class);
+        verify(senderProxy).newNetworkPublication(argumentCaptor.capture());
+
+        final NetworkPublication publication = argumentCaptor.getValue();
+        assertEquals(groupSize, publication.fecGroupSize());
+        assertEquals(0, publication.mtuLength() % FrameDescriptor.FRAME_ALIGNMENT);
+        assertThat(
+            FecParityFlyweight.computeFrameLength(groupSize, publication.mtuLength()), lessThanOrEqualTo(mtuLength));
+        assertEquals(publication.mtuLength(), LogBufferDescriptor.mtuLength(publication.rawLog().metaData()));
+    }
+
+    @Test
+    public void shouldErrorOnAddPublicationWithNonNumericWeight()
+    {
+        final String weightParam = "|" + CommonContext.WEIGHT_PARAM_NAME + "=heavy";
+        final long correlationId = driverProxy.addPublication(CHANNEL_4000 + weightParam, STREAM_ID_1);
+
+        driverConductor.doWork();
+
+        verify(senderProxy, never()).newNetworkPublication(any());
+        verify(mockClientProxy).onError(
+            eq(correlationId), eq(GENERIC_ERROR), contains("weight=heavy must be an integer"));
+        verify(mockErrorHandler).onError(any(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void shouldErrorOnAddSharedPublicationWithDifferentWeight()
+    {
+        final String weightParam = "|" + CommonContext.WEIGHT_PARAM_NAME + "=";
+        driverProxy.addPublication(CHANNEL_4000 + weightParam + 2, STREAM_ID_1);
+        driverConductor.doWork();
+
+        final long correlationId = driverProxy.addPublication(CHANNEL_4000 + weightParam + 3, STREAM_ID_1);
+        driverConductor.doWork();
+
+        verify(senderProxy, times(1)).newNetworkPublication(any());
+        verify(mockClientProxy).onError(
+            eq(correlationId), eq(GENERIC_ERROR), contains("existing publication has different weight"));
+    }
+
+    @Test
+    public void shouldErrorOnAddPublicationWithWeightNotMatchingSessionIdTag()
+    {
+        final String weightParam = "|" + CommonContext.WEIGHT_PARAM_NAME + "=";
+        driverProxy.addExclusivePublication(CHANNEL_4000_TAG_ID_1 + weightParam + 2, STREAM_ID_1);
+        driverConductor.doWork();
+
+        final String sessionIdParam = "|" + CommonContext.SESSION_ID_PARAM_NAME + "=tag:1001";
+        final long correlationId = driverProxy.addExclusivePublication(
+            CHANNEL_4001 + sessionIdParam + weightParam + 3, STREAM_ID_1);
+        driverConductor.doWork();
+
+        verify(senderProxy, times(1)).newNetworkPublication(any());
+        verify(mockClientProxy).onError(
+            eq(correlationId), eq(GENERIC_ERROR), contains("weight=3 does not match session-id tag value"));
+    }
+
     @Test
     public void shouldErrorOnRemoveSubscriptionOnUnknownRegistrationId()
     {
@@ -904,6 +987,56 @@ public class DriverConductorTest
             anyLong(), anyInt(), eq(ipcPublication.rawLog().fileName()), anyString());
     }
 
+    @Test
+    public void shouldOnlyLinkSessionSubscriptionToPublicationOfItsSessionOnSharedStream()
+    {
+        final String sessionIdParam = "?" + CommonContext.SESSION_ID_PARAM_NAME + "=";
+        final long idPubOne = driverProxy.addExclusivePublication(CHANNEL_IPC + sessionIdParam + 1, STREAM_ID_1);
+        final long idPubTwo = driverProxy.addExclusivePublication(CHANNEL_IPC + sessionIdParam + 2, STREAM_ID_1);
+        final long idPubOther = driverProxy.addExclusivePublication(CHANNEL_IPC + sessionIdParam + 1, STREAM_ID_2);
+        final long idSub = driverProxy.addSubscription(CHANNEL_IPC + sessionIdParam + 2, STREAM_ID_1);
+        final long idWildcardSub = driverProxy.addSubscription(CHANNEL_IPC, STREAM_ID_1);
+
+        driverConductor.doWork();
+
+        final IpcPublication publicationOne = driverConductor.getIpcPublication(idPubOne);
+        final IpcPublication publicationTwo = driverConductor.getIpcPublication(idPubTwo);
+        assertNotNull(driverConductor.getIpcPublication(idPubOther));
+
+        verify(mockClientProxy).onAvailableImage(
+            eq(publicationTwo.registrationId()), eq(STREAM_ID_1), eq(2), eq(idSub), anyInt(), anyString(), anyString());
+        verify(mockClientProxy, never()).onAvailableImage(
+            anyLong(), anyInt(), eq(1), eq(idSub), anyInt(), anyString(), anyString());
+        verify(mockClientProxy).onAvailableImage(
+            eq(publicationOne.registrationId()), eq(STREAM_ID_1), eq(1), eq(idWildcardSub),
+            anyInt(), anyString(), anyString());
+        verify(mockClientProxy).onAvailableImage(
+            eq(publicationTwo.registrationId()), eq(STREAM_ID_1), eq(2), eq(idWildcardSub),
+            anyInt(), anyString(), anyString());
+        verify(mockClientProxy, never()).onAvailableImage(
+            anyLong(), eq(STREAM_ID_2), anyInt(), anyLong(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    public void shouldOnlyLinkSpyToPublicationOnItsChannelForSharedStream()
+    {
+        final long idPub = driverProxy.addPublication(CHANNEL_4000, STREAM_ID_1);
+        driverProxy.addPublication(CHANNEL_4001, STREAM_ID_1);
+        final long idSpy = driverProxy.addSubscription(spyForChannel(CHANNEL_4000), STREAM_ID_1);
+
+        driverConductor.doWork();
+
+        final ArgumentCaptor<NetworkPublication> captor = ArgumentCaptor.forClass(NetworkPublication.class);
+        verify(senderProxy, times(2)).newNetworkPublication(captor.capture());
+
+        final NetworkPublication publication = captor.getAllValues().get(0);
+        assertEquals(idPub, publication.registrationId());
+        verify(mockClientProxy).onAvailableImage(
+            eq(idPub), eq(STREAM_ID_1), eq(publication.sessionId()), eq(idSpy), anyInt(), anyString(), anyString());
+        verify(mockClientProxy, times(1)).onAvailableImage(
+            anyLong(), anyInt(), anyInt(), eq(idSpy), anyInt(), anyString(), anyString());
+    }
+
     @Test
     public void shouldBeAbleToAddAndRemoveIpcPublication()
     {
@@ -968,6 +1101,59 @@ public class DriverConductorTest
         assertNull(ipcPublication);
     }
 
+    @Test
+    public void shouldRemoveIpcPublicationBeforeLivenessTimeoutWhenClientCloses()
+    {
+        driverProxy.addPublication(CHANNEL_IPC, STREAM_ID_1);
+
+        driverConductor.doWork();
+
+        IpcPublication ipcPublication = driverConductor.getSharedIpcPublication(STREAM_ID_1);
+        assertNotNull(ipcPublication);
+
+        driverProxy.clientClose();
+
+        doWorkUntil(() -> (CLIENT_LIVENESS_TIMEOUT_NS / 2) - nanoClock.nanoTime() <= 0);
+
+        ipcPublication = driverConductor.getSharedIpcPublication(STREAM_ID_1);
+        assertNull(ipcPublication);
+        verify(mockClientProxy, never()).onClientTimeout(anyLong());
+    }
+
+    @Test
+    public void shouldExpireUntetheredIpcSubscriptionOnItsDeadlines()
+    {
+        final String untetheredChannel = CHANNEL_IPC + "?" + CommonContext.TETHER_PARAM_NAME + "=false";
+        driverProxy.addPublication(CHANNEL_IPC, STREAM_ID_1);
+        final long idTethered = driverProxy.addSubscription(CHANNEL_IPC, STREAM_ID_1);
+        final long idUntethered = driverProxy.addSubscription(untetheredChannel, STREAM_ID_1);
+
+        driverConductor.doWork();
+
+        final IpcPublication publication = driverConductor.getSharedIpcPublication(STREAM_ID_1);
+        final ArgumentCaptor<Integer> captor = ArgumentCaptor.forClass(Integer.class);
+        verify(mockClientProxy).onAvailableImage(
+            eq(publication.registrationId()), eq(STREAM_ID_1), anyInt(), eq(idTethered), captor.capture(),
+            anyString(), anyString());
+        spyCountersManager.setCounterValue(captor.getValue(), TERM_BUFFER_LENGTH);
+
+        final long windowLimitTimeoutNs = untetheredWindowLimitTimeoutNs();
+        final LongConsumer keepalive = (nowNs) -> driverProxy.sendClientKeepalive();
+        doWorkUntil(() -> nanoClock.nanoTime() >= windowLimitTimeoutNs - DEFAULT_TIMER_INTERVAL_NS, keepalive);
+        verify(mockClientProxy, never()).onUnavailableImage(
+            anyLong(), eq(idUntethered), anyInt(), anyString());
+
+        doWorkUntil(() -> nanoClock.nanoTime() >= windowLimitTimeoutNs + (DEFAULT_TIMER_INTERVAL_NS * 2), keepalive);
+        verify(mockClientProxy).onUnavailableImage(
+            eq(publication.registrationId()), eq(idUntethered), eq(STREAM_ID_1), anyString());
+
+        final long restingDeadlineNs = nanoClock.nanoTime() + windowLimitTimeoutNs + untetheredRestingTimeoutNs();
+        doWorkUntil(() -> nanoClock.nanoTime() >= restingDeadlineNs + (DEFAULT_TIMER_INTERVAL_NS * 2), keepalive);
+        verify(mockClientProxy, times(2)).onAvailableImage(
+            eq(publication.registrationId()), eq(STREAM_ID_1), anyInt(), eq(idUntethered), anyInt(),
+            anyString(), anyString());
+    }
+
     @Test
     public void shouldTimeoutIpcPublication()
     {
@@ -1217,6 +1403,52 @@ public class DriverConductorTest
         verify(mockClientProxy).onError(eq(id2), any(ErrorCode.class), anyString());
     }
 
+    @Test
+    public void shouldDeferSharedPublicationAndReserveSessionIdWhileLogIsAllocated()
+    {
+        final LogAllocator logAllocator = newLogAllocator(ctx.logFactory());
+        final String channel = CHANNEL_IPC + "?session-id=" + SESSION_ID;
+
+        final long id1 = driverProxy.addPublication(channel, STREAM_ID_1);
+        final long id2 = driverProxy.addPublication(channel, STREAM_ID_1);
+        final long id3 = driverProxy.addExclusivePublication(channel, STREAM_ID_1);
+        driverConductor.doWork();
+
+        verify(mockClientProxy, never()).onPublicationReady(
+            anyLong(), anyLong(), anyInt(), anyInt(), anyString(), anyInt(), anyInt(), anyBoolean());
+        verify(mockClientProxy).onError(eq(id3), eq(GENERIC_ERROR), contains("clashing session id"));
+
+        assertEquals(1, logAllocator.doWork());
+        driverConductor.doWork();
+
+        verify(mockClientProxy).onPublicationReady(
+            eq(id1), eq(id1), eq(STREAM_ID_1), eq(SESSION_ID), anyString(), anyInt(), anyInt(), eq(false));
+        verify(mockClientProxy).onPublicationReady(
+            eq(id2), eq(id1), eq(STREAM_ID_1), eq(SESSION_ID), anyString(), anyInt(), anyInt(), eq(false));
+        verify(mockClientProxy, never()).onError(eq(id1), any(ErrorCode.class), anyString());
+        verify(mockClientProxy, never()).onError(eq(id2), any(ErrorCode.class), anyString());
+    }
+
+    @Test
+    public void shouldCloseLogOfAllocationNotTakenBeforeClose()
+    {
+        final RawLog mockRawLog = mock(RawLog.class);
+        final LogFactory mockLogFactory = mock(LogFactory.class);
+        when(mockLogFactory.newPublication(anyLong(), anyInt(), anyBoolean())).thenReturn(mockRawLog);
+
+        final LogAllocator logAllocator = newLogAllocator(mockLogFactory);
+
+        driverProxy.addPublication(CHANNEL_IPC, STREAM_ID_1);
+        driverConductor.doWork();
+        assertEquals(1, logAllocator.doWork());
+
+        driverConductor.onClose();
+
+        verify(mockRawLog).close();
+        verify(mockClientProxy, never()).onPublicationReady(
+            anyLong(), anyLong(), anyInt(), anyInt(), anyString(), anyInt(), anyInt(), anyBoolean());
+    }
+
     @Test
     public void shouldAddSingleCounter()
     {
@@ -1698,6 +1930,76 @@ public class DriverConductorTest
         verify(mockErrorHandler, never()).onError(any());
     }
 
+    @Test
+    public void shouldAdoptLiveClientWithCommandBufferOnWarmRestart(final @TempDir Path tempDir)
+    {
+        final long clientId = 7;
+        final int commandBufferLength = 64 * 1024;
+        final UnsafeBuffer tempBuffer = new UnsafeBuffer(new byte[METADATA_LENGTH]);
+        final CountersManager previousCountersManager = new CountersManager(
+            new UnsafeBuffer(ByteBuffer.allocate(BUFFER_LENGTH * 2)),
+            new UnsafeBuffer(ByteBuffer.allocate(BUFFER_LENGTH)),
+            StandardCharsets.US_ASCII);
+        new SystemCounters(previousCountersManager);
+        ShardDutyCycles.allocate(previousCountersManager, "sender-0");
+        ClientHeartbeatTimestamp.allocate(tempBuffer, previousCountersManager, clientId).setOrdered(currentTimeMs);
+        ClientCommandMaxLatency.allocate(tempBuffer, previousCountersManager, clientId);
+
+        final WarmRestart warmRestart = new WarmRestart(previousCountersManager);
+        new SystemCounters(spyCountersManager);
+        warmRestart.adoptCounters(spyCountersManager);
+        assertEquals(1, warmRestart.clientCount());
+
+        ctx.aeronDirectoryName(tempDir.toString());
+        ctx.concludeAeronDirectory();
+        ctx.clientCommandBufferLength(commandBufferLength).warmRestart(warmRestart);
+
+        final File commandBufferFile = ctx.clientCommandBufferFile(clientId);
+        IoUtil.ensureDirectoryExists(ctx.clientCommandBufferDir(), "client command buffers");
+        final MappedByteBuffer clientMapping = IoUtil.mapNewFile(
+            commandBufferFile, commandBufferLength + RingBufferDescriptor.TRAILER_LENGTH);
+
+        try
+        {
+            final DriverProxy clientDriverProxy = new DriverProxy(toDriverCommands, clientId);
+            clientDriverProxy.clientCommandBuffer(new ManyToOneRingBuffer(new UnsafeBuffer(clientMapping)));
+            clientDriverProxy.addPublication(CHANNEL_IPC, STREAM_ID_1);
+
+            driverConductor = new DriverConductor(ctx);
+            driverConductor.doWork();
+
+            verify(mockClientProxy).onPublicationReady(
+                anyLong(), anyLong(), eq(STREAM_ID_1), anyInt(), any(), anyInt(), anyInt(), eq(false));
+
+            doWorkUntil(
+                () -> nanoClock.nanoTime() >= CLIENT_LIVENESS_TIMEOUT_NS * 2,
+                (timeNs) -> clientDriverProxy.sendClientKeepalive());
+
+            verify(mockClientProxy, never()).onClientTimeout(anyLong());
+            assertTrue(commandBufferFile.exists());
+        }
+        finally
+        {
+            IoUtil.unmap(clientMapping);
+        }
+    }
+
+    private LogAllocator newLogAllocator(final LogFactory logFactory)
+    {
+        final LogAllocator logAllocator = new LogAllocator(
+            logFactory,
+            nanoClock,
+            ctx.driverCommandQueue(),
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class));
+
+        ctx.logAllocator(logAllocator);
+        driverConductor = new DriverConductor(ctx);
+
+        return logAllocator;
+    }
+
     private void doWorkUntil(final BooleanSupplier condition, final LongConsumer timeConsumer)
     {
         while (!condition.getAsBoolean())
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.logbuffer.LogBufferDescriptor;
+import io.aeron.protocol.FecParityFlyweight;
+import io.aeron.protocol.HeaderFlyweight;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FecParityEncoderTest
+{
+    private static final int MTU_LENGTH = 1408;
+    private static final int GROUP_SIZE = 3;
+    private static final int SESSION_ID = 0x5E55101D;
+    private static final int STREAM_ID = 0x5400E;
+    private static final int TERM_ID = 0x7F003355;
+    private static final int[] TERM_OFFSETS = { 0, 128, 1024 };
+    private static final int[] LENGTHS = { 128, 896, 61 };
+
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer(allocateDirect(LogBufferDescriptor.TERM_MIN_LENGTH));
+    private final FecParityEncoder encoder = new FecParityEncoder(SESSION_ID, STREAM_ID, GROUP_SIZE, MTU_LENGTH);
+
+    @Test
+    public void shouldEmitParityFrameWhenGroupIsComplete()
+    {
+        fillTermBuffer();
+
+        assertFalse(encoder.onDataSent(TERM_ID, TERM_OFFSETS[0], termBuffer, LENGTHS[0]));
+        assertFalse(encoder.onDataSent(TERM_ID, TERM_OFFSETS[1], termBuffer, LENGTHS[1]));
+        assertTrue(encoder.onDataSent(TERM_ID, TERM_OFFSETS[2], termBuffer, LENGTHS[2]));
+
+        final ByteBuffer parityBuffer = encoder.parityBuffer();
+        final FecParityFlyweight parityHeader = new FecParityFlyweight(parityBuffer);
+
+        assertEquals(FecParityFlyweight.computeFrameLength(GROUP_SIZE, LENGTHS[1]), parityBuffer.remaining());
+        assertEquals(parityBuffer.remaining(), parityHeader.frameLength());
+        assertEquals(HeaderFlyweight.HDR_TYPE_FEC_PARITY, parityHeader.headerType());
+        assertEquals(SESSION_ID, parityHeader.sessionId());
+        assertEquals(STREAM_ID, parityHeader.streamId());
+        assertEquals(TERM_ID, parityHeader.termId());
+        assertEquals(GROUP_SIZE, parityHeader.groupSize());
+
+        for (int i = 0; i < GROUP_SIZE; i++)
+        {
+            assertEquals(TERM_OFFSETS[i], parityHeader.termOffset(i));
+            assertEquals(LENGTHS[i], parityHeader.length(i));
+        }
+    }
+
+    @Test
+    public void shouldRebuildAnySingleMissingDatagramFromParity()
+    {
+        fillTermBuffer();
+
+        for (int i = 0; i < GROUP_SIZE; i++)
+        {
+            encoder.onDataSent(TERM_ID, TERM_OFFSETS[i], termBuffer, LENGTHS[i]);
+        }
+
+        final UnsafeBuffer parity = new UnsafeBuffer(encoder.parityBuffer());
+        final int payloadOffset = FecParityFlyweight.payloadOffset(GROUP_SIZE);
+
+        for (int missing = 0; missing < GROUP_SIZE; missing++)
+        {
+            final UnsafeBuffer recovered = new UnsafeBuffer(new byte[LENGTHS[missing]]);
+            recovered.putBytes(0, parity, payloadOffset, LENGTHS[missing]);
+
+            for (int i = 0; i < GROUP_SIZE; i++)
+            {
+                if (i != missing)
+                {
+                    final int length = Math.min(LENGTHS[i], LENGTHS[missing]);
+                    FecParityEncoder.xor(recovered, 0, termBuffer, TERM_OFFSETS[i], length);
+                }
+            }
+
+            for (int i = 0; i < LENGTHS[missing]; i++)
+            {
+                assertEquals(termBuffer.getByte(TERM_OFFSETS[missing] + i), recovered.getByte(i));
+            }
+        }
+    }
+
+    @Test
+    public void shouldAbandonPartialGroupWhenTermChanges()
+    {
+        fillTermBuffer();
+
+        assertFalse(encoder.onDataSent(TERM_ID, TERM_OFFSETS[0], termBuffer, LENGTHS[0]));
+        assertFalse(encoder.onDataSent(TERM_ID, TERM_OFFSETS[1], termBuffer, LENGTHS[1]));
+        assertFalse(encoder.onDataSent(TERM_ID + 1, TERM_OFFSETS[0], termBuffer, LENGTHS[0]));
+        assertFalse(encoder.onDataSent(TERM_ID + 1, TERM_OFFSETS[1], termBuffer, LENGTHS[1]));
+        assertTrue(encoder.onDataSent(TERM_ID + 1, TERM_OFFSETS[2], termBuffer, LENGTHS[2]));
+
+        assertEquals(TERM_ID + 1, new FecParityFlyweight(encoder.parityBuffer()).termId());
+    }
+
+    @Test
+    public void shouldFlushPartialGroupWithUnusedEntries()
+    {
+        fillTermBuffer();
+
+        assertFalse(encoder.flush());
+        assertFalse(encoder.onDataSent(TERM_ID, TERM_OFFSETS[0], termBuffer, LENGTHS[0]));
+        assertFalse(encoder.onDataSent(TERM_ID, TERM_OFFSETS[1], termBuffer, LENGTHS[1]));
+        assertTrue(encoder.flush());
+
+        final ByteBuffer parityBuffer = encoder.parityBuffer();
+        final FecParityFlyweight parityHeader = new FecParityFlyweight(parityBuffer);
+
+        assertEquals(FecParityFlyweight.computeFrameLength(GROUP_SIZE, LENGTHS[1]), parityBuffer.remaining());
+        assertEquals(GROUP_SIZE, parityHeader.groupSize());
+        assertEquals(TERM_OFFSETS[0], parityHeader.termOffset(0));
+        assertEquals(LENGTHS[0], parityHeader.length(0));
+        assertEquals(TERM_OFFSETS[1], parityHeader.termOffset(1));
+        assertEquals(LENGTHS[1], parityHeader.length(1));
+        assertEquals(0, parityHeader.length(2));
+
+        assertFalse(encoder.flush());
+    }
+
+    private void fillTermBuffer()
+    {
+        for (int i = 0; i < TERM_OFFSETS[2] + LENGTHS[2]; i++)
+        {
+            termBuffer.putByte(i, (byte)(i * 31 + 7));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FlowControlReceiversTest
+{
+    private static final long WINDOW_LENGTH = 1024;
+    private static final long TIMEOUT_NS = 1_000;
+    private static final long SENDER_LIMIT = 4096;
+
+    private final FlowControlReceivers receivers = new FlowControlReceivers();
+
+    @Test
+    public void shouldFallBackToSenderLimitWhenEmpty()
+    {
+        assertEquals(0, receivers.size());
+        assertEquals(SENDER_LIMIT, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldTrackMinimumAsReceiversAdvance()
+    {
+        receivers.onStatusMessage(1, 100, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 50, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(3, 200, WINDOW_LENGTH, 0);
+        assertEquals(3, receivers.size());
+        assertEquals(50 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+
+        receivers.onStatusMessage(2, 300, WINDOW_LENGTH, 0);
+        assertEquals(3, receivers.size());
+        assertEquals(100 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+
+        receivers.onStatusMessage(3, 20, WINDOW_LENGTH, 0);
+        assertEquals(20 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldRemoveOnlyReceiversWhichHaveTimedOut()
+    {
+        receivers.onStatusMessage(1, 100, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 200, WINDOW_LENGTH, 10);
+        receivers.onStatusMessage(3, 300, WINDOW_LENGTH, 20);
+        receivers.onStatusMessage(1, 150, WINDOW_LENGTH, 30);
+
+        assertEquals(0, receivers.removeTimedOut(TIMEOUT_NS + 10, TIMEOUT_NS));
+        assertEquals(1, receivers.removeTimedOut(TIMEOUT_NS + 11, TIMEOUT_NS));
+        assertEquals(2, receivers.size());
+        assertEquals(150 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+
+        assertEquals(2, receivers.removeTimedOut(TIMEOUT_NS + 31, TIMEOUT_NS));
+        assertEquals(0, receivers.size());
+        assertEquals(SENDER_LIMIT, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldEvictReceiversLaggingSenderByMoreThanWindow()
+    {
+        receivers.onStatusMessage(1, 100, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 500, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(3, 900, WINDOW_LENGTH, 0);
+
+        assertEquals(0, receivers.evictLagging(1000, 900));
+        assertEquals(900, receivers.maxLag(1000));
+
+        assertEquals(2, receivers.evictLagging(1000, 499));
+        assertEquals(1, receivers.size());
+        assertEquals(900 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+        assertEquals(100, receivers.maxLag(1000));
+    }
+
+    @Test
+    public void shouldReadmitEvictedReceiverWhenCaughtUpToWithinHalfWindow()
+    {
+        receivers.onStatusMessage(1, 0, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 1000, WINDOW_LENGTH, 0);
+        assertEquals(1, receivers.evictLagging(1000, 400));
+
+        receivers.onStatusMessage(1, 700, WINDOW_LENGTH, 10);
+        assertEquals(1, receivers.size());
+
+        receivers.onStatusMessage(1, 800, WINDOW_LENGTH, 20);
+        assertEquals(2, receivers.size());
+        assertEquals(800 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldNeverEvictLastReceiver()
+    {
+        receivers.onStatusMessage(1, 0, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 100, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(3, 200, WINDOW_LENGTH, 0);
+
+        assertEquals(2, receivers.evictLagging(10_000, 400));
+        assertEquals(1, receivers.size());
+        assertEquals(200 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+        assertEquals(9_800, receivers.maxLag(10_000));
+
+        assertEquals(0, receivers.evictLagging(20_000, 400));
+        assertEquals(1, receivers.size());
+        assertEquals(200 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldReadmitEvictedReceiverWhenAllOthersHaveTimedOut()
+    {
+        receivers.onStatusMessage(1, 0, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 1000, WINDOW_LENGTH, 0);
+        assertEquals(1, receivers.evictLagging(1000, 400));
+
+        receivers.onStatusMessage(1, 100, WINDOW_LENGTH, 10);
+        assertEquals(1, receivers.removeTimedOut(TIMEOUT_NS + 1, TIMEOUT_NS));
+        assertEquals(0, receivers.size());
+        assertEquals(SENDER_LIMIT, receivers.minPositionPlusWindow(SENDER_LIMIT));
+
+        receivers.onStatusMessage(1, 200, WINDOW_LENGTH, 20);
+        assertEquals(1, receivers.size());
+        assertEquals(200 + WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldRemoveEvictedReceiverWhenTimedOut()
+    {
+        receivers.onStatusMessage(1, 0, WINDOW_LENGTH, 0);
+        receivers.onStatusMessage(2, 1000, WINDOW_LENGTH, 10);
+        assertEquals(1, receivers.evictLagging(1000, 400));
+
+        assertEquals(1, receivers.removeTimedOut(TIMEOUT_NS + 1, TIMEOUT_NS));
+        assertEquals(1, receivers.size());
+
+        receivers.onStatusMessage(1, 0, WINDOW_LENGTH, TIMEOUT_NS + 2);
+        assertEquals(2, receivers.size());
+        assertEquals(WINDOW_LENGTH, receivers.minPositionPlusWindow(SENDER_LIMIT));
+    }
+
+    @Test
+    public void shouldAgreeWithLinearScanOfReceivers()
+    {
+        final int receiverCount = 100;
+        final long[] positionPlusWindows = new long[receiverCount];
+        final long[] times = new long[receiverCount];
+        final Random random = new Random(7);
+
+        for (long timeNs = 0; timeNs < 100_000; timeNs += 10)
+        {
+            final int receiverId = random.nextInt(receiverCount);
+            final long position = random.nextInt(1_000_000);
+            receivers.onStatusMessage(receiverId, position, WINDOW_LENGTH, timeNs);
+            positionPlusWindows[receiverId] = position + WINDOW_LENGTH;
+            times[receiverId] = timeNs;
+
+            receivers.removeTimedOut(timeNs, TIMEOUT_NS);
+
+            int size = 0;
+            long minPositionPlusWindow = Long.MAX_VALUE;
+            for (int i = 0; i < receiverCount; i++)
+            {
+                if (0 != positionPlusWindows[i])
+                {
+                    if ((times[i] + TIMEOUT_NS) - timeNs < 0)
+                    {
+                        positionPlusWindows[i] = 0;
+                    }
+                    else
+                    {
+                        size++;
+                        minPositionPlusWindow = Math.min(minPositionPlusWindow, positionPlusWindows[i]);
+                    }
+                }
+            }
+
+            assertEquals(size, receivers.size());
+            assertEquals(minPositionPlusWindow, receivers.minPositionPlusWindow(Long.MAX_VALUE));
+        }
+    }
+}
@@ -22,9 +22,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import io.aeron.CommonContext;
 import io.aeron.DriverProxy;
+import org.agrona.ErrorHandler;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.status.AtomicLongPosition;
 import org.agrona.concurrent.status.CountersManager;
 import org.agrona.concurrent.status.Position;
 import org.agrona.concurrent.status.UnsafeBufferPosition;
@@ -119,4 +121,34 @@ public class IpcPublicationTest
 
         assertThat(publisherLimit.get(), is(greaterThan(0L)));
     }
+
+    @Test
+    public void shouldOnlyUpdatePublisherLimitWhenSlowestSubscriberAdvances()
+    {
+        final Position slowPosition = new AtomicLongPosition();
+        final Position fastPosition = new AtomicLongPosition();
+        ipcPublication.addSubscriber(newLink(1), slowPosition);
+        ipcPublication.addSubscriber(newLink(2), fastPosition);
+
+        assertThat(ipcPublication.updatePublisherLimit(), is(1));
+        final long termWindowLength = publisherLimit.get();
+        assertThat(termWindowLength, is(greaterThan(0L)));
+
+        fastPosition.set(termWindowLength);
+        assertThat(ipcPublication.updatePublisherLimit(), is(0));
+        assertThat(publisherLimit.get(), is(termWindowLength));
+        assertThat(ipcPublication.joinPosition(), is(termWindowLength));
+
+        slowPosition.set(termWindowLength / 2);
+        assertThat(ipcPublication.updatePublisherLimit(), is(1));
+        assertThat(publisherLimit.get(), is(termWindowLength / 2 + termWindowLength));
+    }
+
+    private IpcSubscriptionLink newLink(final long registrationId)
+    {
+        final SubscriptionParams params = new SubscriptionParams();
+
+        return new IpcSubscriptionLink(
+            registrationId, STREAM_ID, CommonContext.IPC_CHANNEL, null, params, mock(ErrorHandler.class));
+    }
 }
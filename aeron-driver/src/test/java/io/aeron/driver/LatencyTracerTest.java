@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.status.LatencyHistogram;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LatencyTracerTest
+{
+    private static final int FRAME_LENGTH = 64;
+    private static final int PACKET_LENGTH = 2 * FRAME_LENGTH;
+    private static final int MTU_LENGTH = 1408;
+    private static final long EPOCH_NS = 0x1_0000_0100L;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(PACKET_LENGTH));
+    private final AtomicCounter[] publisherToSenderBuckets = mockBuckets();
+    private final AtomicCounter[] wireBuckets = mockBuckets();
+    private final LatencyTracer latencyTracer = new LatencyTracer(
+        new LatencyHistogram(publisherToSenderBuckets), new LatencyHistogram(wireBuckets), MTU_LENGTH);
+
+    @BeforeEach
+    public void before()
+    {
+        for (int frameOffset = 0; frameOffset < PACKET_LENGTH; frameOffset += FRAME_LENGTH)
+        {
+            buffer.putInt(frameOffset, FRAME_LENGTH, LITTLE_ENDIAN);
+            frameType(buffer, frameOffset, HDR_TYPE_DATA);
+            frameFlags(buffer, frameOffset, UNFRAGMENTED);
+            buffer.putLong(frameOffset + RESERVED_VALUE_OFFSET, 1_000, LITTLE_ENDIAN);
+        }
+    }
+
+    @Test
+    public void shouldStampSentFramesWithPublisherToSenderLatencyAndEpochTime()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 6_000, EPOCH_NS);
+
+        for (int frameOffset = 0; frameOffset < PACKET_LENGTH; frameOffset += FRAME_LENGTH)
+        {
+            assertEquals((5_000L << 32) | 0x100L, reservedValue(frameOffset));
+            assertEquals((UNFRAGMENTED & 0xFF) | LATENCY_TRACE_SEND_FLAG, frameFlags(buffer, frameOffset) & 0xFF);
+        }
+    }
+
+    @Test
+    public void shouldNotStampFramesAlreadySent()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 6_000, EPOCH_NS);
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 9_000, EPOCH_NS + 3_000);
+
+        assertEquals((5_000L << 32) | 0x100L, reservedValue(0));
+    }
+
+    @Test
+    public void shouldStampUnknownLatencyWhenNotOfferedWithTime()
+    {
+        buffer.putLong(RESERVED_VALUE_OFFSET, 0, LITTLE_ENDIAN);
+        LatencyTracer.stampSentFrames(buffer, 0, FRAME_LENGTH, 1L << 40, EPOCH_NS);
+        latencyTracer.onFramesReceived(buffer, FRAME_LENGTH, 0, 50_000, EPOCH_NS + 2_000);
+
+        verifyNoInteractions((Object[])publisherToSenderBuckets);
+        verify(wireBuckets[LatencyHistogram.bucketIndex(2_000)]).incrementOrdered();
+    }
+
+    @Test
+    public void shouldCountLatenciesAndStampReceivedFrames()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 6_000, EPOCH_NS);
+        latencyTracer.onFramesReceived(buffer, PACKET_LENGTH, 0, 50_000, EPOCH_NS + 20_000);
+
+        verify(publisherToSenderBuckets[2], times(2)).incrementOrdered();
+        verify(wireBuckets[3], times(2)).incrementOrdered();
+
+        for (int frameOffset = 0; frameOffset < PACKET_LENGTH; frameOffset += FRAME_LENGTH)
+        {
+            assertEquals(50_000, reservedValue(frameOffset));
+            assertEquals(
+                (UNFRAGMENTED & 0xFF) | LATENCY_TRACE_SEND_FLAG | LATENCY_TRACE_RECEIVE_FLAG,
+                frameFlags(buffer, frameOffset) & 0xFF);
+        }
+    }
+
+    @Test
+    public void shouldNotCountWireLatencyWhenReceivedBeforeSentDueToClockSkew()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, FRAME_LENGTH, 6_000, EPOCH_NS);
+        latencyTracer.onFramesReceived(buffer, FRAME_LENGTH, 0, 50_000, EPOCH_NS - 1_000);
+
+        verify(publisherToSenderBuckets[2]).incrementOrdered();
+        verifyNoInteractions((Object[])wireBuckets);
+    }
+
+    @Test
+    public void shouldIgnoreFramesNotStampedBySender()
+    {
+        latencyTracer.onFramesReceived(buffer, PACKET_LENGTH, 0, 50_000, EPOCH_NS);
+
+        verifyNoInteractions((Object[])publisherToSenderBuckets);
+        verifyNoInteractions((Object[])wireBuckets);
+        assertEquals(1_000, reservedValue(0));
+        assertEquals(UNFRAGMENTED & 0xFF, frameFlags(buffer, 0) & 0xFF);
+    }
+
+    @Test
+    public void shouldUndoStampsOfReceivedFramesXoredForRecovery()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 6_000, EPOCH_NS);
+        final UnsafeBuffer sent = copyOf(buffer);
+        latencyTracer.onFramesReceived(buffer, PACKET_LENGTH, 4096, 50_000, EPOCH_NS + 20_000);
+
+        final UnsafeBuffer recovery = new UnsafeBuffer(new byte[PACKET_LENGTH]);
+        FecParityEncoder.xor(recovery, 0, buffer, 0, PACKET_LENGTH);
+
+        assertTrue(latencyTracer.unstampReceivedFrames(recovery, buffer, 0, PACKET_LENGTH, 4096));
+        assertEquals(0, recovery.compareTo(sent));
+    }
+
+    @Test
+    public void shouldUndoStampsOnlyWithinLengthXored()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 6_000, EPOCH_NS);
+        final UnsafeBuffer sent = copyOf(buffer);
+        latencyTracer.onFramesReceived(buffer, PACKET_LENGTH, 0, 50_000, EPOCH_NS + 20_000);
+
+        final int xorLength = FRAME_LENGTH + RESERVED_VALUE_OFFSET + 3;
+        final UnsafeBuffer recovery = new UnsafeBuffer(new byte[PACKET_LENGTH]);
+        FecParityEncoder.xor(recovery, 0, buffer, 0, xorLength);
+
+        assertTrue(latencyTracer.unstampReceivedFrames(recovery, buffer, 0, xorLength, 0));
+        for (int i = 0; i < PACKET_LENGTH; i++)
+        {
+            assertEquals(i < xorLength ? sent.getByte(i) : 0, recovery.getByte(i), "index=" + i);
+        }
+    }
+
+    @Test
+    public void shouldNotUndoStampsOfFramesNoLongerHeld()
+    {
+        LatencyTracer.stampSentFrames(buffer, 0, PACKET_LENGTH, 6_000, EPOCH_NS);
+        latencyTracer.onFramesReceived(buffer, PACKET_LENGTH, 0, 50_000, EPOCH_NS + 20_000);
+
+        final UnsafeBuffer recovery = new UnsafeBuffer(new byte[PACKET_LENGTH]);
+        FecParityEncoder.xor(recovery, 0, buffer, 0, PACKET_LENGTH);
+
+        assertFalse(latencyTracer.unstampReceivedFrames(recovery, buffer, 0, PACKET_LENGTH, 1L << 30));
+    }
+
+    @Test
+    public void shouldBucketLatenciesInPowersOfFourMicroseconds()
+    {
+        assertEquals(0, LatencyHistogram.bucketIndex(999));
+        assertEquals(1, LatencyHistogram.bucketIndex(1_000));
+        assertEquals(1, LatencyHistogram.bucketIndex(3_999));
+        assertEquals(2, LatencyHistogram.bucketIndex(4_000));
+        assertEquals(8, LatencyHistogram.bucketIndex(65_535_999));
+        assertEquals(9, LatencyHistogram.bucketIndex(65_536_000));
+        assertEquals(9, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+
+        assertEquals("<1us", LatencyHistogram.bucketName(0));
+        assertEquals("<4us", LatencyHistogram.bucketName(1));
+        assertEquals(">=65536us", LatencyHistogram.bucketName(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    private long reservedValue(final int frameOffset)
+    {
+        return buffer.getLong(frameOffset + RESERVED_VALUE_OFFSET, LITTLE_ENDIAN);
+    }
+
+    private static UnsafeBuffer copyOf(final UnsafeBuffer buffer)
+    {
+        final UnsafeBuffer copy = new UnsafeBuffer(new byte[buffer.capacity()]);
+        copy.putBytes(0, buffer, 0, buffer.capacity());
+
+        return copy;
+    }
+
+    private static AtomicCounter[] mockBuckets()
+    {
+        final AtomicCounter[] buckets = new AtomicCounter[LatencyHistogram.BUCKET_COUNT];
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = mock(AtomicCounter.class);
+        }
+
+        return buckets;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.buffer.LogFactory;
+import io.aeron.driver.buffer.TestLogFactory;
+import io.aeron.logbuffer.LogBufferDescriptor;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LogAllocatorTest
+{
+    private static final long REGISTRATION_ID = 7;
+    private static final int TERM_LENGTH = LogBufferDescriptor.TERM_MIN_LENGTH;
+
+    private long nowNs = 0;
+    private final ManyToOneConcurrentArrayQueue<Runnable> driverCmdQueue =
+        new ManyToOneConcurrentArrayQueue<>(Configuration.CMD_QUEUE_CAPACITY);
+    private final AtomicCounter allocationsInFlight = mock(AtomicCounter.class);
+    private final AtomicCounter maxQueuedTime = mock(AtomicCounter.class);
+    private final AtomicCounter maxAllocationTime = mock(AtomicCounter.class);
+    private final ArrayList<LogAllocator.LogAllocation> completedAllocations = new ArrayList<>();
+
+    @Test
+    public void shouldCompleteAllocationOnDriverCommandQueue()
+    {
+        final LogAllocator logAllocator = newLogAllocator(new TestLogFactory());
+
+        logAllocator.allocate(REGISTRATION_ID, TERM_LENGTH, false, false, completedAllocations::add);
+        verify(allocationsInFlight).getAndAdd(1);
+        assertTrue(driverCmdQueue.isEmpty());
+
+        nowNs += 1000;
+        assertEquals(1, logAllocator.doWork());
+        verify(maxQueuedTime).proposeMaxOrdered(1000);
+        verify(maxAllocationTime).proposeMaxOrdered(anyLong());
+        assertTrue(completedAllocations.isEmpty());
+
+        assertEquals(1, driverCmdQueue.drain(Runnable::run));
+        verify(allocationsInFlight).getAndAdd(-1);
+
+        assertEquals(1, completedAllocations.size());
+        final LogAllocator.LogAllocation allocation = completedAllocations.get(0);
+        assertNotNull(allocation.rawLog());
+        assertEquals(TERM_LENGTH, allocation.rawLog().termLength());
+        assertNull(allocation.exception());
+    }
+
+    @Test
+    public void shouldCompleteWithExceptionWhenAllocationFails()
+    {
+        final IllegalStateException failure = new IllegalStateException("insufficient usable storage");
+        final LogFactory logFactory = mock(LogFactory.class);
+        when(logFactory.newImage(anyLong(), anyInt(), anyBoolean())).thenThrow(failure);
+
+        final LogAllocator logAllocator = newLogAllocator(logFactory);
+
+        logAllocator.allocate(REGISTRATION_ID, TERM_LENGTH, true, true, completedAllocations::add);
+        logAllocator.doWork();
+        driverCmdQueue.drain(Runnable::run);
+
+        verify(logFactory).newImage(REGISTRATION_ID, TERM_LENGTH, true);
+        assertEquals(1, completedAllocations.size());
+
+        final LogAllocator.LogAllocation allocation = completedAllocations.get(0);
+        assertNull(allocation.rawLog());
+        assertSame(failure, allocation.exception());
+    }
+
+    @Test
+    public void shouldDropQueuedRequestsOnClose()
+    {
+        final LogFactory logFactory = mock(LogFactory.class);
+        final LogAllocator logAllocator = newLogAllocator(logFactory);
+
+        logAllocator.allocate(REGISTRATION_ID, TERM_LENGTH, false, false, completedAllocations::add);
+        logAllocator.onClose();
+
+        verify(allocationsInFlight).getAndAdd(1);
+        verify(allocationsInFlight).getAndAdd(-1);
+        verifyNoInteractions(logFactory);
+        assertTrue(driverCmdQueue.isEmpty());
+        assertTrue(completedAllocations.isEmpty());
+    }
+
+    private LogAllocator newLogAllocator(final LogFactory logFactory)
+    {
+        return new LogAllocator(
+            logFactory, () -> nowNs, driverCmdQueue, allocationsInFlight, maxQueuedTime, maxAllocationTime);
+    }
+}
@@ -186,6 +186,32 @@ public class LossDetectorTest
         inOrder.verify(lossHandler, never()).onGapDetected(TERM_ID, offsetOfMessage(5), gapLength());
     }
 
+    @Test
+    public void shouldNakAllGapsInOneScan()
+    {
+        lossDetector = new LossDetector(DELAY_GENERATOR_WITH_IMMEDIATE, lossHandler, 4);
+
+        final long rebuildPosition = ACTIVE_TERM_POSITION;
+        final long hwmPosition = ACTIVE_TERM_POSITION + (ALIGNED_FRAME_LENGTH * 7);
+
+        insertDataFrame(offsetOfMessage(0));
+        insertDataFrame(offsetOfMessage(2));
+        insertDataFrame(offsetOfMessage(4));
+        insertDataFrame(offsetOfMessage(6));
+
+        lossDetector.scan(termBuffer, rebuildPosition, hwmPosition, currentTime, MASK, POSITION_BITS_TO_SHIFT, TERM_ID);
+
+        verify(lossHandler).onGapsDetected(
+            eq(TERM_ID),
+            argThat((termOffsets) ->
+                termOffsets[0] == offsetOfMessage(1) &&
+                termOffsets[1] == offsetOfMessage(3) &&
+                termOffsets[2] == offsetOfMessage(5)),
+            argThat((lengths) -> lengths[0] == gapLength() && lengths[1] == gapLength() && lengths[2] == gapLength()),
+            eq(3));
+        verifyNoMoreInteractions(lossHandler);
+    }
+
     @Test
     public void shouldReplaceOldNakWithNewNak()
     {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PacingTokenBucketTest
+{
+    private static final long RATE_BYTES_PER_SECOND = 1_000_000_000L;
+    private static final int BURST_LENGTH = 4096;
+    private static final int MTU_LENGTH = 1408;
+
+    private long nowNs = TimeUnit.SECONDS.toNanos(7);
+    private final PacingTokenBucket bucket = new PacingTokenBucket(RATE_BYTES_PER_SECOND, BURST_LENGTH, nowNs);
+
+    @Test
+    public void shouldPermitBurstThenPace()
+    {
+        int sends = 0;
+        while (bucket.tryAcquire(nowNs))
+        {
+            bucket.consume(MTU_LENGTH);
+            sends++;
+        }
+
+        assertEquals(3, sends);
+        assertEquals(BURST_LENGTH - (3 * MTU_LENGTH), bucket.tokens());
+    }
+
+    @Test
+    public void shouldRefillAtRate()
+    {
+        bucket.consume(BURST_LENGTH + 100);
+        assertFalse(bucket.tryAcquire(nowNs));
+
+        nowNs += 100;
+        assertFalse(bucket.tryAcquire(nowNs));
+        assertEquals(0, bucket.tokens());
+
+        nowNs += 1;
+        assertTrue(bucket.tryAcquire(nowNs));
+        assertEquals(1, bucket.tokens());
+    }
+
+    @Test
+    public void shouldNotAccumulateBeyondBurst()
+    {
+        bucket.consume(BURST_LENGTH);
+
+        nowNs += TimeUnit.SECONDS.toNanos(10);
+        assertTrue(bucket.tryAcquire(nowNs));
+        assertEquals(BURST_LENGTH, bucket.tokens());
+    }
+
+    @Test
+    public void shouldNotLoseFractionalTokensOnFrequentRefill()
+    {
+        final PacingTokenBucket slowBucket = new PacingTokenBucket(3_000_000L, BURST_LENGTH, nowNs);
+        slowBucket.consume(BURST_LENGTH);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            nowNs += 100;
+            slowBucket.tryAcquire(nowNs);
+        }
+
+        assertEquals(300, slowBucket.tokens());
+    }
+}
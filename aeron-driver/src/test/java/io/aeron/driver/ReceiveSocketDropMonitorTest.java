@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.media.ReceiveChannelEndpoint;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.CachedNanoClock;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ReceiveSocketDropMonitorTest
+{
+    private static final String UDP_HEADER =
+        "   sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode ref " +
+        "pointer drops\n";
+    private static final String SNMP_HEADER =
+        "Udp: InDatagrams NoPorts InErrors OutDatagrams RcvbufErrors SndbufErrors InCsumErrors IgnoredMulti\n";
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final ManyToOneConcurrentArrayQueue<Runnable> driverCmdQueue = new ManyToOneConcurrentArrayQueue<>(16);
+    private final AtomicCounter udpRcvbufErrors = mock(AtomicCounter.class);
+    private final AtomicCounter udpInErrors = mock(AtomicCounter.class);
+    private final AtomicCounter drops = mock(AtomicCounter.class);
+    private final AtomicCounter queued = mock(AtomicCounter.class);
+    private final ReceiveChannelEndpoint channelEndpoint = mock(ReceiveChannelEndpoint.class);
+    private ReceiveSocketDropMonitor monitor;
+    private Path procDir;
+
+    @BeforeEach
+    public void before(final @TempDir Path tempDir) throws IOException
+    {
+        procDir = tempDir;
+        final Path fdDir = Files.createDirectories(procDir.resolve("self/fd"));
+        Files.createDirectories(procDir.resolve("net"));
+        Files.createSymbolicLink(fdDir.resolve("3"), Paths.get("socket:[1001]"));
+        Files.createSymbolicLink(fdDir.resolve("4"), Paths.get("socket:[1002]"));
+        Files.createSymbolicLink(fdDir.resolve("5"), Paths.get("pipe:[1003]"));
+
+        when(channelEndpoint.receiveSocketFd()).thenReturn(3);
+
+        monitor = new ReceiveSocketDropMonitor(
+            1, procDir, new CachedNanoClock(), errorHandler, driverCmdQueue, udpRcvbufErrors, udpInErrors);
+        monitor.add(channelEndpoint, drops, queued);
+        monitor.doWork();
+    }
+
+    @Test
+    public void shouldOnlyCountDropsOfEndpointSocket() throws IOException
+    {
+        writeUdp(
+            "  1: 00000000:9C40 00000000:0000 07 00000000:00000200 00:00000000 00000000  1000  0 1001 2 " +
+            "0000000000000000 5\n" +
+            "  2: 00000000:9C40 00000000:0000 07 00000000:00000000 00:00000000 00000000  1000  0 9999 2 " +
+            "0000000000000000 100\n");
+        Files.write(procDir.resolve("net/udp6"), (UDP_HEADER +
+            "  3: 00000000000000000000000001000000:9C40 00000000000000000000000000000000:0000 07 " +
+            "00000000:00000100 00:00000000 00000000  1000  0 1002 2 0000000000000000 3\n").getBytes());
+        writeSnmp(10, 7);
+
+        monitor.sample();
+
+        verify(drops).setOrdered(5);
+        verify(queued).setOrdered(0x200);
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldNotSampleUntilEndpointSocketIsOpen() throws IOException
+    {
+        writeUdp(
+            "  1: 00000000:9C40 00000000:0000 07 00000000:00000200 00:00000000 00000000  1000  0 1001 2 " +
+            "0000000000000000 5\n");
+        writeSnmp(10, 7);
+        when(channelEndpoint.receiveSocketFd()).thenReturn(-1);
+
+        monitor.sample();
+        verifyNoInteractions(drops, queued);
+
+        when(channelEndpoint.receiveSocketFd()).thenReturn(3);
+        monitor.sample();
+        verify(drops).setOrdered(5);
+        verify(queued).setOrdered(0x200);
+    }
+
+    @Test
+    public void shouldCountSnmpErrorsSinceFirstSample() throws IOException
+    {
+        writeUdp("");
+        writeSnmp(10, 7);
+        monitor.sample();
+
+        writeSnmp(15, 9);
+        monitor.sample();
+
+        verify(udpInErrors).setOrdered(0);
+        verify(udpRcvbufErrors).setOrdered(0);
+        verify(udpInErrors).setOrdered(5);
+        verify(udpRcvbufErrors).setOrdered(2);
+        verifyNoInteractions(drops, queued);
+    }
+
+    @Test
+    public void shouldHandBackCountersToBeClosedWhenEndpointRemoved()
+    {
+        monitor.remove(channelEndpoint);
+        monitor.doWork();
+
+        assertEquals(1, driverCmdQueue.drain(Runnable::run));
+        verify(drops).close();
+        verify(queued).close();
+    }
+
+    private void writeUdp(final String sockets) throws IOException
+    {
+        Files.write(procDir.resolve("net/udp"), (UDP_HEADER + sockets).getBytes());
+    }
+
+    private void writeSnmp(final long inErrors, final long rcvbufErrors) throws IOException
+    {
+        final String snmp =
+            "Ip: Forwarding DefaultTTL\n" +
+            "Ip: 1 64\n" +
+            SNMP_HEADER +
+            "Udp: 1000 3 " + inErrors + " 900 " + rcvbufErrors + " 0 0 0\n";
+
+        Files.write(procDir.resolve("net/snmp"), snmp.getBytes());
+    }
+}
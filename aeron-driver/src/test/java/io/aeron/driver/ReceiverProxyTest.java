@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.media.ReceiveChannelEndpoint;
+import io.aeron.driver.media.UdpChannel;
+import io.aeron.exceptions.ConfigurationException;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class ReceiverProxyTest
+{
+    private static final int SHARD_COUNT = 4;
+    private static final int STREAM_ID = 1010;
+
+    @SuppressWarnings("unchecked")
+    private final Queue<Runnable>[] commandQueues = new Queue[SHARD_COUNT];
+    private final Receiver[] receivers = new Receiver[SHARD_COUNT];
+
+    @Test
+    public void shouldRouteCommandsForAnEndpointToTheSameShard()
+    {
+        final ReceiverProxy receiverProxy = newReceiverProxy(ThreadingMode.SHARDED);
+
+        for (int port = 40_000; port < 40_032; port++)
+        {
+            final UdpChannel udpChannel = UdpChannel.parse("aeron:udp?endpoint=localhost:" + port);
+            final ReceiveChannelEndpoint channelEndpoint = mock(ReceiveChannelEndpoint.class);
+            when(channelEndpoint.udpChannel()).thenReturn(udpChannel);
+
+            final int shardIndex = receiverProxy.shardIndex(udpChannel);
+            assertEquals(shardIndex, receiverProxy.shardIndex(UdpChannel.parse(udpChannel.originalUriString())));
+
+            receiverProxy.registerReceiveChannelEndpoint(channelEndpoint);
+            receiverProxy.addSubscription(channelEndpoint, STREAM_ID);
+
+            for (int i = 0; i < SHARD_COUNT; i++)
+            {
+                assertEquals(i == shardIndex ? 2 : 0, commandQueues[i].size());
+            }
+
+            drainCommandQueues();
+            verify(receivers[shardIndex]).onRegisterReceiveChannelEndpoint(channelEndpoint);
+            verify(receivers[shardIndex]).onAddSubscription(channelEndpoint, STREAM_ID);
+        }
+    }
+
+    @Test
+    public void shouldPinChannelToShardWithUriParam()
+    {
+        final ReceiverProxy receiverProxy = newReceiverProxy(ThreadingMode.SHARDED);
+
+        for (int shard = 0; shard < SHARD_COUNT * 2; shard++)
+        {
+            final UdpChannel udpChannel = UdpChannel.parse("aeron:udp?endpoint=localhost:40123|shard=" + shard);
+            assertEquals(shard % SHARD_COUNT, receiverProxy.shardIndex(udpChannel));
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidShardUriParam()
+    {
+        final ReceiverProxy receiverProxy = newReceiverProxy(ThreadingMode.SHARDED);
+
+        assertThrows(ConfigurationException.class, () -> receiverProxy.shardIndex(
+            UdpChannel.parse("aeron:udp?endpoint=localhost:40123|shard=one")));
+        assertThrows(ConfigurationException.class, () -> receiverProxy.shardIndex(
+            UdpChannel.parse("aeron:udp?endpoint=localhost:40123|shard=-1")));
+    }
+
+    @Test
+    public void shouldUseSingleShardWhenNotSharded()
+    {
+        final Queue<Runnable> commandQueue = new OneToOneConcurrentArrayQueue<>(Configuration.CMD_QUEUE_CAPACITY);
+        final ReceiverProxy receiverProxy = new ReceiverProxy(
+            ThreadingMode.DEDICATED, commandQueue, mock(AtomicCounter.class));
+
+        assertEquals(1, receiverProxy.shardCount());
+        assertEquals(0, receiverProxy.shardIndex(UdpChannel.parse("aeron:udp?endpoint=localhost:40123")));
+    }
+
+    private ReceiverProxy newReceiverProxy(final ThreadingMode threadingMode)
+    {
+        for (int i = 0; i < SHARD_COUNT; i++)
+        {
+            commandQueues[i] = new OneToOneConcurrentArrayQueue<>(Configuration.CMD_QUEUE_CAPACITY);
+        }
+
+        final ReceiverProxy receiverProxy = new ReceiverProxy(threadingMode, commandQueues, mock(AtomicCounter.class));
+        for (int i = 0; i < SHARD_COUNT; i++)
+        {
+            receivers[i] = mock(Receiver.class);
+            receiverProxy.receiver(i, receivers[i]);
+        }
+
+        assertEquals(SHARD_COUNT, receiverProxy.shardCount());
+
+        return receiverProxy;
+    }
+
+    private void drainCommandQueues()
+    {
+        for (final Queue<Runnable> commandQueue : commandQueues)
+        {
+            Runnable cmd;
+            while (null != (cmd = commandQueue.poll()))
+            {
+                cmd.run();
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.aeron.driver;
 
+import io.aeron.LatencyTrace;
 import io.aeron.driver.buffer.RawLog;
 import io.aeron.driver.buffer.TestLogFactory;
 import io.aeron.driver.media.*;
@@ -25,9 +26,11 @@ import io.aeron.logbuffer.Header;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.logbuffer.TermReader;
 import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.FecParityFlyweight;
 import io.aeron.protocol.HeaderFlyweight;
 import io.aeron.protocol.SetupFlyweight;
 import io.aeron.protocol.StatusMessageFlyweight;
+import io.aeron.status.LatencyHistogram;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -43,12 +46,15 @@ import java.nio.channels.DatagramChannel;
 import java.util.ArrayList;
 
 import static io.aeron.logbuffer.LogBufferDescriptor.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.time.Duration.ofSeconds;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 import static org.agrona.BitUtil.align;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class ReceiverTest
@@ -70,6 +76,7 @@ public class ReceiverTest
     private static final byte[] FAKE_PAYLOAD = "Hello there, message!".getBytes();
     private static final int INITIAL_WINDOW_LENGTH = Configuration.INITIAL_WINDOW_LENGTH_DEFAULT;
     private static final long STATUS_MESSAGE_TIMEOUT = Configuration.STATUS_MESSAGE_TIMEOUT_DEFAULT_NS;
+    private static final int MTU_LENGTH = Configuration.MTU_LENGTH_DEFAULT;
     private static final InetSocketAddress SOURCE_ADDRESS = new InetSocketAddress("localhost", 45679);
 
     private static final Position POSITION = mock(Position.class);
@@ -82,6 +89,7 @@ public class ReceiverTest
     private final SystemCounters mockSystemCounters = mock(SystemCounters.class);
     private final Position mockHighestReceivedPosition = spy(new AtomicLongPosition());
     private final Position mockRebuildPosition = spy(new AtomicLongPosition());
+    private final AtomicCounter mockStatusMessagesSent = mock(AtomicCounter.class);
     private final Position mockSubscriberPosition = mock(Position.class);
     private final ByteBuffer dataFrameBuffer = ByteBuffer.allocateDirect(2 * 1024);
     private final UnsafeBuffer dataBuffer = new UnsafeBuffer(dataFrameBuffer);
@@ -110,6 +118,7 @@ public class ReceiverTest
     private final ManyToOneConcurrentArrayQueue<Runnable> toConductorQueue =
         new ManyToOneConcurrentArrayQueue<>(Configuration.CMD_QUEUE_CAPACITY);
     private final CongestionControl congestionControl = mock(CongestionControl.class);
+    private final StatusMessagePolicy statusMessagePolicy = new StaticStatusMessagePolicy();
 
     private ReceiveChannelEndpoint receiveChannelEndpoint;
 
@@ -209,15 +218,20 @@ public class ReceiverTest
                 INITIAL_TERM_OFFSET,
                 rawLog,
                 mockFeedbackDelayGenerator,
+                Configuration.NAK_MAX_GAPS_DEFAULT,
+                false,
                 POSITIONS,
                 mockHighestReceivedPosition,
                 mockRebuildPosition,
+                mockStatusMessagesSent,
                 nanoClock,
                 nanoClock,
                 epochClock,
                 mockSystemCounters,
                 SOURCE_ADDRESS,
                 congestionControl,
+                statusMessagePolicy,
+                null,
                 lossReport,
                 mockErrorHandler);
 
@@ -252,9 +266,164 @@ public class ReceiverTest
             assertThat(statusHeader.sessionId(), is(SESSION_ID));
             assertThat(statusHeader.consumptionTermId(), is(ACTIVE_TERM_ID));
             assertThat(statusHeader.frameLength(), is(StatusMessageFlyweight.HEADER_LENGTH));
+            verify(mockStatusMessagesSent).incrementOrdered();
         });
     }
 
+    @Test
+    public void shouldScheduleStatusMessageOnlyWhenPolicyAgrees()
+    {
+        receiverProxy.registerReceiveChannelEndpoint(receiveChannelEndpoint);
+        receiverProxy.addSubscription(receiveChannelEndpoint, STREAM_ID);
+        receiver.doWork();
+
+        final StatusMessagePolicy mockStatusMessagePolicy = mock(StatusMessagePolicy.class);
+        final PublicationImage image = new PublicationImage(
+            CORRELATION_ID,
+            IMAGE_LIVENESS_TIMEOUT_NS,
+            UNTETHERED_WINDOW_LIMIT_TIMEOUT_NS,
+            UNTETHERED_RESTING_TIMEOUT_NS,
+            receiveChannelEndpoint,
+            0,
+            senderAddress,
+            SESSION_ID,
+            STREAM_ID,
+            INITIAL_TERM_ID,
+            ACTIVE_TERM_ID,
+            INITIAL_TERM_OFFSET,
+            rawLog,
+            mockFeedbackDelayGenerator,
+            Configuration.NAK_MAX_GAPS_DEFAULT,
+            false,
+            POSITIONS,
+            mockHighestReceivedPosition,
+            mockRebuildPosition,
+            mockStatusMessagesSent,
+            nanoClock,
+            nanoClock,
+            epochClock,
+            mockSystemCounters,
+            SOURCE_ADDRESS,
+            congestionControl,
+            mockStatusMessagePolicy,
+            null,
+            lossReport,
+            mockErrorHandler);
+        image.activate();
+
+        final long position = computePosition(ACTIVE_TERM_ID, 0, POSITION_BITS_TO_SHIFT, ACTIVE_TERM_ID);
+        final long nowNs = nanoClock.nanoTime() + (2 * STATUS_MESSAGE_TIMEOUT);
+
+        image.trackRebuild(nowNs, STATUS_MESSAGE_TIMEOUT);
+        verify(mockStatusMessagePolicy).shouldScheduleStatusMessage(
+            nowNs, position, position, 0, INITIAL_WINDOW_LENGTH, STATUS_MESSAGE_TIMEOUT);
+        assertThat(image.sendPendingStatusMessage(), is(0));
+
+        when(mockStatusMessagePolicy.shouldScheduleStatusMessage(
+            anyLong(), anyLong(), anyLong(), anyLong(), anyInt(), anyLong())).thenReturn(true);
+
+        image.trackRebuild(nowNs, STATUS_MESSAGE_TIMEOUT);
+        assertThat(image.sendPendingStatusMessage(), is(1));
+        verify(mockStatusMessagesSent).incrementOrdered();
+    }
+
+    @Test
+    public void shouldCountLatencyAndStampTracedFrameOnlyWhenFirstInsertedIntoLog()
+    {
+        final LatencyHistogram publisherToSender = mock(LatencyHistogram.class);
+        final LatencyHistogram wire = mock(LatencyHistogram.class);
+        final PublicationImage image = newTracedImage(publisherToSender, wire);
+
+        fillTracedDataFrame();
+        final long beforeInsertNs = System.nanoTime();
+        image.insertPacket(ACTIVE_TERM_ID, 0, dataBuffer, dataHeader.frameLength(), 0, senderAddress);
+        final long afterInsertNs = System.nanoTime();
+
+        verify(publisherToSender).record(5_000);
+        verify(wire).record(anyLong());
+
+        final UnsafeBuffer termBuffer = termBuffers[ACTIVE_INDEX];
+        final int readOutcome = TermReader.read(
+            termBuffer,
+            INITIAL_TERM_OFFSET,
+            (buffer, offset, length, header) ->
+            {
+                assertTrue(LatencyTrace.isReceiveStamped(header));
+                assertThat(header.reservedValue() >= beforeInsertNs, is(true));
+                assertThat(header.reservedValue() <= afterInsertNs, is(true));
+                assertThat(buffer.getStringWithoutLengthAscii(offset, length), is(new String(FAKE_PAYLOAD)));
+            },
+            Integer.MAX_VALUE,
+            header,
+            mockErrorHandler,
+            0,
+            mockSubscriberPosition);
+
+        assertThat(readOutcome, is(1));
+
+        final long stampedValue = termBuffer.getLong(DataHeaderFlyweight.RESERVED_VALUE_OFFSET, LITTLE_ENDIAN);
+        fillTracedDataFrame();
+        image.insertPacket(ACTIVE_TERM_ID, 0, dataBuffer, dataHeader.frameLength(), 0, senderAddress);
+
+        verifyNoMoreInteractions(publisherToSender, wire);
+        assertThat(termBuffer.getLong(DataHeaderFlyweight.RESERVED_VALUE_OFFSET, LITTLE_ENDIAN), is(stampedValue));
+    }
+
+    @Test
+    public void shouldRecoverMultiFrameDatagramFromFecParityOnTracedStream()
+    {
+        final LatencyHistogram publisherToSender = mock(LatencyHistogram.class);
+        final PublicationImage image = newTracedImage(publisherToSender, mock(LatencyHistogram.class));
+
+        final int datagramLength = 256;
+        final int[][] frameLengthsByDatagram = { { 160, 96 }, { 64, 64, 64, 64 }, { 96, 160 } };
+        final UnsafeBuffer sentTermBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(TERM_BUFFER_LENGTH));
+        final FecParityEncoder encoder = new FecParityEncoder(
+            SESSION_ID, STREAM_ID, frameLengthsByDatagram.length, MTU_LENGTH);
+
+        for (int i = 0; i < frameLengthsByDatagram.length; i++)
+        {
+            final int datagramOffset = i * datagramLength;
+            int frameOffset = datagramOffset;
+            for (final int frameLength : frameLengthsByDatagram[i])
+            {
+                putTracedFrame(sentTermBuffer, frameOffset, frameLength);
+                frameOffset += frameLength;
+            }
+
+            encoder.onDataSent(ACTIVE_TERM_ID, datagramOffset, sentTermBuffer, datagramLength);
+        }
+
+        for (final int datagramOffset : new int[]{ 0, 2 * datagramLength })
+        {
+            dataBuffer.putBytes(0, sentTermBuffer, datagramOffset, datagramLength);
+            image.insertPacket(ACTIVE_TERM_ID, datagramOffset, dataBuffer, datagramLength, 0, senderAddress);
+        }
+
+        final UnsafeBuffer parityBuffer = new UnsafeBuffer(encoder.parityBuffer());
+        image.onFecParityFrame(
+            new FecParityFlyweight(parityBuffer), parityBuffer, encoder.parityBuffer().remaining(), 0, senderAddress);
+
+        final UnsafeBuffer termBuffer = termBuffers[ACTIVE_INDEX];
+        for (int frameOffset = datagramLength; frameOffset < 2 * datagramLength; frameOffset += 64)
+        {
+            final int flags = termBuffer.getByte(frameOffset + DataHeaderFlyweight.FLAGS_FIELD_OFFSET) & 0xFF;
+            assertThat(flags, is(DataHeaderFlyweight.BEGIN_AND_END_FLAGS |
+                DataHeaderFlyweight.LATENCY_TRACE_SEND_FLAG | DataHeaderFlyweight.LATENCY_TRACE_RECEIVE_FLAG));
+
+            for (int i = 0; i < 64; i++)
+            {
+                if (i != DataHeaderFlyweight.FLAGS_FIELD_OFFSET && (i < DataHeaderFlyweight.RESERVED_VALUE_OFFSET ||
+                    i >= DataHeaderFlyweight.RESERVED_VALUE_OFFSET + SIZE_OF_LONG))
+                {
+                    assertThat(termBuffer.getByte(frameOffset + i), is(sentTermBuffer.getByte(frameOffset + i)));
+                }
+            }
+        }
+
+        verify(publisherToSender, times(8)).record(5_000);
+    }
+
     @Test
     public void shouldInsertDataIntoLogAfterInitialExchange()
     {
@@ -284,15 +453,20 @@ public class ReceiverTest
                     INITIAL_TERM_OFFSET,
                     rawLog,
                     mockFeedbackDelayGenerator,
+                    Configuration.NAK_MAX_GAPS_DEFAULT,
+                    false,
                     POSITIONS,
                     mockHighestReceivedPosition,
                     mockRebuildPosition,
+                    mockStatusMessagesSent,
                     nanoClock,
                     nanoClock,
                     epochClock,
                     mockSystemCounters,
                     SOURCE_ADDRESS,
                     congestionControl,
+                    statusMessagePolicy,
+                    null,
                     lossReport,
                     mockErrorHandler);
 
@@ -356,15 +530,20 @@ public class ReceiverTest
                     INITIAL_TERM_OFFSET,
                     rawLog,
                     mockFeedbackDelayGenerator,
+                    Configuration.NAK_MAX_GAPS_DEFAULT,
+                    false,
                     POSITIONS,
                     mockHighestReceivedPosition,
                     mockRebuildPosition,
+                    mockStatusMessagesSent,
                     nanoClock,
                     nanoClock,
                     epochClock,
                     mockSystemCounters,
                     SOURCE_ADDRESS,
                     congestionControl,
+                    statusMessagePolicy,
+                    null,
                     lossReport,
                     mockErrorHandler);
 
@@ -431,15 +610,20 @@ public class ReceiverTest
                     INITIAL_TERM_OFFSET,
                     rawLog,
                     mockFeedbackDelayGenerator,
+                    Configuration.NAK_MAX_GAPS_DEFAULT,
+                    false,
                     POSITIONS,
                     mockHighestReceivedPosition,
                     mockRebuildPosition,
+                    mockStatusMessagesSent,
                     nanoClock,
                     nanoClock,
                     epochClock,
                     mockSystemCounters,
                     SOURCE_ADDRESS,
                     congestionControl,
+                    statusMessagePolicy,
+                    null,
                     lossReport,
                     mockErrorHandler);
 
@@ -510,15 +694,20 @@ public class ReceiverTest
                     initialTermOffset,
                     rawLog,
                     mockFeedbackDelayGenerator,
+                    Configuration.NAK_MAX_GAPS_DEFAULT,
+                    false,
                     POSITIONS,
                     mockHighestReceivedPosition,
                     mockRebuildPosition,
+                    mockStatusMessagesSent,
                     nanoClock,
                     nanoClock,
                     epochClock,
                     mockSystemCounters,
                     SOURCE_ADDRESS,
                     congestionControl,
+                    statusMessagePolicy,
+                    null,
                     lossReport,
                     mockErrorHandler);
 
@@ -603,6 +792,61 @@ public class ReceiverTest
         verify(mockImage, never()).removeFromDispatcher();
     }
 
+    private PublicationImage newTracedImage(final LatencyHistogram publisherToSender, final LatencyHistogram wire)
+    {
+        return new PublicationImage(
+            CORRELATION_ID,
+            IMAGE_LIVENESS_TIMEOUT_NS,
+            UNTETHERED_WINDOW_LIMIT_TIMEOUT_NS,
+            UNTETHERED_RESTING_TIMEOUT_NS,
+            receiveChannelEndpoint,
+            0,
+            senderAddress,
+            SESSION_ID,
+            STREAM_ID,
+            INITIAL_TERM_ID,
+            ACTIVE_TERM_ID,
+            INITIAL_TERM_OFFSET,
+            rawLog,
+            mockFeedbackDelayGenerator,
+            Configuration.NAK_MAX_GAPS_DEFAULT,
+            false,
+            POSITIONS,
+            mockHighestReceivedPosition,
+            mockRebuildPosition,
+            mockStatusMessagesSent,
+            nanoClock,
+            nanoClock,
+            epochClock,
+            mockSystemCounters,
+            SOURCE_ADDRESS,
+            congestionControl,
+            statusMessagePolicy,
+            new LatencyTracer(publisherToSender, wire, MTU_LENGTH),
+            lossReport,
+            mockErrorHandler);
+    }
+
+    private void putTracedFrame(final UnsafeBuffer termBuffer, final int termOffset, final int frameLength)
+    {
+        for (int i = DataHeaderFlyweight.HEADER_LENGTH; i < frameLength; i++)
+        {
+            termBuffer.putByte(termOffset + i, (byte)(termOffset + i));
+        }
+
+        dataHeader.wrap(termBuffer, termOffset, frameLength);
+        dataHeader
+            .termOffset(termOffset)
+            .termId(ACTIVE_TERM_ID)
+            .streamId(STREAM_ID)
+            .sessionId(SESSION_ID)
+            .reservedValue((5_000L << 32) | (LatencyTrace.epochNanoTime() & 0xFFFF_FFFFL))
+            .frameLength(frameLength)
+            .headerType(HeaderFlyweight.HDR_TYPE_DATA)
+            .flags((short)(DataHeaderFlyweight.BEGIN_AND_END_FLAGS | DataHeaderFlyweight.LATENCY_TRACE_SEND_FLAG))
+            .version(HeaderFlyweight.CURRENT_VERSION);
+    }
+
     private void fillDataFrame(final DataHeaderFlyweight header, final int termOffset, final byte[] payload)
     {
         header.wrap(dataBuffer);
@@ -622,6 +866,14 @@ public class ReceiverTest
         }
     }
 
+    private void fillTracedDataFrame()
+    {
+        fillDataFrame(dataHeader, 0, FAKE_PAYLOAD);
+        dataHeader
+            .reservedValue((5_000L << 32) | (LatencyTrace.epochNanoTime() & 0xFFFF_FFFFL))
+            .flags((short)(DataHeaderFlyweight.BEGIN_AND_END_FLAGS | DataHeaderFlyweight.LATENCY_TRACE_SEND_FLAG));
+    }
+
     private void fillSetupFrame(final SetupFlyweight header)
     {
         fillSetupFrame(header, 0);
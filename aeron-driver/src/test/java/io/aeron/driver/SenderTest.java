@@ -15,6 +15,7 @@
  */
 package io.aeron.driver;
 
+import io.aeron.ReservedValueSupplier;
 import io.aeron.driver.buffer.RawLog;
 import io.aeron.driver.buffer.TestLogFactory;
 import io.aeron.driver.media.ControlTransportPoller;
@@ -35,6 +36,8 @@ import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.AtomicLongPosition;
+import org.agrona.concurrent.status.CountersManager;
+import org.agrona.concurrent.status.CountersReader;
 import org.agrona.concurrent.status.Position;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -43,6 +46,7 @@ import org.mockito.stubbing.Answer;
 
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Queue;
 
@@ -51,7 +55,9 @@ import static io.aeron.logbuffer.LogBufferDescriptor.PARTITION_COUNT;
 import static org.agrona.BitUtil.align;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.mockito.Mockito.*;
 
 public class SenderTest
@@ -107,11 +113,12 @@ public class SenderTest
         };
 
     private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final SendChannelEndpoint mockSendChannelEndpoint = mock(SendChannelEndpoint.class);
+    private final AtomicCounter mockSenderBytesDeferred = mock(AtomicCounter.class);
 
     @BeforeEach
     public void setUp()
     {
-        final SendChannelEndpoint mockSendChannelEndpoint = mock(SendChannelEndpoint.class);
         when(mockSendChannelEndpoint.udpChannel()).thenReturn(udpChannel);
         when(mockSendChannelEndpoint.send(any())).thenAnswer(saveByteBufferAnswer);
         when(mockSystemCounters.get(any())).thenReturn(mock(AtomicCounter.class));
@@ -134,13 +141,32 @@ public class SenderTest
             termAppenders[i] = new TermAppender(rawLog.termBuffers()[i], rawLog.metaData(), i);
         }
 
+        publication = newPublication(1);
+        senderCommandQueue.offer(() -> sender.onNewNetworkPublication(publication));
+    }
+
+    private NetworkPublication newPublication(final int weight)
+    {
+        return newPublication(weight, false);
+    }
+
+    private NetworkPublication newPublication(final int weight, final boolean isLatencyTrace)
+    {
+        return newPublication(weight, isLatencyTrace, 0);
+    }
+
+    private NetworkPublication newPublication(final int weight, final boolean isLatencyTrace, final int fecGroupSize)
+    {
         final PublicationParams params = new PublicationParams();
         params.entityTag = 101;
         params.mtuLength = MAX_FRAME_LENGTH;
         params.lingerTimeoutNs = Configuration.publicationLingerTimeoutNs();
         params.signalEos = true;
+        params.weight = weight;
+        params.isLatencyTrace = isLatencyTrace;
+        params.fecGroupSize = fecGroupSize;
 
-        publication = new NetworkPublication(
+        return new NetworkPublication(
             1,
             params,
             mockSendChannelEndpoint,
@@ -152,6 +178,9 @@ public class SenderTest
             new AtomicLongPosition(),
             new AtomicLongPosition(),
             mock(AtomicCounter.class),
+            mockSenderBytesDeferred,
+            null,
+            null,
             SESSION_ID,
             STREAM_ID,
             INITIAL_TERM_ID,
@@ -166,8 +195,6 @@ public class SenderTest
             false,
             false,
             errorHandler);
-
-        senderCommandQueue.offer(() -> sender.onNewNetworkPublication(publication));
     }
 
     @AfterEach
@@ -304,6 +331,57 @@ public class SenderTest
         assertThat(dataHeader.version(), is((short)HeaderFlyweight.CURRENT_VERSION));
     }
 
+    @Test
+    public void shouldStampTracedFrameInLogOnceWhenFirstSent()
+    {
+        publication = newPublication(1, true);
+
+        final StatusMessageFlyweight msg = mock(StatusMessageFlyweight.class);
+        when(msg.consumptionTermId()).thenReturn(INITIAL_TERM_ID);
+        when(msg.consumptionTermOffset()).thenReturn(0);
+        when(msg.receiverWindowLength()).thenReturn(ALIGNED_FRAME_LENGTH);
+
+        publication.onStatusMessage(msg, rcvAddress);
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(PAYLOAD.length));
+        buffer.putBytes(0, PAYLOAD);
+
+        final long offeredNs = System.nanoTime();
+        final ReservedValueSupplier reservedValueSupplier = (termBuffer, termOffset, frameLength) -> offeredNs;
+        termAppenders[0].appendUnfragmentedMessage(
+            headerWriter, buffer, 0, PAYLOAD.length, reservedValueSupplier, INITIAL_TERM_ID);
+        sender.doWork();
+        final long sentNs = System.nanoTime();
+
+        assertThat(receivedFrames.size(), is(2));
+        receivedFrames.remove();
+
+        final UnsafeBuffer sentFrame = new UnsafeBuffer(receivedFrames.remove());
+        dataHeader.wrap(sentFrame);
+        assertThat(
+            dataHeader.flags(),
+            is((short)(DataHeaderFlyweight.BEGIN_AND_END_FLAGS | DataHeaderFlyweight.LATENCY_TRACE_SEND_FLAG)));
+        assertThat(dataHeader.reservedValue() >>> 32, lessThanOrEqualTo(sentNs - offeredNs));
+        assertThat(
+            sentFrame.getStringWithoutLengthAscii(DataHeaderFlyweight.HEADER_LENGTH, PAYLOAD.length),
+            is(new String(PAYLOAD)));
+
+        final UnsafeBuffer termBuffer = rawLog.termBuffers()[0];
+        final byte[] logFrame = new byte[FRAME_LENGTH];
+        final byte[] sentBytes = new byte[FRAME_LENGTH];
+        termBuffer.getBytes(0, logFrame);
+        sentFrame.getBytes(0, sentBytes);
+        assertArrayEquals(sentBytes, logFrame);
+
+        publication.resend(INITIAL_TERM_ID, 0, ALIGNED_FRAME_LENGTH);
+        assertThat(receivedFrames.size(), is(1));
+
+        final UnsafeBuffer resentFrame = new UnsafeBuffer(receivedFrames.remove());
+        final byte[] resentBytes = new byte[FRAME_LENGTH];
+        resentFrame.getBytes(0, resentBytes);
+        assertArrayEquals(sentBytes, resentBytes);
+    }
+
     @Test
     public void shouldBeAbleToSendOnChannelTwice()
     {
@@ -496,6 +574,150 @@ public class SenderTest
         assertThat(dataHeader.termOffset(), is(offsetOfMessage(2)));
     }
 
+    @Test
+    public void shouldSendUpToWeightDatagramsPerDutyCycle()
+    {
+        final int framesPerDatagram = MAX_FRAME_LENGTH / ALIGNED_FRAME_LENGTH;
+        replacePublication(newPublication(2));
+        onStatusMessage(8 * MAX_FRAME_LENGTH);
+        appendMessages(3 * framesPerDatagram);
+
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(3));
+        receivedFrames.remove();
+        assertThat(receivedFrames.remove().remaining(), is(MAX_FRAME_LENGTH));
+        assertThat(receivedFrames.remove().remaining(), is(MAX_FRAME_LENGTH));
+
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(1));
+        assertThat(receivedFrames.remove().remaining(), is(MAX_FRAME_LENGTH));
+    }
+
+    @Test
+    public void shouldCountBytesDeferredByWeightOnlyOnce()
+    {
+        final int framesPerDatagram = MAX_FRAME_LENGTH / ALIGNED_FRAME_LENGTH;
+        replacePublication(newPublication(2));
+        onStatusMessage(8 * MAX_FRAME_LENGTH);
+        appendMessages(5 * framesPerDatagram);
+
+        sender.doWork();
+        sender.doWork();
+        sender.doWork();
+
+        assertThat(receivedFrames.size(), is(6));
+        verify(mockSenderBytesDeferred).getAndAddOrdered(3 * MAX_FRAME_LENGTH);
+        verify(mockSenderBytesDeferred, times(1)).getAndAddOrdered(anyLong());
+    }
+
+    @Test
+    public void shouldNotCountBytesDeferredWhenWithinWeight()
+    {
+        final int framesPerDatagram = MAX_FRAME_LENGTH / ALIGNED_FRAME_LENGTH;
+        replacePublication(newPublication(4));
+        onStatusMessage(8 * MAX_FRAME_LENGTH);
+        appendMessages(3 * framesPerDatagram);
+
+        sender.doWork();
+
+        assertThat(receivedFrames.size(), is(4));
+        verify(mockSenderBytesDeferred, never()).getAndAddOrdered(anyLong());
+    }
+
+    @Test
+    public void shouldFlushPartialFecGroupWhenAllDataIsSent()
+    {
+        final int framesPerDatagram = MAX_FRAME_LENGTH / ALIGNED_FRAME_LENGTH;
+        replacePublication(newPublication(1, false, 4));
+        onStatusMessage(8 * MAX_FRAME_LENGTH);
+        appendMessages(framesPerDatagram);
+
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(2));
+        receivedFrames.clear();
+
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(1));
+        dataHeader.wrap(receivedFrames.remove());
+        assertThat(dataHeader.headerType(), is(HeaderFlyweight.HDR_TYPE_FEC_PARITY));
+    }
+
+    @Test
+    public void shouldNotFlushPartialFecGroupWhenStalledByFlowControlUntilHeartbeatIsDue()
+    {
+        final int framesPerDatagram = MAX_FRAME_LENGTH / ALIGNED_FRAME_LENGTH;
+        replacePublication(newPublication(1, false, 4));
+        onStatusMessage(MAX_FRAME_LENGTH);
+        appendMessages(2 * framesPerDatagram);
+
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(2));
+        receivedFrames.clear();
+
+        sender.doWork();
+        nanoClock.advance(Configuration.PUBLICATION_HEARTBEAT_TIMEOUT_NS - 1);
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(0));
+
+        nanoClock.advance(10);
+        sender.doWork();
+        assertThat(receivedFrames.size(), greaterThanOrEqualTo(1));
+        dataHeader.wrap(receivedFrames.remove());
+        assertThat(dataHeader.headerType(), is(HeaderFlyweight.HDR_TYPE_FEC_PARITY));
+    }
+
+    @Test
+    public void shouldFreeShardDutyCyclesCounterOnCloseWhenSharded()
+    {
+        final CountersManager countersManager = new CountersManager(
+            new UnsafeBuffer(ByteBuffer.allocateDirect(16 * 1024)),
+            new UnsafeBuffer(ByteBuffer.allocateDirect(4 * 1024)),
+            StandardCharsets.US_ASCII);
+
+        final Sender shardedSender = new Sender(
+            new MediaDriver.Context()
+                .threadingMode(ThreadingMode.SHARDED)
+                .cachedNanoClock(nanoClock)
+                .controlTransportPoller(mock(ControlTransportPoller.class))
+                .systemCounters(mockSystemCounters)
+                .senderCommandQueue(new OneToOneConcurrentArrayQueue<>(Configuration.CMD_QUEUE_CAPACITY))
+                .countersManager(countersManager));
+
+        assertThat(countersManager.getCounterState(0), is(CountersReader.RECORD_ALLOCATED));
+
+        shardedSender.onClose();
+
+        assertThat(countersManager.getCounterState(0), is(CountersReader.RECORD_RECLAIMED));
+    }
+
+    private void replacePublication(final NetworkPublication publication)
+    {
+        senderCommandQueue.clear();
+        this.publication = publication;
+        senderCommandQueue.offer(() -> sender.onNewNetworkPublication(publication));
+    }
+
+    private void onStatusMessage(final int receiverWindowLength)
+    {
+        final StatusMessageFlyweight msg = mock(StatusMessageFlyweight.class);
+        when(msg.consumptionTermId()).thenReturn(INITIAL_TERM_ID);
+        when(msg.consumptionTermOffset()).thenReturn(0);
+        when(msg.receiverWindowLength()).thenReturn(receiverWindowLength);
+
+        publication.onStatusMessage(msg, rcvAddress);
+    }
+
+    private void appendMessages(final int count)
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(PAYLOAD.length));
+        buffer.putBytes(0, PAYLOAD);
+
+        for (int i = 0; i < count; i++)
+        {
+            termAppenders[0].appendUnfragmentedMessage(headerWriter, buffer, 0, PAYLOAD.length, null, INITIAL_TERM_ID);
+        }
+    }
+
     private int offsetOfMessage(final int offset)
     {
         return (offset - 1) * align(HEADER.capacity() + PAYLOAD.length, FRAME_ALIGNMENT);
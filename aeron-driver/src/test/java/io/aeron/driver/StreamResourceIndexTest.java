@@ -0,0 +1,230 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamResourceIndexTest
+{
+    private static final String CHANNEL_A = "UDP-127.0.0.1:0-127.0.0.1:40123";
+    private static final String CHANNEL_B = "UDP-127.0.0.1:0-127.0.0.1:40124";
+    private static final int STREAM_ID = 1001;
+    private static final int SESSION_ID = 7;
+
+    private final StreamResourceIndex<Resource> index = new StreamResourceIndex<>();
+
+    @Test
+    public void shouldOnlyReturnResourcesOfTheSessionAndWildcards()
+    {
+        final Resource session = new Resource(CHANNEL_A, STREAM_ID, SESSION_ID, false);
+        final Resource otherSession = new Resource(CHANNEL_A, STREAM_ID, SESSION_ID + 1, false);
+        final Resource otherChannel = new Resource(CHANNEL_B, STREAM_ID, SESSION_ID, false);
+        final Resource otherStream = new Resource(CHANNEL_A, STREAM_ID + 1, SESSION_ID, false);
+        final Resource wildcard = new Resource(CHANNEL_A, STREAM_ID, 0, true);
+
+        for (final Resource resource : new Resource[]{ session, otherSession, otherChannel, otherStream, wildcard })
+        {
+            add(resource);
+        }
+
+        assertThat(index.sessionResources(CHANNEL_A, STREAM_ID, SESSION_ID), contains(session));
+        assertThat(index.wildcardResources(CHANNEL_A, STREAM_ID), contains(wildcard));
+        assertThat(index.matchingResources(CHANNEL_A, STREAM_ID, SESSION_ID), containsInAnyOrder(session, wildcard));
+        assertThat(
+            index.streamResources(CHANNEL_A, STREAM_ID), containsInAnyOrder(session, otherSession, wildcard));
+        assertEquals(5, index.size());
+        assertEquals(3, index.streamCount());
+    }
+
+    @Test
+    public void shouldRemoveEmptyStreamsAndSessions()
+    {
+        final Resource session = new Resource(CHANNEL_A, STREAM_ID, SESSION_ID, false);
+        final Resource wildcard = new Resource(CHANNEL_A, STREAM_ID, 0, true);
+
+        add(session);
+        add(wildcard);
+
+        assertTrue(remove(session));
+        assertFalse(remove(session));
+        assertThat(index.sessionResources(CHANNEL_A, STREAM_ID, SESSION_ID), empty());
+        assertEquals(1, index.streamCount());
+
+        assertTrue(remove(wildcard));
+        assertThat(index.streamResources(CHANNEL_A, STREAM_ID), empty());
+        assertEquals(0, index.streamCount());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldNotRemoveResourceIndexedUnderDifferentKey()
+    {
+        final Resource resource = new Resource(CHANNEL_A, STREAM_ID, SESSION_ID, false);
+        add(resource);
+
+        assertFalse(index.remove(CHANNEL_B, STREAM_ID, SESSION_ID, resource));
+        assertFalse(index.remove(CHANNEL_A, STREAM_ID, SESSION_ID + 1, resource));
+        assertFalse(index.removeWildcard(CHANNEL_A, STREAM_ID, resource));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void shouldBeConsistentWithReferenceModelUnderChurn()
+    {
+        final Random random = new Random(7);
+        final String[] channels = { CHANNEL_A, CHANNEL_B };
+        final List<Resource> model = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++)
+        {
+            if (model.isEmpty() || random.nextInt(100) < 55)
+            {
+                final Resource resource = new Resource(
+                    channels[random.nextInt(channels.length)],
+                    STREAM_ID + random.nextInt(3),
+                    SESSION_ID + random.nextInt(5),
+                    random.nextInt(4) == 0);
+
+                add(resource);
+                model.add(resource);
+            }
+            else
+            {
+                final Resource resource = model.remove(random.nextInt(model.size()));
+                assertTrue(remove(resource));
+            }
+
+            if (0 == (i & 63))
+            {
+                verifyAgainstModel(model, channels);
+            }
+        }
+
+        while (!model.isEmpty())
+        {
+            assertTrue(remove(model.remove(model.size() - 1)));
+        }
+
+        verifyAgainstModel(model, channels);
+        assertEquals(0, index.streamCount());
+    }
+
+    private void verifyAgainstModel(final List<Resource> model, final String[] channels)
+    {
+        assertEquals(model.size(), index.size());
+
+        final Set<String> streams = new HashSet<>();
+        for (final Resource resource : model)
+        {
+            streams.add(resource.channel + ":" + resource.streamId);
+        }
+        assertEquals(streams.size(), index.streamCount());
+
+        for (final String channel : channels)
+        {
+            for (int streamId = STREAM_ID; streamId < STREAM_ID + 3; streamId++)
+            {
+                assertThat(
+                    index.streamResources(channel, streamId),
+                    containsInAnyOrder(select(model, channel, streamId, null, null).toArray()));
+                assertThat(
+                    index.wildcardResources(channel, streamId),
+                    containsInAnyOrder(select(model, channel, streamId, null, true).toArray()));
+
+                for (int sessionId = SESSION_ID; sessionId < SESSION_ID + 5; sessionId++)
+                {
+                    final List<Resource> session = select(model, channel, streamId, sessionId, false);
+                    assertThat(
+                        index.sessionResources(channel, streamId, sessionId),
+                        containsInAnyOrder(session.toArray()));
+
+                    session.addAll(select(model, channel, streamId, null, true));
+                    assertThat(
+                        index.matchingResources(channel, streamId, sessionId),
+                        containsInAnyOrder(session.toArray()));
+                }
+            }
+        }
+    }
+
+    private static List<Resource> select(
+        final List<Resource> model,
+        final String channel,
+        final int streamId,
+        final Integer sessionId,
+        final Boolean isWildcard)
+    {
+        final List<Resource> resources = new ArrayList<>();
+        for (final Resource resource : model)
+        {
+            if (resource.channel.equals(channel) &&
+                resource.streamId == streamId &&
+                (null == isWildcard || isWildcard == resource.isWildcard) &&
+                (null == sessionId || sessionId == resource.sessionId))
+            {
+                resources.add(resource);
+            }
+        }
+
+        return resources;
+    }
+
+    private void add(final Resource resource)
+    {
+        if (resource.isWildcard)
+        {
+            index.addWildcard(resource.channel, resource.streamId, resource);
+        }
+        else
+        {
+            index.add(resource.channel, resource.streamId, resource.sessionId, resource);
+        }
+    }
+
+    private boolean remove(final Resource resource)
+    {
+        return resource.isWildcard ?
+            index.removeWildcard(resource.channel, resource.streamId, resource) :
+            index.remove(resource.channel, resource.streamId, resource.sessionId, resource);
+    }
+
+    static final class Resource
+    {
+        final String channel;
+        final int streamId;
+        final int sessionId;
+        final boolean isWildcard;
+
+        Resource(final String channel, final int streamId, final int sessionId, final boolean isWildcard)
+        {
+            // copy the channel so lookups rely on equality rather than identity of the key
+            this.channel = new String(channel);
+            this.streamId = streamId;
+            this.sessionId = sessionId;
+            this.isWildcard = isWildcard;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package io.aeron.driver;
 
 import io.aeron.driver.media.UdpChannel;
+import io.aeron.driver.status.SystemCounters;
+import io.aeron.exceptions.ConfigurationException;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -10,6 +13,7 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
 
 class TaggedMulticastFlowControlTest
 {
@@ -76,4 +80,36 @@ class TaggedMulticastFlowControlTest
             Exception.class,
             () -> flowControl.initialize(new MediaDriver.Context(), UdpChannel.parse(uri), 0, 0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldParseReceiverLagWindow()
+    {
+        final MediaDriver.Context context = new MediaDriver.Context().systemCounters(mock(SystemCounters.class));
+        final TaggedMulticastFlowControl flowControl = new TaggedMulticastFlowControl();
+        flowControl.initialize(
+            context,
+            UdpChannel.parse("aeron:udp?endpoint=224.20.30.39:24326|interface=localhost|fc=tagged,g:100,l:64k"),
+            0,
+            0);
+
+        assertEquals(100, flowControl.receiverTag());
+        assertEquals(64 * 1024, flowControl.receiverLagWindow());
+    }
+
+    @Test
+    void shouldRejectReceiverLagWindowSmallerThanReceiverWindow()
+    {
+        final MediaDriver.Context context = new MediaDriver.Context()
+            .systemCounters(mock(SystemCounters.class))
+            .initialWindowLength(128 * 1024);
+        final TaggedMulticastFlowControl flowControl = new TaggedMulticastFlowControl();
+
+        assertThrows(
+            ConfigurationException.class,
+            () -> flowControl.initialize(
+                context,
+                UdpChannel.parse("aeron:udp?endpoint=224.20.30.39:24326|interface=localhost|fc=tagged,l:64k"),
+                0,
+                1024 * 1024));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.logbuffer.TermGapScanner;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Random;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.LogBufferDescriptor.TERM_MIN_LENGTH;
+import static org.agrona.BitUtil.align;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class TermFillBitmapTest
+{
+    private static final int TERM_LENGTH = TERM_MIN_LENGTH;
+    private static final int TERM_ID = 7;
+    private static final int PARTITION_INDEX = 1;
+
+    private final TermFillBitmap fillBitmap = new TermFillBitmap(TERM_LENGTH);
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(TERM_LENGTH));
+    private final TermGapScanner.GapHandler gapHandler = mock(TermGapScanner.GapHandler.class);
+
+    @Test
+    public void shouldReportNoGapWhenFilledToLimit()
+    {
+        fillBitmap.fill(PARTITION_INDEX, 0, 1000);
+
+        assertEquals(1024, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, 1024, gapHandler));
+        verifyNoInteractions(gapHandler);
+    }
+
+    @Test
+    public void shouldReportGapBetweenFilledRangesAcrossWords()
+    {
+        fillBitmap.fill(PARTITION_INDEX, 0, 64);
+        fillBitmap.fill(PARTITION_INDEX, 4096, 64);
+
+        assertEquals(64, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, 8192, gapHandler));
+        verify(gapHandler).onGap(TERM_ID, 64, 4096 - 64);
+    }
+
+    @Test
+    public void shouldReportGapUpToLimitWhenNothingFilledAfterGap()
+    {
+        fillBitmap.fill(PARTITION_INDEX, 0, 96);
+
+        assertEquals(96, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, 1024, gapHandler));
+        verify(gapHandler).onGap(TERM_ID, 96, 1024 - 96);
+    }
+
+    @Test
+    public void shouldFillPaddedRangeOfHeaderOnlyPadFrame()
+    {
+        final int padOffset = TERM_LENGTH - 4096;
+        final UnsafeBuffer packet = new UnsafeBuffer(new byte[DataHeaderFlyweight.HEADER_LENGTH]);
+        packet.putInt(0, TERM_LENGTH - padOffset);
+
+        fillBitmap.fillPacket(PARTITION_INDEX, padOffset, packet, DataHeaderFlyweight.HEADER_LENGTH);
+
+        assertEquals(TERM_LENGTH, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, padOffset, TERM_LENGTH, gapHandler));
+        verifyNoInteractions(gapHandler);
+    }
+
+    @Test
+    public void shouldFillEachFrameOfPacketByItsAlignedFrameLength()
+    {
+        final int dataFrameLength = DataHeaderFlyweight.HEADER_LENGTH + 100;
+        final int padOffset = align(dataFrameLength, FRAME_ALIGNMENT);
+        final int packetLength = padOffset + DataHeaderFlyweight.HEADER_LENGTH;
+        final UnsafeBuffer packet = new UnsafeBuffer(new byte[packetLength]);
+        packet.putInt(0, dataFrameLength);
+        packet.putInt(padOffset, 4096 - padOffset);
+
+        fillBitmap.fillPacket(PARTITION_INDEX, 0, packet, packetLength);
+
+        assertEquals(4096, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, 8192, gapHandler));
+        verify(gapHandler).onGap(TERM_ID, 4096, 4096);
+    }
+
+    @Test
+    public void shouldNotSeeFillsInOtherPartitions()
+    {
+        fillBitmap.fill(PARTITION_INDEX - 1, 0, TERM_LENGTH);
+        fillBitmap.fill(PARTITION_INDEX + 1, 0, TERM_LENGTH);
+
+        assertEquals(0, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, TERM_LENGTH, gapHandler));
+        verify(gapHandler).onGap(TERM_ID, 0, TERM_LENGTH);
+    }
+
+    @Test
+    public void shouldReportGapAfterClear()
+    {
+        fillBitmap.fill(PARTITION_INDEX, 0, TERM_LENGTH);
+        fillBitmap.clear(PARTITION_INDEX, 0, 4096);
+
+        assertEquals(0, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, TERM_LENGTH, gapHandler));
+        verify(gapHandler).onGap(TERM_ID, 0, 4096);
+    }
+
+    @Test
+    public void shouldAgreeWithFrameWalkUnderRandomReorder()
+    {
+        final Random random = new Random(7);
+        final IntArrayList frameOffsets = new IntArrayList();
+        final IntArrayList frameLengths = new IntArrayList();
+
+        int offset = 0;
+        while (offset < TERM_LENGTH)
+        {
+            final int frameLength = Math.min(
+                DataHeaderFlyweight.HEADER_LENGTH + 1 + random.nextInt(1000), TERM_LENGTH - offset);
+            frameOffsets.addInt(offset);
+            frameLengths.addInt(frameLength);
+            offset += align(frameLength, FRAME_ALIGNMENT);
+        }
+
+        final IntArrayList order = new IntArrayList();
+        for (int i = 0, size = frameOffsets.size(); i < size; i++)
+        {
+            order.addInt(i);
+        }
+        Collections.shuffle(order, random);
+
+        final int[] expected = new int[2];
+        final int[] actual = new int[2];
+        final TermGapScanner.GapHandler expectedHandler = (termId, gapOffset, length) ->
+        {
+            expected[0] = gapOffset;
+            expected[1] = length;
+        };
+        final TermGapScanner.GapHandler actualHandler = (termId, gapOffset, length) ->
+        {
+            actual[0] = gapOffset;
+            actual[1] = length;
+        };
+
+        int limitOffset = 0;
+        for (int i = 0, size = order.size(); i < size; i++)
+        {
+            final int index = order.getInt(i);
+            final int frameOffset = frameOffsets.getInt(index);
+            final int frameLength = frameLengths.getInt(index);
+
+            termBuffer.putIntOrdered(frameOffset, frameLength);
+            fillBitmap.fill(PARTITION_INDEX, frameOffset, frameLength);
+            limitOffset = Math.max(limitOffset, frameOffset + align(frameLength, FRAME_ALIGNMENT));
+
+            final int scanOffset = random.nextInt(limitOffset) & -FRAME_ALIGNMENT;
+            if (frameOffsets.containsInt(scanOffset))
+            {
+                expected[1] = actual[1] = 0;
+                assertEquals(
+                    TermGapScanner.scanForGap(termBuffer, TERM_ID, scanOffset, limitOffset, expectedHandler),
+                    fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, scanOffset, limitOffset, actualHandler));
+                assertEquals(expected[1], actual[1]);
+                if (0 != expected[1])
+                {
+                    assertEquals(expected[0], actual[0]);
+                }
+            }
+        }
+
+        assertEquals(TERM_LENGTH, fillBitmap.scanForGap(PARTITION_INDEX, TERM_ID, 0, TERM_LENGTH, gapHandler));
+        verifyNoInteractions(gapHandler);
+    }
+}
@@ -88,20 +88,33 @@ public class UntetheredSubscriptionTest
         ipcPublication.onTimeEvent(timeNs, 0, conductor);
         verify(conductor, never()).notifyUnavailableImageLink(REGISTRATION_ID, untetheredLink);
 
-        final long windowLimitTimeoutNs = timeNs + UNTETHERED_WINDOW_LIMIT_TIMEOUT_NS;
+        final long windowLimitTimeoutNs = TIME_NS + UNTETHERED_WINDOW_LIMIT_TIMEOUT_NS;
+        verify(conductor).scheduleDeadline(windowLimitTimeoutNs, ipcPublication);
+
         ipcPublication.onTimeEvent(windowLimitTimeoutNs, 0, conductor);
+        verify(conductor, never()).notifyUnavailableImageLink(REGISTRATION_ID, untetheredLink);
+
+        ipcPublication.onDeadline(windowLimitTimeoutNs, 0, conductor);
         verify(conductor, times(1)).notifyUnavailableImageLink(REGISTRATION_ID, untetheredLink);
 
         ipcPublication.updatePublisherLimit();
         assertEquals(TERM_WINDOW_LENGTH, publisherLimit.get());
 
         final long afterLingerTimeoutNs = windowLimitTimeoutNs + UNTETHERED_WINDOW_LIMIT_TIMEOUT_NS;
-        ipcPublication.onTimeEvent(afterLingerTimeoutNs, 0, conductor);
+        verify(conductor).scheduleDeadline(afterLingerTimeoutNs, ipcPublication);
+
+        ipcPublication.onDeadline(afterLingerTimeoutNs, 0, conductor);
         ipcPublication.updatePublisherLimit();
         assertEquals(tetheredPosition.get() + TERM_WINDOW_LENGTH, publisherLimit.get());
 
         final long afterRestingTimeoutNs = afterLingerTimeoutNs + UNTETHERED_RESTING_TIMEOUT_NS;
-        ipcPublication.onTimeEvent(afterRestingTimeoutNs, 0, conductor);
+        verify(conductor).scheduleDeadline(afterRestingTimeoutNs, ipcPublication);
+
+        ipcPublication.onDeadline(afterRestingTimeoutNs - 1, 0, conductor);
+        verify(conductor, never()).notifyAvailableImageLink(
+            anyLong(), anyInt(), any(), anyInt(), anyLong(), anyString(), anyString());
+
+        ipcPublication.onDeadline(afterRestingTimeoutNs, 0, conductor);
 
         verify(conductor, times(1)).notifyAvailableImageLink(
             eq(REGISTRATION_ID),
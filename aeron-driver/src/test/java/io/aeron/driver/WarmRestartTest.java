@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver;
+
+import io.aeron.driver.status.ClientCommandMaxLatency;
+import io.aeron.driver.status.ClientHeartbeatTimestamp;
+import io.aeron.driver.status.ShardDutyCycles;
+import io.aeron.driver.status.SystemCounterDescriptor;
+import io.aeron.driver.status.SystemCounters;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.agrona.concurrent.status.CountersReader.METADATA_LENGTH;
+import static org.agrona.concurrent.status.CountersReader.RECORD_ALLOCATED;
+import static org.agrona.concurrent.status.CountersReader.RECORD_RECLAIMED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WarmRestartTest
+{
+    private static final int BUFFER_LENGTH = 16 * 1024;
+    private static final long CLIENT_ID = 7;
+
+    private final UnsafeBuffer metaDataBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFER_LENGTH * 2));
+    private final UnsafeBuffer valuesBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFER_LENGTH));
+    private final UnsafeBuffer tempBuffer = new UnsafeBuffer(new byte[METADATA_LENGTH]);
+
+    @Test
+    public void shouldAdoptSystemCountersAndClientHeartbeatsAtSameIds()
+    {
+        final CountersManager previousCountersManager = newCountersManager();
+        final SystemCounters previousSystemCounters = new SystemCounters(previousCountersManager);
+        previousSystemCounters.get(SystemCounterDescriptor.BYTES_SENT).setOrdered(1024);
+        previousSystemCounters.get(SystemCounterDescriptor.RETRANSMITS_IN_FLIGHT).setOrdered(3);
+
+        final AtomicCounter streamCounter = previousCountersManager.newCounter("stream");
+        final AtomicCounter heartbeat = ClientHeartbeatTimestamp.allocate(
+            tempBuffer, previousCountersManager, CLIENT_ID);
+        heartbeat.setOrdered(42);
+        streamCounter.close();
+
+        final WarmRestart warmRestart = new WarmRestart(previousCountersManager);
+
+        final CountersManager countersManager = newCountersManager();
+        final SystemCounters systemCounters = new SystemCounters(countersManager);
+        warmRestart.adoptCounters(countersManager);
+
+        assertEquals(1024, systemCounters.get(SystemCounterDescriptor.BYTES_SENT).get());
+        assertEquals(0, systemCounters.get(SystemCounterDescriptor.RETRANSMITS_IN_FLIGHT).get());
+        assertEquals(RECORD_RECLAIMED, countersManager.getCounterState(streamCounter.id()));
+
+        assertEquals(1, warmRestart.clientCount());
+        assertEquals(CLIENT_ID, warmRestart.clientId(0));
+        assertEquals(heartbeat.id(), warmRestart.clientHeartbeatCounterId(0));
+        assertEquals(RECORD_ALLOCATED, countersManager.getCounterState(heartbeat.id()));
+        assertEquals(42, countersManager.getCounterValue(heartbeat.id()));
+    }
+
+    @Test
+    public void shouldNotAdoptClientsWhenPreviousDriverHadResources()
+    {
+        final CountersManager previousCountersManager = newCountersManager();
+        new SystemCounters(previousCountersManager);
+
+        final AtomicCounter heartbeat = ClientHeartbeatTimestamp.allocate(
+            tempBuffer, previousCountersManager, CLIENT_ID);
+        final AtomicCounter streamCounter = previousCountersManager.newCounter("stream");
+
+        final WarmRestart warmRestart = new WarmRestart(previousCountersManager);
+
+        final CountersManager countersManager = newCountersManager();
+        new SystemCounters(countersManager);
+        warmRestart.adoptCounters(countersManager);
+
+        assertEquals(0, warmRestart.clientCount());
+        assertEquals(RECORD_RECLAIMED, countersManager.getCounterState(heartbeat.id()));
+        assertEquals(RECORD_RECLAIMED, countersManager.getCounterState(streamCounter.id()));
+    }
+
+    @Test
+    public void shouldAdoptClientsWhenPreviousDriverOnlyHadDriverAllocatedCounters()
+    {
+        final CountersManager previousCountersManager = newCountersManager();
+        new SystemCounters(previousCountersManager);
+
+        final AtomicCounter shardDutyCycles = ShardDutyCycles.allocate(previousCountersManager, "sender-0");
+        final AtomicCounter heartbeat = ClientHeartbeatTimestamp.allocate(
+            tempBuffer, previousCountersManager, CLIENT_ID);
+        final AtomicCounter commandMaxLatency = ClientCommandMaxLatency.allocate(
+            tempBuffer, previousCountersManager, CLIENT_ID);
+
+        final WarmRestart warmRestart = new WarmRestart(previousCountersManager);
+
+        final CountersManager countersManager = newCountersManager();
+        new SystemCounters(countersManager);
+        warmRestart.adoptCounters(countersManager);
+
+        assertEquals(1, warmRestart.clientCount());
+        assertEquals(CLIENT_ID, warmRestart.clientId(0));
+        assertEquals(RECORD_ALLOCATED, countersManager.getCounterState(heartbeat.id()));
+        assertEquals(RECORD_RECLAIMED, countersManager.getCounterState(shardDutyCycles.id()));
+        assertEquals(RECORD_RECLAIMED, countersManager.getCounterState(commandMaxLatency.id()));
+    }
+
+    private CountersManager newCountersManager()
+    {
+        return new CountersManager(metaDataBuffer, valuesBuffer, StandardCharsets.US_ASCII);
+    }
+}
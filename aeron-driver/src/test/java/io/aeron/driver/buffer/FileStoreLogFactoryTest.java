@@ -22,15 +22,17 @@ import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.SystemUtil;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import static io.aeron.logbuffer.LogBufferDescriptor.PARTITION_COUNT;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 public class FileStoreLogFactoryTest
 {
@@ -41,6 +43,8 @@ public class FileStoreLogFactoryTest
     private static final int PAGE_SIZE = 4 * 1024;
     private static final boolean PRE_ZERO_LOG = true;
     private static final boolean PERFORM_STORAGE_CHECKS = true;
+    private static final long RECYCLE_DELAY_NS = TimeUnit.SECONDS.toNanos(10);
+    private long nowNs = 0;
     private FileStoreLogFactory fileStoreLogFactory;
     private RawLog rawLog;
 
@@ -109,4 +113,164 @@ public class FileStoreLogFactoryTest
         assertEquals(0, metaData.getByte(0));
         assertEquals(0, metaData.getByte(LogBufferDescriptor.LOG_META_DATA_LENGTH - 1));
     }
+
+    @Test
+    public void shouldRecycleFreedLogThroughPoolZeroedAndRenamed()
+    {
+        final AtomicCounter hits = mock(AtomicCounter.class);
+        final AtomicCounter misses = mock(AtomicCounter.class);
+        final FileStoreLogFactory pooledLogFactory = new FileStoreLogFactory(
+            DATA_DIR.getAbsolutePath(),
+            PAGE_SIZE,
+            PERFORM_STORAGE_CHECKS,
+            LOW_STORAGE_THRESHOLD,
+            1,
+            RECYCLE_DELAY_NS,
+            () -> nowNs,
+            hits,
+            misses,
+            mock(ErrorHandler.class));
+
+        try
+        {
+            final RawLog firstLog = pooledLogFactory.newPublication(CREATION_ID, TERM_BUFFER_LENGTH, false);
+            verify(misses).increment();
+
+            final File firstFile = new File(firstLog.fileName());
+            firstLog.termBuffers()[1].putLong(0, Long.MAX_VALUE);
+            firstLog.metaData().putLong(0, Long.MAX_VALUE);
+
+            assertTrue(firstLog.free());
+            assertTrue(firstLog.isInactive());
+            assertFalse(firstFile.exists());
+
+            nowNs += RECYCLE_DELAY_NS;
+            assertEquals(1, pooledLogFactory.prepareReleasedLogs(nowNs));
+
+            rawLog = pooledLogFactory.newImage(CREATION_ID + 1, TERM_BUFFER_LENGTH, false);
+            verify(hits).increment();
+            verifyNoMoreInteractions(misses);
+
+            assertTrue(new File(rawLog.fileName()).exists());
+            assertTrue(rawLog.fileName().endsWith((CREATION_ID + 1) + ".logbuffer"));
+            assertEquals(0, rawLog.termBuffers()[1].getLong(0));
+            assertEquals(0, rawLog.metaData().getLong(0));
+        }
+        finally
+        {
+            CloseHelper.close(rawLog);
+            rawLog = null;
+            CloseHelper.close(pooledLogFactory);
+        }
+    }
+
+    @Test
+    public void shouldNotReuseFreedLogUntilRecycleDelayHasPassed()
+    {
+        final AtomicCounter hits = mock(AtomicCounter.class);
+        final AtomicCounter misses = mock(AtomicCounter.class);
+        final FileStoreLogFactory pooledLogFactory = new FileStoreLogFactory(
+            DATA_DIR.getAbsolutePath(),
+            PAGE_SIZE,
+            PERFORM_STORAGE_CHECKS,
+            LOW_STORAGE_THRESHOLD,
+            1,
+            RECYCLE_DELAY_NS,
+            () -> nowNs,
+            hits,
+            misses,
+            mock(ErrorHandler.class));
+
+        try
+        {
+            final RawLog firstLog = pooledLogFactory.newPublication(CREATION_ID, TERM_BUFFER_LENGTH, false);
+            firstLog.termBuffers()[0].putLong(0, Long.MAX_VALUE);
+            assertTrue(firstLog.free());
+
+            nowNs += RECYCLE_DELAY_NS - 1;
+            assertEquals(0, pooledLogFactory.prepareReleasedLogs(nowNs));
+
+            rawLog = pooledLogFactory.newPublication(CREATION_ID + 1, TERM_BUFFER_LENGTH, false);
+            verify(misses, times(2)).increment();
+            verifyNoInteractions(hits);
+            assertEquals(0, rawLog.termBuffers()[0].getLong(0));
+        }
+        finally
+        {
+            CloseHelper.close(rawLog);
+            rawLog = null;
+            CloseHelper.close(pooledLogFactory);
+        }
+    }
+
+    @Test
+    public void shouldDeleteFreedLogWhenPoolIsFull()
+    {
+        final FileStoreLogFactory pooledLogFactory = new FileStoreLogFactory(
+            DATA_DIR.getAbsolutePath(),
+            PAGE_SIZE,
+            PERFORM_STORAGE_CHECKS,
+            LOW_STORAGE_THRESHOLD,
+            1,
+            RECYCLE_DELAY_NS,
+            () -> nowNs,
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            mock(ErrorHandler.class));
+
+        try
+        {
+            pooledLogFactory.preallocate(1, TERM_BUFFER_LENGTH, false);
+
+            final RawLog firstLog = pooledLogFactory.newPublication(CREATION_ID, TERM_BUFFER_LENGTH, false);
+            final RawLog secondLog = pooledLogFactory.newPublication(CREATION_ID + 1, TERM_BUFFER_LENGTH, false);
+            final File secondFile = new File(secondLog.fileName());
+
+            assertTrue(firstLog.free());
+            assertTrue(secondLog.free());
+            assertFalse(secondFile.exists());
+            assertEquals(1, new File(DATA_DIR, "pool").list().length);
+
+            nowNs += RECYCLE_DELAY_NS;
+            assertEquals(1, pooledLogFactory.prepareReleasedLogs(nowNs));
+            assertEquals(1, new File(DATA_DIR, "pool").list().length);
+        }
+        finally
+        {
+            CloseHelper.close(pooledLogFactory);
+        }
+    }
+
+    @Test
+    public void shouldOnlyCountReleasedLogsOfSameTermLengthAgainstPoolSize()
+    {
+        final FileStoreLogFactory pooledLogFactory = new FileStoreLogFactory(
+            DATA_DIR.getAbsolutePath(),
+            PAGE_SIZE,
+            PERFORM_STORAGE_CHECKS,
+            LOW_STORAGE_THRESHOLD,
+            1,
+            RECYCLE_DELAY_NS,
+            () -> nowNs,
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            mock(ErrorHandler.class));
+
+        try
+        {
+            final RawLog firstLog = pooledLogFactory.newPublication(CREATION_ID, TERM_BUFFER_LENGTH, false);
+            final RawLog secondLog = pooledLogFactory.newPublication(CREATION_ID + 1, TERM_BUFFER_LENGTH / 2, false);
+
+            assertTrue(firstLog.free());
+            assertTrue(secondLog.free());
+            assertEquals(2, new File(DATA_DIR, "pool").list().length);
+
+            nowNs += RECYCLE_DELAY_NS;
+            assertEquals(2, pooledLogFactory.prepareReleasedLogs(nowNs));
+        }
+        finally
+        {
+            CloseHelper.close(pooledLogFactory);
+        }
+    }
 }
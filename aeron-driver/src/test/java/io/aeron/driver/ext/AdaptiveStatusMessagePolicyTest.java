@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveStatusMessagePolicyTest
+{
+    private static final int WINDOW_LENGTH = 128 * 1024;
+    private static final long TARGET_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long RATE_SAMPLE_INTERVAL_NS = TimeUnit.MICROSECONDS.toNanos(250);
+    private static final long SM_TIMEOUT_NS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final AdaptiveStatusMessagePolicy policy = new AdaptiveStatusMessagePolicy(
+        TARGET_INTERVAL_NS, RATE_SAMPLE_INTERVAL_NS);
+    private long nowNs = TimeUnit.SECONDS.toNanos(1);
+    private long position = 0;
+
+    @Test
+    public void shouldUseSixteenthOfWindowWhenIdle()
+    {
+        consumeAtRate(0, 10);
+
+        assertEquals(WINDOW_LENGTH >> 4, policy.threshold(WINDOW_LENGTH));
+    }
+
+    @Test
+    public void shouldGrowThresholdToHalfWindowAtHighRate()
+    {
+        policy.onRttMeasurement(nowNs, TimeUnit.MICROSECONDS.toNanos(10), null);
+        consumeAtRate(1, 100);
+
+        assertEquals(WINDOW_LENGTH >> 1, policy.threshold(WINDOW_LENGTH));
+        assertFalse(shouldSchedule(position - (WINDOW_LENGTH >> 2)));
+        assertTrue(shouldSchedule(position - (WINDOW_LENGTH >> 1) - 1));
+    }
+
+    @Test
+    public void shouldKeepThresholdLowAtLowRate()
+    {
+        consumeAtRate(1, 100);
+        consumeAtRate(0.001, 100);
+
+        assertEquals(WINDOW_LENGTH >> 4, policy.threshold(WINDOW_LENGTH));
+        assertTrue(shouldSchedule(position - (WINDOW_LENGTH >> 4) - 1));
+    }
+
+    @Test
+    public void shouldHoldThresholdSoWindowCoversConsumptionInRtt()
+    {
+        consumeAtRate(1, 100);
+        policy.onRttMeasurement(nowNs, TimeUnit.MILLISECONDS.toNanos(1), null);
+
+        assertEquals(WINDOW_LENGTH >> 4, policy.threshold(WINDOW_LENGTH));
+    }
+
+    @Test
+    public void shouldHoldThresholdToQuarterWindowWhenRttIsUnknown()
+    {
+        consumeAtRate(1, 100);
+
+        assertEquals(WINDOW_LENGTH >> 2, policy.threshold(WINDOW_LENGTH));
+        assertTrue(shouldSchedule(position - (WINDOW_LENGTH >> 2) - 1));
+    }
+
+    @Test
+    public void shouldScheduleWhenTimeoutHasPassedWithoutConsumption()
+    {
+        final long timeOfLastSmNs = nowNs;
+        nowNs += SM_TIMEOUT_NS;
+        assertFalse(policy.shouldScheduleStatusMessage(
+            nowNs, position, position, timeOfLastSmNs, WINDOW_LENGTH, SM_TIMEOUT_NS));
+
+        nowNs += 1;
+        assertTrue(policy.shouldScheduleStatusMessage(
+            nowNs, position, position, timeOfLastSmNs, WINDOW_LENGTH, SM_TIMEOUT_NS));
+    }
+
+    private void consumeAtRate(final double bytesPerNs, final int samples)
+    {
+        for (int i = 0; i < samples; i++)
+        {
+            shouldSchedule(position);
+            nowNs += RATE_SAMPLE_INTERVAL_NS;
+            position += (long)(bytesPerNs * RATE_SAMPLE_INTERVAL_NS);
+        }
+        shouldSchedule(position);
+    }
+
+    private boolean shouldSchedule(final long lastSmPosition)
+    {
+        return policy.shouldScheduleStatusMessage(
+            nowNs, position, lastSmPosition, nowNs, WINDOW_LENGTH, SM_TIMEOUT_NS);
+    }
+}
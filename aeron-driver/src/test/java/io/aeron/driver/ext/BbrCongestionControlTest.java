@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.ext;
+
+import io.aeron.driver.CongestionControl;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.media.UdpChannel;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BbrCongestionControlTest
+{
+    private static final int BUFFER_LENGTH = 16 * 1024;
+    private static final int TERM_LENGTH = 16 * 1024 * 1024;
+    private static final int MTU_LENGTH = 1408;
+    private static final long RTT_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long LINK_BYTES_PER_RTT = 100_000;
+    private static final long LINK_BYTES_PER_SECOND = LINK_BYTES_PER_RTT * (TimeUnit.SECONDS.toNanos(1) / RTT_NS);
+
+    private final MediaDriver.Context context = mock(MediaDriver.Context.class);
+    private final CountersManager countersManager = new CountersManager(
+        new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFER_LENGTH * 2)),
+        new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFER_LENGTH)),
+        StandardCharsets.US_ASCII);
+
+    private BbrCongestionControl congestionControl;
+    private long nowNs = TimeUnit.SECONDS.toNanos(3);
+    private long position = 0;
+    private int window;
+
+    @BeforeEach
+    public void before()
+    {
+        when(context.tempBuffer()).thenReturn(new UnsafeBuffer(new byte[BUFFER_LENGTH]));
+        when(context.initialWindowLength()).thenReturn(8 * 1024 * 1024);
+        when(context.errorHandler()).thenReturn(mock(ErrorHandler.class));
+
+        congestionControl = new BbrCongestionControl(
+            0,
+            UdpChannel.parse("aeron:udp?endpoint=127.0.0.1:9999|cc=bbr"),
+            1001,
+            0x1234,
+            TERM_LENGTH,
+            MTU_LENGTH,
+            null,
+            null,
+            () -> nowNs,
+            context,
+            countersManager);
+
+        window = congestionControl.initialWindowLength();
+    }
+
+    @Test
+    public void shouldEstimateBottleneckAndSettleInProbeBw()
+    {
+        assertEquals(10 * MTU_LENGTH, window);
+
+        runRounds(50);
+
+        assertEquals(BbrCongestionControl.State.PROBE_BW, congestionControl.state());
+        assertEquals(LINK_BYTES_PER_SECOND, congestionControl.btlBw());
+        assertEquals(RTT_NS, congestionControl.minRttNs());
+        assertTrue(window >= LINK_BYTES_PER_RTT * 1.5 && window <= LINK_BYTES_PER_RTT * 2.5, "window=" + window);
+    }
+
+    @Test
+    public void shouldProbeRttWhenMinRttExpires()
+    {
+        runRounds(50);
+
+        nowNs += BbrCongestionControlConfiguration.MIN_RTT_WINDOW_NS + 1;
+        final long outcome = trackRebuild();
+
+        assertEquals(BbrCongestionControl.State.PROBE_RTT, congestionControl.state());
+        assertEquals(4 * MTU_LENGTH, CongestionControl.receiverWindowLength(outcome));
+        assertTrue(CongestionControl.shouldForceStatusMessage(outcome));
+
+        nowNs += BbrCongestionControlConfiguration.PROBE_RTT_DURATION_NS;
+        trackRebuild();
+
+        assertEquals(BbrCongestionControl.State.PROBE_BW, congestionControl.state());
+    }
+
+    @Test
+    public void shouldMeasureRttAtIntervalWithOneOutstanding()
+    {
+        nowNs += BbrCongestionControlConfiguration.RTT_MEASUREMENT_INTERVAL_NS + 1;
+        assertTrue(congestionControl.shouldMeasureRtt(nowNs));
+
+        congestionControl.onRttMeasurementSent(nowNs);
+        nowNs += BbrCongestionControlConfiguration.RTT_MEASUREMENT_INTERVAL_NS + 1;
+        assertFalse(congestionControl.shouldMeasureRtt(nowNs));
+
+        congestionControl.onRttMeasurement(nowNs, RTT_NS, null);
+        nowNs += BbrCongestionControlConfiguration.RTT_MEASUREMENT_INTERVAL_NS + 1;
+        assertTrue(congestionControl.shouldMeasureRtt(nowNs));
+    }
+
+    private void runRounds(final int rounds)
+    {
+        for (int i = 0; i < rounds; i++)
+        {
+            nowNs += RTT_NS;
+            congestionControl.onRttMeasurement(nowNs, RTT_NS, null);
+            window = CongestionControl.receiverWindowLength(trackRebuild());
+        }
+    }
+
+    private long trackRebuild()
+    {
+        final long startingPosition = position;
+        position += Math.min(window, LINK_BYTES_PER_RTT);
+
+        return congestionControl.onTrackRebuild(
+            nowNs, position, startingPosition, position, startingPosition, position, false);
+    }
+}
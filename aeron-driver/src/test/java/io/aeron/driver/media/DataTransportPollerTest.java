@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.media;
+
+import org.agrona.ErrorHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static io.aeron.driver.media.DataTransportPoller.BUSY_POLL_IDLE_THRESHOLD;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DataTransportPollerTest
+{
+    private static final int MAX_SKIP = 4;
+
+    private final ErrorHandler mockErrorHandler = mock(ErrorHandler.class);
+    private final ReceiveChannelEndpoint mockEndpoint = mock(ReceiveChannelEndpoint.class);
+    private DatagramChannel datagramChannel;
+    private DataTransportPoller poller;
+
+    @BeforeEach
+    public void before() throws IOException
+    {
+        datagramChannel = DatagramChannel.open();
+        datagramChannel.configureBlocking(false);
+        when(mockEndpoint.receiveDatagramChannel()).thenReturn(datagramChannel);
+
+        poller = new DataTransportPoller(mockErrorHandler, true, MAX_SKIP);
+        poller.registerForRead(mockEndpoint, mockEndpoint, 0);
+    }
+
+    @AfterEach
+    public void after() throws IOException
+    {
+        poller.close();
+        datagramChannel.close();
+    }
+
+    @Test
+    public void shouldReadEveryDutyCycleUntilIdleThreshold()
+    {
+        pollTimes(BUSY_POLL_IDLE_THRESHOLD);
+
+        verify(mockEndpoint, times(BUSY_POLL_IDLE_THRESHOLD)).receive(any(ByteBuffer.class));
+    }
+
+    @Test
+    public void shouldBackOffExponentiallyUpToMaxSkipWhenIdle()
+    {
+        pollTimes(BUSY_POLL_IDLE_THRESHOLD);
+        clearInvocations(mockEndpoint);
+
+        // read, skip 1, read, skip 2, read, skip 4, read, skip 4 capped by max skip
+        pollTimes(1 + 1 + 1 + 2 + 1 + 4 + 1 + 4);
+
+        verify(mockEndpoint, times(4)).receive(any(ByteBuffer.class));
+    }
+
+    @Test
+    public void shouldReadEveryDutyCycleAgainOnceDatagramReceived()
+    {
+        pollTimes(BUSY_POLL_IDLE_THRESHOLD + 1);
+
+        when(mockEndpoint.receive(any(ByteBuffer.class)))
+            .thenReturn(new InetSocketAddress("localhost", 40123))
+            .thenReturn(null);
+
+        pollTimes(2);
+        clearInvocations(mockEndpoint);
+
+        pollTimes(BUSY_POLL_IDLE_THRESHOLD);
+
+        verify(mockEndpoint, times(BUSY_POLL_IDLE_THRESHOLD)).receive(any(ByteBuffer.class));
+    }
+
+    @Test
+    public void shouldNotSkipWhenMaxSkipIsZero()
+    {
+        poller.close();
+        poller = new DataTransportPoller(mockErrorHandler, true, 0);
+        poller.registerForRead(mockEndpoint, mockEndpoint, 0);
+
+        pollTimes(BUSY_POLL_IDLE_THRESHOLD + 10);
+
+        verify(mockEndpoint, times(BUSY_POLL_IDLE_THRESHOLD + 10)).receive(any(ByteBuffer.class));
+    }
+
+    private void pollTimes(final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            poller.pollTransports();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.media;
+
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.NetworkPublication;
+import io.aeron.driver.status.SystemCounterDescriptor;
+import io.aeron.driver.status.SystemCounters;
+import io.aeron.protocol.HeaderFlyweight;
+import io.aeron.protocol.NakRangesFlyweight;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.net.InetSocketAddress;
+
+import static org.mockito.Mockito.*;
+
+public class SendChannelEndpointTest
+{
+    private static final int SESSION_ID = 11;
+    private static final int STREAM_ID = 1001;
+    private static final int TERM_ID = 5;
+
+    private final UdpChannel udpChannel = UdpChannel.parse("aeron:udp?endpoint=localhost:40123");
+    private final InetSocketAddress srcAddress = udpChannel.remoteData();
+    private final SystemCounters mockSystemCounters = mock(SystemCounters.class);
+    private final AtomicCounter mockNakMessagesReceived = mock(AtomicCounter.class);
+    private final NetworkPublication mockPublication = mock(NetworkPublication.class);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(
+        new byte[NakRangesFlyweight.computeFrameLength(NakRangesFlyweight.MAX_RANGE_COUNT + 1)]);
+    private final NakRangesFlyweight nakRanges = new NakRangesFlyweight(buffer);
+    private SendChannelEndpoint sendChannelEndpoint;
+
+    @BeforeEach
+    public void before()
+    {
+        when(mockSystemCounters.get(any())).thenReturn(mock(AtomicCounter.class));
+        when(mockSystemCounters.get(SystemCounterDescriptor.NAK_MESSAGES_RECEIVED))
+            .thenReturn(mockNakMessagesReceived);
+        when(mockPublication.sessionId()).thenReturn(SESSION_ID);
+        when(mockPublication.streamId()).thenReturn(STREAM_ID);
+
+        sendChannelEndpoint = new SendChannelEndpoint(
+            udpChannel, mock(AtomicCounter.class), new MediaDriver.Context().systemCounters(mockSystemCounters));
+        sendChannelEndpoint.registerForSend(mockPublication);
+
+        nakRanges
+            .sessionId(SESSION_ID)
+            .streamId(STREAM_ID)
+            .termId(TERM_ID)
+            .headerType(HeaderFlyweight.HDR_TYPE_NAK_RANGES);
+    }
+
+    @Test
+    public void shouldRetransmitEveryRangeInNakRangesMessage()
+    {
+        final int length = encodeRanges(0, 1408, 4096, 64, 8192, 32);
+
+        sendChannelEndpoint.onNakRangesMessage(nakRanges, buffer, length, srcAddress);
+
+        final InOrder inOrder = inOrder(mockPublication);
+        inOrder.verify(mockPublication).onNak(TERM_ID, 0, 1408);
+        inOrder.verify(mockPublication).onNak(TERM_ID, 4096, 64);
+        inOrder.verify(mockPublication).onNak(TERM_ID, 8192, 32);
+        verify(mockNakMessagesReceived).incrementOrdered();
+    }
+
+    @Test
+    public void shouldRetransmitMaxRangeCount()
+    {
+        final int rangeCount = NakRangesFlyweight.MAX_RANGE_COUNT;
+        for (int i = 0; i < rangeCount; i++)
+        {
+            nakRanges.range(i, i * 1024, 32);
+        }
+        nakRanges.rangeCount(rangeCount);
+
+        sendChannelEndpoint.onNakRangesMessage(
+            nakRanges, buffer, NakRangesFlyweight.computeFrameLength(rangeCount), srcAddress);
+
+        for (int i = 0; i < rangeCount; i++)
+        {
+            verify(mockPublication).onNak(TERM_ID, i * 1024, 32);
+        }
+    }
+
+    @Test
+    public void shouldIgnoreNakRangesMessageWithNoRanges()
+    {
+        encodeRanges();
+
+        sendChannelEndpoint.onNakRangesMessage(
+            nakRanges, buffer, NakRangesFlyweight.computeFrameLength(0), srcAddress);
+
+        verify(mockPublication, never()).onNak(anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(mockNakMessagesReceived);
+    }
+
+    @Test
+    public void shouldIgnoreNakRangesMessageWithNegativeRangeCount()
+    {
+        final int length = encodeRanges(0, 64);
+        nakRanges.rangeCount(-1);
+
+        sendChannelEndpoint.onNakRangesMessage(nakRanges, buffer, length, srcAddress);
+
+        verify(mockPublication, never()).onNak(anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(mockNakMessagesReceived);
+    }
+
+    @Test
+    public void shouldIgnoreNakRangesMessageWithMoreThanMaxRangeCount()
+    {
+        final int rangeCount = NakRangesFlyweight.MAX_RANGE_COUNT + 1;
+        nakRanges.rangeCount(rangeCount);
+
+        sendChannelEndpoint.onNakRangesMessage(
+            nakRanges, buffer, NakRangesFlyweight.computeFrameLength(rangeCount), srcAddress);
+
+        verify(mockPublication, never()).onNak(anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(mockNakMessagesReceived);
+    }
+
+    @Test
+    public void shouldIgnoreNakRangesMessageWithRangeCountBeyondLengthReceived()
+    {
+        final int length = encodeRanges(0, 64, 128, 64);
+
+        sendChannelEndpoint.onNakRangesMessage(
+            nakRanges, buffer, length - NakRangesFlyweight.RANGE_LENGTH, srcAddress);
+
+        verify(mockPublication, never()).onNak(anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(mockNakMessagesReceived);
+    }
+
+    @Test
+    public void shouldSkipRangesWithNoLength()
+    {
+        final int length = encodeRanges(0, 64, 128, 0, 256, -32, 512, 32);
+
+        sendChannelEndpoint.onNakRangesMessage(nakRanges, buffer, length, srcAddress);
+
+        verify(mockPublication).onNak(TERM_ID, 0, 64);
+        verify(mockPublication).onNak(TERM_ID, 512, 32);
+        verify(mockPublication, times(2)).onNak(anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldIgnoreNakRangesMessageForUnknownPublication()
+    {
+        final int length = encodeRanges(0, 64);
+        nakRanges.streamId(STREAM_ID + 1);
+
+        sendChannelEndpoint.onNakRangesMessage(nakRanges, buffer, length, srcAddress);
+
+        verify(mockPublication, never()).onNak(anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(mockNakMessagesReceived);
+    }
+
+    private int encodeRanges(final int... termOffsetsAndLengths)
+    {
+        final int rangeCount = termOffsetsAndLengths.length / 2;
+        for (int i = 0; i < rangeCount; i++)
+        {
+            nakRanges.range(i, termOffsetsAndLengths[i * 2], termOffsetsAndLengths[i * 2 + 1]);
+        }
+
+        final int frameLength = NakRangesFlyweight.computeFrameLength(rangeCount);
+        nakRanges.rangeCount(rangeCount).frameLength(frameLength);
+
+        return frameLength;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.driver.reports;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static io.aeron.driver.reports.LossHistogram.HEADER_LENGTH;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LossHistogramTest
+{
+    private static final int BUCKET_COUNT = 4;
+    private static final int BUCKET_LENGTH_MS = 1000;
+    private static final int SESSION_ID = 3;
+    private static final int STREAM_ID = 1;
+    private static final String CHANNEL = "aeron:udp://stuff";
+    private static final String SOURCE = "127.0.0.1:8888";
+
+    private final UnsafeBuffer reportBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final UnsafeBuffer histogramBuffer = new UnsafeBuffer(
+        ByteBuffer.allocateDirect(HEADER_LENGTH + LossHistogram.entryLength(BUCKET_COUNT)));
+    private final LossHistogram lossHistogram = new LossHistogram(histogramBuffer, BUCKET_COUNT, BUCKET_LENGTH_MS);
+    private final LossReport lossReport = new LossReport(reportBuffer, lossHistogram);
+    private final long[] observationCounts = new long[BUCKET_COUNT];
+    private final long[] bytesLost = new long[BUCKET_COUNT];
+    private long latestBucketTimestampMs;
+
+    @Test
+    public void shouldRecordObservationsInBucketsForTheirTime()
+    {
+        final LossReport.ReportEntry entry = lossReport.createEntry(32, 10_000, SESSION_ID, STREAM_ID, CHANNEL, SOURCE);
+        entry.recordObservation(64, 10_500);
+        entry.recordObservation(128, 12_100);
+
+        assertEquals(1, read());
+        assertEquals(12_000, latestBucketTimestampMs);
+        assertArrayEquals(new long[]{ 0, 2, 0, 1 }, observationCounts);
+        assertArrayEquals(new long[]{ 0, 96, 0, 128 }, bytesLost);
+    }
+
+    @Test
+    public void shouldClearBucketsWhenRingWraps()
+    {
+        final LossReport.ReportEntry entry = lossReport.createEntry(32, 10_000, SESSION_ID, STREAM_ID, CHANNEL, SOURCE);
+        entry.recordObservation(32, 11_000);
+        entry.recordObservation(64, 14_000);
+
+        assertEquals(1, read());
+        assertEquals(14_000, latestBucketTimestampMs);
+        assertArrayEquals(new long[]{ 1, 0, 0, 1 }, observationCounts);
+        assertArrayEquals(new long[]{ 32, 0, 0, 64 }, bytesLost);
+
+        entry.recordObservation(64, 100_000);
+
+        assertEquals(1, read());
+        assertArrayEquals(new long[]{ 0, 0, 0, 1 }, observationCounts);
+    }
+
+    @Test
+    public void shouldIgnoreObservationOlderThanOldestBucket()
+    {
+        final LossReport.ReportEntry entry = lossReport.createEntry(32, 10_000, SESSION_ID, STREAM_ID, CHANNEL, SOURCE);
+        entry.recordObservation(64, 6_000);
+        entry.recordObservation(64, 7_000);
+
+        assertEquals(1, read());
+        assertEquals(10_000, latestBucketTimestampMs);
+        assertArrayEquals(new long[]{ 1, 0, 0, 1 }, observationCounts);
+    }
+
+    @Test
+    public void shouldStillReportLossWhenHistogramIsFull()
+    {
+        assertNotNull(lossReport.createEntry(32, 10_000, SESSION_ID, STREAM_ID, CHANNEL, SOURCE));
+        assertNotNull(lossReport.createEntry(32, 10_000, SESSION_ID + 1, STREAM_ID, CHANNEL, SOURCE));
+
+        assertEquals(1, read());
+        assertEquals(2, LossReportReader.read(reportBuffer, (count, bytes, first, last, s, st, c, src) -> {}));
+    }
+
+    private int read()
+    {
+        return LossHistogramReader.read(
+            histogramBuffer,
+            reportBuffer,
+            (sessionId, streamId, channel, source, bucketLengthMs, latestBucketTimestampMs, counts, bytes) ->
+            {
+                assertEquals(SESSION_ID, sessionId);
+                assertEquals(STREAM_ID, streamId);
+                assertEquals(CHANNEL, channel);
+                assertEquals(SOURCE, source);
+                assertEquals(BUCKET_LENGTH_MS, bucketLengthMs);
+
+                this.latestBucketTimestampMs = latestBucketTimestampMs;
+                System.arraycopy(counts, 0, observationCounts, 0, BUCKET_COUNT);
+                System.arraycopy(bytes, 0, bytesLost, 0, BUCKET_COUNT);
+            });
+    }
+}
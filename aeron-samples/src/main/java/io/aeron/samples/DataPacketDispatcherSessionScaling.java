@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.driver.DataPacketDispatcher;
+import io.aeron.protocol.DataHeaderFlyweight;
+
+import static io.aeron.protocol.DataHeaderFlyweight.createDefaultHeader;
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Measures the cost of looking up the session of a data packet in {@link DataPacketDispatcher} as the number of
+ * sessions known on a stream grows, to show the cost does not grow with the number of sessions.
+ * <p>
+ * The stream is subscribed to a single session so packets from every other session are recorded as of no interest
+ * and dispatch stops after the session lookup. Packets are dispatched round-robin across the sessions, which defeats
+ * the cache of the last session found, and in bursts of {@link #BURST_LENGTH} from each session as a receiver sees
+ * when reading a batch of datagrams.
+ * <p>
+ * The number of packets timed for each session count can be set with the {@code aeron.sample.messages} system
+ * property.
+ */
+public class DataPacketDispatcherSessionScaling
+{
+    private static final int MESSAGE_COUNT = Integer.getInteger("aeron.sample.messages", 10_000_000);
+    private static final int STREAM_ID = 1001;
+    private static final int SUBSCRIBED_SESSION_ID = -1;
+    private static final int BURST_LENGTH = 16;
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        final DataHeaderFlyweight header = new DataHeaderFlyweight(createDefaultHeader(0, STREAM_ID, 0));
+
+        for (final int sessionCount : new int[]{ 1, 100, 10_000 })
+        {
+            final DataPacketDispatcher dispatcher = new DataPacketDispatcher(null, null);
+            dispatcher.addSubscription(STREAM_ID, SUBSCRIBED_SESSION_ID);
+
+            for (int sessionId = 0; sessionId < sessionCount; sessionId++)
+            {
+                dispatch(dispatcher, header, sessionId);
+            }
+
+            for (int i = 0; i < 3; i++)
+            {
+                final long roundRobinNs = timeDispatch(dispatcher, header, sessionCount, 1);
+                final long burstNs = timeDispatch(dispatcher, header, sessionCount, BURST_LENGTH);
+
+                System.out.format(
+                    "sessions=%,d packets=%,d round-robin cost=%,dns burst=%d cost=%,dns%n",
+                    sessionCount,
+                    MESSAGE_COUNT,
+                    roundRobinNs / MESSAGE_COUNT,
+                    BURST_LENGTH,
+                    burstNs / MESSAGE_COUNT);
+            }
+        }
+    }
+
+    private static long timeDispatch(
+        final DataPacketDispatcher dispatcher,
+        final DataHeaderFlyweight header,
+        final int sessionCount,
+        final int burstLength)
+    {
+        final long startNs = System.nanoTime();
+
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            dispatch(dispatcher, header, (i / burstLength) % sessionCount);
+        }
+
+        return System.nanoTime() - startNs;
+    }
+
+    private static void dispatch(
+        final DataPacketDispatcher dispatcher, final DataHeaderFlyweight header, final int sessionId)
+    {
+        header.sessionId(sessionId);
+        dispatcher.onDataPacket(null, header, header, DataHeaderFlyweight.HEADER_LENGTH, null, 0);
+    }
+}
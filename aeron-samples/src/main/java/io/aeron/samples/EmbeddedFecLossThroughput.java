@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.driver.ext.DebugReceiveChannelEndpoint;
+import io.aeron.driver.ext.RandomLossGenerator;
+import io.aeron.driver.status.SystemCounters;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.driver.status.SystemCounterDescriptor.*;
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Compares throughput of a UDP stream under random loss injected at the receiver by a
+ * {@link io.aeron.driver.ext.LossGenerator}, once recovering only by NAK and once with FEC parity frames enabled on
+ * the publication, and reports how many frames each mechanism recovered.
+ * <p>
+ * The loss rate can be set with the {@code aeron.sample.lossRate} system property and the FEC group size with
+ * {@code aeron.sample.fecGroupSize}.
+ */
+public class EmbeddedFecLossThroughput
+{
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final int STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int FRAGMENT_COUNT_LIMIT = SampleConfiguration.FRAGMENT_COUNT_LIMIT;
+    private static final String CHANNEL = SampleConfiguration.CHANNEL;
+    private static final double LOSS_RATE = Double.parseDouble(System.getProperty("aeron.sample.lossRate", "0.01"));
+    private static final int FEC_GROUP_SIZE = Integer.getInteger("aeron.sample.fecGroupSize", 8);
+    private static final long LOSS_SEED = 0xF3C;
+
+    private static final UnsafeBuffer OFFER_BUFFER = new UnsafeBuffer(
+        BufferUtil.allocateDirectAligned(MESSAGE_LENGTH, BitUtil.CACHE_LINE_LENGTH));
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        System.out.format(
+            "Streaming %,d messages of payload length %d bytes to %s with %.02f%% loss%n",
+            NUMBER_OF_MESSAGES, MESSAGE_LENGTH, CHANNEL, LOSS_RATE * 100);
+
+        for (int i = 0; i < 3; i++)
+        {
+            run(CHANNEL, "nak only");
+            run(CHANNEL + "|fec=" + FEC_GROUP_SIZE, "fec=" + FEC_GROUP_SIZE);
+        }
+    }
+
+    private static void run(final String channel, final String label)
+    {
+        final MediaDriver.Context ctx = new MediaDriver.Context()
+            .threadingMode(ThreadingMode.DEDICATED)
+            .receiveChannelEndpointSupplier((udpChannel, dispatcher, statusIndicator, context) ->
+                new DebugReceiveChannelEndpoint(
+                    udpChannel,
+                    dispatcher,
+                    statusIndicator,
+                    context,
+                    new RandomLossGenerator(LOSS_RATE, LOSS_SEED),
+                    new RandomLossGenerator(0)))
+            .dirDeleteOnShutdown(true);
+
+        final long[] received = new long[1];
+        final FragmentHandler handler = (buffer, offset, length, header) -> received[0]++;
+
+        try (MediaDriver driver = MediaDriver.launchEmbedded(ctx);
+            Aeron aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(driver.aeronDirectoryName()));
+            Subscription subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+            Publication publication = aeron.addPublication(channel, STREAM_ID))
+        {
+            final IdleStrategy idleStrategy = SampleConfiguration.newIdleStrategy();
+            while (!publication.isConnected())
+            {
+                idleStrategy.idle();
+            }
+
+            final long startNs = System.nanoTime();
+            for (long i = 0; i < NUMBER_OF_MESSAGES; i++)
+            {
+                OFFER_BUFFER.putLong(0, i);
+
+                idleStrategy.reset();
+                while (publication.offer(OFFER_BUFFER, 0, MESSAGE_LENGTH) < 0)
+                {
+                    subscription.poll(handler, FRAGMENT_COUNT_LIMIT);
+                    idleStrategy.idle();
+                }
+
+                subscription.poll(handler, FRAGMENT_COUNT_LIMIT);
+            }
+
+            while (received[0] < NUMBER_OF_MESSAGES)
+            {
+                if (subscription.poll(handler, FRAGMENT_COUNT_LIMIT) == 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            final long durationNs = System.nanoTime() - startNs;
+            final SystemCounters systemCounters = driver.context().systemCounters();
+
+            System.out.format(
+                "%-9s %.04g msgs/sec, recovered by FEC=%,d by NAK=%,d, NAKs sent=%,d%n",
+                label,
+                (double)NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1) / durationNs,
+                systemCounters.get(FEC_RECOVERED).get(),
+                systemCounters.get(NAK_RECOVERED).get(),
+                systemCounters.get(NAK_MESSAGES_SENT).get());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Measures throughput of a single IPC stream as it is fanned out to a growing number of subscriptions, to show the
+ * cost to the driver of tracking the minimum subscriber position does not hold back the publisher.
+ * <p>
+ * The largest number of subscriptions can be set with the {@code aeron.sample.subscribers} system property.
+ */
+public class EmbeddedIpcFanOutThroughput
+{
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final int STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int FRAGMENT_COUNT_LIMIT = SampleConfiguration.FRAGMENT_COUNT_LIMIT;
+    private static final String CHANNEL = CommonContext.IPC_CHANNEL;
+    private static final int MAX_SUBSCRIBERS = Integer.getInteger("aeron.sample.subscribers", 256);
+
+    private static final UnsafeBuffer OFFER_BUFFER = new UnsafeBuffer(
+        BufferUtil.allocateDirectAligned(MESSAGE_LENGTH, BitUtil.CACHE_LINE_LENGTH));
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        System.out.format(
+            "Streaming %,d messages of payload length %d bytes to %s with up to %d subscribers%n",
+            NUMBER_OF_MESSAGES, MESSAGE_LENGTH, CHANNEL, MAX_SUBSCRIBERS);
+
+        for (int subscriberCount = 1; subscriberCount <= MAX_SUBSCRIBERS; subscriberCount <<= 2)
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                System.out.format("subscribers=%d: %.04g msgs/sec%n", subscriberCount, run(subscriberCount));
+            }
+        }
+    }
+
+    private static double run(final int subscriberCount)
+    {
+        final MediaDriver.Context ctx = new MediaDriver.Context()
+            .threadingMode(ThreadingMode.DEDICATED)
+            .conductorIdleStrategy(new BusySpinIdleStrategy())
+            .dirDeleteOnShutdown(true);
+
+        final ArrayList<Subscription> subscriptions = new ArrayList<>(subscriberCount);
+        final long[] received = new long[1];
+        final FragmentHandler handler = (buffer, offset, length, header) -> received[0]++;
+        final long expectedCount = NUMBER_OF_MESSAGES * subscriberCount;
+
+        try (MediaDriver driver = MediaDriver.launchEmbedded(ctx);
+            Aeron aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(driver.aeronDirectoryName()));
+            Publication publication = aeron.addPublication(CHANNEL, STREAM_ID))
+        {
+            for (int i = 0; i < subscriberCount; i++)
+            {
+                subscriptions.add(aeron.addSubscription(CHANNEL, STREAM_ID));
+            }
+
+            final IdleStrategy idleStrategy = SampleConfiguration.newIdleStrategy();
+            for (final Subscription subscription : subscriptions)
+            {
+                while (!subscription.isConnected())
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            final long startNs = System.nanoTime();
+            for (long i = 0; i < NUMBER_OF_MESSAGES; i++)
+            {
+                OFFER_BUFFER.putLong(0, i);
+
+                idleStrategy.reset();
+                while (publication.offer(OFFER_BUFFER, 0, MESSAGE_LENGTH) < 0)
+                {
+                    poll(subscriptions, handler);
+                    idleStrategy.idle();
+                }
+
+                poll(subscriptions, handler);
+            }
+
+            while (received[0] < expectedCount)
+            {
+                if (poll(subscriptions, handler) == 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            final long durationNs = System.nanoTime() - startNs;
+
+            return (double)NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1) / durationNs;
+        }
+        finally
+        {
+            CloseHelper.closeAll(subscriptions);
+        }
+    }
+
+    private static int poll(final ArrayList<Subscription> subscriptions, final FragmentHandler handler)
+    {
+        int fragments = 0;
+        for (int i = 0, size = subscriptions.size(); i < size; i++)
+        {
+            fragments += subscriptions.get(i).poll(handler, FRAGMENT_COUNT_LIMIT);
+        }
+
+        return fragments;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.driver.status.SenderPacedTime;
+import io.aeron.driver.status.SystemCounters;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersReader;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.driver.status.SystemCounterDescriptor.*;
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Sends bursts of messages over UDP to a receiver with a small socket receive buffer, once unpaced and once with the
+ * publication paced by {@code rate} and {@code burst} channel params, and reports the NAKs and retransmits caused by
+ * datagrams dropped by the receiver socket along with the time the sender spent paced.
+ * <p>
+ * The pacing can be set with the {@code aeron.sample.rate} and {@code aeron.sample.burst} system properties, the
+ * receiver socket buffer with {@code aeron.sample.rcvbuf}, and the number of messages per burst with
+ * {@code aeron.sample.burstMessages}.
+ */
+public class EmbeddedPacedBurstThroughput
+{
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final int STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int FRAGMENT_COUNT_LIMIT = SampleConfiguration.FRAGMENT_COUNT_LIMIT;
+    private static final String CHANNEL = SampleConfiguration.CHANNEL;
+    private static final String RATE = System.getProperty("aeron.sample.rate", "100m");
+    private static final String BURST = System.getProperty("aeron.sample.burst", "64k");
+    private static final int RCVBUF_LENGTH = Integer.getInteger("aeron.sample.rcvbuf", 64 * 1024);
+    private static final int BURST_MESSAGES = Integer.getInteger("aeron.sample.burstMessages", 10_000);
+    private static final long BURST_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final UnsafeBuffer OFFER_BUFFER = new UnsafeBuffer(
+        BufferUtil.allocateDirectAligned(MESSAGE_LENGTH, BitUtil.CACHE_LINE_LENGTH));
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        System.out.format(
+            "Streaming %,d messages of payload length %d bytes to %s in bursts of %,d with rcvbuf %,d%n",
+            NUMBER_OF_MESSAGES, MESSAGE_LENGTH, CHANNEL, BURST_MESSAGES, RCVBUF_LENGTH);
+
+        for (int i = 0; i < 3; i++)
+        {
+            run(CHANNEL, "unpaced");
+            run(CHANNEL + "|rate=" + RATE + "|burst=" + BURST, "paced");
+        }
+    }
+
+    private static void run(final String channel, final String label)
+    {
+        final MediaDriver.Context ctx = new MediaDriver.Context()
+            .threadingMode(ThreadingMode.DEDICATED)
+            .socketRcvbufLength(RCVBUF_LENGTH)
+            .dirDeleteOnShutdown(true);
+
+        final long[] received = new long[1];
+        final FragmentHandler handler = (buffer, offset, length, header) -> received[0]++;
+
+        try (MediaDriver driver = MediaDriver.launchEmbedded(ctx);
+            Aeron aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(driver.aeronDirectoryName()));
+            Subscription subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+            Publication publication = aeron.addPublication(channel, STREAM_ID))
+        {
+            final IdleStrategy idleStrategy = SampleConfiguration.newIdleStrategy();
+            while (!publication.isConnected())
+            {
+                idleStrategy.idle();
+            }
+
+            final long startNs = System.nanoTime();
+            long nextBurstNs = startNs;
+            for (long i = 0; i < NUMBER_OF_MESSAGES; i++)
+            {
+                if (0 == i % BURST_MESSAGES)
+                {
+                    while (System.nanoTime() - nextBurstNs < 0)
+                    {
+                        subscription.poll(handler, FRAGMENT_COUNT_LIMIT);
+                    }
+
+                    nextBurstNs = System.nanoTime() + BURST_INTERVAL_NS;
+                }
+
+                OFFER_BUFFER.putLong(0, i);
+
+                idleStrategy.reset();
+                while (publication.offer(OFFER_BUFFER, 0, MESSAGE_LENGTH) < 0)
+                {
+                    subscription.poll(handler, FRAGMENT_COUNT_LIMIT);
+                    idleStrategy.idle();
+                }
+            }
+
+            while (received[0] < NUMBER_OF_MESSAGES)
+            {
+                if (subscription.poll(handler, FRAGMENT_COUNT_LIMIT) == 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            final long durationNs = System.nanoTime() - startNs;
+            final SystemCounters systemCounters = driver.context().systemCounters();
+
+            System.out.format(
+                "%-8s %.04g msgs/sec, NAKs sent=%,d, retransmits sent=%,d, paced=%,dus%n",
+                label,
+                (double)NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1) / durationNs,
+                systemCounters.get(NAK_MESSAGES_SENT).get(),
+                systemCounters.get(RETRANSMITS_SENT).get(),
+                TimeUnit.NANOSECONDS.toMicros(pacedTimeNs(driver.context().countersManager())));
+        }
+    }
+
+    private static long pacedTimeNs(final CountersReader countersReader)
+    {
+        final long[] pacedTimeNs = new long[1];
+        countersReader.forEach(
+            (counterId, typeId, keyBuffer, label) ->
+            {
+                if (SenderPacedTime.SENDER_PACED_TIME_TYPE_ID == typeId)
+                {
+                    pacedTimeNs[0] += countersReader.getCounterValue(counterId);
+                }
+            });
+
+        return pacedTimeNs[0];
+    }
+}
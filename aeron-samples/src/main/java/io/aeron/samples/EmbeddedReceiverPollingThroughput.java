@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Compares throughput of a single UDP stream when the receiver also has many idle channels registered, once with the
+ * selector based {@link io.aeron.driver.media.DataTransportPoller} and once with it busy polling the transports.
+ * <p>
+ * The number of idle channels can be set with the {@code aeron.sample.idleChannels} system property.
+ */
+public class EmbeddedReceiverPollingThroughput
+{
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final int STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int FRAGMENT_COUNT_LIMIT = SampleConfiguration.FRAGMENT_COUNT_LIMIT;
+    private static final String CHANNEL = SampleConfiguration.CHANNEL;
+    private static final int IDLE_CHANNEL_COUNT = Integer.getInteger("aeron.sample.idleChannels", 256);
+    private static final int IDLE_CHANNEL_BASE_PORT = 41_000;
+
+    private static final UnsafeBuffer OFFER_BUFFER = new UnsafeBuffer(
+        BufferUtil.allocateDirectAligned(MESSAGE_LENGTH, BitUtil.CACHE_LINE_LENGTH));
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        System.out.format(
+            "Streaming %,d messages of payload length %d bytes to %s with %d idle channels%n",
+            NUMBER_OF_MESSAGES, MESSAGE_LENGTH, CHANNEL, IDLE_CHANNEL_COUNT);
+
+        for (int i = 0; i < 3; i++)
+        {
+            System.out.format("selector:  %.04g msgs/sec%n", run(false));
+            System.out.format("busy poll: %.04g msgs/sec%n", run(true));
+        }
+    }
+
+    private static double run(final boolean receiverBusyPoll)
+    {
+        final MediaDriver.Context ctx = new MediaDriver.Context()
+            .threadingMode(ThreadingMode.DEDICATED)
+            .receiverIdleStrategy(new BusySpinIdleStrategy())
+            .receiverBusyPoll(receiverBusyPoll)
+            .dirDeleteOnShutdown(true);
+
+        final ArrayList<Subscription> idleSubscriptions = new ArrayList<>();
+        final long[] received = new long[1];
+        final FragmentHandler handler = (buffer, offset, length, header) -> received[0]++;
+
+        try (MediaDriver driver = MediaDriver.launchEmbedded(ctx);
+            Aeron aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(driver.aeronDirectoryName()));
+            Subscription subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+            Publication publication = aeron.addPublication(CHANNEL, STREAM_ID))
+        {
+            for (int i = 0; i < IDLE_CHANNEL_COUNT; i++)
+            {
+                idleSubscriptions.add(aeron.addSubscription(
+                    "aeron:udp?endpoint=localhost:" + (IDLE_CHANNEL_BASE_PORT + i), STREAM_ID));
+            }
+
+            final IdleStrategy idleStrategy = SampleConfiguration.newIdleStrategy();
+            while (!publication.isConnected())
+            {
+                idleStrategy.idle();
+            }
+
+            final long startNs = System.nanoTime();
+            for (long i = 0; i < NUMBER_OF_MESSAGES; i++)
+            {
+                OFFER_BUFFER.putLong(0, i);
+
+                idleStrategy.reset();
+                while (publication.offer(OFFER_BUFFER, 0, MESSAGE_LENGTH) < 0)
+                {
+                    subscription.poll(handler, FRAGMENT_COUNT_LIMIT);
+                    idleStrategy.idle();
+                }
+
+                subscription.poll(handler, FRAGMENT_COUNT_LIMIT);
+            }
+
+            while (received[0] < NUMBER_OF_MESSAGES)
+            {
+                if (subscription.poll(handler, FRAGMENT_COUNT_LIMIT) == 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            final long durationNs = System.nanoTime() - startNs;
+
+            return (double)NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1) / durationNs;
+        }
+        finally
+        {
+            CloseHelper.closeAll(idleSubscriptions);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.Aeron;
+import io.aeron.ChannelUriStringBuilder;
+import io.aeron.CommonContext;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+
+import java.util.ArrayList;
+
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Measures the round trip latency of adding and removing a publication, a subscription and a counter while the driver
+ * holds a growing number of exclusive publications and session specific subscriptions which all share the same stream
+ * id, to show command processing cost does not grow with the number of sessions on a stream.
+ * <p>
+ * The number of resources to grow to can be set with the {@code aeron.sample.resources} system property, and the
+ * number of add and remove operations timed at each step with {@code aeron.sample.operations}.
+ */
+public class EmbeddedResourceChurnLatency
+{
+    private static final int STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final int RESOURCE_COUNT = Integer.getInteger("aeron.sample.resources", 4_000);
+    private static final int OPERATION_COUNT = Integer.getInteger("aeron.sample.operations", 1_000);
+    private static final int COUNTER_TYPE_ID = 1001;
+    private static final int CHURN_SESSION_ID = -1;
+    private static final String CHANNEL = new ChannelUriStringBuilder()
+        .media(CommonContext.IPC_MEDIA)
+        .termLength(64 * 1024)
+        .build();
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        final MediaDriver.Context ctx = new MediaDriver.Context()
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnShutdown(true);
+
+        final ArrayList<AutoCloseable> resources = new ArrayList<>(RESOURCE_COUNT);
+
+        try (MediaDriver driver = MediaDriver.launchEmbedded(ctx);
+            Aeron aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(driver.aeronDirectoryName())))
+        {
+            System.out.format(
+                "Timing %,d add and remove operations while growing to %,d resources on stream %d%n",
+                OPERATION_COUNT, RESOURCE_COUNT, STREAM_ID);
+
+            for (final int resourceCount : new int[]{ 0, RESOURCE_COUNT / 100, RESOURCE_COUNT / 10, RESOURCE_COUNT })
+            {
+                while (resources.size() < resourceCount)
+                {
+                    final Publication publication = aeron.addExclusivePublication(CHANNEL, STREAM_ID);
+                    resources.add(publication);
+
+                    final String sessionChannel = sessionChannel(publication.sessionId());
+                    resources.add(aeron.addSubscription(sessionChannel, STREAM_ID));
+                }
+
+                for (int i = 0; i < 3; i++)
+                {
+                    final long publicationNs = timePublicationChurn(aeron);
+                    final long subscriptionNs = timeSubscriptionChurn(aeron);
+                    final long counterNs = timeCounterChurn(aeron);
+
+                    System.out.format(
+                        "resources=%,d publication add/remove=%,dns subscription add/remove=%,dns " +
+                        "counter add/remove=%,dns%n",
+                        resources.size(),
+                        publicationNs / OPERATION_COUNT,
+                        subscriptionNs / OPERATION_COUNT,
+                        counterNs / OPERATION_COUNT);
+                }
+            }
+
+            resources.forEach(CloseHelper::quietClose);
+        }
+    }
+
+    private static String sessionChannel(final int sessionId)
+    {
+        return new ChannelUriStringBuilder()
+            .media(CommonContext.IPC_MEDIA)
+            .termLength(64 * 1024)
+            .sessionId(sessionId)
+            .build();
+    }
+
+    private static long timePublicationChurn(final Aeron aeron)
+    {
+        final long startNs = System.nanoTime();
+        for (int i = 0; i < OPERATION_COUNT; i++)
+        {
+            aeron.addExclusivePublication(CHANNEL, STREAM_ID).close();
+        }
+
+        return System.nanoTime() - startNs;
+    }
+
+    private static long timeSubscriptionChurn(final Aeron aeron)
+    {
+        final String channel = sessionChannel(CHURN_SESSION_ID);
+        final long startNs = System.nanoTime();
+        for (int i = 0; i < OPERATION_COUNT; i++)
+        {
+            aeron.addSubscription(channel, STREAM_ID).close();
+        }
+
+        return System.nanoTime() - startNs;
+    }
+    private static long timeCounterChurn(final Aeron aeron)
+    {
+        final long startNs = System.nanoTime();
+        for (int i = 0; i < OPERATION_COUNT; i++)
+        {
+            aeron.addCounter(COUNTER_TYPE_ID, "churn").close();
+        }
+
+        return System.nanoTime() - startNs;
+    }
+}
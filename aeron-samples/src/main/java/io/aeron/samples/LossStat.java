@@ -15,13 +15,17 @@
  */
 package io.aeron.samples;
 
+import io.aeron.driver.reports.LossHistogramReader;
 import io.aeron.driver.reports.LossReportReader;
 import io.aeron.driver.reports.LossReportUtil;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.io.File;
+import java.io.PrintStream;
 import java.nio.MappedByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 import static io.aeron.CommonContext.AERON_DIR_PROP_DEFAULT;
 import static io.aeron.CommonContext.AERON_DIR_PROP_NAME;
@@ -29,9 +33,14 @@ import static java.lang.System.getProperty;
 
 /**
  * Application that prints a report of loss observed by stream to STDOUT.
+ * <p>
+ * If the driver keeps a loss histogram then the loss over time for each stream is also printed as a heatmap with
+ * a column per bucket, so bursts of loss can be lined up with events on the hosts.
  */
 public class LossStat
 {
+    private static final String HEATMAP_SHADES = " .:-=+*#%@";
+
     public static void main(final String[] args)
     {
         final String aeronDirectoryName = getProperty(AERON_DIR_PROP_NAME, AERON_DIR_PROP_DEFAULT);
@@ -49,5 +58,65 @@ public class LossStat
         System.out.println(LossReportReader.LOSS_REPORT_CSV_HEADER);
         final int entriesRead = LossReportReader.read(buffer, LossReportReader.defaultEntryConsumer(System.out));
         System.out.println(entriesRead + " loss entries");
+
+        final File lossHistogramFile = LossReportUtil.histogramFile(aeronDirectoryName);
+        if (lossHistogramFile.exists())
+        {
+            final AtomicBuffer histogramBuffer = new UnsafeBuffer(
+                SamplesUtil.mapExistingFileReadOnly(lossHistogramFile));
+
+            System.out.println();
+            System.out.println("#LOSS_HEATMAP observations per bucket, oldest to now: '" + HEATMAP_SHADES +
+                "' for 0, 1, 2-3, 4-7, ... 256+");
+            LossHistogramReader.read(
+                histogramBuffer, buffer, heatmapEntryConsumer(System.out, System.currentTimeMillis()));
+        }
+    }
+
+    private static LossHistogramReader.EntryConsumer heatmapEntryConsumer(final PrintStream out, final long nowMs)
+    {
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ");
+        final StringBuilder cells = new StringBuilder();
+
+        return
+            (sessionId,
+            streamId,
+            channel,
+            source,
+            bucketLengthMs,
+            latestBucketTimestampMs,
+            observationCounts,
+            bytesLost) ->
+            {
+                final int bucketCount = observationCounts.length;
+                final long bucketsSinceLatest = (nowMs / bucketLengthMs) - (latestBucketTimestampMs / bucketLengthMs);
+                long totalBytesLost = 0;
+                long maxBytesLost = 0;
+
+                cells.setLength(0);
+                for (int i = 0; i < bucketCount; i++)
+                {
+                    final long index = i + bucketsSinceLatest;
+                    final long count = index < bucketCount ? observationCounts[(int)index] : 0;
+                    final long bytes = index < bucketCount ? bytesLost[(int)index] : 0;
+                    final int shade = Math.min(HEATMAP_SHADES.length() - 1, 64 - Long.numberOfLeadingZeros(count));
+
+                    cells.append(HEATMAP_SHADES.charAt(shade));
+                    totalBytesLost += bytes;
+                    maxBytesLost = Math.max(maxBytesLost, bytes);
+                }
+
+                out.format(
+                    "%d,%d,%s,%s,%dms buckets to %s,%d bytes lost,%d max bytes lost in a bucket%n|%s|%n",
+                    sessionId,
+                    streamId,
+                    channel,
+                    source,
+                    bucketLengthMs,
+                    dateFormat.format(new Date(nowMs)),
+                    totalBytesLost,
+                    maxBytesLost,
+                    cells);
+            };
     }
 }
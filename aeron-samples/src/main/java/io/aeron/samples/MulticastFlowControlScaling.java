@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2020 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples;
+
+import io.aeron.driver.FlowControl;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.MinMulticastFlowControl;
+import io.aeron.driver.media.UdpChannel;
+import io.aeron.logbuffer.LogBufferDescriptor;
+import io.aeron.protocol.StatusMessageFlyweight;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Measures the cost of processing a Status Message in {@link MinMulticastFlowControl} as the number of receivers in a
+ * multicast group grows, to show the cost does not grow linearly with the number of receivers.
+ * <p>
+ * The number of Status Messages timed for each group size can be set with the {@code aeron.sample.messages} system
+ * property.
+ */
+public class MulticastFlowControlScaling
+{
+    private static final int MESSAGE_COUNT = Integer.getInteger("aeron.sample.messages", 10_000_000);
+    private static final String CHANNEL = "aeron:udp?endpoint=224.20.30.39:24326|interface=localhost|fc=min";
+    private static final int TERM_LENGTH = LogBufferDescriptor.TERM_MIN_LENGTH;
+    private static final int POSITION_BITS_TO_SHIFT = LogBufferDescriptor.positionBitsToShift(TERM_LENGTH);
+    private static final int RECEIVER_WINDOW_LENGTH = TERM_LENGTH / 2;
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        final StatusMessageFlyweight statusMessage = new StatusMessageFlyweight(
+            new UnsafeBuffer(ByteBuffer.allocateDirect(StatusMessageFlyweight.HEADER_LENGTH)));
+        statusMessage.receiverWindowLength(RECEIVER_WINDOW_LENGTH).consumptionTermId(0);
+
+        final MediaDriver.Context ctx = new MediaDriver.Context();
+        final UdpChannel udpChannel = UdpChannel.parse(CHANNEL);
+
+        for (final int receiverCount : new int[]{ 10, 1_000, 10_000 })
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                final FlowControl flowControl = new MinMulticastFlowControl();
+                flowControl.initialize(ctx, udpChannel, 0, TERM_LENGTH);
+
+                final long durationNs = timeStatusMessages(flowControl, statusMessage, receiverCount);
+
+                System.out.format(
+                    "receivers=%,d status messages=%,d cost=%,dns%n",
+                    receiverCount, MESSAGE_COUNT, durationNs / MESSAGE_COUNT);
+            }
+        }
+    }
+
+    private static long timeStatusMessages(
+        final FlowControl flowControl, final StatusMessageFlyweight statusMessage, final int receiverCount)
+    {
+        long senderLimit = 0;
+        final long startNs = System.nanoTime();
+
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            final int receiverIndex = i % receiverCount;
+            final int termOffset = ((i / receiverCount) + receiverIndex) & (RECEIVER_WINDOW_LENGTH - 1);
+
+            statusMessage.receiverId(receiverIndex).consumptionTermOffset(termOffset);
+
+            senderLimit = flowControl.onStatusMessage(
+                statusMessage, null, senderLimit, 0, POSITION_BITS_TO_SHIFT, System.nanoTime());
+        }
+
+        return System.nanoTime() - startNs;
+    }
+}